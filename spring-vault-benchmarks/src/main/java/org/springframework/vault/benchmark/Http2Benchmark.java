@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.vault.authentication.SimpleSessionManager;
+import org.springframework.vault.authentication.TokenAuthentication;
+import org.springframework.vault.client.ConnectionPrewarmer;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.config.ClientHttpRequestFactoryFactory;
+import org.springframework.vault.config.HttpBackend;
+import org.springframework.vault.core.VaultTemplate;
+import org.springframework.vault.support.ClientOptions;
+import org.springframework.vault.support.ClientOptions.HttpVersion;
+import org.springframework.vault.support.SslConfiguration;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Benchmarks comparing HTTP/1.1 connection pooling with multiplexed cleartext HTTP/2
+ * (h2c) under concurrent load. Both variants use OkHttp 3 against a server that answers
+ * after a fixed delay. Run with {@code -bm sample} to report latency percentiles.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(64)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Http2Benchmark {
+
+	@Benchmark
+	public VaultResponse read(Http2State state) {
+		return state.vaultTemplate.read("secret/benchmark");
+	}
+
+	@State(Scope.Benchmark)
+	public static class Http2State {
+
+		@Param({ "HTTP_1_1", "H2C" })
+		HttpVersion httpVersion;
+
+		@Param("1")
+		int serverDelayMillis;
+
+		MockWebServer server;
+
+		ClientHttpRequestFactory requestFactory;
+
+		VaultTemplate vaultTemplate;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+
+			server = new MockWebServer();
+			server.setServerSocketFactory(new NoDelayServerSocketFactory());
+
+			if (httpVersion == HttpVersion.H2C) {
+				server.setProtocols(Collections
+						.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+			}
+
+			server.setDispatcher(new Dispatcher() {
+
+				@Override
+				public MockResponse dispatch(RecordedRequest request) {
+
+					return new MockResponse()
+							.setHeader("Content-Type", "application/json")
+							.setBody(
+									"{\"lease_duration\":2764800,\"data\":{\"password\":\"s3cr3t\"}}")
+							.setHeadersDelay(serverDelayMillis, TimeUnit.MILLISECONDS);
+				}
+			});
+			server.start();
+
+			VaultEndpoint endpoint = VaultEndpoint.create(server.getHostName(),
+					server.getPort());
+			endpoint.setScheme("http");
+
+			requestFactory = ClientHttpRequestFactoryFactory.create(ClientOptions
+					.builder().httpVersion(httpVersion).maxConnections(100)
+					.maxConnectionsPerRoute(100).build(), SslConfiguration.NONE);
+
+			// establish the HTTP/2 connection before concurrent requests race to open
+			// their own
+			ConnectionPrewarmer.prewarm(requestFactory, endpoint, 1);
+
+			vaultTemplate = new VaultTemplate(SimpleVaultEndpointProvider.of(endpoint),
+					requestFactory, new SimpleSessionManager(new TokenAuthentication(
+							"benchmark-token")));
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws Exception {
+
+			HttpBackend.destroy(requestFactory);
+			server.shutdown();
+		}
+	}
+
+	/**
+	 * Disables Nagle's algorithm on accepted sockets. MockWebServer writes HTTP/1.1
+	 * headers and body separately which otherwise stalls on delayed ACKs.
+	 */
+	static class NoDelayServerSocketFactory extends ServerSocketFactory {
+
+		@Override
+		public ServerSocket createServerSocket() throws IOException {
+			return new NoDelayServerSocket();
+		}
+
+		@Override
+		public ServerSocket createServerSocket(int port) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ServerSocket createServerSocket(int port, int backlog,
+				InetAddress ifAddress) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	static class NoDelayServerSocket extends ServerSocket {
+
+		NoDelayServerSocket() throws IOException {
+		}
+
+		@Override
+		public Socket accept() throws IOException {
+
+			Socket socket = super.accept();
+			socket.setTcpNoDelay(true);
+
+			return socket;
+		}
+	}
+}
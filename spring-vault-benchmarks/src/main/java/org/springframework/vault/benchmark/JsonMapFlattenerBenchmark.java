@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.vault.support.JsonMapFlattener;
+
+/**
+ * Benchmarks for {@link JsonMapFlattener}.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class JsonMapFlattenerBenchmark {
+
+	private final Map<String, Object> flat = new LinkedHashMap<String, Object>();
+
+	private final Map<String, Object> nested = new LinkedHashMap<String, Object>();
+
+	public JsonMapFlattenerBenchmark() {
+
+		for (int i = 0; i < 20; i++) {
+			flat.put("key-" + i, "value-" + i);
+		}
+
+		Map<String, Object> database = new LinkedHashMap<String, Object>();
+		database.put("username", "app");
+		database.put("password", "s3cr3t");
+		database.put("hosts", Arrays.asList("db-1", "db-2", "db-3"));
+
+		Map<String, Object> pool = new LinkedHashMap<String, Object>();
+		pool.put("min", 1);
+		pool.put("max", 20);
+		database.put("pool", pool);
+
+		nested.put("database", database);
+		nested.put("features", Arrays.asList(true, false, true));
+		nested.put("name", "application");
+	}
+
+	@Benchmark
+	public Map<String, String> flattenFlat() {
+		return JsonMapFlattener.flatten(flat);
+	}
+
+	@Benchmark
+	public Map<String, String> flattenNested() {
+		return JsonMapFlattener.flatten(nested);
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.vault.core.lease.FileLeaseJournal;
+import org.springframework.vault.core.lease.domain.Lease;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+
+/**
+ * Benchmarks for {@link FileLeaseJournal} appends comparing batched flushes with
+ * flushing every record.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class LeaseJournalBenchmark {
+
+	private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes();
+
+	private final RequestedSecret requestedSecret = RequestedSecret
+			.rotating("database/creds/readonly");
+
+	private final Lease lease = Lease.of("database/creds/readonly/lease", 3600, true);
+
+	private final Map<String, Object> secrets = Collections.<String, Object> singletonMap(
+			"password", "s3cr3t");
+
+	@Param({ "0", "1000" })
+	long syncIntervalMillis;
+
+	private File file;
+
+	private FileLeaseJournal journal;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+
+		file = File.createTempFile("lease", ".journal");
+		journal = new FileLeaseJournal(file, KEY);
+		journal.setSyncInterval(syncIntervalMillis, TimeUnit.MILLISECONDS);
+		journal.afterPropertiesSet();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+
+		journal.destroy();
+		file.delete();
+	}
+
+	@Benchmark
+	public void leaseObtained() {
+		journal.leaseObtained(requestedSecret, lease, secrets);
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
+import org.springframework.vault.client.VaultClients;
+import org.springframework.vault.client.VaultClients.PrefixAwareUriTemplateHandler;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Benchmarks for the message converter stack of Vault {@link RestTemplate}s. Requests are
+ * served in memory to isolate conversion and content negotiation from I/O. Run with
+ * {@code -prof gc} to compare allocation rates.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class MessageConvertersBenchmark {
+
+	private static final byte[] JSON = ("{\"request_id\":\"8f4bd9a1-5d2b-4a2e-9d3f-1c3a0b2e7f44\","
+			+ "\"lease_id\":\"\",\"renewable\":false,\"lease_duration\":2764800,"
+			+ "\"data\":{\"username\":\"app\",\"password\":\"A1a-3rx2s1u9z5tq7q0w\"},"
+			+ "\"wrap_info\":null,\"warnings\":null,\"auth\":null}").getBytes();
+
+	private final Map<String, String> body = Collections.singletonMap("password",
+			"A1a-3rx2s1u9z5tq7q0w");
+
+	@Param({ "DEFAULT", "PER_TEMPLATE", "VAULT" })
+	ConverterStack converters;
+
+	private RestTemplate restTemplate;
+
+	@Setup
+	public void setup() {
+
+		restTemplate = converters.createRestTemplate();
+		restTemplate.setRequestFactory(new InMemoryClientHttpRequestFactory());
+		restTemplate.setUriTemplateHandler(new PrefixAwareUriTemplateHandler(
+				SimpleVaultEndpointProvider.of(VaultEndpoint.create("localhost", 8200))));
+	}
+
+	@Benchmark
+	public VaultResponse read() {
+		return restTemplate.getForObject("secret/{path}", VaultResponse.class, "app");
+	}
+
+	@Benchmark
+	public VaultResponse write() {
+		return restTemplate.postForObject("secret/{path}", body, VaultResponse.class,
+				"app");
+	}
+
+	public enum ConverterStack {
+
+		/**
+		 * {@link RestTemplate} defaults registering all converters on the class path.
+		 */
+		DEFAULT {
+			@Override
+			RestTemplate createRestTemplate() {
+				return new RestTemplate();
+			}
+		},
+
+		/**
+		 * Byte array, String and a {@link MappingJackson2HttpMessageConverter} with its
+		 * own {@link com.fasterxml.jackson.databind.ObjectMapper} per template.
+		 */
+		PER_TEMPLATE {
+			@Override
+			RestTemplate createRestTemplate() {
+
+				List<HttpMessageConverter<?>> messageConverters = new ArrayList<HttpMessageConverter<?>>();
+				messageConverters.add(new ByteArrayHttpMessageConverter());
+				messageConverters.add(new StringHttpMessageConverter());
+				messageConverters.add(new MappingJackson2HttpMessageConverter());
+
+				return new RestTemplate(messageConverters);
+			}
+		},
+
+		/**
+		 * Converters of {@link VaultClients#createMessageConverters()}.
+		 */
+		VAULT {
+			@Override
+			RestTemplate createRestTemplate() {
+				return new RestTemplate(VaultClients.createMessageConverters());
+			}
+		};
+
+		abstract RestTemplate createRestTemplate();
+	}
+
+	static class InMemoryClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+		@Override
+		public ClientHttpRequest createRequest(final URI uri, final HttpMethod httpMethod) {
+
+			return new AbstractClientHttpRequest() {
+
+				private final ByteArrayOutputStream requestBody = new ByteArrayOutputStream();
+
+				@Override
+				public HttpMethod getMethod() {
+					return httpMethod;
+				}
+
+				@Override
+				public URI getURI() {
+					return uri;
+				}
+
+				@Override
+				protected OutputStream getBodyInternal(HttpHeaders headers) {
+					return requestBody;
+				}
+
+				@Override
+				protected ClientHttpResponse executeInternal(HttpHeaders headers) {
+					return new InMemoryClientHttpResponse();
+				}
+			};
+		}
+	}
+
+	static class InMemoryClientHttpResponse extends AbstractClientHttpResponse {
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		InMemoryClientHttpResponse() {
+			headers.setContentType(MediaType.APPLICATION_JSON);
+			headers.setContentLength(JSON.length);
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return HttpStatus.OK.value();
+		}
+
+		@Override
+		public String getStatusText() {
+			return HttpStatus.OK.getReasonPhrase();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			return new ByteArrayInputStream(JSON);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.vault.core.util.PropertyTransformer;
+import org.springframework.vault.core.util.PropertyTransformers;
+
+/**
+ * Benchmarks for {@link PropertyTransformers} chains.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PropertyTransformersBenchmark {
+
+	private final Map<String, String> properties = new LinkedHashMap<String, String>();
+
+	private final PropertyTransformer prefix = PropertyTransformers
+			.propertyNamePrefix("database.");
+
+	private final PropertyTransformer chain = PropertyTransformers.noop()
+			.andThen(PropertyTransformers.removeNullProperties())
+			.andThen(PropertyTransformers.propertyNamePrefix("database."));
+
+	public PropertyTransformersBenchmark() {
+
+		for (int i = 0; i < 20; i++) {
+			properties.put("key-" + i, i % 5 == 0 ? null : "value-" + i);
+		}
+	}
+
+	@Benchmark
+	public Map<String, String> prefix() {
+		return prefix.transformProperties(properties);
+	}
+
+	@Benchmark
+	public Map<String, String> chain() {
+		return chain.transformProperties(properties);
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.vault.core.lease.SecretLeaseContainer;
+import org.springframework.vault.core.lease.TimingWheelTaskScheduler;
+
+/**
+ * Benchmarks for {@link TaskScheduler} implementations scheduling lease renewals for
+ * {@link SecretLeaseContainer}. Each operation schedules one-shot renewals for a large
+ * number of leases due within the next hour and cancels them as the container does when
+ * leases are renewed or rotated. {@code footprint} reports the heap retained after
+ * scheduling and after cancelling all renewals.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RenewalSchedulerBenchmark {
+
+	private static final Runnable RENEWAL = new Runnable() {
+
+		@Override
+		public void run() {
+		}
+	};
+
+	@Param({ "THREAD_POOL", "TIMING_WHEEL" })
+	SchedulerType scheduler;
+
+	@Param({ "100000" })
+	int leases;
+
+	private TaskScheduler taskScheduler;
+
+	private List<ScheduledFuture<?>> futures;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+
+		taskScheduler = scheduler.create();
+		futures = new ArrayList<ScheduledFuture<?>>(leases);
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() throws Exception {
+		((DisposableBean) taskScheduler).destroy();
+	}
+
+	@Benchmark
+	public List<ScheduledFuture<?>> schedule() {
+
+		scheduleRenewals();
+		return futures;
+	}
+
+	@Benchmark
+	public List<ScheduledFuture<?>> scheduleAndCancel() {
+
+		scheduleRenewals();
+		cancelRenewals();
+		return futures;
+	}
+
+	/**
+	 * Auxiliary counters are not reported in {@link Mode#SingleShotTime} and are summed
+	 * across iterations, hence a single measurement iteration.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@Warmup(iterations = 1)
+	@Measurement(iterations = 1)
+	public List<ScheduledFuture<?>> footprint(Footprint footprint) {
+
+		long baseline = usedHeap();
+
+		scheduleRenewals();
+		footprint.scheduledBytes = usedHeap() - baseline;
+
+		cancelRenewals();
+		futures.clear();
+		footprint.cancelledBytes = usedHeap() - baseline;
+
+		return futures;
+	}
+
+	private void scheduleRenewals() {
+
+		long now = System.currentTimeMillis();
+
+		for (int i = 0; i < leases; i++) {
+
+			// renewals due between 30 and 60 minutes from now
+			long delay = TimeUnit.MINUTES.toMillis(30)
+					+ (i * TimeUnit.MINUTES.toMillis(30) / leases);
+			futures.add(taskScheduler.schedule(RENEWAL, new OneShotTrigger(now + delay)));
+		}
+	}
+
+	private void cancelRenewals() {
+
+		for (ScheduledFuture<?> future : futures) {
+			future.cancel(false);
+		}
+	}
+
+	private static long usedHeap() {
+
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+		// let the schedulers process queued tasks before sampling
+		sleep(250);
+		System.gc();
+		System.gc();
+
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Footprint {
+
+		public long scheduledBytes;
+
+		public long cancelledBytes;
+	}
+
+	public enum SchedulerType {
+
+		THREAD_POOL {
+			@Override
+			TaskScheduler create() {
+
+				ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+				taskScheduler.setPoolSize(4);
+				taskScheduler.setDaemon(true);
+				taskScheduler.afterPropertiesSet();
+
+				return taskScheduler;
+			}
+		},
+
+		TIMING_WHEEL {
+			@Override
+			TaskScheduler create() {
+
+				TimingWheelTaskScheduler taskScheduler = new TimingWheelTaskScheduler();
+				taskScheduler.setWorkerThreads(4);
+				taskScheduler.afterPropertiesSet();
+
+				return taskScheduler;
+			}
+		};
+
+		abstract TaskScheduler create();
+	}
+
+	/**
+	 * One-shot {@link Trigger} as used by {@link SecretLeaseContainer}.
+	 */
+	static class OneShotTrigger implements Trigger {
+
+		private final long executionTime;
+
+		OneShotTrigger(long executionTime) {
+			this.executionTime = executionTime;
+		}
+
+		@Override
+		public Date nextExecutionTime(TriggerContext triggerContext) {
+			return triggerContext.lastScheduledExecutionTime() == null ? new Date(
+					executionTime) : null;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.vault.core.VaultTemplate;
+import org.springframework.vault.core.lease.SecretLeaseContainer;
+import org.springframework.vault.core.lease.domain.Lease;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+
+/**
+ * Benchmarks for lease scheduling in {@link SecretLeaseContainer}. Secrets are served
+ * from memory to measure the container overhead of obtaining and scheduling renewal for
+ * a large number of leases.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.SingleShotTime)
+@State(Scope.Benchmark)
+public class SecretLeaseContainerBenchmark {
+
+	@Param({ "1000", "10000" })
+	int leases;
+
+	private ThreadPoolTaskScheduler taskScheduler;
+
+	private SecretLeaseContainer container;
+
+	@Setup(Level.Trial)
+	public void setUpScheduler() {
+
+		taskScheduler = new ThreadPoolTaskScheduler();
+		taskScheduler.setPoolSize(4);
+		taskScheduler.setDaemon(true);
+		taskScheduler.afterPropertiesSet();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownScheduler() {
+		taskScheduler.destroy();
+	}
+
+	@Setup(Level.Invocation)
+	public void setUp() throws Exception {
+
+		container = new InMemorySecretLeaseContainer(taskScheduler);
+
+		for (int i = 0; i < leases; i++) {
+			container.requestRenewableSecret("database/creds/role-" + i);
+		}
+
+		container.afterPropertiesSet();
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() throws Exception {
+		container.destroy();
+	}
+
+	@Benchmark
+	public SecretLeaseContainer start() {
+
+		container.start();
+		return container;
+	}
+
+	static class InMemorySecretLeaseContainer extends SecretLeaseContainer {
+
+		InMemorySecretLeaseContainer(ThreadPoolTaskScheduler taskScheduler) {
+			super(new VaultTemplate(), taskScheduler);
+		}
+
+		@Override
+		protected VaultResponseSupport<Map<String, Object>> doGetSecrets(
+				RequestedSecret requestedSecret) {
+
+			VaultResponse response = new VaultResponse();
+			response.setLeaseId(requestedSecret.getPath() + "/lease");
+			response.setLeaseDuration(3600);
+			response.setRenewable(true);
+			response.setData(Collections.<String, Object> singletonMap("password",
+					"s3cr3t"));
+
+			return response;
+		}
+
+		@Override
+		protected void doRevokeLease(RequestedSecret requestedSecret, Lease lease) {
+		}
+	}
+}
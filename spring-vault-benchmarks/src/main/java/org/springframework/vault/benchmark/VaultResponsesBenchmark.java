@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.vault.client.VaultResponses;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+
+/**
+ * Benchmarks for Vault response deserialization comparing binding to
+ * {@link VaultResponse} followed by conversion against direct binding to a typed
+ * response through {@link VaultResponses#getObjectReader(Class)}.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class VaultResponsesBenchmark {
+
+	private static final byte[] JSON = ("{\"request_id\":\"8f4bd9a1-5d2b-4a2e-9d3f-1c3a0b2e7f44\","
+			+ "\"lease_id\":\"database/creds/readonly/2f6a614c-4aa2-7b19-24b9-ad944a8d4de6\","
+			+ "\"renewable\":true,\"lease_duration\":3600,"
+			+ "\"data\":{\"username\":\"v-token-readonly-48rt0t36sxp4wy81x8x1-1515627434\","
+			+ "\"password\":\"A1a-3rx2s1u9z5tq7q0w\"},\"wrap_info\":null,\"warnings\":null,"
+			+ "\"auth\":null}").getBytes();
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final ObjectReader typedReader = VaultResponses
+			.getObjectReader(Credentials.class);
+
+	@Benchmark
+	public VaultResponse vaultResponse() throws IOException {
+		return objectMapper.readValue(JSON, VaultResponse.class);
+	}
+
+	@Benchmark
+	public Credentials vaultResponseConverted() throws IOException {
+
+		VaultResponse response = objectMapper.readValue(JSON, VaultResponse.class);
+		Map<String, Object> data = response.getData();
+
+		return objectMapper.convertValue(data, Credentials.class);
+	}
+
+	@Benchmark
+	public VaultResponseSupport<Credentials> typed() throws IOException {
+		return typedReader.readValue(JSON);
+	}
+
+	@Data
+	public static class Credentials {
+
+		String username;
+
+		String password;
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.vault.authentication.SimpleSessionManager;
+import org.springframework.vault.authentication.TokenAuthentication;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
+import org.springframework.vault.config.HttpBackend;
+import org.springframework.vault.core.VaultTemplate;
+import org.springframework.vault.util.EmbeddedVaultServer;
+
+/**
+ * Benchmark state providing a {@link VaultTemplate} connected to an
+ * {@link EmbeddedVaultServer} using the HTTP backend selected by {@link #backend}.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+public class VaultServerState {
+
+	@Param({ "JDK", "HTTP_COMPONENTS", "OKHTTP", "OKHTTP3", "NETTY" })
+	HttpBackend backend;
+
+	EmbeddedVaultServer server;
+
+	ClientHttpRequestFactory requestFactory;
+
+	VaultTemplate vaultTemplate;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+
+		server = new EmbeddedVaultServer();
+		server.start();
+
+		requestFactory = backend.create();
+		vaultTemplate = new VaultTemplate(SimpleVaultEndpointProvider.of(server
+				.getEndpoint()), requestFactory, new SimpleSessionManager(
+				new TokenAuthentication(server.getRootToken())));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+
+		HttpBackend.destroy(requestFactory);
+		server.stop();
+	}
+}
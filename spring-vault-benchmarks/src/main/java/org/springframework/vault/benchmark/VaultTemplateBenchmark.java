@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.vault.core.BulkReadResult;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+
+/**
+ * Benchmarks for {@link org.springframework.vault.core.VaultTemplate} reads and writes
+ * against a {@link org.springframework.vault.util.EmbeddedVaultServer} for each HTTP
+ * backend.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class VaultTemplateBenchmark {
+
+	private static final int BULK_SIZE = 100;
+
+	private final Map<String, String> secret = Collections.singletonMap("password",
+			"s3cr3t");
+
+	private final List<String> bulkPaths = new ArrayList<String>();
+
+	@Setup
+	public void setUp(VaultServerState state) {
+
+		state.vaultTemplate.write("secret/benchmark", secret);
+
+		for (int i = 0; i < BULK_SIZE; i++) {
+
+			String path = "secret/bulk/" + i;
+
+			state.vaultTemplate.write(path, secret);
+			bulkPaths.add(path);
+		}
+	}
+
+	@Benchmark
+	public VaultResponse read(VaultServerState state) {
+		return state.vaultTemplate.read("secret/benchmark");
+	}
+
+	@Benchmark
+	public VaultResponseSupport<Credentials> readTyped(VaultServerState state) {
+		return state.vaultTemplate.read("secret/benchmark", Credentials.class);
+	}
+
+	@Benchmark
+	public VaultResponse readAbsent(VaultServerState state) {
+		return state.vaultTemplate.read("secret/absent");
+	}
+
+	@Benchmark
+	public VaultResponse write(VaultServerState state) {
+		return state.vaultTemplate.write("secret/benchmark", secret);
+	}
+
+	@Benchmark
+	public List<String> list(VaultServerState state) {
+		return state.vaultTemplate.list("secret/bulk");
+	}
+
+	@Benchmark
+	public BulkReadResult<VaultResponse> readAll(VaultServerState state) {
+		return state.vaultTemplate.readAll(bulkPaths);
+	}
+
+	@Benchmark
+	public List<VaultResponse> readSequentially(VaultServerState state) {
+
+		List<VaultResponse> responses = new ArrayList<VaultResponse>(bulkPaths.size());
+
+		for (String path : bulkPaths) {
+			responses.add(state.vaultTemplate.read(path));
+		}
+
+		return responses;
+	}
+
+	@Data
+	public static class Credentials {
+		String password;
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for transit encrypt/decrypt round-trips against a
+ * {@link org.springframework.vault.util.EmbeddedVaultServer} for each HTTP backend.
+ *
+ * @author Mark Paluch
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class VaultTransitBenchmark {
+
+	private static final String PLAINTEXT = "the quick brown fox jumps over the lazy dog";
+
+	@Benchmark
+	public String encrypt(VaultServerState state) {
+		return state.vaultTemplate.opsForTransit().encrypt("benchmark", PLAINTEXT);
+	}
+
+	@Benchmark
+	public String roundTrip(VaultServerState state) {
+
+		String ciphertext = state.vaultTemplate.opsForTransit().encrypt("benchmark",
+				PLAINTEXT);
+
+		return state.vaultTemplate.opsForTransit().decrypt("benchmark", ciphertext);
+	}
+}
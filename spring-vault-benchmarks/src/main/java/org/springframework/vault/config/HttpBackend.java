@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.config;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.vault.support.ClientOptions;
+import org.springframework.vault.support.SslConfiguration;
+
+/**
+ * HTTP client backends supported by {@link ClientHttpRequestFactoryFactory}. Allows
+ * benchmarks to select a backend explicitly instead of relying on classpath detection.
+ *
+ * @author Mark Paluch
+ */
+public enum HttpBackend {
+
+	JDK {
+		@Override
+		ClientHttpRequestFactory doCreate(ClientOptions options) {
+			return new SimpleClientHttpRequestFactory();
+		}
+	},
+
+	HTTP_COMPONENTS {
+		@Override
+		ClientHttpRequestFactory doCreate(ClientOptions options)
+				throws GeneralSecurityException, IOException {
+			return ClientHttpRequestFactoryFactory.HttpComponents.usingHttpComponents(
+					options, SslConfiguration.NONE);
+		}
+	},
+
+	OKHTTP {
+		@Override
+		ClientHttpRequestFactory doCreate(ClientOptions options)
+				throws GeneralSecurityException, IOException {
+			return ClientHttpRequestFactoryFactory.OkHttp.usingOkHttp(options,
+					SslConfiguration.NONE);
+		}
+	},
+
+	OKHTTP3 {
+		@Override
+		ClientHttpRequestFactory doCreate(ClientOptions options)
+				throws GeneralSecurityException, IOException {
+			return ClientHttpRequestFactoryFactory.OkHttp3.usingOkHttp3(options,
+					SslConfiguration.NONE);
+		}
+	},
+
+	NETTY {
+		@Override
+		ClientHttpRequestFactory doCreate(ClientOptions options)
+				throws GeneralSecurityException, IOException {
+			return ClientHttpRequestFactoryFactory.Netty.usingNetty(options,
+					SslConfiguration.NONE);
+		}
+	};
+
+	/**
+	 * Create and initialize a {@link ClientHttpRequestFactory} for this backend.
+	 *
+	 * @return the initialized {@link ClientHttpRequestFactory}.
+	 */
+	public ClientHttpRequestFactory create() {
+
+		try {
+
+			ClientHttpRequestFactory requestFactory = doCreate(new ClientOptions());
+
+			if (requestFactory instanceof InitializingBean) {
+				((InitializingBean) requestFactory).afterPropertiesSet();
+			}
+
+			return requestFactory;
+		}
+		catch (Exception e) {
+			throw new IllegalStateException(String.format(
+					"Cannot create ClientHttpRequestFactory for %s", name()), e);
+		}
+	}
+
+	/**
+	 * Release resources held by {@code requestFactory}.
+	 *
+	 * @param requestFactory the request factory to dispose.
+	 */
+	public static void destroy(ClientHttpRequestFactory requestFactory) {
+
+		if (requestFactory instanceof DisposableBean) {
+			try {
+				((DisposableBean) requestFactory).destroy();
+			}
+			catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	abstract ClientHttpRequestFactory doCreate(ClientOptions options)
+			throws GeneralSecurityException, IOException;
+}
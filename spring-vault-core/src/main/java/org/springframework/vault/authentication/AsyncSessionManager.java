@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.authentication;
+
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.vault.support.VaultToken;
+
+/**
+ * Strategy interface that encapsulates the creation and management of Vault sessions
+ * based on {@link VaultToken} without blocking the calling {@link Thread}.
+ * <p>
+ * {@link AsyncSessionManager} is used by
+ * {@link org.springframework.vault.core.AsyncVaultTemplate} to initiate a session.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see SimpleAsyncSessionManager
+ * @see SessionManager
+ */
+public interface AsyncSessionManager {
+
+	/**
+	 * Obtain a session token. The returned {@link ListenableFuture} completes once a
+	 * token is available.
+	 *
+	 * @return a {@link ListenableFuture} emitting the session token.
+	 */
+	ListenableFuture<VaultToken> getSessionToken();
+}
@@ -17,6 +17,7 @@ package org.springframework.vault.authentication;
 
 import java.util.Date;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -34,6 +35,8 @@ import org.springframework.util.Assert;
 import org.springframework.vault.VaultException;
 import org.springframework.vault.client.VaultHttpHeaders;
 import org.springframework.vault.client.VaultResponses;
+import org.springframework.vault.metrics.NoOpVaultMetrics;
+import org.springframework.vault.metrics.VaultMetrics;
 import org.springframework.vault.support.VaultToken;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
@@ -84,6 +87,8 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 
 	private volatile VaultToken token;
 
+	private VaultMetrics vaultMetrics = NoOpVaultMetrics.INSTANCE;
+
 	/**
 	 * Create a {@link LifecycleAwareSessionManager} given {@link ClientAuthentication},
 	 * {@link AsyncTaskExecutor} and {@link RestOperations}.
@@ -123,6 +128,19 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 		this.refreshTrigger = refreshTrigger;
 	}
 
+	/**
+	 * Set the {@link VaultMetrics} to record login and token renewal durations.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 * @since 1.1
+	 */
+	public void setVaultMetrics(VaultMetrics vaultMetrics) {
+
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null");
+
+		this.vaultMetrics = vaultMetrics;
+	}
+
 	@Override
 	public void destroy() {
 
@@ -164,9 +182,13 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 			return false;
 		}
 
+		long start = System.nanoTime();
+		boolean success = false;
+
 		try {
 			restOperations.postForObject("auth/token/renew-self",
 					new HttpEntity<Object>(VaultHttpHeaders.from(token)), Map.class);
+			success = true;
 			return true;
 		}
 		catch (HttpStatusCodeException e) {
@@ -184,6 +206,9 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 		catch (RestClientException e) {
 			throw new VaultException("Cannot refresh token", e);
 		}
+		finally {
+			vaultMetrics.recordTokenRenewal(System.nanoTime() - start, success);
+		}
 	}
 
 	@Override
@@ -194,7 +219,7 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 			synchronized (lock) {
 
 				if (token == null) {
-					token = login();
+					token = timedLogin();
 
 					if (isTokenRenewable()) {
 						scheduleRenewal();
@@ -210,6 +235,23 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 		return clientAuthentication.login();
 	}
 
+	private VaultToken timedLogin() {
+
+		long start = System.nanoTime();
+		boolean success = false;
+
+		try {
+
+			VaultToken token = login();
+			success = true;
+
+			return token;
+		}
+		finally {
+			vaultMetrics.recordLogin(System.nanoTime() - start, success);
+		}
+	}
+
 	protected boolean isTokenRenewable() {
 
 		if (token instanceof LoginToken) {
@@ -246,7 +288,15 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 	}
 
 	private OneShotTrigger createTrigger() {
-		return new OneShotTrigger(refreshTrigger.nextExecutionTime((LoginToken) token));
+
+		Date nextExecutionTime = refreshTrigger.nextExecutionTime((LoginToken) token);
+
+		if (nextExecutionTime != null) {
+			vaultMetrics.recordTokenRenewalScheduled(TimeUnit.MILLISECONDS
+					.toNanos(nextExecutionTime.getTime() - System.currentTimeMillis()));
+		}
+
+		return new OneShotTrigger(nextExecutionTime);
 	}
 
 	/**
@@ -325,4 +375,60 @@ public class LifecycleAwareSessionManager implements SessionManager, DisposableB
 			return new Date(System.currentTimeMillis() + milliseconds);
 		}
 	}
+
+	/**
+	 * {@link RefreshTrigger} decorator applying random jitter to execution times of a
+	 * delegate {@link RefreshTrigger}. Execution times are moved earlier by up to
+	 * {@code jitterPercent} of the remaining delay and never later than the delegate's
+	 * execution time. Spreads token renewal of many clients that obtained their tokens at
+	 * the same time.
+	 *
+	 * @author Mark Paluch
+	 * @since 1.1
+	 */
+	public static class JitteredRefreshTrigger implements RefreshTrigger {
+
+		private static final Random RANDOM = new Random();
+
+		private final RefreshTrigger delegate;
+
+		private final int jitterPercent;
+
+		/**
+		 * Create a new {@link JitteredRefreshTrigger}.
+		 * @param delegate must not be {@literal null}.
+		 * @param jitterPercent maximum jitter in percent of the delay, between
+		 * {@literal 0} and {@literal 100}.
+		 */
+		public JitteredRefreshTrigger(RefreshTrigger delegate, int jitterPercent) {
+
+			Assert.notNull(delegate, "RefreshTrigger must not be null");
+			Assert.isTrue(jitterPercent >= 0 && jitterPercent <= 100,
+					"Jitter percent must be between 0 and 100");
+
+			this.delegate = delegate;
+			this.jitterPercent = jitterPercent;
+		}
+
+		@Override
+		public Date nextExecutionTime(LoginToken loginToken) {
+
+			Date nextExecutionTime = delegate.nextExecutionTime(loginToken);
+
+			if (nextExecutionTime == null) {
+				return null;
+			}
+
+			long now = System.currentTimeMillis();
+			long delay = nextExecutionTime.getTime() - now;
+
+			if (delay <= 0) {
+				return nextExecutionTime;
+			}
+
+			long jitter = (long) (delay * (jitterPercent / 100d) * RANDOM.nextDouble());
+
+			return new Date(now + delay - jitter);
+		}
+	}
 }
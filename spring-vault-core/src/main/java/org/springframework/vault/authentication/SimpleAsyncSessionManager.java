@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.authentication;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.vault.support.VaultToken;
+
+/**
+ * Default implementation of {@link AsyncSessionManager}.
+ * <p>
+ * Logs into Vault using {@link ClientAuthentication} on a
+ * {@link AsyncListenableTaskExecutor} and reuses the resulting {@link VaultToken}
+ * throughout session lifetime. Concurrent callers share a single login attempt. No
+ * lock is held while logging in so callers on event-loop threads are never blocked. A
+ * failed login is not cached and the next call attempts a new login.
+ * <p>
+ * A {@link LoginToken} with a lease duration is replaced by a new login once
+ * {@literal 90%} of its lease duration has elapsed. Like {@link SimpleSessionManager},
+ * this session manager does not renew or revoke tokens. Use
+ * {@link LifecycleAwareSessionManager} with
+ * {@link org.springframework.vault.core.AsyncVaultTemplate} if tokens must be renewed
+ * and revoked on shutdown.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see ClientAuthentication
+ * @see VaultToken
+ */
+public class SimpleAsyncSessionManager implements AsyncSessionManager {
+
+	private final ClientAuthentication clientAuthentication;
+
+	private final AsyncListenableTaskExecutor taskExecutor;
+
+	private final AtomicReference<Session> token = new AtomicReference<Session>();
+
+	/**
+	 * Create a new {@link SimpleAsyncSessionManager} using a {@link ClientAuthentication}
+	 * and {@link AsyncListenableTaskExecutor} to perform the login.
+	 *
+	 * @param clientAuthentication must not be {@literal null}.
+	 * @param taskExecutor must not be {@literal null}.
+	 */
+	public SimpleAsyncSessionManager(ClientAuthentication clientAuthentication,
+			AsyncListenableTaskExecutor taskExecutor) {
+
+		Assert.notNull(clientAuthentication, "ClientAuthentication must not be null");
+		Assert.notNull(taskExecutor, "AsyncListenableTaskExecutor must not be null");
+
+		this.clientAuthentication = clientAuthentication;
+		this.taskExecutor = taskExecutor;
+	}
+
+	@Override
+	public ListenableFuture<VaultToken> getSessionToken() {
+
+		for (;;) {
+
+			Session current = token.get();
+
+			if (current != null && !current.isExpired(System.nanoTime())) {
+				return current;
+			}
+
+			Session login = new Session();
+
+			if (token.compareAndSet(current, login)) {
+
+				login(login);
+				return login;
+			}
+		}
+	}
+
+	private void login(final Session login) {
+
+		try {
+			taskExecutor.submitListenable(new Callable<VaultToken>() {
+
+				@Override
+				public VaultToken call() throws Exception {
+					return clientAuthentication.login();
+				}
+			}).addCallback(new ListenableFutureCallback<VaultToken>() {
+
+				@Override
+				public void onSuccess(VaultToken result) {
+					login.set(result);
+				}
+
+				@Override
+				public void onFailure(Throwable ex) {
+					token.compareAndSet(login, null);
+					login.setException(ex);
+				}
+			});
+		}
+		catch (RuntimeException e) {
+
+			token.compareAndSet(login, null);
+			login.setException(e);
+		}
+	}
+
+	/**
+	 * Pending or completed login. Tokens with a lease duration expire after
+	 * {@literal 90%} of their lease duration to log in again before Vault rejects the
+	 * token.
+	 */
+	private static class Session extends SettableListenableFuture<VaultToken> {
+
+		private volatile boolean expiring;
+
+		private volatile long expiresAt;
+
+		@Override
+		public boolean set(VaultToken value) {
+
+			if (value instanceof LoginToken
+					&& ((LoginToken) value).getLeaseDuration() > 0) {
+
+				this.expiresAt = System.nanoTime()
+						+ TimeUnit.SECONDS.toNanos(((LoginToken) value)
+								.getLeaseDuration()) / 10 * 9;
+				this.expiring = true;
+			}
+
+			return super.set(value);
+		}
+
+		boolean isExpired(long now) {
+			return expiring && now - expiresAt >= 0;
+		}
+	}
+}
@@ -16,6 +16,8 @@
 package org.springframework.vault.authentication;
 
 import org.springframework.util.Assert;
+import org.springframework.vault.metrics.NoOpVaultMetrics;
+import org.springframework.vault.metrics.VaultMetrics;
 import org.springframework.vault.support.VaultToken;
 
 /**
@@ -36,6 +38,8 @@ public class SimpleSessionManager implements SessionManager {
 
 	private volatile VaultToken token;
 
+	private VaultMetrics vaultMetrics = NoOpVaultMetrics.INSTANCE;
+
 	/**
 	 * Create a new {@link SimpleSessionManager} using a {@link ClientAuthentication}.
 	 *
@@ -48,17 +52,47 @@ public class SimpleSessionManager implements SessionManager {
 		this.clientAuthentication = clientAuthentication;
 	}
 
+	/**
+	 * Set the {@link VaultMetrics} to record login durations.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 * @since 1.1
+	 */
+	public void setVaultMetrics(VaultMetrics vaultMetrics) {
+
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null");
+
+		this.vaultMetrics = vaultMetrics;
+	}
+
 	@Override
 	public VaultToken getSessionToken() {
 
 		if (token == null) {
 			synchronized (lock) {
 				if (token == null) {
-					token = clientAuthentication.login();
+					token = login();
 				}
 			}
 		}
 
 		return token;
 	}
+
+	private VaultToken login() {
+
+		long start = System.nanoTime();
+		boolean success = false;
+
+		try {
+
+			VaultToken token = clientAuthentication.login();
+			success = true;
+
+			return token;
+		}
+		finally {
+			vaultMetrics.recordLogin(System.nanoTime() - start, success);
+		}
+	}
 }
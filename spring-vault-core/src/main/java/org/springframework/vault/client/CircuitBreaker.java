@@ -0,0 +1,225 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+/**
+ * Circuit breaker tracking consecutive failures of requests to a Vault endpoint. The
+ * breaker opens after a configurable number of consecutive failures and rejects requests
+ * while open. After the open duration has elapsed, the breaker transitions to half-open
+ * and permits a single trial request. A successful trial request closes the breaker, a
+ * failed trial request opens it again.
+ * <p>
+ * Each permitted request obtains a {@link Permit} that is used to report its outcome.
+ * Outcomes of requests that were permitted before the last state transition are ignored,
+ * so a late response of a request issued before the breaker opened neither closes nor
+ * re-opens the breaker.
+ * <p>
+ * Instances are thread-safe.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see ResilientClientHttpRequestFactory
+ */
+public class CircuitBreaker {
+
+	private final int failureThreshold;
+
+	private final long openDurationNanos;
+
+	private State state = State.CLOSED;
+
+	private long epoch;
+
+	private int consecutiveFailures;
+
+	private long openedAt;
+
+	private boolean trialInFlight;
+
+	private long openedCount;
+
+	private long rejectedCount;
+
+	/**
+	 * Create a new {@link CircuitBreaker} that opens after {@literal 5} consecutive
+	 * failures for {@literal 30} seconds.
+	 */
+	public CircuitBreaker() {
+		this(5, 30, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Create a new {@link CircuitBreaker}.
+	 *
+	 * @param failureThreshold number of consecutive failures to open the breaker, must
+	 * be greater {@literal 0}.
+	 * @param openDuration duration to reject requests before permitting a trial request,
+	 * must not be negative.
+	 * @param unit must not be {@literal null}.
+	 */
+	public CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+
+		Assert.isTrue(failureThreshold > 0, "Failure threshold must be greater 0");
+		Assert.isTrue(openDuration >= 0, "Open duration must not be negative");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		this.failureThreshold = failureThreshold;
+		this.openDurationNanos = unit.toNanos(openDuration);
+	}
+
+	/**
+	 * Acquire permission to issue a request.
+	 *
+	 * @return the {@link Permit} to report the outcome of the request with, or
+	 * {@literal null} if the breaker rejects the request.
+	 */
+	public synchronized Permit tryAcquirePermit() {
+
+		if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+			transitionTo(State.HALF_OPEN);
+		}
+
+		if (state == State.CLOSED) {
+			return new Permit(epoch, false);
+		}
+
+		if (state == State.HALF_OPEN && !trialInFlight) {
+			trialInFlight = true;
+			return new Permit(epoch, true);
+		}
+
+		rejectedCount++;
+		return null;
+	}
+
+	/**
+	 * Record a successful request. Resets the consecutive failure count of a closed
+	 * breaker and closes a half-open breaker if {@code permit} belongs to its trial
+	 * request.
+	 *
+	 * @param permit the {@link Permit} obtained for the request, must not be
+	 * {@literal null}.
+	 */
+	public synchronized void onSuccess(Permit permit) {
+
+		Assert.notNull(permit, "Permit must not be null");
+
+		if (permit.epoch != epoch) {
+			return;
+		}
+
+		if (state == State.CLOSED) {
+			consecutiveFailures = 0;
+		}
+		else if (state == State.HALF_OPEN && permit.trial) {
+			transitionTo(State.CLOSED);
+		}
+	}
+
+	/**
+	 * Record a failed request. Opens the breaker if the failure threshold is reached or
+	 * if {@code permit} belongs to the trial request of a half-open breaker.
+	 *
+	 * @param permit the {@link Permit} obtained for the request, must not be
+	 * {@literal null}.
+	 */
+	public synchronized void onFailure(Permit permit) {
+
+		Assert.notNull(permit, "Permit must not be null");
+
+		if (permit.epoch != epoch) {
+			return;
+		}
+
+		if ((state == State.HALF_OPEN && permit.trial)
+				|| (state == State.CLOSED && ++consecutiveFailures >= failureThreshold)) {
+
+			transitionTo(State.OPEN);
+			openedAt = System.nanoTime();
+			openedCount++;
+		}
+	}
+
+	/**
+	 * @return the current {@link State}.
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * @return the number of times the breaker opened.
+	 */
+	public synchronized long getOpenedCount() {
+		return openedCount;
+	}
+
+	/**
+	 * @return the number of requests rejected while the breaker was open.
+	 */
+	public synchronized long getRejectedCount() {
+		return rejectedCount;
+	}
+
+	private void transitionTo(State state) {
+
+		this.state = state;
+		this.epoch++;
+		this.consecutiveFailures = 0;
+		this.trialInFlight = false;
+	}
+
+	/**
+	 * Permission to issue a single request obtained from
+	 * {@link CircuitBreaker#tryAcquirePermit()}.
+	 */
+	public static final class Permit {
+
+		private final long epoch;
+
+		private final boolean trial;
+
+		private Permit(long epoch, boolean trial) {
+			this.epoch = epoch;
+			this.trial = trial;
+		}
+	}
+
+	/**
+	 * States of a {@link CircuitBreaker}.
+	 */
+	public enum State {
+
+		/**
+		 * Requests are permitted.
+		 */
+		CLOSED,
+
+		/**
+		 * Requests are rejected.
+		 */
+		OPEN,
+
+		/**
+		 * A single trial request is permitted.
+		 */
+		HALF_OPEN;
+	}
+}
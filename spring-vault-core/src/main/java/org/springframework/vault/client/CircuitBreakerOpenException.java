@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+
+/**
+ * Exception thrown when a request is rejected by an open {@link CircuitBreaker}. Extends
+ * {@link IOException} so that {@link org.springframework.web.client.RestTemplate}
+ * reports rejected requests as
+ * {@link org.springframework.web.client.ResourceAccessException}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Create a {@link CircuitBreakerOpenException} with the specified detail message.
+	 *
+	 * @param msg the detail message.
+	 */
+	public CircuitBreakerOpenException(String msg) {
+		super(msg);
+	}
+}
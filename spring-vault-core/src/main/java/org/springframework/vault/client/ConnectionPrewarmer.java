@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Opens connections to Vault ahead of the first request so the first requests do not
+ * pay TCP connect and TLS handshake latency. Connections are established by issuing
+ * concurrent unauthenticated {@code sys/health} requests and returned to the connection
+ * pool of the {@link ClientHttpRequestFactory} afterwards.
+ * <p>
+ * Pre-warming is effective for pooling clients. Clients opening a connection per request
+ * benefit only from TLS session resumption and class initialization.
+ * <p>
+ * Each connection is opened by a dedicated thread. The number of connections is capped
+ * at {@value #MAX_CONNECTIONS} and callers wait at most for a configurable timeout.
+ * Requests that did not complete by then keep running in the background until they
+ * finish or time out.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class ConnectionPrewarmer {
+
+	/**
+	 * Maximum number of connections opened by a single pre-warm call.
+	 */
+	public static final int MAX_CONNECTIONS = 64;
+
+	private static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+	private static final Log logger = LogFactory.getLog(ConnectionPrewarmer.class);
+
+	/**
+	 * Open {@code connections} concurrent connections to {@link VaultEndpoint} waiting
+	 * at most {@literal 10} {@link TimeUnit#SECONDS}. Failures are logged and do not
+	 * propagate, Vault might not be available yet.
+	 *
+	 * @param requestFactory must not be {@literal null}.
+	 * @param endpoint must not be {@literal null}.
+	 * @param connections number of connections to open, at most
+	 * {@value #MAX_CONNECTIONS}.
+	 * @return the number of connections that were established successfully.
+	 */
+	public static int prewarm(ClientHttpRequestFactory requestFactory,
+			VaultEndpoint endpoint, int connections) {
+		return prewarm(requestFactory, endpoint, connections, DEFAULT_TIMEOUT_MILLIS,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Open {@code connections} concurrent connections to {@link VaultEndpoint} waiting
+	 * at most {@code timeout}. Failures are logged and do not propagate, Vault might not
+	 * be available yet.
+	 *
+	 * @param requestFactory must not be {@literal null}.
+	 * @param endpoint must not be {@literal null}.
+	 * @param connections number of connections to open, at most
+	 * {@value #MAX_CONNECTIONS}.
+	 * @param timeout maximum time to wait for connections, must be greater {@literal 0}.
+	 * @param unit must not be {@literal null}.
+	 * @return the number of connections that were established successfully within
+	 * {@code timeout}.
+	 */
+	public static int prewarm(final ClientHttpRequestFactory requestFactory,
+			final VaultEndpoint endpoint, int connections, long timeout, TimeUnit unit) {
+
+		Assert.notNull(requestFactory, "ClientHttpRequestFactory must not be null");
+		Assert.notNull(endpoint, "VaultEndpoint must not be null");
+		Assert.isTrue(timeout > 0, "Timeout must be greater 0");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		if (connections <= 0) {
+			return 0;
+		}
+
+		if (connections > MAX_CONNECTIONS) {
+
+			logger.warn(String.format(
+					"Limiting pre-warmed connections to %s from %d to %d", endpoint,
+					connections, MAX_CONNECTIONS));
+			connections = MAX_CONNECTIONS;
+		}
+
+		SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor(
+				"spring-vault-ConnectionPrewarmer-");
+		taskExecutor.setDaemon(true);
+
+		final CountDownLatch latch = new CountDownLatch(connections);
+		final AtomicInteger established = new AtomicInteger();
+
+		// all requests are in flight at the same time to force distinct connections
+		for (int i = 0; i < connections; i++) {
+
+			taskExecutor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+
+					try {
+						if (connect(requestFactory, endpoint)) {
+							established.incrementAndGet();
+						}
+					}
+					finally {
+						latch.countDown();
+					}
+				}
+			});
+		}
+
+		try {
+			if (!latch.await(timeout, unit)) {
+				logger.warn(String.format(
+						"Pre-warming connections to %s did not complete within %d %s",
+						endpoint, timeout, unit));
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format("Pre-warmed %d of %d connections to %s",
+					established.get(), connections, endpoint));
+		}
+
+		return established.get();
+	}
+
+	private static boolean connect(ClientHttpRequestFactory requestFactory,
+			VaultEndpoint endpoint) {
+
+		ClientHttpResponse response = null;
+
+		try {
+
+			response = requestFactory.createRequest(endpoint.createUri("sys/health"),
+					HttpMethod.GET).execute();
+
+			// drain to allow connection reuse
+			StreamUtils.drain(response.getBody());
+			return true;
+		}
+		catch (IOException e) {
+
+			logger.warn(String.format("Cannot pre-warm connection to %s: %s", endpoint,
+					e.getMessage()));
+			return false;
+		}
+		catch (RuntimeException e) {
+
+			// the client may have been shut down while a timed out request was pending
+			logger.warn(String.format("Cannot pre-warm connection to %s: %s", endpoint,
+					e.getMessage()));
+			return false;
+		}
+		finally {
+			if (response != null) {
+				response.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,538 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ClientHttpRequestFactory} decorator adding retries and circuit breakers to
+ * requests. Requests using a retryable {@link HttpMethod} (by default {@code GET},
+ * {@code HEAD}, {@code OPTIONS} and {@code DELETE}) are retried on {@link IOException I/O
+ * errors} and retryable status codes (by default {@literal 500}, {@literal 502},
+ * {@literal 503} and {@literal 504}) using exponential backoff with full jitter. Vault
+ * uses {@code PUT} and {@code POST} for writes and logins, which are not retried unless
+ * configured through {@link #setRetryableMethods(Set)}. Requests to idempotent paths
+ * (by default lease renewal through {@code sys/renew}, {@code sys/leases/renew} and
+ * token renewal through {@code auth/token/renew-self}) are retried regardless of their
+ * method, see {@link #setRetryablePaths(Set)}.
+ * <p>
+ * Each attempt is recorded with the {@link CircuitBreaker} of the endpoint (scheme, host
+ * and port) it was sent to, so a failing node of a cluster does not reject requests to
+ * healthy nodes. An open {@link CircuitBreaker} fails requests fast with
+ * {@link CircuitBreakerOpenException}. Circuit breakers can be disabled through
+ * {@link #setCircuitBreakerEnabled(boolean)} to only retry requests, and retries can be
+ * disabled with {@link #setMaxAttempts(int) a single attempt} to only use circuit
+ * breakers.
+ * <p>
+ * Request bodies are buffered to be replayed for each attempt. This factory is not used
+ * by default. {@link org.springframework.vault.config.ClientHttpRequestFactoryFactory}
+ * decorates the client with it if
+ * {@link org.springframework.vault.support.ClientOptions#getMaxAttempts()} is greater
+ * {@literal 1} or
+ * {@link org.springframework.vault.support.ClientOptions#getCircuitBreakerFailureThreshold()}
+ * is greater {@literal 0}, which covers {@code AbstractVaultConfiguration} and its
+ * session manager.
+ * When wiring components manually, use the same factory for
+ * {@link org.springframework.vault.core.VaultTemplate} and the
+ * {@link org.springframework.web.client.RestOperations} of the session manager so that
+ * both, session and login requests are covered:
+ *
+ * <pre class="code">
+ * ClientHttpRequestFactory requestFactory = new ResilientClientHttpRequestFactory(
+ * 		ClientHttpRequestFactoryFactory.create(options, sslConfiguration));
+ *
+ * SessionManager sessionManager = new LifecycleAwareSessionManager(clientAuthentication,
+ * 		taskScheduler, VaultClients.createRestTemplate(endpointProvider, requestFactory));
+ *
+ * VaultTemplate template = new VaultTemplate(endpointProvider, requestFactory,
+ * 		sessionManager);
+ * </pre>
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see CircuitBreaker
+ */
+public class ResilientClientHttpRequestFactory implements ClientHttpRequestFactory,
+		InitializingBean, DisposableBean {
+
+	private final ClientHttpRequestFactory delegate;
+
+	private final int failureThreshold;
+
+	private final long openDurationNanos;
+
+	private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+	private final Random random = new Random();
+
+	private final AtomicLong retries = new AtomicLong();
+
+	private final AtomicLong retriesExhausted = new AtomicLong();
+
+	private volatile int maxAttempts = 3;
+
+	private volatile long initialBackoffMillis = 100;
+
+	private volatile long maxBackoffMillis = 5000;
+
+	private volatile double multiplier = 2;
+
+	private volatile Set<HttpMethod> retryableMethods = Collections.unmodifiableSet(EnumSet
+			.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.DELETE));
+
+	private volatile Set<String> retryablePaths = Collections
+			.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList("sys/renew",
+					"sys/leases/renew", "auth/token/renew-self")));
+
+	private volatile boolean circuitBreakerEnabled = true;
+
+	private volatile Set<Integer> retryableStatusCodes = Collections
+			.unmodifiableSet(new HashSet<Integer>(Arrays.asList(500, 502, 503, 504)));
+
+	/**
+	 * Create a new {@link ResilientClientHttpRequestFactory} using circuit breakers that
+	 * open after {@literal 5} consecutive failures for {@literal 30} seconds.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 */
+	public ResilientClientHttpRequestFactory(ClientHttpRequestFactory delegate) {
+		this(delegate, 5, 30, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Create a new {@link ResilientClientHttpRequestFactory}. Each endpoint gets its own
+	 * {@link CircuitBreaker} created with {@code failureThreshold} and
+	 * {@code openDuration}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 * @param failureThreshold number of consecutive failures to open a breaker, must be
+	 * greater {@literal 0}.
+	 * @param openDuration duration to reject requests before permitting a trial request,
+	 * must not be negative.
+	 * @param unit must not be {@literal null}.
+	 * @see CircuitBreaker#CircuitBreaker(int, long, TimeUnit)
+	 */
+	public ResilientClientHttpRequestFactory(ClientHttpRequestFactory delegate,
+			int failureThreshold, long openDuration, TimeUnit unit) {
+
+		Assert.notNull(delegate, "ClientHttpRequestFactory must not be null");
+		Assert.isTrue(failureThreshold > 0, "Failure threshold must be greater 0");
+		Assert.isTrue(openDuration >= 0, "Open duration must not be negative");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		this.delegate = delegate;
+		this.failureThreshold = failureThreshold;
+		this.openDurationNanos = unit.toNanos(openDuration);
+	}
+
+	/**
+	 * Set the maximum number of attempts including the initial attempt. Defaults to
+	 * {@literal 3}.
+	 *
+	 * @param maxAttempts must be greater {@literal 0}.
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+
+		Assert.isTrue(maxAttempts > 0, "Max attempts must be greater 0");
+
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Configure the exponential backoff between attempts. The backoff ceiling starts at
+	 * {@code initialBackoff}, is multiplied by {@code multiplier} for each retry and is
+	 * capped to {@code maxBackoff}. The actual delay is chosen randomly between zero and
+	 * the ceiling. Defaults to {@literal 100} milliseconds initial backoff,
+	 * {@literal 5} seconds maximum backoff and a multiplier of {@literal 2}.
+	 *
+	 * @param initialBackoff must not be negative.
+	 * @param maxBackoff must be greater or equal to {@code initialBackoff}.
+	 * @param multiplier must be greater or equal to {@literal 1}.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setBackoff(long initialBackoff, long maxBackoff, double multiplier,
+			TimeUnit unit) {
+
+		Assert.isTrue(initialBackoff >= 0, "Initial backoff must not be negative");
+		Assert.isTrue(maxBackoff >= initialBackoff,
+				"Max backoff must be greater or equal to initial backoff");
+		Assert.isTrue(multiplier >= 1, "Multiplier must be greater or equal to 1");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		this.initialBackoffMillis = unit.toMillis(initialBackoff);
+		this.maxBackoffMillis = unit.toMillis(maxBackoff);
+		this.multiplier = multiplier;
+	}
+
+	/**
+	 * Set the {@link HttpMethod methods} that are safe to retry. Defaults to
+	 * {@code GET}, {@code HEAD}, {@code OPTIONS} and {@code DELETE}.
+	 *
+	 * @param retryableMethods must not be {@literal null}.
+	 */
+	public void setRetryableMethods(Set<HttpMethod> retryableMethods) {
+
+		Assert.notNull(retryableMethods, "Retryable methods must not be null");
+
+		this.retryableMethods = Collections.unmodifiableSet(new HashSet<HttpMethod>(
+				retryableMethods));
+	}
+
+	/**
+	 * Set the Vault paths that are safe to retry regardless of their {@link HttpMethod}.
+	 * Paths are relative to the API version segment (for example {@code sys/renew} for
+	 * {@code /v1/sys/renew}) and match the path itself and paths below it. Defaults to
+	 * {@code sys/renew}, {@code sys/leases/renew} and {@code auth/token/renew-self}.
+	 *
+	 * @param retryablePaths must not be {@literal null}.
+	 */
+	public void setRetryablePaths(Set<String> retryablePaths) {
+
+		Assert.notNull(retryablePaths, "Retryable paths must not be null");
+
+		Set<String> paths = new LinkedHashSet<String>();
+
+		for (String path : retryablePaths) {
+			paths.add(path.startsWith("/") ? path.substring(1) : path);
+		}
+
+		this.retryablePaths = Collections.unmodifiableSet(paths);
+	}
+
+	/**
+	 * Enable or disable per-endpoint circuit breakers. Defaults to {@literal true}.
+	 *
+	 * @param circuitBreakerEnabled {@literal false} to send requests regardless of
+	 * previous failures.
+	 */
+	public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+		this.circuitBreakerEnabled = circuitBreakerEnabled;
+	}
+
+	/**
+	 * Set the HTTP status codes that are considered transient failures. Defaults to
+	 * {@literal 500}, {@literal 502}, {@literal 503} and {@literal 504}.
+	 *
+	 * @param retryableStatusCodes must not be {@literal null}.
+	 */
+	public void setRetryableStatusCodes(Set<Integer> retryableStatusCodes) {
+
+		Assert.notNull(retryableStatusCodes, "Retryable status codes must not be null");
+
+		this.retryableStatusCodes = Collections.unmodifiableSet(new HashSet<Integer>(
+				retryableStatusCodes));
+	}
+
+	/**
+	 * Return the {@link CircuitBreaker} for the endpoint (scheme, host and port) of
+	 * {@code uri}.
+	 *
+	 * @param uri must not be {@literal null}.
+	 * @return the {@link CircuitBreaker} for the endpoint of {@code uri}.
+	 */
+	public CircuitBreaker getCircuitBreaker(URI uri) {
+
+		Assert.notNull(uri, "URI must not be null");
+
+		String endpoint = getEndpoint(uri);
+		CircuitBreaker circuitBreaker = circuitBreakers.get(endpoint);
+
+		if (circuitBreaker != null) {
+			return circuitBreaker;
+		}
+
+		circuitBreaker = new CircuitBreaker(failureThreshold, openDurationNanos,
+				TimeUnit.NANOSECONDS);
+		CircuitBreaker existing = circuitBreakers.putIfAbsent(endpoint, circuitBreaker);
+
+		return existing != null ? existing : circuitBreaker;
+	}
+
+	/**
+	 * @return the {@link CircuitBreaker}s by endpoint ({@code scheme://host:port}) that
+	 * were used so far.
+	 */
+	public Map<String, CircuitBreaker> getCircuitBreakers() {
+		return Collections.unmodifiableMap(new TreeMap<String, CircuitBreaker>(
+				circuitBreakers));
+	}
+
+	/**
+	 * @return the number of retried attempts.
+	 */
+	public long getRetryCount() {
+		return retries.get();
+	}
+
+	/**
+	 * @return the number of requests that failed after exhausting all attempts.
+	 */
+	public long getRetriesExhaustedCount() {
+		return retriesExhausted.get();
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod)
+			throws IOException {
+		return new ResilientClientHttpRequest(uri, httpMethod);
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+
+		if (delegate instanceof InitializingBean) {
+			((InitializingBean) delegate).afterPropertiesSet();
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+
+		if (delegate instanceof DisposableBean) {
+			((DisposableBean) delegate).destroy();
+		}
+	}
+
+	private static String getEndpoint(URI uri) {
+
+		int port = uri.getPort();
+
+		if (port == -1) {
+			port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+		}
+
+		return String.format("%s://%s:%d", uri.getScheme(), uri.getHost(), port);
+	}
+
+	private boolean isRetryable(HttpMethod method, URI uri) {
+
+		if (retryableMethods.contains(method)) {
+			return true;
+		}
+
+		String path = uri.getPath();
+
+		if (path == null) {
+			return false;
+		}
+
+		// strip the API version segment such as /v1/
+		int versionEnd = path.indexOf('/', 1);
+
+		if (!path.startsWith("/") || versionEnd == -1) {
+			return false;
+		}
+
+		String vaultPath = path.substring(versionEnd + 1);
+
+		for (String retryablePath : retryablePaths) {
+
+			if (vaultPath.equals(retryablePath)
+					|| vaultPath.startsWith(retryablePath + "/")) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static void recordSuccess(CircuitBreaker circuitBreaker,
+			CircuitBreaker.Permit permit) {
+
+		if (circuitBreaker != null) {
+			circuitBreaker.onSuccess(permit);
+		}
+	}
+
+	private static void recordFailure(CircuitBreaker circuitBreaker,
+			CircuitBreaker.Permit permit) {
+
+		if (circuitBreaker != null) {
+			circuitBreaker.onFailure(permit);
+		}
+	}
+
+	private long getBackoffMillis(int retry) {
+
+		double ceiling = Math.min(maxBackoffMillis,
+				initialBackoffMillis * Math.pow(multiplier, retry));
+
+		synchronized (random) {
+			return (long) (random.nextDouble() * ceiling);
+		}
+	}
+
+	/**
+	 * {@link ClientHttpRequest} buffering its body to execute one or more attempts
+	 * against the delegate {@link ClientHttpRequestFactory}.
+	 */
+	private class ResilientClientHttpRequest extends AbstractClientHttpRequest {
+
+		private final ByteArrayOutputStream bufferedOutput = new ByteArrayOutputStream(
+				256);
+
+		private final URI uri;
+
+		private final HttpMethod method;
+
+		ResilientClientHttpRequest(URI uri, HttpMethod method) {
+			this.uri = uri;
+			this.method = method;
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return method;
+		}
+
+		@Override
+		public URI getURI() {
+			return uri;
+		}
+
+		@Override
+		protected OutputStream getBodyInternal(HttpHeaders headers) {
+			return bufferedOutput;
+		}
+
+		@Override
+		protected ClientHttpResponse executeInternal(HttpHeaders headers)
+				throws IOException {
+
+			byte[] body = bufferedOutput.toByteArray();
+			boolean retryable = isRetryable(method, uri);
+			int attempts = retryable ? maxAttempts : 1;
+			CircuitBreaker circuitBreaker = circuitBreakerEnabled ? getCircuitBreaker(uri)
+					: null;
+
+			for (int attempt = 1;; attempt++) {
+
+				CircuitBreaker.Permit permit = circuitBreaker != null ? circuitBreaker
+						.tryAcquirePermit() : null;
+
+				if (circuitBreaker != null && permit == null) {
+					throw new CircuitBreakerOpenException(String.format(
+							"Circuit breaker is open, rejecting %s %s", method, uri));
+				}
+
+				boolean recorded = false;
+
+				try {
+
+					ClientHttpResponse response = executeAttempt(headers, body);
+
+					if (!retryableStatusCodes.contains(response.getRawStatusCode())) {
+
+						recordSuccess(circuitBreaker, permit);
+						recorded = true;
+						return response;
+					}
+
+					recordFailure(circuitBreaker, permit);
+					recorded = true;
+
+					if (attempt >= attempts) {
+						onRetriesExhausted(retryable);
+						return response;
+					}
+
+					response.close();
+				}
+				catch (IOException e) {
+
+					if (!recorded) {
+						recordFailure(circuitBreaker, permit);
+						recorded = true;
+					}
+
+					if (attempt >= attempts) {
+						onRetriesExhausted(retryable);
+						throw e;
+					}
+				}
+				finally {
+					if (!recorded) {
+						recordFailure(circuitBreaker, permit);
+					}
+				}
+
+				retries.incrementAndGet();
+				backoff(attempt);
+			}
+		}
+
+		private ClientHttpResponse executeAttempt(HttpHeaders headers, byte[] body)
+				throws IOException {
+
+			ClientHttpRequest request = delegate.createRequest(uri, method);
+			request.getHeaders().putAll(headers);
+
+			if (body.length > 0) {
+				StreamUtils.copy(body, request.getBody());
+			}
+
+			return request.execute();
+		}
+
+		private void onRetriesExhausted(boolean retryable) {
+
+			if (retryable && maxAttempts > 1) {
+				retriesExhausted.incrementAndGet();
+			}
+		}
+
+		private void backoff(int attempt) throws InterruptedIOException {
+
+			try {
+				Thread.sleep(getBackoffMillis(attempt - 1));
+			}
+			catch (InterruptedException e) {
+
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(String.format(
+						"Interrupted while retrying %s %s", method, uri));
+			}
+		}
+	}
+}
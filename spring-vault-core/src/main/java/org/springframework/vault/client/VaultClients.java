@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
@@ -29,7 +30,7 @@ import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
-import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.DefaultUriTemplateHandler;
 
@@ -43,6 +44,14 @@ import org.springframework.web.util.DefaultUriTemplateHandler;
  */
 public class VaultClients {
 
+	private static final ByteArrayHttpMessageConverter BYTE_ARRAY_CONVERTER = new ByteArrayHttpMessageConverter();
+
+	private static final StringHttpMessageConverter STRING_CONVERTER = new StringHttpMessageConverter();
+
+	static {
+		STRING_CONVERTER.setWriteAcceptCharset(false);
+	}
+
 	/**
 	 * Create a {@link RestTemplate} configured with {@link VaultEndpoint} and
 	 * {@link ClientHttpRequestFactory}. The template accepts relative URIs without a
@@ -59,7 +68,7 @@ public class VaultClients {
 	 * @param requestFactory must not be {@literal null}.
 	 * @return the {@link RestTemplate}.
 	 * @see org.springframework.http.client.Netty4ClientHttpRequestFactory
-	 * @see MappingJackson2HttpMessageConverter
+	 * @see VaultJackson2HttpMessageConverter
 	 */
 	public static RestTemplate createRestTemplate(VaultEndpoint endpoint,
 			ClientHttpRequestFactory requestFactory) {
@@ -83,7 +92,7 @@ public class VaultClients {
 	 * @param requestFactory must not be {@literal null}.
 	 * @return the {@link RestTemplate}.
 	 * @see org.springframework.http.client.Netty4ClientHttpRequestFactory
-	 * @see MappingJackson2HttpMessageConverter
+	 * @see VaultJackson2HttpMessageConverter
 	 * @since 1.1
 	 */
 	public static RestTemplate createRestTemplate(VaultEndpointProvider endpointProvider,
@@ -109,17 +118,11 @@ public class VaultClients {
 	 *
 	 * @return the {@link RestTemplate}.
 	 * @see org.springframework.http.client.Netty4ClientHttpRequestFactory
-	 * @see MappingJackson2HttpMessageConverter
+	 * @see #createMessageConverters()
 	 */
 	public static RestTemplate createRestTemplate() {
 
-		List<HttpMessageConverter<?>> messageConverters = new ArrayList<HttpMessageConverter<?>>(
-				3);
-		messageConverters.add(new ByteArrayHttpMessageConverter());
-		messageConverters.add(new StringHttpMessageConverter());
-		messageConverters.add(new MappingJackson2HttpMessageConverter());
-
-		RestTemplate restTemplate = new RestTemplate(messageConverters);
+		RestTemplate restTemplate = new RestTemplate(createMessageConverters());
 
 		restTemplate.getInterceptors().add(new ClientHttpRequestInterceptor() {
 
@@ -133,6 +136,53 @@ public class VaultClients {
 		return restTemplate;
 	}
 
+	/**
+	 * Create the {@link HttpMessageConverter}s used by Vault templates. Vault speaks JSON
+	 * only so the converters are limited to raw {@code byte[]} payloads, plain text
+	 * (such as the EC2 identity document) and JSON using a shared
+	 * {@link VaultJackson2HttpMessageConverter}. Converter instances are shared across
+	 * templates.
+	 *
+	 * @return a new {@link List} of {@link HttpMessageConverter}s.
+	 * @since 1.1
+	 */
+	public static List<HttpMessageConverter<?>> createMessageConverters() {
+
+		List<HttpMessageConverter<?>> messageConverters = new ArrayList<HttpMessageConverter<?>>(
+				3);
+		messageConverters.add(BYTE_ARRAY_CONVERTER);
+		messageConverters.add(STRING_CONVERTER);
+		messageConverters.add(VaultJackson2HttpMessageConverter.INSTANCE);
+
+		return messageConverters;
+	}
+
+	/**
+	 * Create a {@link AsyncRestTemplate} configured with {@link VaultEndpointProvider}
+	 * and {@link AsyncClientHttpRequestFactory}. The template accepts relative URIs
+	 * without a leading slash that are expanded to use {@link VaultEndpoint}.
+	 * {@link AsyncRestTemplate} uses the same message converters as
+	 * {@link #createRestTemplate()}.
+	 * <p>
+	 * Requires Jackson 2 for Object-to-JSON mapping.
+	 *
+	 * @param endpointProvider must not be {@literal null}.
+	 * @param requestFactory must not be {@literal null}.
+	 * @return the {@link AsyncRestTemplate}.
+	 * @see org.springframework.http.client.Netty4ClientHttpRequestFactory
+	 * @see VaultJackson2HttpMessageConverter
+	 * @since 1.1
+	 */
+	public static AsyncRestTemplate createAsyncRestTemplate(
+			VaultEndpointProvider endpointProvider,
+			AsyncClientHttpRequestFactory requestFactory) {
+
+		RestTemplate restTemplate = createRestTemplate();
+		restTemplate.setUriTemplateHandler(createUriTemplateHandler(endpointProvider));
+
+		return new AsyncRestTemplate(requestFactory, restTemplate);
+	}
+
 	private static DefaultUriTemplateHandler createUriTemplateHandler(
 			VaultEndpointProvider endpointProvider) {
 
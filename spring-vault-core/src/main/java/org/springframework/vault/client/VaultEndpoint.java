@@ -27,7 +27,8 @@ import org.springframework.util.Assert;
  * Value object that defines Vault connection coordinates.
  * <p>
  * A {@link VaultEndpoint} defines the hostname, TCP port and the protocol scheme (HTTP or
- * HTTPS).
+ * HTTPS). An endpoint may alternatively describe a Unix domain socket path, in which case
+ * hostname and port are only used to build request URIs and the {@code Host} header.
  *
  * @author Mark Paluch
  */
@@ -51,6 +52,11 @@ public class VaultEndpoint implements Serializable {
 	 */
 	private String scheme = "https";
 
+	/**
+	 * Unix domain socket path. {@literal null} if connecting through TCP.
+	 */
+	private String socketPath;
+
 	/**
 	 * Create a secure {@link VaultEndpoint} given a {@code host} and {@code port} using
 	 * {@code https}.
@@ -72,16 +78,43 @@ public class VaultEndpoint implements Serializable {
 	}
 
 	/**
-	 * Create a {@link VaultEndpoint} given a {@link URI}.
+	 * Create a {@link VaultEndpoint} connecting through the Unix domain socket at
+	 * {@code socketPath} using {@code http}, such as a socket exposed by a Vault agent.
+	 *
+	 * @param socketPath must not be empty or {@literal null}.
+	 * @return a new {@link VaultEndpoint}.
+	 * @since 1.1
+	 */
+	public static VaultEndpoint unixSocket(String socketPath) {
+
+		Assert.hasText(socketPath, "Socket path must not be empty");
+
+		VaultEndpoint vaultEndpoint = new VaultEndpoint();
+
+		vaultEndpoint.setScheme("http");
+		vaultEndpoint.setSocketPath(socketPath);
+
+		return vaultEndpoint;
+	}
+
+	/**
+	 * Create a {@link VaultEndpoint} given a {@link URI}. {@code unix} URIs such as
+	 * {@code unix:///var/run/vault/agent.sock} describe a Unix domain socket.
 	 *
-	 * @param uri must contain hostname, port and scheme, must not be empty or
-	 * {@literal null}.
+	 * @param uri must contain hostname, port and scheme or be a {@code unix} URI, must
+	 * not be empty or {@literal null}.
 	 * @return a new {@link VaultEndpoint}.
+	 * @see #unixSocket(String)
 	 */
 	public static VaultEndpoint from(URI uri) {
 
 		Assert.notNull(uri, "URI must not be null");
 		Assert.hasText(uri.getScheme(), "Scheme must not be empty");
+
+		if ("unix".equals(uri.getScheme())) {
+			return unixSocket(uri.getPath());
+		}
+
 		Assert.hasText(uri.getHost(), "Host must not be empty");
 
 		VaultEndpoint vaultEndpoint = new VaultEndpoint();
@@ -152,6 +185,23 @@ public class VaultEndpoint implements Serializable {
 		this.scheme = scheme;
 	}
 
+	/**
+	 * @return the Unix domain socket path or {@literal null} if connecting through TCP.
+	 * @since 1.1
+	 */
+	public String getSocketPath() {
+		return socketPath;
+	}
+
+	/**
+	 * @param socketPath the Unix domain socket path, may be {@literal null} to connect
+	 * through TCP.
+	 * @since 1.1
+	 */
+	public void setSocketPath(String socketPath) {
+		this.socketPath = socketPath;
+	}
+
 	/**
 	 * Build the Vault {@link URI} based on the given {@code path}.
 	 *
@@ -178,6 +228,11 @@ public class VaultEndpoint implements Serializable {
 
 	@Override
 	public String toString() {
+
+		if (socketPath != null) {
+			return String.format("unix://%s", socketPath);
+		}
+
 		return String.format("%s://%s:%d", scheme, host, port);
 	}
 }
@@ -31,6 +31,14 @@ public abstract class VaultHttpHeaders {
 	 */
 	public static final String VAULT_TOKEN = "X-Vault-Token";
 
+	/**
+	 * The HTTP {@code X-Vault-Index} header field name carrying the replication state of
+	 * a Vault cluster node.
+	 *
+	 * @since 1.1
+	 */
+	public static final String VAULT_INDEX = "X-Vault-Index";
+
 	private VaultHttpHeaders() {
 	}
 
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.util.Base64Utils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link ClientHttpRequestInterceptor} providing read-your-writes consistency when
+ * reading from Vault performance standby nodes. The interceptor captures the
+ * {@code X-Vault-Index} replication state returned by requests that modify data and
+ * replays the captured states on subsequent reads. A node that has not yet caught up
+ * with the requested state responds with {@code 412 Precondition Failed}; such reads
+ * are retried after a short backoff until the node has caught up or the maximum number
+ * of attempts is exhausted.
+ * <p>
+ * Captured states are merged so that a response completing late with an older state
+ * does not replace a newer state. Only the newest state per cluster is retained, states
+ * that cannot be compared are retained side by side. Logins and lease or token renewals
+ * do not modify data and their states are not captured.
+ * <p>
+ * This interceptor must be the last interceptor of a
+ * {@link org.springframework.web.client.RestTemplate} as retries re-execute the request
+ * without passing through interceptors that follow this one.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultHttpHeaders#VAULT_INDEX
+ */
+public class VaultIndexInterceptor implements ClientHttpRequestInterceptor {
+
+	private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+	private final AtomicReference<List<String>> states = new AtomicReference<List<String>>(
+			Collections.<String> emptyList());
+
+	private final AtomicLong replayCount = new AtomicLong();
+
+	private final AtomicLong retryCount = new AtomicLong();
+
+	private int maxAttempts = 4;
+
+	private long retryDelayMillis = 10;
+
+	/**
+	 * Set the maximum number of attempts for reads that are rejected because the node
+	 * has not caught up with the requested state. Defaults to {@literal 4}.
+	 *
+	 * @param maxAttempts must be greater {@literal 0}.
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+
+		Assert.isTrue(maxAttempts > 0, "Max attempts must be greater 0");
+
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Set the initial delay between read attempts. The delay doubles with each retry.
+	 * Defaults to {@literal 10} milliseconds.
+	 *
+	 * @param retryDelay must be greater or equal to {@literal 0}.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setRetryDelay(long retryDelay, TimeUnit unit) {
+
+		Assert.isTrue(retryDelay >= 0, "Retry delay must be greater or equal to 0");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		this.retryDelayMillis = unit.toMillis(retryDelay);
+	}
+
+	/**
+	 * @return the captured replication states, empty if no state was captured yet.
+	 */
+	public List<String> getReplicationStates() {
+		return states.get();
+	}
+
+	/**
+	 * @return the number of reads that carried a replication state.
+	 */
+	public long getReplayCount() {
+		return replayCount.get();
+	}
+
+	/**
+	 * @return the number of reads retried because the node did not catch up with the
+	 * requested state.
+	 */
+	public long getRetryCount() {
+		return retryCount.get();
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+			ClientHttpRequestExecution execution) throws IOException {
+
+		if (!isRead(request.getMethod())) {
+
+			ClientHttpResponse response = execution.execute(request, body);
+
+			if (isDataModification(request)) {
+				capture(response);
+			}
+
+			return response;
+		}
+
+		List<String> states = this.states.get();
+
+		if (states.isEmpty()) {
+			return execution.execute(request, body);
+		}
+
+		request.getHeaders().put(VaultHttpHeaders.VAULT_INDEX, states);
+		replayCount.incrementAndGet();
+
+		long delay = retryDelayMillis;
+
+		for (int attempt = 1;; attempt++) {
+
+			ClientHttpResponse response = execution.execute(request, body);
+
+			if (attempt >= maxAttempts
+					|| response.getRawStatusCode() != HttpStatus.PRECONDITION_FAILED
+							.value()) {
+				return response;
+			}
+
+			response.close();
+			retryCount.incrementAndGet();
+
+			sleep(delay);
+			delay *= 2;
+		}
+	}
+
+	private void capture(ClientHttpResponse response) {
+
+		String state = response.getHeaders().getFirst(VaultHttpHeaders.VAULT_INDEX);
+
+		if (!StringUtils.hasText(state)) {
+			return;
+		}
+
+		for (;;) {
+
+			List<String> current = states.get();
+			List<String> merged = merge(current, state);
+
+			if (merged == current || states.compareAndSet(current, merged)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Merge {@code state} into {@code states}. Returns {@code states} if it already
+	 * contains the state or a newer state of the same cluster.
+	 */
+	static List<String> merge(List<String> states, String state) {
+
+		ReplicationState candidate = ReplicationState.parse(state);
+		List<String> merged = new ArrayList<String>(states.size() + 1);
+
+		for (String existing : states) {
+
+			if (existing.equals(state)) {
+				return states;
+			}
+
+			ReplicationState other = ReplicationState.parse(existing);
+
+			if (candidate == null || other == null) {
+
+				// opaque states cannot be compared, the most recent response wins
+				continue;
+			}
+
+			int comparison = other.compareTo(candidate);
+
+			if (comparison > 0) {
+				return states;
+			}
+
+			if (comparison == 0) {
+				merged.add(existing);
+			}
+		}
+
+		merged.add(state);
+
+		return Collections.unmodifiableList(merged);
+	}
+
+	private static boolean isRead(HttpMethod method) {
+		return method == HttpMethod.GET || method == HttpMethod.HEAD;
+	}
+
+	/**
+	 * Logins and lease or token renewals return a replication state but do not modify
+	 * data that is read afterwards.
+	 */
+	private static boolean isDataModification(HttpRequest request) {
+
+		String path = request.getURI().getPath();
+
+		if (path == null) {
+			return true;
+		}
+
+		// strip the API version segment such as /v1/
+		int versionEnd = path.indexOf('/', 1);
+
+		if (!path.startsWith("/") || versionEnd == -1) {
+			return true;
+		}
+
+		String vaultPath = path.substring(versionEnd + 1);
+
+		if (vaultPath.startsWith("sys/renew") || vaultPath.startsWith("sys/leases/renew")
+				|| vaultPath.startsWith("auth/token/renew")) {
+			return false;
+		}
+
+		return !(vaultPath.startsWith("auth/") && (vaultPath.endsWith("/login") || vaultPath
+				.contains("/login/")));
+	}
+
+	private static void sleep(long millis) throws InterruptedIOException {
+
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while awaiting read retry");
+		}
+	}
+
+	/**
+	 * Parsed replication state {@code v1:<cluster id>:<local index>:<replicated
+	 * index>:<hmac>} encoded with Base64.
+	 */
+	static class ReplicationState {
+
+		private final String clusterId;
+
+		private final long localIndex;
+
+		private final long replicatedIndex;
+
+		private ReplicationState(String clusterId, long localIndex, long replicatedIndex) {
+
+			this.clusterId = clusterId;
+			this.localIndex = localIndex;
+			this.replicatedIndex = replicatedIndex;
+		}
+
+		/**
+		 * @param state the encoded state.
+		 * @return the {@link ReplicationState} or {@literal null} if the state cannot be
+		 * parsed.
+		 */
+		static ReplicationState parse(String state) {
+
+			String decoded;
+
+			try {
+				decoded = new String(Base64Utils.decodeFromString(state), US_ASCII);
+			}
+			catch (IllegalArgumentException e) {
+				return null;
+			}
+
+			int hmacStart = decoded.lastIndexOf(':');
+
+			if (hmacStart == -1) {
+				return null;
+			}
+
+			String[] pieces = decoded.substring(0, hmacStart).split(":");
+
+			if (pieces.length != 4 || !"v1".equals(pieces[0])
+					|| !StringUtils.hasText(pieces[1])) {
+				return null;
+			}
+
+			try {
+				return new ReplicationState(pieces[1], Long.parseLong(pieces[2]),
+						Long.parseLong(pieces[3]));
+			}
+			catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		/**
+		 * @return a positive value if this state is newer or equal to {@code other}, a
+		 * negative value if {@code other} is newer and {@literal 0} if the states are
+		 * not comparable.
+		 */
+		int compareTo(ReplicationState other) {
+
+			if (!clusterId.equals(other.clusterId)) {
+				return 0;
+			}
+
+			if (localIndex >= other.localIndex
+					&& replicatedIndex >= other.replicatedIndex) {
+				return 1;
+			}
+
+			if (localIndex <= other.localIndex
+					&& replicatedIndex <= other.replicatedIndex) {
+				return -1;
+			}
+
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * {@link MappingJackson2HttpMessageConverter} tuned for Vault which speaks
+ * {@literal application/json} only. The converter
+ * <ul>
+ * <li>supports {@link MediaType#APPLICATION_JSON} only,</li>
+ * <li>remembers whether a type can be read or written instead of asking the
+ * {@link ObjectMapper} on each exchange,</li>
+ * <li>reads through an {@link ObjectReader} cached per type and writes through a shared
+ * {@link ObjectWriter}.</li>
+ * </ul>
+ * Converters created through {@link #VaultJackson2HttpMessageConverter()} share a
+ * pre-configured {@link ObjectMapper}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultClients#createRestTemplate()
+ */
+public class VaultJackson2HttpMessageConverter extends
+		MappingJackson2HttpMessageConverter {
+
+	private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json()
+			.build();
+
+	static final VaultJackson2HttpMessageConverter INSTANCE = new VaultJackson2HttpMessageConverter();
+
+	// soft references do not pin application classes through the shared INSTANCE
+	private final ConcurrentMap<JavaType, Boolean> readable = new ConcurrentReferenceHashMap<JavaType, Boolean>();
+
+	private final ConcurrentMap<Class<?>, Boolean> writable = new ConcurrentReferenceHashMap<Class<?>, Boolean>();
+
+	private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentReferenceHashMap<JavaType, ObjectReader>();
+
+	private final ObjectWriter writer;
+
+	/**
+	 * Create a new {@link VaultJackson2HttpMessageConverter} using the shared
+	 * {@link ObjectMapper}.
+	 */
+	public VaultJackson2HttpMessageConverter() {
+		this(OBJECT_MAPPER);
+	}
+
+	/**
+	 * Create a new {@link VaultJackson2HttpMessageConverter} for a {@link ObjectMapper}.
+	 * The {@link ObjectMapper} must not be reconfigured after creating the converter.
+	 *
+	 * @param objectMapper must not be {@literal null}.
+	 */
+	public VaultJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+
+		super(objectMapper);
+
+		setSupportedMediaTypes(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+		this.writer = objectMapper.writer().without(
+				JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+
+		if (!canRead(mediaType)) {
+			return false;
+		}
+
+		JavaType javaType = getJavaType(type, contextClass);
+		Boolean result = readable.get(javaType);
+
+		if (result == null) {
+
+			result = super.canRead(type, contextClass, mediaType);
+			readable.putIfAbsent(javaType, result);
+		}
+
+		return result;
+	}
+
+	@Override
+	public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+
+		if (!canWrite(mediaType)) {
+			return false;
+		}
+
+		Boolean result = writable.get(clazz);
+
+		if (result == null) {
+
+			result = super.canWrite(clazz, mediaType);
+			writable.putIfAbsent(clazz, result);
+		}
+
+		return result;
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		return read(getJavaType(type, contextClass), inputMessage);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		return read(getJavaType(clazz, null), inputMessage);
+	}
+
+	private Object read(JavaType javaType, HttpInputMessage inputMessage)
+			throws IOException {
+
+		try {
+			return getReader(javaType).readValue(inputMessage.getBody());
+		}
+		catch (JsonProcessingException e) {
+			throw new HttpMessageNotReadableException("JSON parse error: "
+					+ e.getOriginalMessage(), e);
+		}
+	}
+
+	private ObjectReader getReader(JavaType javaType) {
+
+		ObjectReader reader = readers.get(javaType);
+
+		if (reader == null) {
+
+			reader = getObjectMapper().readerFor(javaType);
+
+			ObjectReader existing = readers.putIfAbsent(javaType, reader);
+
+			if (existing != null) {
+				return existing;
+			}
+		}
+
+		return reader;
+	}
+
+	@Override
+	protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+
+		if (object instanceof MappingJacksonValue) {
+			super.writeInternal(object, type, outputMessage);
+			return;
+		}
+
+		try {
+			writer.writeValue(outputMessage.getBody(), object);
+		}
+		catch (JsonProcessingException e) {
+			throw new HttpMessageNotWritableException("Could not write JSON: "
+					+ e.getOriginalMessage(), e);
+		}
+	}
+}
@@ -22,14 +22,18 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 import org.springframework.util.StringUtils;
 import org.springframework.vault.VaultException;
 import org.springframework.vault.support.VaultResponseSupport;
@@ -42,10 +46,17 @@ import org.springframework.web.client.HttpStatusCodeException;
  */
 public abstract class VaultResponses {
 
-	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private static final ObjectMapper OBJECT_MAPPER = VaultJackson2HttpMessageConverter.INSTANCE
+			.getObjectMapper();
 
-	private static final MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(
-			OBJECT_MAPPER);
+	// soft references do not pin application classes loaded by a child class loader
+	private static final ConcurrentMap<Class<?>, ParameterizedTypeReference<?>> TYPE_REFERENCES = new ConcurrentReferenceHashMap<Class<?>, ParameterizedTypeReference<?>>();
+
+	private static final ConcurrentMap<Class<?>, JavaType> JAVA_TYPES = new ConcurrentReferenceHashMap<Class<?>, JavaType>();
+
+	private static final ConcurrentMap<Class<?>, ObjectReader> OBJECT_READERS = new ConcurrentReferenceHashMap<Class<?>, ObjectReader>();
+
+	private static final MappingJackson2HttpMessageConverter converter = VaultJackson2HttpMessageConverter.INSTANCE;
 
 	/**
 	 * Build a {@link VaultException} given {@link HttpStatusCodeException}.
@@ -88,39 +99,96 @@ public abstract class VaultResponses {
 	}
 
 	/**
-	 * Create a {@link ParameterizedTypeReference} for {@code responseType}.
+	 * Create a {@link ParameterizedTypeReference} for {@code responseType}. Type
+	 * references are cached per {@code responseType}.
 	 * @param responseType must not be {@literal null}.
 	 * @return the {@link ParameterizedTypeReference} for {@code responseType}.
 	 */
+	@SuppressWarnings("unchecked")
 	public static <T> ParameterizedTypeReference<VaultResponseSupport<T>> getTypeReference(
 			final Class<T> responseType) {
 
 		Assert.notNull(responseType, "Response type must not be null");
 
-		final Type supportType = new ParameterizedType() {
+		ParameterizedTypeReference<?> typeReference = TYPE_REFERENCES.get(responseType);
 
-			@Override
-			public Type[] getActualTypeArguments() {
-				return new Type[] { responseType };
-			}
+		if (typeReference == null) {
+
+			final Type supportType = new VaultResponseSupportType(responseType);
 
-			@Override
-			public Type getRawType() {
-				return VaultResponseSupport.class;
+			typeReference = new ParameterizedTypeReference<VaultResponseSupport<T>>() {
+				@Override
+				public Type getType() {
+					return supportType;
+				}
+			};
+
+			ParameterizedTypeReference<?> existing = TYPE_REFERENCES.putIfAbsent(
+					responseType, typeReference);
+
+			if (existing != null) {
+				typeReference = existing;
 			}
+		}
+
+		return (ParameterizedTypeReference<VaultResponseSupport<T>>) typeReference;
+	}
+
+	/**
+	 * Resolve the {@link JavaType} of {@link VaultResponseSupport} for
+	 * {@code responseType}. Resolved types are cached per {@code responseType}.
+	 * @param responseType must not be {@literal null}.
+	 * @return the {@link JavaType} of {@link VaultResponseSupport} for
+	 * {@code responseType}.
+	 * @since 1.1
+	 */
+	public static JavaType getJavaType(Class<?> responseType) {
+
+		Assert.notNull(responseType, "Response type must not be null");
+
+		JavaType javaType = JAVA_TYPES.get(responseType);
+
+		if (javaType == null) {
+
+			javaType = OBJECT_MAPPER.getTypeFactory().constructParametricType(
+					VaultResponseSupport.class, responseType);
+
+			JavaType existing = JAVA_TYPES.putIfAbsent(responseType, javaType);
 
-			@Override
-			public Type getOwnerType() {
-				return VaultResponseSupport.class;
+			if (existing != null) {
+				javaType = existing;
 			}
-		};
+		}
+
+		return javaType;
+	}
+
+	/**
+	 * Obtain a pre-built {@link ObjectReader} that binds a JSON response directly to
+	 * {@link VaultResponseSupport} of {@code responseType}. Readers are cached per
+	 * {@code responseType} and are safe for concurrent use.
+	 * @param responseType must not be {@literal null}.
+	 * @return the {@link ObjectReader} for {@code responseType}.
+	 * @since 1.1
+	 */
+	public static ObjectReader getObjectReader(Class<?> responseType) {
 
-		return new ParameterizedTypeReference<VaultResponseSupport<T>>() {
-			@Override
-			public Type getType() {
-				return supportType;
+		Assert.notNull(responseType, "Response type must not be null");
+
+		ObjectReader reader = OBJECT_READERS.get(responseType);
+
+		if (reader == null) {
+
+			reader = OBJECT_MAPPER.readerFor(getJavaType(responseType));
+
+			ObjectReader existing = OBJECT_READERS.putIfAbsent(responseType, reader);
+
+			if (existing != null) {
+				reader = existing;
 			}
-		};
+		}
+
+		return reader;
 	}
 
 	/**
@@ -184,4 +252,52 @@ public abstract class VaultResponses {
 			throw new IllegalStateException(e);
 		}
 	}
+
+	/**
+	 * {@link ParameterizedType} of {@link VaultResponseSupport} with a fixed type
+	 * argument. Implements {@link #equals(Object)} and {@link #hashCode()} so that type
+	 * caches can recognize equal types.
+	 */
+	static class VaultResponseSupportType implements ParameterizedType {
+
+		private final Class<?> responseType;
+
+		VaultResponseSupportType(Class<?> responseType) {
+			this.responseType = responseType;
+		}
+
+		@Override
+		public Type[] getActualTypeArguments() {
+			return new Type[] { responseType };
+		}
+
+		@Override
+		public Type getRawType() {
+			return VaultResponseSupport.class;
+		}
+
+		@Override
+		public Type getOwnerType() {
+			return VaultResponseSupport.class;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof VaultResponseSupportType)) {
+				return false;
+			}
+
+			return responseType.equals(((VaultResponseSupportType) o).responseType);
+		}
+
+		@Override
+		public int hashCode() {
+			return responseType.hashCode();
+		}
+	}
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.util.Assert;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that routes requests modifying data to a
+ * dedicated {@link VaultEndpoint}, typically the active node of a Vault cluster. Reads
+ * ({@code GET} and {@code HEAD} requests) retain their {@link URI} so they can be served
+ * by performance standby nodes.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class WriteRoutingInterceptor implements ClientHttpRequestInterceptor {
+
+	private final VaultEndpointProvider writeEndpointProvider;
+
+	/**
+	 * Create a new {@link WriteRoutingInterceptor}.
+	 *
+	 * @param writeEndpointProvider provider for the endpoint that accepts writes, must
+	 * not be {@literal null}.
+	 */
+	public WriteRoutingInterceptor(VaultEndpointProvider writeEndpointProvider) {
+
+		Assert.notNull(writeEndpointProvider, "Write VaultEndpointProvider must not be null");
+
+		this.writeEndpointProvider = writeEndpointProvider;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(final HttpRequest request, byte[] body,
+			ClientHttpRequestExecution execution) throws IOException {
+
+		HttpMethod method = request.getMethod();
+
+		if (method == HttpMethod.GET || method == HttpMethod.HEAD) {
+			return execution.execute(request, body);
+		}
+
+		VaultEndpoint endpoint = writeEndpointProvider.getVaultEndpoint();
+
+		final URI uri = UriComponentsBuilder.fromUri(request.getURI())
+				.scheme(endpoint.getScheme()).host(endpoint.getHost())
+				.port(endpoint.getPort()).build(true).toUri();
+
+		return execution.execute(new HttpRequestWrapper(request) {
+
+			@Override
+			public URI getURI() {
+				return uri;
+			}
+		}, body);
+	}
+}
@@ -29,12 +29,16 @@ import org.springframework.util.Assert;
 import org.springframework.vault.authentication.ClientAuthentication;
 import org.springframework.vault.authentication.LifecycleAwareSessionManager;
 import org.springframework.vault.authentication.SessionManager;
+import org.springframework.vault.client.ConnectionPrewarmer;
 import org.springframework.vault.client.SimpleVaultEndpointProvider;
 import org.springframework.vault.client.VaultClients;
 import org.springframework.vault.client.VaultEndpoint;
 import org.springframework.vault.client.VaultEndpointProvider;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.core.lease.SecretLeaseContainer;
+import org.springframework.vault.metrics.HistogramVaultMetrics;
+import org.springframework.vault.metrics.NoOpVaultMetrics;
+import org.springframework.vault.metrics.VaultMetrics;
 import org.springframework.vault.support.ClientOptions;
 import org.springframework.vault.support.SslConfiguration;
 import org.springframework.web.client.RestOperations;
@@ -84,9 +88,14 @@ public abstract class AbstractVaultConfiguration implements ApplicationContextAw
 	 */
 	@Bean
 	public VaultTemplate vaultTemplate() {
-		return new VaultTemplate(vaultEndpointProvider(),
+
+		VaultTemplate vaultTemplate = new VaultTemplate(vaultEndpointProvider(),
 				clientHttpRequestFactoryWrapper().getClientHttpRequestFactory(),
 				sessionManager());
+
+		vaultTemplate.setVaultMetrics(vaultMetrics());
+
+		return vaultTemplate;
 	}
 
 	/**
@@ -108,8 +117,12 @@ public abstract class AbstractVaultConfiguration implements ApplicationContextAw
 
 		Assert.notNull(clientAuthentication, "ClientAuthentication must not be null");
 
-		return new LifecycleAwareSessionManager(clientAuthentication,
-				threadPoolTaskScheduler(), restOperations());
+		LifecycleAwareSessionManager sessionManager = new LifecycleAwareSessionManager(
+				clientAuthentication, threadPoolTaskScheduler(), restOperations());
+
+		sessionManager.setVaultMetrics(vaultMetrics());
+
+		return sessionManager;
 	}
 
 	/**
@@ -126,6 +139,7 @@ public abstract class AbstractVaultConfiguration implements ApplicationContextAw
 		SecretLeaseContainer secretLeaseContainer = new SecretLeaseContainer(
 				vaultTemplate(), threadPoolTaskScheduler());
 
+		secretLeaseContainer.setVaultMetrics(vaultMetrics());
 		secretLeaseContainer.afterPropertiesSet();
 		secretLeaseContainer.start();
 
@@ -174,15 +188,48 @@ public abstract class AbstractVaultConfiguration implements ApplicationContextAw
 	 * {@link SslConfiguration} which are not necessarily applicable for the whole
 	 * application.
 	 *
+	 * The wrapper opens {@link ClientOptions#getPrewarmConnections()} connections to
+	 * {@link #vaultEndpointProvider()} on initialization. A {@link #vaultEndpoint()}
+	 * describing a {@link VaultEndpoint#getSocketPath() Unix domain socket} configures
+	 * the client to connect through that socket.
+	 *
 	 * @return the {@link ClientFactoryWrapper} to wrap a {@link ClientHttpRequestFactory}
 	 * instance.
 	 * @see #clientOptions()
 	 * @see #sslConfiguration()
+	 * @see #vaultMetrics()
 	 */
 	@Bean
 	public ClientFactoryWrapper clientHttpRequestFactoryWrapper() {
-		return new ClientFactoryWrapper(ClientHttpRequestFactoryFactory.create(
-				clientOptions(), sslConfiguration()));
+
+		ClientOptions clientOptions = applyUnixSocket(vaultEndpoint(), clientOptions());
+		ClientHttpRequestFactory requestFactory = ClientHttpRequestFactoryFactory.create(
+				clientOptions, sslConfiguration(), vaultMetrics());
+
+		if (clientOptions.getPrewarmConnections() == 0) {
+			return new ClientFactoryWrapper(requestFactory);
+		}
+
+		return new ClientFactoryWrapper(requestFactory, vaultEndpointProvider(),
+				clientOptions.getPrewarmConnections());
+	}
+
+	private static ClientOptions applyUnixSocket(VaultEndpoint vaultEndpoint,
+			ClientOptions clientOptions) {
+
+		String socketPath = vaultEndpoint.getSocketPath();
+
+		if (socketPath == null || socketPath.equals(clientOptions.getUnixSocketPath())) {
+			return clientOptions;
+		}
+
+		if (clientOptions.getUnixSocketPath() != null) {
+			throw new IllegalStateException(String.format(
+					"VaultEndpoint socket path %s does not match ClientOptions socket path %s",
+					socketPath, clientOptions.getUnixSocketPath()));
+		}
+
+		return clientOptions.mutate().unixSocket(socketPath).build();
 	}
 
 	/**
@@ -202,6 +249,19 @@ public abstract class AbstractVaultConfiguration implements ApplicationContextAw
 		return SslConfiguration.NONE;
 	}
 
+	/**
+	 * Annotate with {@link Bean} in case you want to expose a {@link VaultMetrics}
+	 * instance to the {@link org.springframework.context.ApplicationContext}.
+	 *
+	 * @return {@link VaultMetrics} recording request latencies and TLS handshakes.
+	 * Defaults to {@link NoOpVaultMetrics}.
+	 * @see HistogramVaultMetrics
+	 * @since 1.1
+	 */
+	public VaultMetrics vaultMetrics() {
+		return NoOpVaultMetrics.INSTANCE;
+	}
+
 	/**
 	 * Return the {@link Environment} to access property sources during Spring Vault
 	 * bootstrapping. Requires {@link #setApplicationContext(ApplicationContext)
@@ -231,8 +291,31 @@ public abstract class AbstractVaultConfiguration implements ApplicationContextAw
 
 		private final ClientHttpRequestFactory clientHttpRequestFactory;
 
+		private final VaultEndpointProvider endpointProvider;
+
+		private final int prewarmConnections;
+
 		public ClientFactoryWrapper(ClientHttpRequestFactory clientHttpRequestFactory) {
+			this(clientHttpRequestFactory, null, 0);
+		}
+
+		/**
+		 * Create a new {@link ClientFactoryWrapper} that pre-warms
+		 * {@code prewarmConnections} connections after initialization.
+		 *
+		 * @param clientHttpRequestFactory must not be {@literal null}.
+		 * @param endpointProvider may be {@literal null} if {@code prewarmConnections}
+		 * is {@literal 0}.
+		 * @param prewarmConnections number of connections to open.
+		 * @since 1.1
+		 * @see ConnectionPrewarmer
+		 */
+		public ClientFactoryWrapper(ClientHttpRequestFactory clientHttpRequestFactory,
+				VaultEndpointProvider endpointProvider, int prewarmConnections) {
+
 			this.clientHttpRequestFactory = clientHttpRequestFactory;
+			this.endpointProvider = endpointProvider;
+			this.prewarmConnections = prewarmConnections;
 		}
 
 		@Override
@@ -248,6 +331,11 @@ public abstract class AbstractVaultConfiguration implements ApplicationContextAw
 			if (clientHttpRequestFactory instanceof InitializingBean) {
 				((InitializingBean) clientHttpRequestFactory).afterPropertiesSet();
 			}
+
+			if (prewarmConnections > 0 && endpointProvider != null) {
+				ConnectionPrewarmer.prewarm(clientHttpRequestFactory,
+						endpointProvider.getVaultEndpoint(), prewarmConnections);
+			}
 		}
 
 		public ClientHttpRequestFactory getClientHttpRequestFactory() {
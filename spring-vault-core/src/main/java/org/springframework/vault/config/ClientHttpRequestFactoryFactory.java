@@ -20,29 +20,52 @@ import java.io.InputStream;
 import java.net.ProxySelector;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 
-import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
 
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.OkHttpClient;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslProvider;
+import okhttp3.Connection;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient.Builder;
+import okhttp3.Protocol;
+import okhttp3.Response;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
 
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.client.Netty4ClientHttpRequestFactory;
@@ -51,8 +74,13 @@ import org.springframework.http.client.OkHttpClientHttpRequestFactory;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.vault.client.ResilientClientHttpRequestFactory;
+import org.springframework.vault.metrics.NoOpVaultMetrics;
+import org.springframework.vault.metrics.VaultMetrics;
 import org.springframework.vault.support.ClientOptions;
+import org.springframework.vault.support.ClientOptions.HttpVersion;
 import org.springframework.vault.support.SslConfiguration;
 import org.springframework.vault.support.SslConfiguration.KeyStoreConfiguration;
 
@@ -60,6 +88,13 @@ import org.springframework.vault.support.SslConfiguration.KeyStoreConfiguration;
  * Factory for {@link ClientHttpRequestFactory} that supports Apache HTTP Components,
  * OkHttp, Netty and the JDK HTTP client (in that order). This factory configures a
  * {@link ClientHttpRequestFactory} depending on the available dependencies.
+ * <p>
+ * Connection pool options of {@link ClientOptions} are applied to Apache HTTP
+ * Components, OkHttp and OkHttp 3 as far as the client supports them, see
+ * {@link ClientOptions} for the options honored by each client. Netty and the JDK HTTP
+ * client open a connection per request and do not maintain a connection pool. HTTP/2 {@link HttpVersion versions} are served by OkHttp
+ * 3 regardless of other available clients. A {@link ClientOptions#getUnixSocketPath()
+ * Unix domain socket} is served by Netty's native epoll transport.
  *
  * @author Mark Paluch
  */
@@ -84,6 +119,17 @@ public class ClientHttpRequestFactoryFactory {
 			"io.netty.channel.nio.NioEventLoopGroup",
 			ClientHttpRequestFactoryFactory.class.getClassLoader());
 
+	private static final int SSL_MATERIAL_CACHE_SIZE = 16;
+
+	private static final Map<SslMaterialKey, SslMaterial> SSL_MATERIAL_CACHE = new LinkedHashMap<SslMaterialKey, SslMaterial>(
+			16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(Entry<SslMaterialKey, SslMaterial> eldest) {
+			return size() > SSL_MATERIAL_CACHE_SIZE;
+		}
+	};
+
 	/**
 	 * Create a {@link ClientHttpRequestFactory} for the given {@link ClientOptions} and
 	 * {@link SslConfiguration}.
@@ -95,22 +141,75 @@ public class ClientHttpRequestFactoryFactory {
 	 */
 	public static ClientHttpRequestFactory create(ClientOptions options,
 			SslConfiguration sslConfiguration) {
+		return create(options, sslConfiguration, NoOpVaultMetrics.INSTANCE);
+	}
+
+	/**
+	 * Create a {@link ClientHttpRequestFactory} for the given {@link ClientOptions} and
+	 * {@link SslConfiguration} that reports TLS handshakes to {@link VaultMetrics}.
+	 * Handshakes are reported by Apache HTTP Components, OkHttp and OkHttp 3 clients.
+	 * The client is decorated with {@link ResilientClientHttpRequestFactory} if
+	 * {@link ClientOptions#getMaxAttempts()} is greater {@literal 1} or
+	 * {@link ClientOptions#getCircuitBreakerFailureThreshold()} is greater {@literal 0}.
+	 *
+	 * @param options must not be {@literal null}
+	 * @param sslConfiguration must not be {@literal null}
+	 * @param vaultMetrics must not be {@literal null}
+	 * @return a new {@link ClientHttpRequestFactory}. Lifecycle beans must be initialized
+	 * after obtaining.
+	 * @since 1.1
+	 */
+	public static ClientHttpRequestFactory create(ClientOptions options,
+			SslConfiguration sslConfiguration, VaultMetrics vaultMetrics) {
 
 		Assert.notNull(options, "ClientOptions must not be null");
 		Assert.notNull(sslConfiguration, "SslConfiguration must not be null");
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null");
+
+		ClientHttpRequestFactory requestFactory = doCreate(options, sslConfiguration,
+				vaultMetrics);
+
+		boolean circuitBreakerEnabled = options.getCircuitBreakerFailureThreshold() > 0;
+
+		if (options.getMaxAttempts() > 1 || circuitBreakerEnabled) {
+
+			ResilientClientHttpRequestFactory resilientRequestFactory = new ResilientClientHttpRequestFactory(
+					requestFactory, circuitBreakerEnabled ? options
+							.getCircuitBreakerFailureThreshold() : 1,
+					options.getCircuitBreakerOpenDuration(), TimeUnit.MILLISECONDS);
+			resilientRequestFactory.setMaxAttempts(options.getMaxAttempts());
+			resilientRequestFactory.setCircuitBreakerEnabled(circuitBreakerEnabled);
+
+			return resilientRequestFactory;
+		}
+
+		return requestFactory;
+	}
+
+	private static ClientHttpRequestFactory doCreate(ClientOptions options,
+			SslConfiguration sslConfiguration, VaultMetrics vaultMetrics) {
 
 		try {
 
+			if (isUnixSocket(options)) {
+				return Netty.usingUnixDomainSocket(options);
+			}
+
+			if (isHttp2(options)) {
+				return OkHttp3.usingOkHttp3(options, sslConfiguration, vaultMetrics);
+			}
+
 			if (HTTP_COMPONENTS_PRESENT) {
-				return HttpComponents.usingHttpComponents(options, sslConfiguration);
+				return HttpComponents.usingHttpComponents(options, sslConfiguration,
+						vaultMetrics);
 			}
 
 			if (OKHTTP3_PRESENT) {
-				return OkHttp3.usingOkHttp3(options, sslConfiguration);
+				return OkHttp3.usingOkHttp3(options, sslConfiguration, vaultMetrics);
 			}
 
 			if (OKHTTP_PRESENT) {
-				return OkHttp.usingOkHttp(options, sslConfiguration);
+				return OkHttp.usingOkHttp(options, sslConfiguration, vaultMetrics);
 			}
 
 			if (NETTY_PRESENT) {
@@ -132,21 +231,210 @@ public class ClientHttpRequestFactoryFactory {
 		return new SimpleClientHttpRequestFactory();
 	}
 
+	/**
+	 * Create a {@link AsyncClientHttpRequestFactory} for the given {@link ClientOptions}
+	 * and {@link SslConfiguration}. Prefers Netty for non-blocking I/O and falls back to
+	 * OkHttp 3 and the JDK HTTP client (in that order). The JDK HTTP client executes
+	 * requests on a thread per request.
+	 *
+	 * @param options must not be {@literal null}
+	 * @param sslConfiguration must not be {@literal null}
+	 * @return a new {@link AsyncClientHttpRequestFactory}. Lifecycle beans must be
+	 * initialized after obtaining.
+	 * @since 1.1
+	 */
+	public static AsyncClientHttpRequestFactory createAsync(ClientOptions options,
+			SslConfiguration sslConfiguration) {
+
+		Assert.notNull(options, "ClientOptions must not be null");
+		Assert.notNull(sslConfiguration, "SslConfiguration must not be null");
+		Assert.isTrue(options.getUnixSocketPath() == null,
+				"Unix domain sockets are not supported by asynchronous clients");
+
+		try {
+
+			if (isHttp2(options)) {
+				return OkHttp3.usingOkHttp3(options, sslConfiguration);
+			}
+
+			if (NETTY_PRESENT) {
+				return Netty.usingNetty(options, sslConfiguration);
+			}
+
+			if (OKHTTP3_PRESENT) {
+				return OkHttp3.usingOkHttp3(options, sslConfiguration);
+			}
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		if (hasSslConfiguration(sslConfiguration)) {
+			logger.warn("VaultProperties has SSL configured but the SSL configuration "
+					+ "must be applied outside the Vault Client to use the JDK HTTP client");
+		}
+
+		logger.warn("Neither Netty nor OkHttp 3 present. Falling back to the JDK HTTP "
+				+ "client using a thread per request");
+
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+
+		SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor(
+				"spring-vault-SimpleAsyncTaskExecutor-");
+		taskExecutor.setDaemon(true);
+
+		requestFactory.setTaskExecutor(taskExecutor);
+		requestFactory.setConnectTimeout(options.getConnectionTimeout());
+		requestFactory.setReadTimeout(options.getReadTimeout());
+
+		return requestFactory;
+	}
+
+	private static boolean isUnixSocket(ClientOptions options) {
+
+		if (options.getUnixSocketPath() == null) {
+			return false;
+		}
+
+		if (!NETTY_PRESENT) {
+			throw new IllegalStateException(
+					"Unix domain sockets require Netty on the class path");
+		}
+
+		Assert.isTrue(options.getHttpVersion() == HttpVersion.HTTP_1_1,
+				"Unix domain sockets support HTTP/1.1 only");
+
+		return true;
+	}
+
+	private static boolean isHttp2(ClientOptions options) {
+
+		if (options.getHttpVersion() == HttpVersion.HTTP_1_1) {
+			return false;
+		}
+
+		if (!OKHTTP3_PRESENT) {
+			throw new IllegalStateException(String.format(
+					"%s requires OkHttp 3 on the class path", options.getHttpVersion()));
+		}
+
+		return true;
+	}
+
 	static SSLContext getSSLContext(SslConfiguration sslConfiguration)
 			throws GeneralSecurityException, IOException {
+		return getSslMaterial(sslConfiguration).getSslContext();
+	}
 
-		KeyManager[] keyManagers = sslConfiguration.getKeyStore() != null ? createKeyManagerFactory(
-						sslConfiguration.getKeyStoreConfiguration()).getKeyManagers()
-				: null;
+	/**
+	 * Obtain the {@link SslMaterial} for a {@link SslConfiguration} using the default TLS
+	 * session settings of {@link ClientOptions}.
+	 *
+	 * @param sslConfiguration must not be {@literal null}.
+	 * @return the {@link SslMaterial}.
+	 * @see #getSslMaterial(SslConfiguration, int, int)
+	 */
+	static SslMaterial getSslMaterial(SslConfiguration sslConfiguration)
+			throws GeneralSecurityException, IOException {
+
+		ClientOptions defaults = new ClientOptions();
 
-		TrustManager[] trustManagers = sslConfiguration.getTrustStore() != null ? createTrustManagerFactory(
-						sslConfiguration.getTrustStoreConfiguration()).getTrustManagers()
-				: null;
+		return getSslMaterial(sslConfiguration, defaults.getTlsSessionCacheSize(),
+				defaults.getTlsSessionTimeout());
+	}
+
+	/**
+	 * Obtain {@link SslMaterial} for the TLS session settings of {@link ClientOptions}.
+	 * The JVM default {@link SSLContext} is left untouched.
+	 */
+	private static SslMaterial getSslMaterial(ClientOptions options,
+			SslConfiguration sslConfiguration) throws GeneralSecurityException,
+			IOException {
+
+		return getSslMaterial(sslConfiguration, options.getTlsSessionCacheSize(),
+				options.getTlsSessionTimeout());
+	}
+
+	/**
+	 * Obtain the {@link SslMaterial} for a {@link SslConfiguration}. Key and trust stores
+	 * are loaded once per store resource, password, type, modification time and TLS
+	 * session settings. The {@link SSLContext} is shared across request factories so its
+	 * client session cache enables TLS session resumption. Session settings are applied
+	 * before the {@link SSLContext} is shared and not changed afterwards.
+	 *
+	 * @param sslConfiguration must not be {@literal null}.
+	 * @param sessionCacheSize number of cached TLS client sessions.
+	 * @param sessionTimeout timeout of cached TLS client sessions in
+	 * {@link TimeUnit#SECONDS}.
+	 * @return the {@link SslMaterial}.
+	 */
+	static SslMaterial getSslMaterial(SslConfiguration sslConfiguration,
+			int sessionCacheSize, int sessionTimeout) throws GeneralSecurityException,
+			IOException {
+
+		if (!hasSslConfiguration(sslConfiguration)) {
+			return SslMaterial.DEFAULT;
+		}
+
+		SslMaterialKey key = new SslMaterialKey(sslConfiguration, sessionCacheSize,
+				sessionTimeout);
+
+		synchronized (SSL_MATERIAL_CACHE) {
+
+			SslMaterial cached = SSL_MATERIAL_CACHE.get(key);
+
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		KeyManagerFactory keyManagerFactory = sslConfiguration.getKeyStore() != null ? createKeyManagerFactory(sslConfiguration
+				.getKeyStoreConfiguration()) : null;
+
+		TrustManagerFactory trustManagerFactory = sslConfiguration.getTrustStore() != null ? createTrustManagerFactory(sslConfiguration
+				.getTrustStoreConfiguration()) : null;
 
 		SSLContext sslContext = SSLContext.getInstance("TLS");
-		sslContext.init(keyManagers, trustManagers, null);
+		sslContext.init(
+				keyManagerFactory != null ? keyManagerFactory.getKeyManagers() : null,
+				trustManagerFactory != null ? trustManagerFactory.getTrustManagers()
+						: null, null);
+
+		SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+		sessionContext.setSessionCacheSize(sessionCacheSize);
+		sessionContext.setSessionTimeout(sessionTimeout);
 
-		return sslContext;
+		SslMaterial material = new SslMaterial(sslContext, keyManagerFactory,
+				trustManagerFactory);
+
+		synchronized (SSL_MATERIAL_CACHE) {
+
+			SslMaterial cached = SSL_MATERIAL_CACHE.get(key);
+
+			if (cached != null) {
+				return cached;
+			}
+
+			SSL_MATERIAL_CACHE.put(key, material);
+		}
+
+		return material;
+	}
+
+	private static SSLSocketFactory getSocketFactory(SslMaterial material,
+			VaultMetrics vaultMetrics) throws NoSuchAlgorithmException {
+
+		SSLSocketFactory socketFactory = material.getSslContext().getSocketFactory();
+
+		return isInstrumented(vaultMetrics) ? new InstrumentedSslSocketFactory(
+				socketFactory, vaultMetrics) : socketFactory;
+	}
+
+	private static boolean isInstrumented(VaultMetrics vaultMetrics) {
+		return vaultMetrics != NoOpVaultMetrics.INSTANCE;
 	}
 
 	private static KeyManagerFactory createKeyManagerFactory(
@@ -210,6 +498,211 @@ public class ClientHttpRequestFactoryFactory {
 				|| sslConfiguration.getKeyStore() != null;
 	}
 
+	/**
+	 * {@link SSLContext} along with the key and trust manager factories it was
+	 * initialized from.
+	 */
+	static class SslMaterial {
+
+		static final SslMaterial DEFAULT = new SslMaterial(null, null, null);
+
+		private final SSLContext sslContext;
+
+		private final KeyManagerFactory keyManagerFactory;
+
+		private final TrustManagerFactory trustManagerFactory;
+
+		private SslMaterial(SSLContext sslContext, KeyManagerFactory keyManagerFactory,
+				TrustManagerFactory trustManagerFactory) {
+
+			this.sslContext = sslContext;
+			this.keyManagerFactory = keyManagerFactory;
+			this.trustManagerFactory = trustManagerFactory;
+		}
+
+		SSLContext getSslContext() throws NoSuchAlgorithmException {
+			return sslContext != null ? sslContext : SSLContext.getDefault();
+		}
+
+		KeyManagerFactory getKeyManagerFactory() {
+			return keyManagerFactory;
+		}
+
+		TrustManagerFactory getTrustManagerFactory() {
+			return trustManagerFactory;
+		}
+
+		X509TrustManager getTrustManager() throws GeneralSecurityException {
+
+			TrustManagerFactory factory = trustManagerFactory;
+
+			if (factory == null) {
+				factory = TrustManagerFactory.getInstance(TrustManagerFactory
+						.getDefaultAlgorithm());
+				factory.init((KeyStore) null);
+			}
+
+			for (TrustManager trustManager : factory.getTrustManagers()) {
+				if (trustManager instanceof X509TrustManager) {
+					return (X509TrustManager) trustManager;
+				}
+			}
+
+			throw new IllegalStateException("No X509TrustManager available");
+		}
+	}
+
+	/**
+	 * Cache key for {@link SslMaterial}. Includes store modification times so rotated
+	 * stores are reloaded and TLS session settings so request factories with different
+	 * settings do not share an {@link SSLContext}.
+	 */
+	static class SslMaterialKey {
+
+		private final StoreKey keyStore;
+
+		private final StoreKey trustStore;
+
+		private final int sessionCacheSize;
+
+		private final int sessionTimeout;
+
+		SslMaterialKey(SslConfiguration sslConfiguration, int sessionCacheSize,
+				int sessionTimeout) {
+
+			this.keyStore = sslConfiguration.getKeyStore() != null ? new StoreKey(
+					sslConfiguration.getKeyStoreConfiguration()) : null;
+			this.trustStore = sslConfiguration.getTrustStore() != null ? new StoreKey(
+					sslConfiguration.getTrustStoreConfiguration()) : null;
+			this.sessionCacheSize = sessionCacheSize;
+			this.sessionTimeout = sessionTimeout;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof SslMaterialKey)) {
+				return false;
+			}
+
+			SslMaterialKey that = (SslMaterialKey) o;
+
+			return sessionCacheSize == that.sessionCacheSize
+					&& sessionTimeout == that.sessionTimeout
+					&& ObjectUtils.nullSafeEquals(keyStore, that.keyStore)
+					&& ObjectUtils.nullSafeEquals(trustStore, that.trustStore);
+		}
+
+		@Override
+		public int hashCode() {
+
+			int result = ObjectUtils.nullSafeHashCode(keyStore);
+			result = 31 * result + ObjectUtils.nullSafeHashCode(trustStore);
+			result = 31 * result + sessionCacheSize;
+			return 31 * result + sessionTimeout;
+		}
+	}
+
+	/**
+	 * Identity of a key or trust store. The store password is kept as a salted digest so
+	 * cached keys do not retain the password.
+	 */
+	private static class StoreKey {
+
+		private static final byte[] SALT = createSalt();
+
+		private final Resource resource;
+
+		private final byte[] passwordDigest;
+
+		private final String storeType;
+
+		private final long lastModified;
+
+		StoreKey(KeyStoreConfiguration configuration) {
+
+			this.resource = configuration.getResource();
+			this.passwordDigest = digest(configuration.getStorePassword());
+			this.storeType = configuration.getStoreType();
+			this.lastModified = lastModified(configuration.getResource());
+		}
+
+		private static byte[] createSalt() {
+
+			byte[] salt = new byte[16];
+			new SecureRandom().nextBytes(salt);
+
+			return salt;
+		}
+
+		private static byte[] digest(char[] password) {
+
+			if (password == null) {
+				return null;
+			}
+
+			MessageDigest digest;
+
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			}
+			catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException("SHA-256 not available", e);
+			}
+
+			digest.update(SALT);
+
+			for (char c : password) {
+				digest.update((byte) (c >> 8));
+				digest.update((byte) c);
+			}
+
+			return digest.digest();
+		}
+
+		private static long lastModified(Resource resource) {
+
+			try {
+				return resource.lastModified();
+			}
+			catch (IOException e) {
+				return -1;
+			}
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof StoreKey)) {
+				return false;
+			}
+
+			StoreKey that = (StoreKey) o;
+
+			return lastModified == that.lastModified
+					&& resource.equals(that.resource)
+					&& Arrays.equals(passwordDigest, that.passwordDigest)
+					&& ObjectUtils.nullSafeEquals(storeType, that.storeType);
+		}
+
+		@Override
+		public int hashCode() {
+
+			int result = resource.hashCode();
+			result = 31 * result + Arrays.hashCode(passwordDigest);
+			result = 31 * result + ObjectUtils.nullSafeHashCode(storeType);
+			return 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+		}
+	}
+
 	/**
 	 * {@link ClientHttpRequestFactory} for Apache Http Components.
 	 *
@@ -220,21 +713,47 @@ public class ClientHttpRequestFactoryFactory {
 		static ClientHttpRequestFactory usingHttpComponents(ClientOptions options,
 				SslConfiguration sslConfiguration) throws GeneralSecurityException,
 				IOException {
+			return usingHttpComponents(options, sslConfiguration,
+					NoOpVaultMetrics.INSTANCE);
+		}
+
+		static ClientHttpRequestFactory usingHttpComponents(ClientOptions options,
+				SslConfiguration sslConfiguration, VaultMetrics vaultMetrics)
+				throws GeneralSecurityException, IOException {
 
 			HttpClientBuilder httpClientBuilder = HttpClients.custom();
 
 			httpClientBuilder.setRoutePlanner(new SystemDefaultRoutePlanner(
 					DefaultSchemePortResolver.INSTANCE, ProxySelector.getDefault()));
 
-			if (hasSslConfiguration(sslConfiguration)) {
+			SSLConnectionSocketFactory sslSocketFactory = SSLConnectionSocketFactory
+					.getSocketFactory();
+
+			if (hasSslConfiguration(sslConfiguration) || isInstrumented(vaultMetrics)) {
 
-				SSLContext sslContext = getSSLContext(sslConfiguration);
-				SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(
-						sslContext);
-				httpClientBuilder.setSSLSocketFactory(sslSocketFactory);
-				httpClientBuilder.setSSLContext(sslContext);
+				SslMaterial material = getSslMaterial(options, sslConfiguration);
+				sslSocketFactory = new SSLConnectionSocketFactory(getSocketFactory(
+						material, vaultMetrics),
+						SSLConnectionSocketFactory.getDefaultHostnameVerifier());
 			}
 
+			// a custom connection manager overrides the SSL settings of the builder
+			PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+					RegistryBuilder.<ConnectionSocketFactory> create()
+							.register("http",
+									PlainConnectionSocketFactory.getSocketFactory())
+							.register("https", sslSocketFactory).build(), null, null,
+					null, options.getConnectionTimeToLive(), TimeUnit.MILLISECONDS);
+
+			connectionManager.setMaxTotal(options.getMaxConnections());
+			connectionManager.setDefaultMaxPerRoute(options.getMaxConnectionsPerRoute());
+			connectionManager.setValidateAfterInactivity(options
+					.getValidateAfterInactivity());
+
+			httpClientBuilder.setConnectionManager(connectionManager);
+			httpClientBuilder.evictIdleConnections((long) options.getIdleTimeout(),
+					TimeUnit.MILLISECONDS);
+
 			RequestConfig requestConfig = RequestConfig.custom() //
 					.setConnectTimeout(options.getConnectionTimeout()) //
 					.setSocketTimeout(options.getReadTimeout()) //
@@ -257,9 +776,21 @@ public class ClientHttpRequestFactoryFactory {
 		static ClientHttpRequestFactory usingOkHttp(ClientOptions options,
 				SslConfiguration sslConfiguration) throws GeneralSecurityException,
 				IOException {
+			return usingOkHttp(options, sslConfiguration, NoOpVaultMetrics.INSTANCE);
+		}
+
+		static ClientHttpRequestFactory usingOkHttp(ClientOptions options,
+				SslConfiguration sslConfiguration, VaultMetrics vaultMetrics)
+				throws GeneralSecurityException, IOException {
 
 			final OkHttpClient okHttpClient = new OkHttpClient();
 
+			okHttpClient.setConnectionPool(new ConnectionPool(options
+					.getMaxConnections(), options.getIdleTimeout()));
+			okHttpClient.getDispatcher().setMaxRequests(options.getMaxConnections());
+			okHttpClient.getDispatcher().setMaxRequestsPerHost(
+					options.getMaxConnectionsPerRoute());
+
 			OkHttpClientHttpRequestFactory requestFactory = new OkHttpClientHttpRequestFactory(
 					okHttpClient) {
 
@@ -274,9 +805,9 @@ public class ClientHttpRequestFactoryFactory {
 				}
 			};
 
-			if (hasSslConfiguration(sslConfiguration)) {
-				okHttpClient.setSslSocketFactory(getSSLContext(sslConfiguration)
-						.getSocketFactory());
+			if (hasSslConfiguration(sslConfiguration) || isInstrumented(vaultMetrics)) {
+				okHttpClient.setSslSocketFactory(getSocketFactory(
+						getSslMaterial(options, sslConfiguration), vaultMetrics));
 			}
 
 			requestFactory.setConnectTimeout(options.getConnectionTimeout());
@@ -293,15 +824,48 @@ public class ClientHttpRequestFactoryFactory {
 	 */
 	static class OkHttp3 {
 
-		static ClientHttpRequestFactory usingOkHttp3(ClientOptions options,
+		static OkHttp3ClientHttpRequestFactory usingOkHttp3(ClientOptions options,
 				SslConfiguration sslConfiguration) throws GeneralSecurityException,
 				IOException {
+			return usingOkHttp3(options, sslConfiguration, NoOpVaultMetrics.INSTANCE);
+		}
+
+		static OkHttp3ClientHttpRequestFactory usingOkHttp3(ClientOptions options,
+				SslConfiguration sslConfiguration, VaultMetrics vaultMetrics)
+				throws GeneralSecurityException, IOException {
 
 			Builder builder = new Builder();
 
-			if (hasSslConfiguration(sslConfiguration)) {
-				builder.sslSocketFactory(getSSLContext(sslConfiguration)
-						.getSocketFactory());
+			Dispatcher dispatcher = new Dispatcher();
+			dispatcher.setMaxRequests(options.getMaxConnections());
+			dispatcher.setMaxRequestsPerHost(options.getMaxConnectionsPerRoute());
+
+			builder.dispatcher(dispatcher).connectionPool(
+					new okhttp3.ConnectionPool(options.getMaxConnections(), options
+							.getIdleTimeout(), TimeUnit.MILLISECONDS));
+
+			if (options.getConnectionTimeToLive() > 0) {
+				builder.addNetworkInterceptor(new ConnectionTimeToLiveInterceptor(options
+						.getConnectionTimeToLive()));
+			}
+
+			switch (options.getHttpVersion()) {
+			case HTTP_2:
+				builder.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+				break;
+			case H2C:
+				builder.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+				break;
+			default:
+				builder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+			}
+
+			if (hasSslConfiguration(sslConfiguration) || isInstrumented(vaultMetrics)) {
+
+				SslMaterial material = getSslMaterial(options, sslConfiguration);
+
+				builder.sslSocketFactory(getSocketFactory(material, vaultMetrics),
+						material.getTrustManager());
 			}
 
 			builder.connectTimeout(options.getConnectionTimeout(), TimeUnit.MILLISECONDS)
@@ -309,6 +873,54 @@ public class ClientHttpRequestFactoryFactory {
 
 			return new OkHttp3ClientHttpRequestFactory(builder.build());
 		}
+
+		/**
+		 * Network interceptor retiring connections once their time to live is exceeded.
+		 * OkHttp 3 does not expire pooled connections by age, so requests on an expired
+		 * connection are sent with {@code Connection: close}. The connection does not
+		 * accept new requests afterwards and is evicted from the pool. The age of a
+		 * connection is measured from its first request.
+		 */
+		static class ConnectionTimeToLiveInterceptor implements Interceptor {
+
+			private final long timeToLiveNanos;
+
+			private final Map<Connection, Long> firstUse = new WeakHashMap<Connection, Long>();
+
+			ConnectionTimeToLiveInterceptor(long timeToLiveMillis) {
+				this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+			}
+
+			@Override
+			public Response intercept(Chain chain) throws IOException {
+
+				Connection connection = chain.connection();
+
+				if (connection != null && isExpired(connection)) {
+					return chain.proceed(chain.request().newBuilder()
+							.header("Connection", "close").build());
+				}
+
+				return chain.proceed(chain.request());
+			}
+
+			private boolean isExpired(Connection connection) {
+
+				long now = System.nanoTime();
+
+				synchronized (firstUse) {
+
+					Long since = firstUse.get(connection);
+
+					if (since == null) {
+						firstUse.put(connection, now);
+						return false;
+					}
+
+					return now - since >= timeToLiveNanos;
+				}
+			}
+		}
 	}
 
 	/**
@@ -318,7 +930,7 @@ public class ClientHttpRequestFactoryFactory {
 	 */
 	static class Netty {
 
-		static ClientHttpRequestFactory usingNetty(ClientOptions options,
+		static Netty4ClientHttpRequestFactory usingNetty(ClientOptions options,
 				SslConfiguration sslConfiguration) throws GeneralSecurityException,
 				IOException {
 
@@ -326,17 +938,19 @@ public class ClientHttpRequestFactoryFactory {
 
 			if (hasSslConfiguration(sslConfiguration)) {
 
+				SslMaterial material = getSslMaterial(sslConfiguration);
+
 				SslContextBuilder sslContextBuilder = SslContextBuilder //
-						.forClient();
+						.forClient() //
+						.sessionCacheSize(options.getTlsSessionCacheSize()) //
+						.sessionTimeout(options.getTlsSessionTimeout());
 
-				if (sslConfiguration.getTrustStore() != null) {
-					sslContextBuilder.trustManager(createTrustManagerFactory(
-							sslConfiguration.getTrustStoreConfiguration()));
+				if (material.getTrustManagerFactory() != null) {
+					sslContextBuilder.trustManager(material.getTrustManagerFactory());
 				}
 
-				if (sslConfiguration.getKeyStore() != null) {
-					sslContextBuilder.keyManager(createKeyManagerFactory(
-							sslConfiguration.getKeyStoreConfiguration()));
+				if (material.getKeyManagerFactory() != null) {
+					sslContextBuilder.keyManager(material.getKeyManagerFactory());
 				}
 
 				requestFactory.setSslContext(sslContextBuilder.sslProvider(
@@ -348,5 +962,10 @@ public class ClientHttpRequestFactoryFactory {
 
 			return requestFactory;
 		}
+
+		static ClientHttpRequestFactory usingUnixDomainSocket(ClientOptions options) {
+			return new UnixDomainSocketClientHttpRequestFactory(
+					options.getUnixSocketPath(), options);
+		}
 	}
 }
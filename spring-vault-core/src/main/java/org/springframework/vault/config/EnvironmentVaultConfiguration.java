@@ -79,7 +79,8 @@ import org.springframework.web.client.RestOperations;
  * Authentication-specific properties must be provided depending on the authentication
  * method.
  * <ul>
- * <li>Vault URI: {@code vault.uri}</li>
+ * <li>Vault URI: {@code vault.uri}, {@code unix:///path/to/socket} connects through a
+ * Unix domain socket</li>
  * <li>SSL Configuration
  * <ul>
  * <li>Keystore resource: {@code vault.ssl.key-store} (optional)</li>
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.config;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.vault.metrics.VaultMetrics;
+
+/**
+ * {@link SSLSocketFactory} decorator recording TLS handshakes with {@link VaultMetrics}.
+ * The handshake duration is measured from socket creation to handshake completion.
+ * HTTP clients create layered sockets right before starting the handshake so the
+ * duration does not include TCP connect time. A handshake is considered resumed if the
+ * session was created before the socket.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+class InstrumentedSslSocketFactory extends SSLSocketFactory {
+
+	private final SSLSocketFactory delegate;
+
+	private final VaultMetrics vaultMetrics;
+
+	InstrumentedSslSocketFactory(SSLSocketFactory delegate, VaultMetrics vaultMetrics) {
+
+		Assert.notNull(delegate, "SSLSocketFactory must not be null");
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null");
+
+		this.delegate = delegate;
+		this.vaultMetrics = vaultMetrics;
+	}
+
+	@Override
+	public String[] getDefaultCipherSuites() {
+		return delegate.getDefaultCipherSuites();
+	}
+
+	@Override
+	public String[] getSupportedCipherSuites() {
+		return delegate.getSupportedCipherSuites();
+	}
+
+	@Override
+	public Socket createSocket() throws IOException {
+		return instrument(delegate.createSocket());
+	}
+
+	@Override
+	public Socket createSocket(Socket socket, String host, int port, boolean autoClose)
+			throws IOException {
+		return instrument(delegate.createSocket(socket, host, port, autoClose));
+	}
+
+	@Override
+	public Socket createSocket(String host, int port) throws IOException {
+		return instrument(delegate.createSocket(host, port));
+	}
+
+	@Override
+	public Socket createSocket(String host, int port, InetAddress localHost,
+			int localPort) throws IOException {
+		return instrument(delegate.createSocket(host, port, localHost, localPort));
+	}
+
+	@Override
+	public Socket createSocket(InetAddress host, int port) throws IOException {
+		return instrument(delegate.createSocket(host, port));
+	}
+
+	@Override
+	public Socket createSocket(InetAddress address, int port, InetAddress localAddress,
+			int localPort) throws IOException {
+		return instrument(delegate.createSocket(address, port, localAddress, localPort));
+	}
+
+	private Socket instrument(Socket socket) {
+
+		if (socket instanceof SSLSocket) {
+			((SSLSocket) socket).addHandshakeCompletedListener(new HandshakeRecorder(
+					vaultMetrics));
+		}
+
+		return socket;
+	}
+
+	/**
+	 * Records the initial handshake of a socket. Listeners may be notified on a different
+	 * thread.
+	 */
+	static class HandshakeRecorder implements HandshakeCompletedListener {
+
+		private final VaultMetrics vaultMetrics;
+
+		private final long createdNanos = System.nanoTime();
+
+		private final long createdMillis = System.currentTimeMillis();
+
+		HandshakeRecorder(VaultMetrics vaultMetrics) {
+			this.vaultMetrics = vaultMetrics;
+		}
+
+		@Override
+		public void handshakeCompleted(HandshakeCompletedEvent event) {
+
+			// renegotiations are not related to socket creation
+			event.getSocket().removeHandshakeCompletedListener(this);
+
+			boolean resumed = event.getSession().getCreationTime() < createdMillis;
+
+			vaultMetrics.recordTlsHandshake(System.nanoTime() - createdNanos, resumed);
+		}
+	}
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.vault.support.ClientOptions;
+
+/**
+ * {@link ClientHttpRequestFactory} sending HTTP/1.1 requests over a Unix domain socket
+ * using Netty's native epoll transport. All requests are sent to the configured socket
+ * regardless of the request {@link URI} host and port. The {@link URI} host is used as
+ * {@code Host} header.
+ * <p>
+ * Connections are pooled and reused until the server closes them. The number of
+ * connections is limited by {@link ClientOptions#getMaxConnections()}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+class UnixDomainSocketClientHttpRequestFactory implements ClientHttpRequestFactory,
+		DisposableBean {
+
+	private static final int MAX_CONTENT_LENGTH = 10 * 1024 * 1024;
+
+	private static final AttributeKey<Promise<FullHttpResponse>> RESPONSE_PROMISE = AttributeKey
+			.valueOf(UnixDomainSocketClientHttpRequestFactory.class, "response");
+
+	private final EpollEventLoopGroup eventLoopGroup;
+
+	private final FixedChannelPool channelPool;
+
+	private final int connectionTimeout;
+
+	private final int readTimeout;
+
+	/**
+	 * Create a new {@link UnixDomainSocketClientHttpRequestFactory}.
+	 *
+	 * @param socketPath must not be empty or {@literal null}.
+	 * @param options must not be {@literal null}.
+	 */
+	UnixDomainSocketClientHttpRequestFactory(String socketPath, ClientOptions options) {
+
+		Assert.hasText(socketPath, "Socket path must not be empty");
+		Assert.notNull(options, "ClientOptions must not be null");
+		Assert.state(Epoll.isAvailable(),
+				"Unix domain sockets require Netty's native epoll transport");
+
+		this.connectionTimeout = options.getConnectionTimeout();
+		this.readTimeout = options.getReadTimeout();
+		this.eventLoopGroup = new EpollEventLoopGroup(1, new DefaultThreadFactory(
+				"spring-vault-uds", true));
+
+		Bootstrap bootstrap = new Bootstrap() //
+				.group(eventLoopGroup) //
+				.channel(EpollDomainSocketChannel.class) //
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeout) //
+				.remoteAddress(new DomainSocketAddress(socketPath));
+
+		this.channelPool = new FixedChannelPool(bootstrap, new AbstractChannelPoolHandler() {
+
+			@Override
+			public void channelCreated(Channel channel) {
+				channel.pipeline().addLast(new HttpClientCodec(),
+						new HttpObjectAggregator(MAX_CONTENT_LENGTH),
+						new ResponseHandler());
+			}
+		}, ChannelHealthChecker.ACTIVE, FixedChannelPool.AcquireTimeoutAction.FAIL,
+				connectionTimeout, options.getMaxConnections(), Integer.MAX_VALUE);
+	}
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod)
+			throws IOException {
+		return new UnixDomainSocketClientHttpRequest(uri, httpMethod);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+
+		channelPool.close();
+		eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+	}
+
+	private FullHttpResponse exchange(FullHttpRequest request) throws IOException {
+
+		Channel channel = await(channelPool.acquire(), connectionTimeout, request);
+		boolean reusable = false;
+
+		try {
+
+			Promise<FullHttpResponse> promise = channel.eventLoop().newPromise();
+			channel.attr(RESPONSE_PROMISE).set(promise);
+			channel.writeAndFlush(request);
+
+			FullHttpResponse response = await(promise, readTimeout, null);
+			reusable = HttpUtil.isKeepAlive(response);
+
+			return response;
+		}
+		finally {
+
+			channel.attr(RESPONSE_PROMISE).set(null);
+
+			if (!reusable) {
+				channel.close();
+			}
+
+			channelPool.release(channel);
+		}
+	}
+
+	private static <T> T await(Future<T> future, int timeout, FullHttpRequest request)
+			throws IOException {
+
+		try {
+
+			if (!future.await(timeout, TimeUnit.MILLISECONDS)) {
+
+				future.cancel(false);
+				throw new SocketTimeoutException(String.format(
+						"Timed out after %d ms", timeout));
+			}
+
+			return future.get();
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(e.getMessage());
+		}
+		catch (ExecutionException e) {
+
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+
+			throw new IOException(e.getCause());
+		}
+		finally {
+			if (request != null && !future.isSuccess()) {
+				request.release();
+			}
+		}
+	}
+
+	/**
+	 * Completes the {@link Promise} of the in-flight request.
+	 */
+	static class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+		@Override
+		protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse msg) {
+
+			Promise<FullHttpResponse> promise = ctx.channel().attr(RESPONSE_PROMISE).get();
+
+			if (promise == null || !promise.trySuccess(msg.retain())) {
+				msg.release();
+			}
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+
+			Promise<FullHttpResponse> promise = ctx.channel().attr(RESPONSE_PROMISE).get();
+
+			if (promise != null) {
+				promise.tryFailure(cause);
+			}
+
+			ctx.close();
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+
+			Promise<FullHttpResponse> promise = ctx.channel().attr(RESPONSE_PROMISE).get();
+
+			if (promise != null) {
+				promise.tryFailure(new IOException("Connection closed prematurely"));
+			}
+
+			super.channelInactive(ctx);
+		}
+	}
+
+	/**
+	 * Buffering {@link ClientHttpRequest} executed through the channel pool.
+	 */
+	class UnixDomainSocketClientHttpRequest extends AbstractClientHttpRequest {
+
+		private final URI uri;
+
+		private final HttpMethod method;
+
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(0);
+
+		UnixDomainSocketClientHttpRequest(URI uri, HttpMethod method) {
+			this.uri = uri;
+			this.method = method;
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return method;
+		}
+
+		@Override
+		public URI getURI() {
+			return uri;
+		}
+
+		@Override
+		protected OutputStream getBodyInternal(HttpHeaders headers) {
+			return body;
+		}
+
+		@Override
+		protected ClientHttpResponse executeInternal(HttpHeaders headers)
+				throws IOException {
+
+			byte[] bufferedOutput = body.toByteArray();
+
+			String path = uri.getRawPath();
+
+			if (uri.getRawQuery() != null) {
+				path += "?" + uri.getRawQuery();
+			}
+
+			FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1,
+					io.netty.handler.codec.http.HttpMethod.valueOf(method.name()), path,
+					Unpooled.wrappedBuffer(bufferedOutput));
+
+			for (Entry<String, List<String>> entry : headers.entrySet()) {
+				request.headers().add(entry.getKey(), entry.getValue());
+			}
+
+			request.headers().set(HttpHeaderNames.HOST, uri.getHost());
+			request.headers().setInt(HttpHeaderNames.CONTENT_LENGTH,
+					bufferedOutput.length);
+
+			FullHttpResponse response = exchange(request);
+
+			try {
+				return new UnixDomainSocketClientHttpResponse(response);
+			}
+			finally {
+				response.release();
+			}
+		}
+	}
+
+	/**
+	 * {@link ClientHttpResponse} holding a copy of the response body.
+	 */
+	static class UnixDomainSocketClientHttpResponse extends AbstractClientHttpResponse {
+
+		private final int statusCode;
+
+		private final String statusText;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final byte[] body;
+
+		UnixDomainSocketClientHttpResponse(FullHttpResponse response) {
+
+			this.statusCode = response.status().code();
+			this.statusText = response.status().reasonPhrase();
+			this.body = ByteBufUtil.getBytes(response.content());
+
+			for (Entry<String, String> entry : response.headers()) {
+				headers.add(entry.getKey(), entry.getValue());
+			}
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return statusCode;
+		}
+
+		@Override
+		public String getStatusText() {
+			return statusText;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(body);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.List;
+
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Interface that specifies a basic set of asynchronous Vault operations, implemented by
+ * {@link AsyncVaultTemplate}. This is the asynchronous counterpart to
+ * {@link VaultOperations}. Methods return a {@link ListenableFuture} instead of blocking
+ * the calling {@link Thread} until Vault responds.
+ * <p>
+ * Failed requests complete the {@link ListenableFuture} exceptionally with a
+ * {@link VaultException}.
+ * <p>
+ * This interface covers generic secret backend operations only. Transit and token
+ * operations have no asynchronous counterpart yet and require
+ * {@link #doWithSession(AsyncRestOperationsCallback)}. {@link #list(String)} buffers
+ * the full key list in memory and does not apply backpressure, use
+ * {@link VaultTemplate#listIterator(String)} to consume large listings incrementally.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see AsyncVaultTemplate
+ * @see VaultOperations
+ * @see org.springframework.web.client.AsyncRestOperations
+ */
+public interface AsyncVaultOperations {
+
+	/**
+	 * Read from a secret backend. Reading data using this method is suitable for secret
+	 * backends that do not require a request body.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @return the {@link ListenableFuture} emitting the data. The future completes with
+	 * {@literal null} if the path does not exist.
+	 */
+	ListenableFuture<VaultResponse> read(String path);
+
+	/**
+	 * Read from a secret backend. Reading data using this method is suitable for secret
+	 * backends that do not require a request body.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @param responseType must not be {@literal null}.
+	 * @return the {@link ListenableFuture} emitting the data. The future completes with
+	 * {@literal null} if the path does not exist.
+	 */
+	<T> ListenableFuture<VaultResponseSupport<T>> read(String path, Class<T> responseType);
+
+	/**
+	 * Enumerate keys from a secret backend.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @return the {@link ListenableFuture} emitting all keys once the response was read
+	 * completely. The future completes with an empty list if the path does not exist.
+	 */
+	ListenableFuture<List<String>> list(String path);
+
+	/**
+	 * Write to a secret backend.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @param body the body, may be {@literal null} if absent.
+	 * @return the {@link ListenableFuture} emitting the configuration data.
+	 */
+	ListenableFuture<VaultResponse> write(String path, Object body);
+
+	/**
+	 * Delete a path in the secret backend.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @return the {@link ListenableFuture} signalling completion.
+	 */
+	ListenableFuture<Void> delete(String path);
+
+	/**
+	 * Executes a Vault {@link AsyncRestOperationsCallback}. Allows to interact with Vault
+	 * using {@link org.springframework.web.client.AsyncRestOperations} without requiring
+	 * a session.
+	 *
+	 * @param clientCallback the request.
+	 * @return the {@link AsyncRestOperationsCallback} return value.
+	 * @throws RestClientException exceptions from
+	 * {@link org.springframework.web.client.AsyncRestOperations}.
+	 */
+	<T> T doWithVault(AsyncRestOperationsCallback<T> clientCallback)
+			throws RestClientException;
+
+	/**
+	 * Executes a Vault {@link AsyncRestOperationsCallback}. Allows to interact with Vault
+	 * in an authenticated session.
+	 *
+	 * @param sessionCallback the request.
+	 * @return the {@link AsyncRestOperationsCallback} return value.
+	 * @throws RestClientException exceptions from
+	 * {@link org.springframework.web.client.AsyncRestOperations}.
+	 */
+	<T> T doWithSession(AsyncRestOperationsCallback<T> sessionCallback)
+			throws RestClientException;
+}
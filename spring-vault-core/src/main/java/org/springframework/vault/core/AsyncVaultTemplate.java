@@ -0,0 +1,434 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AsyncClientHttpRequestExecution;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.annotation.AsyncResult;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.vault.authentication.AsyncSessionManager;
+import org.springframework.vault.authentication.SessionManager;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
+import org.springframework.vault.client.VaultClients;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultEndpointProvider;
+import org.springframework.vault.client.VaultHttpHeaders;
+import org.springframework.vault.client.VaultResponses;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+import org.springframework.vault.support.VaultToken;
+import org.springframework.web.client.AsyncRestOperations;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpStatusCodeException;
+
+/**
+ * This class encapsulates asynchronous Vault interaction. {@link AsyncVaultTemplate}
+ * uses the {@link SessionManager} to obtain a token and applies it to each request in
+ * the same way as {@link VaultTemplate}. Using an {@link AsyncSessionManager} obtains
+ * the token without blocking the calling {@link Thread}, even if a login is required.
+ * <p>
+ * Requests are executed using an {@link AsyncClientHttpRequestFactory}. Using a
+ * non-blocking transport such as
+ * {@link org.springframework.http.client.Netty4ClientHttpRequestFactory} allows
+ * issuing many concurrent requests without dedicating a {@link Thread} to each
+ * in-flight request.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see AsyncVaultOperations
+ * @see SessionManager
+ * @see AsyncSessionManager
+ * @see org.springframework.vault.config.ClientHttpRequestFactoryFactory#createAsync
+ */
+public class AsyncVaultTemplate implements AsyncVaultOperations {
+
+	private final AsyncSessionManager sessionManager;
+
+	private final AsyncRestTemplate sessionTemplate;
+
+	private final AsyncRestTemplate plainTemplate;
+
+	/**
+	 * Create a new {@link AsyncVaultTemplate} with a {@link VaultEndpoint},
+	 * {@link AsyncClientHttpRequestFactory} and {@link SessionManager}.
+	 *
+	 * @param vaultEndpoint must not be {@literal null}.
+	 * @param requestFactory must not be {@literal null}.
+	 * @param sessionManager must not be {@literal null}.
+	 */
+	public AsyncVaultTemplate(VaultEndpoint vaultEndpoint,
+			AsyncClientHttpRequestFactory requestFactory, SessionManager sessionManager) {
+		this(SimpleVaultEndpointProvider.of(vaultEndpoint), requestFactory,
+				sessionManager);
+	}
+
+	/**
+	 * Create a new {@link AsyncVaultTemplate} with a {@link VaultEndpointProvider},
+	 * {@link AsyncClientHttpRequestFactory} and {@link SessionManager}.
+	 *
+	 * @param endpointProvider must not be {@literal null}.
+	 * @param requestFactory must not be {@literal null}.
+	 * @param sessionManager must not be {@literal null}.
+	 */
+	public AsyncVaultTemplate(VaultEndpointProvider endpointProvider,
+			AsyncClientHttpRequestFactory requestFactory, SessionManager sessionManager) {
+		this(endpointProvider, requestFactory, adapt(sessionManager));
+	}
+
+	/**
+	 * Create a new {@link AsyncVaultTemplate} with a {@link VaultEndpointProvider},
+	 * {@link AsyncClientHttpRequestFactory} and {@link AsyncSessionManager}.
+	 *
+	 * @param endpointProvider must not be {@literal null}.
+	 * @param requestFactory must not be {@literal null}.
+	 * @param sessionManager must not be {@literal null}.
+	 */
+	public AsyncVaultTemplate(VaultEndpointProvider endpointProvider,
+			AsyncClientHttpRequestFactory requestFactory,
+			AsyncSessionManager sessionManager) {
+
+		Assert.notNull(endpointProvider, "VaultEndpointProvider must not be null");
+		Assert.notNull(requestFactory, "AsyncClientHttpRequestFactory must not be null");
+		Assert.notNull(sessionManager, "AsyncSessionManager must not be null");
+
+		this.sessionManager = sessionManager;
+		this.sessionTemplate = createSessionTemplate(endpointProvider, requestFactory);
+		this.plainTemplate = VaultClients.createAsyncRestTemplate(endpointProvider,
+				requestFactory);
+	}
+
+	private AsyncRestTemplate createSessionTemplate(
+			VaultEndpointProvider endpointProvider,
+			AsyncClientHttpRequestFactory requestFactory) {
+
+		AsyncRestTemplate restTemplate = VaultClients.createAsyncRestTemplate(
+				endpointProvider, requestFactory);
+
+		restTemplate.getInterceptors().add(new AsyncClientHttpRequestInterceptor() {
+
+			@Override
+			public ListenableFuture<ClientHttpResponse> intercept(
+					final HttpRequest request, final byte[] body,
+					final AsyncClientHttpRequestExecution execution) throws IOException {
+
+				final SettableListenableFuture<ClientHttpResponse> result = new SettableListenableFuture<ClientHttpResponse>();
+
+				sessionManager.getSessionToken().addCallback(
+						new ListenableFutureCallback<VaultToken>() {
+
+							@Override
+							public void onSuccess(VaultToken token) {
+
+								request.getHeaders().add(VaultHttpHeaders.VAULT_TOKEN,
+										token.getToken());
+
+								try {
+									execution.executeAsync(request, body).addCallback(
+											new ListenableFutureCallback<ClientHttpResponse>() {
+
+												@Override
+												public void onSuccess(
+														ClientHttpResponse response) {
+													result.set(response);
+												}
+
+												@Override
+												public void onFailure(Throwable ex) {
+													result.setException(ex);
+												}
+											});
+								}
+								catch (IOException e) {
+									result.setException(e);
+								}
+							}
+
+							@Override
+							public void onFailure(Throwable ex) {
+								result.setException(ex);
+							}
+						});
+
+				return result;
+			}
+		});
+
+		return restTemplate;
+	}
+
+	private static AsyncSessionManager adapt(final SessionManager sessionManager) {
+
+		Assert.notNull(sessionManager, "SessionManager must not be null");
+
+		return new AsyncSessionManager() {
+
+			@Override
+			public ListenableFuture<VaultToken> getSessionToken() {
+				return new AsyncResult<VaultToken>(sessionManager.getSessionToken());
+			}
+		};
+	}
+
+	@Override
+	public ListenableFuture<VaultResponse> read(String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		return doRead(path, VaultResponse.class);
+	}
+
+	@Override
+	public <T> ListenableFuture<VaultResponseSupport<T>> read(final String path,
+			Class<T> responseType) {
+
+		Assert.hasText(path, "Path must not be empty");
+		Assert.notNull(responseType, "Response type must not be null");
+
+		final ParameterizedTypeReference<VaultResponseSupport<T>> ref = VaultResponses
+				.getTypeReference(responseType);
+
+		return doWithSession(new AsyncRestOperationsCallback<ListenableFuture<VaultResponseSupport<T>>>() {
+
+			@Override
+			public ListenableFuture<VaultResponseSupport<T>> doWithRestOperations(
+					AsyncRestOperations restOperations) {
+
+				return new ResponseBodyFuture<VaultResponseSupport<T>>(path, true)
+						.from(restOperations.exchange(path, HttpMethod.GET, null, ref));
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<List<String>> list(String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		final ListenableFuture<VaultListResponse> response = doRead(
+				String.format("%s?list=true", path.endsWith("/") ? path : (path + "/")),
+				VaultListResponse.class);
+
+		return new AdaptingFuture<VaultListResponse, List<String>>(path, true) {
+
+			@Override
+			@SuppressWarnings("unchecked")
+			protected List<String> adapt(VaultListResponse result) {
+
+				if (result == null) {
+					return Collections.emptyList();
+				}
+
+				return (List<String>) result.getData().get("keys");
+			}
+		}.from(response);
+	}
+
+	@Override
+	public ListenableFuture<VaultResponse> write(final String path, final Object body) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		return doWithSession(new AsyncRestOperationsCallback<ListenableFuture<VaultResponse>>() {
+
+			@Override
+			public ListenableFuture<VaultResponse> doWithRestOperations(
+					AsyncRestOperations restOperations) {
+
+				HttpEntity<?> entity = body instanceof HttpEntity ? (HttpEntity<?>) body
+						: new HttpEntity<Object>(body);
+
+				return new ResponseBodyFuture<VaultResponse>(path, false)
+						.from(restOperations.postForEntity(path, entity,
+								VaultResponse.class));
+			}
+		});
+	}
+
+	@Override
+	public ListenableFuture<Void> delete(final String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		return doWithSession(new AsyncRestOperationsCallback<ListenableFuture<Void>>() {
+
+			@Override
+			public ListenableFuture<Void> doWithRestOperations(
+					AsyncRestOperations restOperations) {
+
+				return new AdaptingFuture<Object, Void>(path, true) {
+
+					@Override
+					protected Void adapt(Object result) {
+						return null;
+					}
+				}.from(restOperations.delete(path));
+			}
+		});
+	}
+
+	@Override
+	public <T> T doWithVault(AsyncRestOperationsCallback<T> clientCallback) {
+
+		Assert.notNull(clientCallback, "Client callback must not be null");
+
+		try {
+			return clientCallback.doWithRestOperations(plainTemplate);
+		}
+		catch (HttpStatusCodeException e) {
+			throw VaultResponses.buildException(e);
+		}
+	}
+
+	@Override
+	public <T> T doWithSession(AsyncRestOperationsCallback<T> sessionCallback) {
+
+		Assert.notNull(sessionCallback, "Session callback must not be null");
+
+		try {
+			return sessionCallback.doWithRestOperations(sessionTemplate);
+		}
+		catch (HttpStatusCodeException e) {
+			throw VaultResponses.buildException(e);
+		}
+	}
+
+	private <T> ListenableFuture<T> doRead(final String path, final Class<T> responseType) {
+
+		return doWithSession(new AsyncRestOperationsCallback<ListenableFuture<T>>() {
+
+			@Override
+			public ListenableFuture<T> doWithRestOperations(
+					AsyncRestOperations restOperations) {
+
+				return new ResponseBodyFuture<T>(path, true).from(restOperations
+						.getForEntity(path, responseType));
+			}
+		});
+	}
+
+	/**
+	 * {@link ListenableFuture} that adapts the outcome of a source future. Translates
+	 * {@link HttpStatusCodeException} into {@link org.springframework.vault.VaultException}
+	 * and optionally maps {@link HttpStatus#NOT_FOUND} to a {@literal null} result.
+	 *
+	 * @param <S> source type.
+	 * @param <T> target type.
+	 */
+	abstract static class AdaptingFuture<S, T> extends SettableListenableFuture<T>
+			implements ListenableFutureCallback<S> {
+
+		private final String path;
+
+		private final boolean notFoundAsNull;
+
+		AdaptingFuture(String path, boolean notFoundAsNull) {
+			this.path = path;
+			this.notFoundAsNull = notFoundAsNull;
+		}
+
+		/**
+		 * Subscribe to the {@code source} future.
+		 *
+		 * @param source must not be {@literal null}.
+		 * @return {@literal this} future.
+		 */
+		@SuppressWarnings("unchecked")
+		ListenableFuture<T> from(ListenableFuture<? extends S> source) {
+
+			((ListenableFuture<S>) source).addCallback(this);
+			return this;
+		}
+
+		/**
+		 * Adapt the source result.
+		 *
+		 * @param result the source result, may be {@literal null}.
+		 * @return the adapted result.
+		 */
+		protected abstract T adapt(S result);
+
+		@Override
+		public void onSuccess(S result) {
+
+			try {
+				set(adapt(result));
+			}
+			catch (RuntimeException e) {
+				setException(e);
+			}
+		}
+
+		@Override
+		public void onFailure(Throwable ex) {
+
+			Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex
+					.getCause() : ex;
+
+			if (cause instanceof HttpStatusCodeException) {
+
+				HttpStatusCodeException e = (HttpStatusCodeException) cause;
+
+				if (notFoundAsNull && e.getStatusCode() == HttpStatus.NOT_FOUND) {
+					set(null);
+					return;
+				}
+
+				setException(VaultResponses.buildException(e, path));
+				return;
+			}
+
+			setException(cause);
+		}
+	}
+
+	/**
+	 * {@link AdaptingFuture} extracting the body from a {@link ResponseEntity}.
+	 *
+	 * @param <T> body type.
+	 */
+	static class ResponseBodyFuture<T> extends AdaptingFuture<ResponseEntity<T>, T> {
+
+		ResponseBodyFuture(String path, boolean notFoundAsNull) {
+			super(path, notFoundAsNull);
+		}
+
+		@Override
+		protected T adapt(ResponseEntity<T> result) {
+			return result != null ? result.getBody() : null;
+		}
+	}
+
+	private static class VaultListResponse extends
+			VaultResponseSupport<Map<String, Object>> {
+	}
+}
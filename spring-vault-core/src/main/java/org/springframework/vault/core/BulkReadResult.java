@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Result of reading multiple paths. Holds a response for each requested path and the
+ * exceptions of paths that could not be read. Responses of paths that do not exist or
+ * that failed are {@literal null}.
+ *
+ * @param <R> response type.
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultOperations#readAll(java.util.Collection)
+ */
+public class BulkReadResult<R> {
+
+	private final Map<String, R> responses;
+
+	private final Map<String, RuntimeException> errors;
+
+	/**
+	 * Create a new {@link BulkReadResult}.
+	 *
+	 * @param responses must not be {@literal null}.
+	 * @param errors must not be {@literal null}.
+	 */
+	public BulkReadResult(Map<String, R> responses, Map<String, RuntimeException> errors) {
+
+		Assert.notNull(responses, "Responses must not be null");
+		Assert.notNull(errors, "Errors must not be null");
+
+		this.responses = Collections.unmodifiableMap(responses);
+		this.errors = Collections.unmodifiableMap(errors);
+	}
+
+	/**
+	 * @return responses keyed by path in request order. Contains a {@literal null} value
+	 * for paths that do not exist or that failed.
+	 */
+	public Map<String, R> getResponses() {
+		return responses;
+	}
+
+	/**
+	 * @return exceptions keyed by path for paths that could not be read.
+	 */
+	public Map<String, RuntimeException> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Retrieve the response for {@code path}.
+	 *
+	 * @param path the path.
+	 * @return the response or {@literal null} if the path does not exist, failed or was
+	 * not requested.
+	 */
+	public R get(String path) {
+		return responses.get(path);
+	}
+
+	/**
+	 * @return {@literal true} if reading at least one path failed.
+	 */
+	public boolean hasErrors() {
+		return !errors.isEmpty();
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.vault.VaultException;
+
+/**
+ * Reads multiple paths with a bounded number of concurrent requests. The calling
+ * {@link Thread} participates in reading and is complemented by up to
+ * {@code concurrency - 1} workers running on a {@link TaskExecutor}. Failures of
+ * individual paths are collected and do not abort reading the remaining paths.
+ * <p>
+ * Completion is tracked per path rather than per worker. Once the calling thread runs
+ * out of paths, it waits only for reads still in flight on other workers, not for
+ * workers that the {@link TaskExecutor} queued but never started.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+class BulkReader {
+
+	private final TaskExecutor taskExecutor;
+
+	private final int concurrency;
+
+	/**
+	 * @param taskExecutor must not be {@literal null}.
+	 * @param concurrency must be greater {@literal 0}.
+	 */
+	BulkReader(TaskExecutor taskExecutor, int concurrency) {
+
+		Assert.notNull(taskExecutor, "TaskExecutor must not be null");
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater 0");
+
+		this.taskExecutor = taskExecutor;
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Read all {@code paths} using {@link PathReader}. Duplicate paths are read once.
+	 *
+	 * @param paths must not be {@literal null}.
+	 * @param reader must not be {@literal null}.
+	 * @return the {@link BulkReadResult}.
+	 */
+	@SuppressWarnings("unchecked")
+	<R> BulkReadResult<R> readAll(Collection<String> paths, final PathReader<R> reader) {
+
+		Assert.notNull(paths, "Paths must not be null");
+		Assert.notNull(reader, "PathReader must not be null");
+
+		final List<String> distinctPaths = new ArrayList<String>(
+				new LinkedHashSet<String>(paths));
+		final Object[] responses = new Object[distinctPaths.size()];
+		final RuntimeException[] errors = new RuntimeException[distinctPaths.size()];
+		final AtomicInteger next = new AtomicInteger();
+		final CountDownLatch completed = new CountDownLatch(responses.length);
+
+		Runnable worker = new Runnable() {
+
+			@Override
+			public void run() {
+
+				for (int index = next.getAndIncrement(); index < responses.length; index = next
+						.getAndIncrement()) {
+
+					try {
+						responses[index] = reader.read(distinctPaths.get(index));
+					}
+					catch (RuntimeException e) {
+						errors[index] = e;
+					}
+					finally {
+						completed.countDown();
+					}
+				}
+			}
+		};
+
+		int workers = Math.min(concurrency, distinctPaths.size()) - 1;
+
+		for (int i = 0; i < workers; i++) {
+			dispatch(worker);
+		}
+
+		worker.run();
+
+		try {
+
+			// all paths are claimed once the calling thread returns, only reads in flight
+			// on other workers remain
+			completed.await();
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new VaultException("Interrupted while reading paths", e);
+		}
+
+		Map<String, R> responseMap = new LinkedHashMap<String, R>(responses.length);
+		Map<String, RuntimeException> errorMap = new LinkedHashMap<String, RuntimeException>();
+
+		for (int i = 0; i < responses.length; i++) {
+
+			responseMap.put(distinctPaths.get(i), (R) responses[i]);
+
+			if (errors[i] != null) {
+				errorMap.put(distinctPaths.get(i), errors[i]);
+			}
+		}
+
+		return new BulkReadResult<R>(responseMap, errorMap);
+	}
+
+	private void dispatch(Runnable worker) {
+
+		try {
+			taskExecutor.execute(worker);
+		}
+		catch (RejectedExecutionException e) {
+			// includes TaskRejectedException, the calling thread picks up the remaining work
+		}
+	}
+
+	/**
+	 * Strategy to read a single path.
+	 *
+	 * @param <R> response type.
+	 */
+	interface PathReader<R> {
+
+		/**
+		 * Read {@code path}.
+		 *
+		 * @param path the path to read.
+		 * @return the response, may be {@literal null} if the path does not exist.
+		 */
+		R read(String path);
+	}
+}
@@ -0,0 +1,680 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultResponseSupport;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * {@link VaultOperations} decorator that caches responses of {@link #read(String)},
+ * {@link #read(String, Class)} and their {@code readAll} variants per path. Cached responses expire after their
+ * {@link VaultResponseSupport#getLeaseDuration() lease duration}, capped to a
+ * configurable maximum time to live.
+ * <p>
+ * Only static secrets are cached. Responses that carry a
+ * {@link VaultResponseSupport#getLeaseId() lease identifier} (dynamic secrets), have no
+ * lease duration or that do not exist are not cached so each read obtains a fresh
+ * response. {@link #write(String, Object)} and {@link #delete(String)} invalidate cached
+ * entries for the affected path. Reads that were in flight while a path was invalidated
+ * do not populate the cache. Paths are compared without leading and trailing slashes so
+ * {@code secret/foo} and {@code secret/foo/} share cache entries. Requests issued through
+ * {@link #doWithSession(RestOperationsCallback)} and
+ * {@link #doWithVault(RestOperationsCallback)} bypass the cache and do not invalidate
+ * entries.
+ * <p>
+ * The cache is bounded by a maximum number of entries and optionally by a maximum
+ * weight, which is the approximate JSON size of the cached responses in bytes. Least
+ * recently used entries are evicted first. Cached response objects are shared across
+ * callers and must not be modified.
+ * <p>
+ * Instances are thread-safe.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultOperations
+ */
+public class CachingVaultOperations implements VaultOperations {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final int GENERATION_STRIPES = 256;
+
+	private static final BulkReader SEQUENTIAL_READER = new BulkReader(
+			new SyncTaskExecutor(), 1);
+
+	private final VaultOperations delegate;
+
+	private final Map<CacheKey, CacheEntry> cache = new LinkedHashMap<CacheKey, CacheEntry>(
+			16, 0.75f, true);
+
+	private final Map<String, List<CacheKey>> keysByPath = new HashMap<String, List<CacheKey>>();
+
+	/**
+	 * Invalidation generations, striped by path. Reads capture the generation before
+	 * calling the delegate and only cache their response if no invalidation happened in
+	 * the meantime.
+	 */
+	private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	private int maximumSize = 1000;
+
+	private long maximumWeight = Long.MAX_VALUE;
+
+	private long maximumTimeToLiveNanos = TimeUnit.MINUTES.toNanos(5);
+
+	private long weight;
+
+	/**
+	 * Create a new {@link CachingVaultOperations} given {@link VaultOperations}.
+	 *
+	 * @param delegate must not be {@literal null}.
+	 */
+	public CachingVaultOperations(VaultOperations delegate) {
+
+		Assert.notNull(delegate, "VaultOperations must not be null");
+
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Set the maximum number of cached responses. Defaults to {@literal 1000}.
+	 *
+	 * @param maximumSize must be greater {@literal 0}.
+	 */
+	public void setMaximumSize(int maximumSize) {
+
+		Assert.isTrue(maximumSize > 0, "Maximum size must be greater 0");
+
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Set the maximum weight of all cached responses in bytes. Weight is approximated
+	 * by the JSON representation of a response. Unbounded by default.
+	 *
+	 * @param maximumWeight must be greater {@literal 0}.
+	 */
+	public void setMaximumWeight(long maximumWeight) {
+
+		Assert.isTrue(maximumWeight > 0, "Maximum weight must be greater 0");
+
+		this.maximumWeight = maximumWeight;
+	}
+
+	/**
+	 * Set the maximum time to live for cached responses. The effective time to live is
+	 * the lesser of the response lease duration and {@code maximumTimeToLive}. Defaults
+	 * to {@literal 5} {@link TimeUnit#MINUTES}.
+	 *
+	 * @param maximumTimeToLive must be greater {@literal 0}.
+	 * @param timeUnit must not be {@literal null}.
+	 */
+	public void setMaximumTimeToLive(long maximumTimeToLive, TimeUnit timeUnit) {
+
+		Assert.isTrue(maximumTimeToLive > 0, "Maximum time to live must be greater 0");
+		Assert.notNull(timeUnit, "TimeUnit must not be null");
+
+		this.maximumTimeToLiveNanos = timeUnit.toNanos(maximumTimeToLive);
+	}
+
+	/**
+	 * @return the number of reads served from the cache.
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of reads that were not served from the cache.
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of entries evicted due to size or weight constraints.
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return the current number of cached entries, including expired entries that were
+	 * not yet removed.
+	 */
+	public int size() {
+
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+
+	/**
+	 * Remove cached responses for {@code path}.
+	 *
+	 * @param path must not be {@literal null} or empty.
+	 */
+	public void invalidate(String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		String normalized = normalize(path);
+
+		synchronized (cache) {
+
+			generations.incrementAndGet(stripe(normalized));
+
+			List<CacheKey> keys = keysByPath.remove(normalized);
+
+			if (keys == null) {
+				return;
+			}
+
+			for (CacheKey key : keys) {
+
+				CacheEntry entry = cache.remove(key);
+
+				if (entry != null) {
+					weight -= entry.weight;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached responses.
+	 */
+	public void invalidateAll() {
+
+		synchronized (cache) {
+
+			for (int i = 0; i < GENERATION_STRIPES; i++) {
+				generations.incrementAndGet(i);
+			}
+
+			cache.clear();
+			keysByPath.clear();
+			weight = 0;
+		}
+	}
+
+	@Override
+	public VaultSysOperations opsForSys() {
+		return delegate.opsForSys();
+	}
+
+	@Override
+	public VaultTokenOperations opsForToken() {
+		return delegate.opsForToken();
+	}
+
+	@Override
+	public VaultTransitOperations opsForTransit() {
+		return delegate.opsForTransit();
+	}
+
+	@Override
+	public VaultTransitOperations opsForTransit(String path) {
+		return delegate.opsForTransit(path);
+	}
+
+	@Override
+	public VaultPkiOperations opsForPki() {
+		return delegate.opsForPki();
+	}
+
+	@Override
+	public VaultPkiOperations opsForPki(String path) {
+		return delegate.opsForPki(path);
+	}
+
+	@Override
+	public VaultResponse read(String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		CacheKey key = new CacheKey(normalize(path), null);
+		VaultResponse cached = (VaultResponse) lookup(key);
+
+		if (cached != null) {
+			return cached;
+		}
+
+		long generation = generation(key.path);
+		VaultResponse response = delegate.read(path);
+		potentiallyCache(key, response, generation);
+
+		return response;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> VaultResponseSupport<T> read(String path, Class<T> responseType) {
+
+		Assert.hasText(path, "Path must not be empty");
+		Assert.notNull(responseType, "Response type must not be null");
+
+		CacheKey key = new CacheKey(normalize(path), responseType);
+		VaultResponseSupport<T> cached = (VaultResponseSupport<T>) lookup(key);
+
+		if (cached != null) {
+			return cached;
+		}
+
+		long generation = generation(key.path);
+		VaultResponseSupport<T> response = delegate.read(path, responseType);
+		potentiallyCache(key, response, generation);
+
+		return response;
+	}
+
+	/**
+	 * Read multiple paths. Cached responses are returned from the cache, remaining paths
+	 * are read using {@link VaultTemplate#readAll(Collection)} if the delegate is a
+	 * {@link VaultTemplate} or one after another otherwise.
+	 *
+	 * @param paths must not be {@literal null}.
+	 * @return the {@link BulkReadResult} containing a response for each path.
+	 * @see VaultTemplate#readAll(Collection)
+	 */
+	public BulkReadResult<VaultResponse> readAll(Collection<String> paths) {
+
+		Assert.notNull(paths, "Paths must not be null");
+
+		Map<String, VaultResponse> cached = new LinkedHashMap<String, VaultResponse>();
+		Map<String, Long> generations = new HashMap<String, Long>();
+		List<String> misses = collectMisses(paths, null, cached, generations);
+
+		BulkReadResult<VaultResponse> fetched = misses.isEmpty() ? null : fetch(misses);
+
+		return merge(paths, null, cached, generations, fetched);
+	}
+
+	/**
+	 * Read multiple paths. Cached responses are returned from the cache, remaining paths
+	 * are read using {@link VaultTemplate#readAll(Collection, Class)} if the delegate is
+	 * a {@link VaultTemplate} or one after another otherwise.
+	 *
+	 * @param paths must not be {@literal null}.
+	 * @param responseType must not be {@literal null}.
+	 * @return the {@link BulkReadResult} containing a response for each path.
+	 * @see VaultTemplate#readAll(Collection, Class)
+	 */
+	public <T> BulkReadResult<VaultResponseSupport<T>> readAll(Collection<String> paths,
+			Class<T> responseType) {
+
+		Assert.notNull(paths, "Paths must not be null");
+		Assert.notNull(responseType, "Response type must not be null");
+
+		Map<String, VaultResponseSupport<T>> cached = new LinkedHashMap<String, VaultResponseSupport<T>>();
+		Map<String, Long> generations = new HashMap<String, Long>();
+		List<String> misses = collectMisses(paths, responseType, cached, generations);
+
+		BulkReadResult<VaultResponseSupport<T>> fetched = misses.isEmpty() ? null
+				: fetch(misses, responseType);
+
+		return merge(paths, responseType, cached, generations, fetched);
+	}
+
+	@Override
+	public List<String> list(String path) {
+		return delegate.list(path);
+	}
+
+	@Override
+	public VaultResponse write(String path, Object body) {
+
+		try {
+			return delegate.write(path, body);
+		}
+		finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public void delete(String path) {
+
+		try {
+			delegate.delete(path);
+		}
+		finally {
+			invalidate(path);
+		}
+	}
+
+	@Override
+	public <T> T doWithVault(RestOperationsCallback<T> clientCallback)
+			throws VaultException, RestClientException {
+		return delegate.doWithVault(clientCallback);
+	}
+
+	@Override
+	public <T> T doWithSession(RestOperationsCallback<T> sessionCallback)
+			throws VaultException, RestClientException {
+		return delegate.doWithSession(sessionCallback);
+	}
+
+	private BulkReadResult<VaultResponse> fetch(List<String> paths) {
+
+		if (delegate instanceof VaultTemplate) {
+			return ((VaultTemplate) delegate).readAll(paths);
+		}
+
+		return SEQUENTIAL_READER.readAll(paths, new BulkReader.PathReader<VaultResponse>() {
+
+			@Override
+			public VaultResponse read(String path) {
+				return delegate.read(path);
+			}
+		});
+	}
+
+	private <T> BulkReadResult<VaultResponseSupport<T>> fetch(List<String> paths,
+			final Class<T> responseType) {
+
+		if (delegate instanceof VaultTemplate) {
+			return ((VaultTemplate) delegate).readAll(paths, responseType);
+		}
+
+		return SEQUENTIAL_READER.readAll(paths,
+				new BulkReader.PathReader<VaultResponseSupport<T>>() {
+
+					@Override
+					public VaultResponseSupport<T> read(String path) {
+						return delegate.read(path, responseType);
+					}
+				});
+	}
+
+	@SuppressWarnings("unchecked")
+	private <R extends VaultResponseSupport<?>> List<String> collectMisses(
+			Collection<String> paths, Class<?> responseType, Map<String, R> cached,
+			Map<String, Long> generations) {
+
+		Set<String> misses = new LinkedHashSet<String>();
+
+		for (String path : paths) {
+
+			if (cached.containsKey(path) || misses.contains(path)) {
+				continue;
+			}
+
+			String normalized = normalize(path);
+			R response = (R) lookup(new CacheKey(normalized, responseType));
+
+			if (response != null) {
+				cached.put(path, response);
+			}
+			else {
+				generations.put(path, generation(normalized));
+				misses.add(path);
+			}
+		}
+
+		return new ArrayList<String>(misses);
+	}
+
+	private <R extends VaultResponseSupport<?>> BulkReadResult<R> merge(
+			Collection<String> paths, Class<?> responseType, Map<String, R> cached,
+			Map<String, Long> generations, BulkReadResult<R> fetched) {
+
+		if (fetched == null) {
+			return new BulkReadResult<R>(cached, new LinkedHashMap<String, RuntimeException>());
+		}
+
+		Map<String, R> responses = new LinkedHashMap<String, R>();
+
+		for (String path : paths) {
+
+			if (responses.containsKey(path)) {
+				continue;
+			}
+
+			if (cached.containsKey(path)) {
+				responses.put(path, cached.get(path));
+				continue;
+			}
+
+			R response = fetched.get(path);
+			responses.put(path, response);
+
+			if (!fetched.getErrors().containsKey(path)) {
+				potentiallyCache(new CacheKey(normalize(path), responseType), response,
+						generations.get(path));
+			}
+		}
+
+		return new BulkReadResult<R>(responses, new LinkedHashMap<String, RuntimeException>(
+				fetched.getErrors()));
+	}
+
+	private VaultResponseSupport<?> lookup(CacheKey key) {
+
+		synchronized (cache) {
+
+			CacheEntry entry = cache.get(key);
+
+			if (entry != null) {
+
+				if (entry.expiresAt - System.nanoTime() > 0) {
+					hits.incrementAndGet();
+					return entry.response;
+				}
+
+				remove(key);
+			}
+		}
+
+		misses.incrementAndGet();
+		return null;
+	}
+
+	private void potentiallyCache(CacheKey key, VaultResponseSupport<?> response,
+			long generation) {
+
+		if (response == null || StringUtils.hasText(response.getLeaseId())
+				|| response.getLeaseDuration() <= 0) {
+			return;
+		}
+
+		long timeToLive = Math.min(
+				TimeUnit.SECONDS.toNanos(response.getLeaseDuration()),
+				maximumTimeToLiveNanos);
+
+		long entryWeight = maximumWeight != Long.MAX_VALUE ? weigh(response) : 0;
+
+		if (entryWeight > maximumWeight) {
+			return;
+		}
+
+		CacheEntry entry = new CacheEntry(response, System.nanoTime() + timeToLive,
+				entryWeight);
+
+		synchronized (cache) {
+
+			if (generation(key.path) != generation) {
+				return;
+			}
+
+			CacheEntry previous = cache.put(key, entry);
+
+			if (previous != null) {
+				weight -= previous.weight;
+			}
+			else {
+				List<CacheKey> keys = keysByPath.get(key.path);
+
+				if (keys == null) {
+					keys = new ArrayList<CacheKey>(1);
+					keysByPath.put(key.path, keys);
+				}
+
+				keys.add(key);
+			}
+
+			weight += entryWeight;
+
+			evictIfNecessary();
+		}
+	}
+
+	private void evictIfNecessary() {
+
+		Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = cache.entrySet().iterator();
+
+		while ((cache.size() > maximumSize || weight > maximumWeight)
+				&& iterator.hasNext()) {
+
+			Map.Entry<CacheKey, CacheEntry> eldest = iterator.next();
+			weight -= eldest.getValue().weight;
+			iterator.remove();
+			unindex(eldest.getKey());
+
+			evictions.incrementAndGet();
+		}
+	}
+
+	private void remove(CacheKey key) {
+
+		CacheEntry entry = cache.remove(key);
+
+		if (entry != null) {
+			weight -= entry.weight;
+			unindex(key);
+		}
+	}
+
+	private void unindex(CacheKey key) {
+
+		List<CacheKey> keys = keysByPath.get(key.path);
+
+		if (keys != null && keys.remove(key) && keys.isEmpty()) {
+			keysByPath.remove(key.path);
+		}
+	}
+
+	private long generation(String normalizedPath) {
+		return generations.get(stripe(normalizedPath));
+	}
+
+	private static int stripe(String normalizedPath) {
+		return (normalizedPath.hashCode() & 0x7fffffff) % GENERATION_STRIPES;
+	}
+
+	private static String normalize(String path) {
+
+		int start = 0;
+		int end = path.length();
+
+		while (start < end && path.charAt(start) == '/') {
+			start++;
+		}
+
+		while (end > start && path.charAt(end - 1) == '/') {
+			end--;
+		}
+
+		return path.substring(start, end);
+	}
+
+	private static long weigh(VaultResponseSupport<?> response) {
+
+		try {
+			return OBJECT_MAPPER.writeValueAsBytes(response).length;
+		}
+		catch (JsonProcessingException e) {
+			return 0;
+		}
+	}
+
+	static class CacheKey {
+
+		final String path;
+
+		final Class<?> responseType;
+
+		CacheKey(String path, Class<?> responseType) {
+			this.path = path;
+			this.responseType = responseType;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof CacheKey)) {
+				return false;
+			}
+
+			CacheKey that = (CacheKey) o;
+
+			return path.equals(that.path)
+					&& ObjectUtils.nullSafeEquals(responseType, that.responseType);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * path.hashCode() + ObjectUtils.nullSafeHashCode(responseType);
+		}
+	}
+
+	static class CacheEntry {
+
+		final VaultResponseSupport<?> response;
+
+		final long expiresAt;
+
+		final long weight;
+
+		CacheEntry(VaultResponseSupport<?> response, long expiresAt, long weight) {
+			this.response = response;
+			this.expiresAt = expiresAt;
+			this.weight = weight;
+		}
+	}
+}
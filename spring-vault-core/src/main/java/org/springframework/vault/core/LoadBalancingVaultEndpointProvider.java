@@ -0,0 +1,510 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.authentication.SessionManager;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultEndpointProvider;
+import org.springframework.vault.support.VaultHealth;
+import org.springframework.vault.support.VaultToken;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * {@link VaultEndpointProvider} distributing requests across the nodes of a Vault
+ * cluster. Each node is probed periodically in the background using
+ * {@link VaultSysOperations#health()} to track its {@link NodeState} and a moving
+ * average of its response latency.
+ * <p>
+ * {@link #getVaultEndpoint()} selects a healthy ({@link NodeState#ACTIVE active} or
+ * {@link NodeState#STANDBY standby}) node randomly, weighted by the inverse of its
+ * average latency. This spreads load across nodes while sending more requests to faster
+ * nodes. {@link #getActiveEndpoint()} returns the active node and
+ * should be used for writes. Both fall back to the configured endpoints in round-robin
+ * order while no node is known to be healthy.
+ * <p>
+ * Probing starts with {@link #afterPropertiesSet()} and stops with {@link #destroy()}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultSysOperations#health()
+ */
+@CommonsLog
+public class LoadBalancingVaultEndpointProvider implements VaultEndpointProvider,
+		InitializingBean, DisposableBean {
+
+	private static final double LATENCY_SMOOTHING = 0.3;
+
+	private static final double MIN_LATENCY_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final List<Node> nodes;
+
+	private final TaskScheduler taskScheduler;
+
+	private final Map<VaultEndpoint, VaultSysOperations> sysOperations = new HashMap<VaultEndpoint, VaultSysOperations>();
+
+	private final List<ScheduledFuture<?>> schedules = new ArrayList<ScheduledFuture<?>>();
+
+	private final AtomicInteger fallbackIndex = new AtomicInteger();
+
+	private Random random = new Random();
+
+	private long probeIntervalMillis = TimeUnit.SECONDS.toMillis(5);
+
+	/**
+	 * Create a new {@link LoadBalancingVaultEndpointProvider}.
+	 *
+	 * @param endpoints cluster nodes, must not be {@literal null} or empty.
+	 * @param requestFactory {@link ClientHttpRequestFactory} used for health probes,
+	 * must not be {@literal null}.
+	 * @param taskScheduler {@link TaskScheduler} to run health probes, must not be
+	 * {@literal null}.
+	 */
+	public LoadBalancingVaultEndpointProvider(List<VaultEndpoint> endpoints,
+			ClientHttpRequestFactory requestFactory, TaskScheduler taskScheduler) {
+
+		Assert.notEmpty(endpoints, "Endpoints must not be empty");
+		Assert.notNull(requestFactory, "ClientHttpRequestFactory must not be null");
+		Assert.notNull(taskScheduler, "TaskScheduler must not be null");
+
+		List<Node> nodes = new ArrayList<Node>(endpoints.size());
+
+		for (VaultEndpoint endpoint : endpoints) {
+
+			Assert.notNull(endpoint, "Endpoints must not contain null elements");
+			nodes.add(new Node(endpoint));
+
+			sysOperations.put(endpoint, new VaultTemplate(endpoint, requestFactory,
+					NoSessionManager.INSTANCE).opsForSys());
+		}
+
+		this.nodes = Collections.unmodifiableList(nodes);
+		this.taskScheduler = taskScheduler;
+	}
+
+	/**
+	 * Set the interval between health probes of a node. Defaults to {@literal 5}
+	 * seconds.
+	 *
+	 * @param probeInterval must be greater {@literal 0}.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setProbeInterval(long probeInterval, TimeUnit unit) {
+
+		Assert.isTrue(probeInterval > 0, "Probe interval must be greater 0");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		this.probeIntervalMillis = unit.toMillis(probeInterval);
+	}
+
+	/**
+	 * Set the {@link Random} used to select nodes.
+	 *
+	 * @param random must not be {@literal null}.
+	 */
+	void setRandom(Random random) {
+
+		Assert.notNull(random, "Random must not be null");
+
+		this.random = random;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		synchronized (schedules) {
+
+			for (final Node node : nodes) {
+
+				schedules.add(taskScheduler.scheduleWithFixedDelay(new Runnable() {
+
+					@Override
+					public void run() {
+						probe(node);
+					}
+				}, probeIntervalMillis));
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+
+		synchronized (schedules) {
+
+			for (ScheduledFuture<?> schedule : schedules) {
+				schedule.cancel(false);
+			}
+
+			schedules.clear();
+		}
+	}
+
+	/**
+	 * Select a healthy endpoint to serve a request.
+	 *
+	 * @return the selected {@link VaultEndpoint}.
+	 */
+	@Override
+	public VaultEndpoint getVaultEndpoint() {
+
+		List<Node> candidates = new ArrayList<Node>(nodes.size());
+
+		for (Node node : nodes) {
+			if (node.state == NodeState.ACTIVE || node.state == NodeState.STANDBY) {
+				candidates.add(node);
+			}
+		}
+
+		if (candidates.isEmpty()) {
+			return getFallbackEndpoint();
+		}
+
+		return select(candidates);
+	}
+
+	/**
+	 * Select a standby node to serve a read. Falls back to {@link #getVaultEndpoint()}
+	 * if no standby node is healthy.
+	 *
+	 * @return the selected {@link VaultEndpoint}.
+	 */
+	public VaultEndpoint getStandbyEndpoint() {
+
+		List<Node> candidates = new ArrayList<Node>(nodes.size());
+
+		for (Node node : nodes) {
+			if (node.state == NodeState.STANDBY) {
+				candidates.add(node);
+			}
+		}
+
+		if (candidates.isEmpty()) {
+			return getVaultEndpoint();
+		}
+
+		return select(candidates);
+	}
+
+	private VaultEndpoint select(List<Node> candidates) {
+
+		if (candidates.size() == 1) {
+			return candidates.get(0).endpoint;
+		}
+
+		double[] weights = new double[candidates.size()];
+		double totalWeight = 0;
+
+		for (int i = 0; i < weights.length; i++) {
+
+			weights[i] = 1 / Math.max(candidates.get(i).latencyNanos, MIN_LATENCY_NANOS);
+			totalWeight += weights[i];
+		}
+
+		double selection;
+
+		synchronized (random) {
+			selection = random.nextDouble() * totalWeight;
+		}
+
+		for (int i = 0; i < weights.length - 1; i++) {
+
+			selection -= weights[i];
+
+			if (selection < 0) {
+				return candidates.get(i).endpoint;
+			}
+		}
+
+		return candidates.get(weights.length - 1).endpoint;
+	}
+
+	/**
+	 * Return the endpoint of the active node. Requests that modify data should be sent
+	 * to the active node.
+	 *
+	 * @return the {@link VaultEndpoint} of the active node.
+	 */
+	public VaultEndpoint getActiveEndpoint() {
+
+		for (Node node : nodes) {
+			if (node.state == NodeState.ACTIVE) {
+				return node.endpoint;
+			}
+		}
+
+		return getFallbackEndpoint();
+	}
+
+	/**
+	 * Return a {@link VaultEndpointProvider} that always selects the active node. Useful
+	 * to create a dedicated {@link VaultTemplate} for writes.
+	 *
+	 * @return a {@link VaultEndpointProvider} selecting the active node.
+	 * @see #getActiveEndpoint()
+	 */
+	public VaultEndpointProvider activeEndpointProvider() {
+
+		return new VaultEndpointProvider() {
+
+			@Override
+			public VaultEndpoint getVaultEndpoint() {
+				return getActiveEndpoint();
+			}
+		};
+	}
+
+	/**
+	 * Return a {@link VaultEndpointProvider} that prefers standby nodes. Useful to serve
+	 * reads from performance standby nodes while writes are routed to the active node.
+	 *
+	 * @return a {@link VaultEndpointProvider} selecting standby nodes.
+	 * @see #getStandbyEndpoint()
+	 * @see VaultTemplate#setWriteEndpointProvider(VaultEndpointProvider)
+	 */
+	public VaultEndpointProvider standbyEndpointProvider() {
+
+		return new VaultEndpointProvider() {
+
+			@Override
+			public VaultEndpoint getVaultEndpoint() {
+				return getStandbyEndpoint();
+			}
+		};
+	}
+
+	/**
+	 * Return the last known {@link NodeState} of {@code endpoint}.
+	 *
+	 * @param endpoint must not be {@literal null}.
+	 * @return the {@link NodeState}.
+	 */
+	public NodeState getNodeState(VaultEndpoint endpoint) {
+		return getNode(endpoint).state;
+	}
+
+	/**
+	 * Return the moving average of health probe latencies of {@code endpoint}.
+	 *
+	 * @param endpoint must not be {@literal null}.
+	 * @param unit must not be {@literal null}.
+	 * @return the average latency in {@code unit}.
+	 */
+	public long getLatency(VaultEndpoint endpoint, TimeUnit unit) {
+
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		return unit.convert((long) getNode(endpoint).latencyNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Probe all nodes immediately.
+	 */
+	public void probe() {
+
+		for (Node node : nodes) {
+			probe(node);
+		}
+	}
+
+	/**
+	 * Obtain the {@link VaultHealth} of {@code endpoint}. Subclasses may override this
+	 * method to customize health probing.
+	 *
+	 * @param endpoint the endpoint to probe.
+	 * @return the {@link VaultHealth}.
+	 * @throws RestClientResponseException if the node responded with a health status
+	 * that could not be read, the node state is derived from the status code.
+	 * @throws RuntimeException if the node cannot be reached.
+	 */
+	protected VaultHealth probeHealth(VaultEndpoint endpoint) {
+
+		return sysOperations.get(endpoint).health();
+	}
+
+	private void probe(Node node) {
+
+		NodeState state;
+		long start = System.nanoTime();
+
+		try {
+			state = toNodeState(probeHealth(node.endpoint));
+			node.recordLatency(System.nanoTime() - start);
+		}
+		catch (RestClientResponseException e) {
+
+			// the node responded but its health could not be read from the body
+			state = toNodeState(e.getRawStatusCode());
+			node.recordLatency(System.nanoTime() - start);
+
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Health probe of %s returned status %d",
+						node.endpoint, e.getRawStatusCode()));
+			}
+		}
+		catch (RuntimeException e) {
+
+			state = NodeState.UNREACHABLE;
+
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Health probe of %s failed: %s", node.endpoint,
+						e.getMessage()));
+			}
+		}
+
+		if (node.state != state && log.isInfoEnabled()) {
+			log.info(String.format("Vault node %s changed state from %s to %s",
+					node.endpoint, node.state, state));
+		}
+
+		node.state = state;
+	}
+
+	private static NodeState toNodeState(VaultHealth health) {
+
+		if (health == null) {
+			return NodeState.UNREACHABLE;
+		}
+
+		if (!health.isInitialized() || health.isSealed()) {
+			return NodeState.SEALED;
+		}
+
+		return health.isStandby() ? NodeState.STANDBY : NodeState.ACTIVE;
+	}
+
+	/**
+	 * Map the status code of a {@code sys/health} response to a {@link NodeState}.
+	 * Vault answers with {@literal 429} on standby, {@literal 473} on performance
+	 * standby, {@literal 501} on uninitialized and {@literal 503} on sealed nodes.
+	 */
+	private static NodeState toNodeState(int statusCode) {
+
+		switch (statusCode) {
+
+		case 200:
+			return NodeState.ACTIVE;
+		case 429:
+		case 473:
+			return NodeState.STANDBY;
+		case 501:
+		case 503:
+			return NodeState.SEALED;
+		default:
+			return NodeState.UNREACHABLE;
+		}
+	}
+
+	private VaultEndpoint getFallbackEndpoint() {
+
+		int index = (fallbackIndex.getAndIncrement() & Integer.MAX_VALUE) % nodes.size();
+		return nodes.get(index).endpoint;
+	}
+
+	private Node getNode(VaultEndpoint endpoint) {
+
+		Assert.notNull(endpoint, "VaultEndpoint must not be null");
+
+		for (Node node : nodes) {
+			if (node.endpoint.equals(endpoint)) {
+				return node;
+			}
+		}
+
+		throw new IllegalArgumentException(String.format("Unknown endpoint %s",
+				endpoint));
+	}
+
+	/**
+	 * Health state of a Vault node.
+	 */
+	public enum NodeState {
+
+		/**
+		 * The node was not probed yet.
+		 */
+		UNKNOWN,
+
+		/**
+		 * The node is unsealed and the active node of the cluster.
+		 */
+		ACTIVE,
+
+		/**
+		 * The node is unsealed and a standby or performance standby node.
+		 */
+		STANDBY,
+
+		/**
+		 * The node is sealed or not initialized.
+		 */
+		SEALED,
+
+		/**
+		 * The node could not be reached.
+		 */
+		UNREACHABLE;
+	}
+
+	static class Node {
+
+		final VaultEndpoint endpoint;
+
+		volatile NodeState state = NodeState.UNKNOWN;
+
+		volatile double latencyNanos;
+
+		Node(VaultEndpoint endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		synchronized void recordLatency(long nanos) {
+
+			latencyNanos = latencyNanos == 0 ? nanos : LATENCY_SMOOTHING * nanos
+					+ (1 - LATENCY_SMOOTHING) * latencyNanos;
+		}
+	}
+
+	/**
+	 * {@link SessionManager} for templates that only issue unauthenticated requests.
+	 */
+	enum NoSessionManager implements SessionManager {
+
+		INSTANCE;
+
+		@Override
+		public VaultToken getSessionToken() {
+			throw new VaultException("Health probes do not use a session");
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.vault.VaultException;
+
+/**
+ * Coalesces concurrent identical requests into a single in-flight execution. The first
+ * caller for a given path and response type executes the request while concurrent
+ * callers wait for its outcome. All callers receive the same result object or the same
+ * exception.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+class RequestCoalescer {
+
+	private final ConcurrentMap<RequestKey, FutureTask<?>> inFlight = new ConcurrentHashMap<RequestKey, FutureTask<?>>();
+
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * Execute {@code callable} unless an identical request is already in flight.
+	 *
+	 * @param path the request path.
+	 * @param responseType the response type.
+	 * @param typed {@literal true} if {@code responseType} is the type of the
+	 * {@link org.springframework.vault.support.VaultResponseSupport#getData() data} of a
+	 * response, {@literal false} if it is the type of the response itself.
+	 * @param callable the actual request.
+	 * @return the request result, may be {@literal null}.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T execute(String path, Class<?> responseType, boolean typed, Callable<T> callable) {
+
+		RequestKey key = new RequestKey(path, responseType, typed);
+		FutureTask<T> task = new FutureTask<T>(callable);
+
+		FutureTask<?> existing = inFlight.putIfAbsent(key, task);
+
+		if (existing != null) {
+
+			coalesced.incrementAndGet();
+			return (T) await(existing);
+		}
+
+		try {
+			task.run();
+		}
+		finally {
+			inFlight.remove(key, task);
+		}
+
+		return await(task);
+	}
+
+	/**
+	 * @return the number of requests that were served by an already in-flight request.
+	 */
+	long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	private static <T> T await(FutureTask<T> task) {
+
+		try {
+			return task.get();
+		}
+		catch (ExecutionException e) {
+
+			Throwable cause = e.getCause();
+
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw new VaultException("Request failed", cause);
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new VaultException("Interrupted while awaiting in-flight request", e);
+		}
+	}
+
+	static class RequestKey {
+
+		private final String path;
+
+		private final Class<?> responseType;
+
+		private final boolean typed;
+
+		RequestKey(String path, Class<?> responseType, boolean typed) {
+			this.path = path;
+			this.responseType = responseType;
+			this.typed = typed;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+
+			if (this == o) {
+				return true;
+			}
+
+			if (!(o instanceof RequestKey)) {
+				return false;
+			}
+
+			RequestKey that = (RequestKey) o;
+
+			return typed == that.typed && path.equals(that.path)
+					&& responseType.equals(that.responseType);
+		}
+
+		@Override
+		public int hashCode() {
+
+			int result = path.hashCode();
+			result = 31 * result + responseType.hashCode();
+			return 31 * result + (typed ? 1 : 0);
+		}
+	}
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultEndpointProvider;
+
+/**
+ * Executes idempotent requests with hedging. A request is sent to an endpoint obtained
+ * from {@link VaultEndpointProvider}. If it does not complete within the hedge delay, a
+ * second attempt is sent to another endpoint. The first successful attempt wins and the
+ * other attempt is cancelled on a best-effort basis.
+ * <p>
+ * The hedge delay is derived from a percentile of recently observed latencies. Until
+ * enough latencies are recorded, the initial delay is used.
+ * <p>
+ * Hedges are limited by a token bucket: each request adds a fraction of a token (the
+ * hedge ratio) and each hedge consumes a whole token, so a struggling cluster does not
+ * receive twice the load. Requests are not hedged if the
+ * {@link VaultEndpointProvider} does not provide an endpoint other than the primary one.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+class RequestHedger {
+
+	static final int WINDOW_SIZE = 1024;
+
+	static final int MIN_SAMPLES = 32;
+
+	private static final int RECALCULATE_INTERVAL = 64;
+
+	private static final long INITIAL_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private static final long MIN_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * Scale of hedge tokens to account for fractional deposits.
+	 */
+	private static final long TOKEN = 1000;
+
+	/**
+	 * Maximum number of hedges that can be sent in a burst.
+	 */
+	static final int MAX_BURST = 10;
+
+	private final TaskExecutor taskExecutor;
+
+	private final VaultEndpointProvider endpointProvider;
+
+	private final long[] latencies = new long[WINDOW_SIZE];
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong hedges = new AtomicLong();
+
+	private final AtomicLong hedgeWins = new AtomicLong();
+
+	private final AtomicLong hedgeTokens = new AtomicLong(MAX_BURST * TOKEN);
+
+	private volatile long hedgeTokenDeposit = (long) (0.1 * TOKEN);
+
+	private volatile double percentile;
+
+	private volatile long delayNanos = INITIAL_DELAY_NANOS;
+
+	private long samples;
+
+	/**
+	 * @param taskExecutor must not be {@literal null}.
+	 * @param endpointProvider must not be {@literal null}.
+	 * @param percentile latency percentile to derive the hedge delay, between
+	 * {@literal 0} (exclusive) and {@literal 1} (inclusive).
+	 */
+	RequestHedger(TaskExecutor taskExecutor, VaultEndpointProvider endpointProvider,
+			double percentile) {
+
+		Assert.notNull(taskExecutor, "TaskExecutor must not be null");
+		Assert.notNull(endpointProvider, "VaultEndpointProvider must not be null");
+
+		setPercentile(percentile);
+
+		this.taskExecutor = taskExecutor;
+		this.endpointProvider = endpointProvider;
+	}
+
+	void setPercentile(double percentile) {
+
+		Assert.isTrue(percentile > 0 && percentile <= 1,
+				"Percentile must be greater 0 and less or equal to 1");
+
+		this.percentile = percentile;
+	}
+
+	/**
+	 * Set the maximum ratio of hedged attempts to requests. Defaults to {@literal 0.1}
+	 * (10%).
+	 *
+	 * @param hedgeRatio ratio greater {@literal 0} and less or equal to {@literal 1}.
+	 */
+	void setMaxHedgeRatio(double hedgeRatio) {
+
+		Assert.isTrue(hedgeRatio > 0 && hedgeRatio <= 1,
+				"Hedge ratio must be greater 0 and less or equal to 1");
+
+		this.hedgeTokenDeposit = (long) (hedgeRatio * TOKEN);
+	}
+
+	/**
+	 * Execute {@link Attempt} with hedging.
+	 *
+	 * @param attempt the request attempt.
+	 * @return the result of the first successful attempt.
+	 */
+	<T> T execute(Attempt<T> attempt) {
+
+		requests.incrementAndGet();
+		depositHedgeToken();
+
+		CompletionService<T> completionService = new ExecutorCompletionService<T>(
+				taskExecutor);
+
+		VaultEndpoint primaryEndpoint = endpointProvider.getVaultEndpoint();
+		Future<T> primary = completionService.submit(timed(attempt, primaryEndpoint));
+		Future<T> hedge = null;
+
+		try {
+
+			Future<T> completed = completionService.poll(delayNanos,
+					TimeUnit.NANOSECONDS);
+
+			if (completed != null) {
+				return await(completed);
+			}
+
+			VaultEndpoint alternateEndpoint = getAlternateEndpoint(primaryEndpoint);
+
+			if (alternateEndpoint == null || !acquireHedgeToken()) {
+				return await(primary);
+			}
+
+			hedges.incrementAndGet();
+			hedge = completionService.submit(timed(attempt, alternateEndpoint));
+
+			completed = completionService.take();
+
+			try {
+
+				T result = await(completed);
+
+				if (completed == hedge) {
+					hedgeWins.incrementAndGet();
+				}
+
+				return result;
+			}
+			catch (RuntimeException e) {
+
+				// first completed attempt failed, use the outcome of the other attempt
+				Future<T> other = completionService.take();
+				T result = await(other);
+
+				if (other == hedge) {
+					hedgeWins.incrementAndGet();
+				}
+
+				return result;
+			}
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+			throw new VaultException("Interrupted while awaiting hedged request", e);
+		}
+		finally {
+
+			primary.cancel(true);
+
+			if (hedge != null) {
+				hedge.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of requests executed.
+	 */
+	long getRequestCount() {
+		return requests.get();
+	}
+
+	/**
+	 * @return the number of hedged attempts sent.
+	 */
+	long getHedgeCount() {
+		return hedges.get();
+	}
+
+	/**
+	 * @return the number of requests answered by the hedged attempt.
+	 */
+	long getHedgeWinCount() {
+		return hedgeWins.get();
+	}
+
+	/**
+	 * @return the current hedge delay in nanoseconds.
+	 */
+	long getDelayNanos() {
+		return delayNanos;
+	}
+
+	void recordLatency(long nanos) {
+
+		long[] snapshot = null;
+
+		synchronized (latencies) {
+
+			latencies[(int) (samples % WINDOW_SIZE)] = nanos;
+			samples++;
+
+			if (samples >= MIN_SAMPLES && samples % RECALCULATE_INTERVAL == 0) {
+				snapshot = Arrays.copyOf(latencies, (int) Math.min(samples, WINDOW_SIZE));
+			}
+		}
+
+		if (snapshot != null) {
+
+			Arrays.sort(snapshot);
+
+			int index = (int) Math.ceil(percentile * snapshot.length) - 1;
+			delayNanos = Math.max(MIN_DELAY_NANOS, snapshot[Math.max(index, 0)]);
+		}
+	}
+
+	private VaultEndpoint getAlternateEndpoint(VaultEndpoint primary) {
+
+		for (int i = 0; i < 3; i++) {
+
+			VaultEndpoint endpoint = endpointProvider.getVaultEndpoint();
+
+			if (!endpoint.equals(primary)) {
+				return endpoint;
+			}
+		}
+
+		return null;
+	}
+
+	private void depositHedgeToken() {
+
+		long deposit = hedgeTokenDeposit;
+
+		for (;;) {
+
+			long tokens = hedgeTokens.get();
+			long update = Math.min(tokens + deposit, MAX_BURST * TOKEN);
+
+			if (tokens == update || hedgeTokens.compareAndSet(tokens, update)) {
+				return;
+			}
+		}
+	}
+
+	private boolean acquireHedgeToken() {
+
+		for (;;) {
+
+			long tokens = hedgeTokens.get();
+
+			if (tokens < TOKEN) {
+				return false;
+			}
+
+			if (hedgeTokens.compareAndSet(tokens, tokens - TOKEN)) {
+				return true;
+			}
+		}
+	}
+
+	private <T> Callable<T> timed(final Attempt<T> attempt, final VaultEndpoint endpoint) {
+
+		return new Callable<T>() {
+
+			@Override
+			public T call() {
+
+				long start = System.nanoTime();
+				T result = attempt.execute(endpoint);
+				recordLatency(System.nanoTime() - start);
+
+				return result;
+			}
+		};
+	}
+
+	private static <T> T await(Future<T> future) throws InterruptedException {
+
+		try {
+			return future.get();
+		}
+		catch (ExecutionException e) {
+
+			Throwable cause = e.getCause();
+
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw new VaultException("Request failed", cause);
+		}
+	}
+
+	/**
+	 * A single request attempt.
+	 *
+	 * @param <T> result type.
+	 */
+	interface Attempt<T> {
+
+		/**
+		 * Execute the request against {@code endpoint}.
+		 *
+		 * @param endpoint the endpoint to use.
+		 * @return the result, may be {@literal null}.
+		 */
+		T execute(VaultEndpoint endpoint);
+	}
+}
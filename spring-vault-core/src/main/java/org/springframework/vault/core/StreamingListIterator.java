@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.CloseableIterator;
+
+/**
+ * {@link CloseableIterator} that reads the {@code data.keys} array of a list response
+ * incrementally using a streaming {@link JsonParser}. Keys are parsed on demand so
+ * memory consumption does not depend on the number of listed keys. The underlying
+ * {@link ClientHttpResponse} is closed once the last key was consumed, on parsing
+ * errors or on {@link #close()}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+class StreamingListIterator implements CloseableIterator<String> {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private final ClientHttpResponse response;
+
+	private final String path;
+
+	private JsonParser parser;
+
+	private String next;
+
+	private boolean closed;
+
+	/**
+	 * Create a new {@link StreamingListIterator} reading from {@code response}.
+	 *
+	 * @param response the response to read from, may be {@literal null} to create an
+	 * empty iterator.
+	 * @param path the listed path, used for exception messages.
+	 */
+	StreamingListIterator(ClientHttpResponse response, String path) {
+
+		this.response = response;
+		this.path = path;
+		this.closed = response == null;
+	}
+
+	@Override
+	public boolean hasNext() {
+
+		if (next != null) {
+			return true;
+		}
+
+		if (closed) {
+			return false;
+		}
+
+		try {
+			next = readNextKey();
+		}
+		catch (IOException e) {
+
+			close();
+			throw new VaultException(String.format("Cannot read keys of %s: %s", path,
+					e.getMessage()), e);
+		}
+
+		if (next == null) {
+			close();
+		}
+
+		return next != null;
+	}
+
+	@Override
+	public String next() {
+
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		String key = next;
+		next = null;
+
+		return key;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("remove");
+	}
+
+	@Override
+	public void close() {
+
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+
+		try {
+			if (parser != null) {
+				parser.close();
+			}
+		}
+		catch (IOException e) {
+			// ignore
+		}
+		finally {
+			response.close();
+		}
+	}
+
+	/**
+	 * Advance the parser to the next key.
+	 *
+	 * @return the next key or {@literal null} if the keys array is exhausted.
+	 * @throws IOException
+	 */
+	private String readNextKey() throws IOException {
+
+		if (parser == null) {
+
+			parser = JSON_FACTORY.createParser(response.getBody());
+
+			if (!positionAtKeys()) {
+				return null;
+			}
+		}
+
+		JsonToken token = parser.nextToken();
+
+		while (token != null && token != JsonToken.END_ARRAY) {
+
+			if (token == JsonToken.VALUE_STRING) {
+				return parser.getText();
+			}
+
+			parser.skipChildren();
+			token = parser.nextToken();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Position the parser at the start of the {@code data.keys} array.
+	 *
+	 * @return {@literal true} if the response contains a keys array.
+	 * @throws IOException
+	 */
+	private boolean positionAtKeys() throws IOException {
+
+		return parser.nextToken() == JsonToken.START_OBJECT && seekField("data")
+				&& seekField("keys") && parser.getCurrentToken() == JsonToken.START_ARRAY;
+	}
+
+	/**
+	 * Advance the parser within the current object to the value of {@code fieldName}.
+	 * The value must be an object or array to continue.
+	 */
+	private boolean seekField(String fieldName) throws IOException {
+
+		for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser
+				.nextToken()) {
+
+			String currentName = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+
+			if (fieldName.equals(currentName)) {
+				return value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY;
+			}
+
+			parser.skipChildren();
+		}
+
+		return false;
+	}
+}
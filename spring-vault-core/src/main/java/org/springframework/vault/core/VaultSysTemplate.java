@@ -43,6 +43,7 @@ import org.springframework.vault.support.VaultResponseSupport;
 import org.springframework.vault.support.VaultToken;
 import org.springframework.vault.support.VaultUnsealStatus;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestOperations;
 
 /**
@@ -300,8 +301,10 @@ public class VaultSysTemplate implements VaultSysOperations {
 						"sys/health", HttpMethod.GET, null, VaultHealthImpl.class);
 				return healthResponse.getBody();
 			}
-			catch (HttpStatusCodeException responseError) {
+			catch (RestClientResponseException responseError) {
 
+				// standby and sealed nodes report their health with a non-2xx status,
+				// performance standby nodes use 473 which HttpStatus does not know
 				try {
 					ObjectMapper mapper = new ObjectMapper();
 					return mapper.readValue(responseError.getResponseBodyAsString(),
@@ -16,35 +16,56 @@
 package org.springframework.vault.core;
 
 import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
+import org.springframework.vault.VaultException;
 import org.springframework.vault.authentication.ClientAuthentication;
 import org.springframework.vault.authentication.SessionManager;
 import org.springframework.vault.authentication.SimpleSessionManager;
 import org.springframework.vault.client.SimpleVaultEndpointProvider;
 import org.springframework.vault.client.VaultClients;
+import org.springframework.vault.client.VaultClients.PrefixAwareUriTemplateHandler;
 import org.springframework.vault.client.VaultEndpoint;
 import org.springframework.vault.client.VaultEndpointProvider;
 import org.springframework.vault.client.VaultHttpHeaders;
+import org.springframework.vault.client.VaultIndexInterceptor;
 import org.springframework.vault.client.VaultResponses;
+import org.springframework.vault.client.WriteRoutingInterceptor;
+import org.springframework.vault.metrics.VaultMetrics;
+import org.springframework.vault.metrics.VaultMetricsInterceptor;
+import org.springframework.vault.support.CloseableIterator;
 import org.springframework.vault.support.VaultResponse;
 import org.springframework.vault.support.VaultResponseSupport;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
 
@@ -57,14 +78,39 @@ import org.springframework.web.client.RestTemplate;
  */
 public class VaultTemplate implements InitializingBean, VaultOperations, DisposableBean {
 
+	private static final RequestCallback ACCEPT_JSON = new RequestCallback() {
+
+		@Override
+		public void doWithRequest(ClientHttpRequest request) {
+			request.getHeaders().setAccept(
+					Collections.singletonList(MediaType.APPLICATION_JSON));
+		}
+	};
+
 	private SessionManager sessionManager;
 
 	private RestTemplate sessionTemplate;
 
 	private RestTemplate plainTemplate;
 
+	private VaultEndpointProvider endpointProvider;
+
 	private final boolean dedicatedSessionManager;
 
+	private volatile RequestCoalescer requestCoalescer;
+
+	private final Object bulkReaderMonitor = new Object();
+
+	private volatile BulkReader bulkReader;
+
+	private ThreadPoolExecutor defaultBulkReadExecutor;
+
+	private volatile RequestHedger requestHedger;
+
+	private volatile double hedgeDelayPercentile = 0.95;
+
+	private volatile double maxHedgeRatio = 0.1;
+
 	/**
 	 * Create a new {@link VaultTemplate} without setting {@link RestOperations} and
 	 * {@link SessionManager}.
@@ -94,6 +140,7 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 		VaultEndpointProvider endpointProvider = SimpleVaultEndpointProvider
 				.of(vaultEndpoint);
 
+		this.endpointProvider = endpointProvider;
 		this.sessionTemplate = createSessionTemplate(endpointProvider, requestFactory);
 		this.plainTemplate = VaultClients.createRestTemplate(vaultEndpoint,
 				requestFactory);
@@ -135,6 +182,7 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 		this.sessionManager = sessionManager;
 		this.dedicatedSessionManager = false;
 
+		this.endpointProvider = endpointProvider;
 		this.sessionTemplate = createSessionTemplate(endpointProvider,
 				clientHttpRequestFactory);
 		this.plainTemplate = VaultClients.createRestTemplate(endpointProvider,
@@ -175,6 +223,286 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 		this.sessionManager = sessionManager;
 	}
 
+	/**
+	 * Enable or disable coalescing of concurrent reads. Concurrent reads of the same path
+	 * with the same response type share a single in-flight request and all callers
+	 * receive the same response object (or the same exception). Disabled by default.
+	 * <p>
+	 * Responses returned from coalesced reads are shared across callers and must not be
+	 * modified.
+	 *
+	 * @param coalesceReads {@literal true} to coalesce concurrent reads.
+	 * @since 1.1
+	 * @see #getCoalescedReadCount()
+	 */
+	public void setCoalesceReads(boolean coalesceReads) {
+		this.requestCoalescer = coalesceReads ? new RequestCoalescer() : null;
+	}
+
+	/**
+	 * @return the number of reads that were served by an already in-flight request
+	 * instead of issuing an own request. Returns {@literal 0} if read coalescing is
+	 * disabled.
+	 * @since 1.1
+	 * @see #setCoalesceReads(boolean)
+	 */
+	public long getCoalescedReadCount() {
+
+		RequestCoalescer requestCoalescer = this.requestCoalescer;
+		return requestCoalescer != null ? requestCoalescer.getCoalescedCount() : 0;
+	}
+
+	/**
+	 * Configure the {@link TaskExecutor} and the maximum number of concurrent requests
+	 * used by {@link #readAll(Collection)}. The calling thread participates in reading so
+	 * at most {@code concurrency - 1} tasks are submitted to {@link TaskExecutor} per
+	 * bulk read. Work that the {@link TaskExecutor} rejects is performed by the calling
+	 * thread. Defaults to a concurrency of {@literal 8} using a dedicated pool of at most
+	 * {@literal 7} daemon threads that is shared by all bulk reads of this template. The
+	 * default pool is created on the first bulk read and shut down on {@link #destroy()}.
+	 *
+	 * @param taskExecutor must not be {@literal null}.
+	 * @param concurrency must be greater {@literal 0}.
+	 * @since 1.1
+	 */
+	public void setBulkReadExecutor(TaskExecutor taskExecutor, int concurrency) {
+
+		BulkReader bulkReader = new BulkReader(taskExecutor, concurrency);
+
+		synchronized (bulkReaderMonitor) {
+			this.bulkReader = bulkReader;
+		}
+	}
+
+	/**
+	 * Record the duration of each request issued by this template with
+	 * {@link VaultMetrics}. Requests are recorded by normalized path template, HTTP method
+	 * and status code.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 * @since 1.1
+	 * @see org.springframework.vault.metrics.HistogramVaultMetrics
+	 */
+	public void setVaultMetrics(VaultMetrics vaultMetrics) {
+
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null");
+		Assert.state(sessionTemplate != null, "Session RestTemplate is not initialized");
+
+		for (RestTemplate restTemplate : Arrays.asList(sessionTemplate, plainTemplate)) {
+
+			List<ClientHttpRequestInterceptor> interceptors = restTemplate
+					.getInterceptors();
+
+			for (int i = 0; i < interceptors.size(); i++) {
+				if (interceptors.get(i) instanceof VaultMetricsInterceptor) {
+					interceptors.remove(i);
+					break;
+				}
+			}
+
+			// outermost interceptor to include retries and routing
+			interceptors.add(0, new VaultMetricsInterceptor(vaultMetrics));
+		}
+	}
+
+	/**
+	 * Route requests that modify data ({@code write} and {@code delete}) to the endpoint
+	 * obtained from {@code writeEndpointProvider}, typically the active node of a Vault
+	 * cluster. Reads and lists are sent to the endpoint obtained from the
+	 * {@link VaultEndpointProvider} this template was created with, for example
+	 * {@link LoadBalancingVaultEndpointProvider#standbyEndpointProvider()}.
+	 *
+	 * @param writeEndpointProvider must not be {@literal null}.
+	 * @since 1.1
+	 * @see LoadBalancingVaultEndpointProvider#activeEndpointProvider()
+	 * @see #setReadYourWrites(boolean)
+	 */
+	public void setWriteEndpointProvider(VaultEndpointProvider writeEndpointProvider) {
+
+		Assert.notNull(writeEndpointProvider, "Write VaultEndpointProvider must not be null");
+		Assert.state(sessionTemplate != null, "Session RestTemplate is not initialized");
+
+		List<ClientHttpRequestInterceptor> interceptors = sessionTemplate
+				.getInterceptors();
+
+		for (int i = 0; i < interceptors.size(); i++) {
+			if (interceptors.get(i) instanceof WriteRoutingInterceptor) {
+				interceptors.remove(i);
+				break;
+			}
+		}
+
+		int position = interceptors.size();
+
+		for (int i = 0; i < interceptors.size(); i++) {
+			if (interceptors.get(i) instanceof VaultIndexInterceptor) {
+				position = i;
+			}
+		}
+
+		interceptors.add(position, new WriteRoutingInterceptor(writeEndpointProvider));
+	}
+
+	/**
+	 * Enable or disable read-your-writes consistency. When enabled, the
+	 * {@code X-Vault-Index} replication state returned by requests that modify data is
+	 * replayed on subsequent reads so that performance standby nodes serve reads only
+	 * once they have caught up with previous writes of this template. Disabled by
+	 * default.
+	 *
+	 * @param readYourWrites {@literal true} to enable read-your-writes consistency.
+	 * @since 1.1
+	 * @see VaultIndexInterceptor
+	 */
+	public void setReadYourWrites(boolean readYourWrites) {
+
+		Assert.state(sessionTemplate != null, "Session RestTemplate is not initialized");
+
+		VaultIndexInterceptor interceptor = getVaultIndexInterceptor();
+
+		if (readYourWrites && interceptor == null) {
+			// retries re-execute the request, keep the index interceptor last
+			sessionTemplate.getInterceptors().add(new VaultIndexInterceptor());
+		}
+
+		if (!readYourWrites && interceptor != null) {
+			sessionTemplate.getInterceptors().remove(interceptor);
+		}
+	}
+
+	/**
+	 * @return the {@link VaultIndexInterceptor} if read-your-writes consistency is
+	 * enabled, otherwise {@literal null}.
+	 * @since 1.1
+	 * @see #setReadYourWrites(boolean)
+	 */
+	public VaultIndexInterceptor getVaultIndexInterceptor() {
+
+		if (sessionTemplate == null) {
+			return null;
+		}
+
+		for (ClientHttpRequestInterceptor interceptor : sessionTemplate.getInterceptors()) {
+			if (interceptor instanceof VaultIndexInterceptor) {
+				return (VaultIndexInterceptor) interceptor;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Enable hedged reads by setting the {@link TaskExecutor} that runs read attempts.
+	 * Reads that do not complete within a delay derived from recent read latencies (see
+	 * {@link #setHedgeDelayPercentile(double)}) are sent a second time to another
+	 * endpoint obtained from {@link VaultEndpointProvider}. The first response wins and
+	 * the other attempt is cancelled. Hedged reads are disabled by default.
+	 * <p>
+	 * Hedging sends additional requests to Vault, limited to a ratio of all reads (see
+	 * {@link #setMaxHedgeRatio(double)}). Reads are not hedged if the
+	 * {@link VaultEndpointProvider} provides a single endpoint only. Monitor
+	 * {@link #getHedgeCount()} in relation to {@link #getHedgedReadCount()} to tune the
+	 * delay.
+	 *
+	 * @param taskExecutor the {@link TaskExecutor} to run read attempts, may be
+	 * {@literal null} to disable hedged reads.
+	 * @since 1.1
+	 */
+	public void setHedgedReadExecutor(TaskExecutor taskExecutor) {
+
+		if (taskExecutor == null) {
+			this.requestHedger = null;
+			return;
+		}
+
+		Assert.state(endpointProvider != null,
+				"Hedged reads require a VaultEndpointProvider");
+
+		RequestHedger requestHedger = new RequestHedger(taskExecutor, endpointProvider,
+				hedgeDelayPercentile);
+		requestHedger.setMaxHedgeRatio(maxHedgeRatio);
+
+		this.requestHedger = requestHedger;
+	}
+
+	/**
+	 * Set the read latency percentile used as delay before sending a hedged read.
+	 * Defaults to {@literal 0.95} (95th percentile).
+	 *
+	 * @param hedgeDelayPercentile percentile greater {@literal 0} and less or equal to
+	 * {@literal 1}.
+	 * @since 1.1
+	 * @see #setHedgedReadExecutor(TaskExecutor)
+	 */
+	public void setHedgeDelayPercentile(double hedgeDelayPercentile) {
+
+		Assert.isTrue(hedgeDelayPercentile > 0 && hedgeDelayPercentile <= 1,
+				"Percentile must be greater 0 and less or equal to 1");
+
+		this.hedgeDelayPercentile = hedgeDelayPercentile;
+
+		RequestHedger requestHedger = this.requestHedger;
+
+		if (requestHedger != null) {
+			requestHedger.setPercentile(hedgeDelayPercentile);
+		}
+	}
+
+	/**
+	 * Set the maximum ratio of hedged read attempts to reads. Hedges exceeding the ratio
+	 * are not sent, short bursts are permitted. Defaults to {@literal 0.1} (10%).
+	 *
+	 * @param maxHedgeRatio ratio greater {@literal 0} and less or equal to {@literal 1}.
+	 * @since 1.1
+	 * @see #setHedgedReadExecutor(TaskExecutor)
+	 */
+	public void setMaxHedgeRatio(double maxHedgeRatio) {
+
+		Assert.isTrue(maxHedgeRatio > 0 && maxHedgeRatio <= 1,
+				"Hedge ratio must be greater 0 and less or equal to 1");
+
+		this.maxHedgeRatio = maxHedgeRatio;
+
+		RequestHedger requestHedger = this.requestHedger;
+
+		if (requestHedger != null) {
+			requestHedger.setMaxHedgeRatio(maxHedgeRatio);
+		}
+	}
+
+	/**
+	 * @return the number of reads executed with hedging enabled.
+	 * @since 1.1
+	 * @see #setHedgedReadExecutor(TaskExecutor)
+	 */
+	public long getHedgedReadCount() {
+
+		RequestHedger requestHedger = this.requestHedger;
+		return requestHedger != null ? requestHedger.getRequestCount() : 0;
+	}
+
+	/**
+	 * @return the number of hedged read attempts sent.
+	 * @since 1.1
+	 * @see #setHedgedReadExecutor(TaskExecutor)
+	 */
+	public long getHedgeCount() {
+
+		RequestHedger requestHedger = this.requestHedger;
+		return requestHedger != null ? requestHedger.getHedgeCount() : 0;
+	}
+
+	/**
+	 * @return the number of reads answered by the hedged attempt.
+	 * @since 1.1
+	 * @see #setHedgedReadExecutor(TaskExecutor)
+	 */
+	public long getHedgeWinCount() {
+
+		RequestHedger requestHedger = this.requestHedger;
+		return requestHedger != null ? requestHedger.getHedgeWinCount() : 0;
+	}
+
 	@Override
 	public void afterPropertiesSet() {
 
@@ -184,6 +512,13 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 	@Override
 	public void destroy() throws Exception {
 
+		synchronized (bulkReaderMonitor) {
+
+			if (defaultBulkReadExecutor != null) {
+				defaultBulkReadExecutor.shutdown();
+			}
+		}
+
 		if (dedicatedSessionManager && sessionManager instanceof DisposableBean) {
 			((DisposableBean) sessionManager).destroy();
 		}
@@ -227,18 +562,136 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 		return doRead(path, VaultResponse.class);
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public <T> VaultResponseSupport<T> read(final String path, final Class<T> responseType) {
 
-		final ParameterizedTypeReference<VaultResponseSupport<T>> ref = VaultResponses
-				.getTypeReference(responseType);
+		Assert.hasText(path, "Path must not be empty");
+		Assert.notNull(responseType, "Response type must not be null");
+
+		RequestCoalescer requestCoalescer = this.requestCoalescer;
+
+		if (requestCoalescer == null) {
+			return doReadTyped(path, responseType);
+		}
+
+		return requestCoalescer.execute(path, responseType, true,
+				new Callable<VaultResponseSupport<T>>() {
+
+					@Override
+					public VaultResponseSupport<T> call() {
+						return doReadTyped(path, responseType);
+					}
+				});
+	}
+
+	/**
+	 * Read multiple paths from a secret backend with a bounded number of concurrent
+	 * requests. Reading a path that does not exist or that fails does not abort reading
+	 * the remaining paths.
+	 *
+	 * @param paths must not be {@literal null}.
+	 * @return the {@link BulkReadResult} containing a response for each path. Responses
+	 * are {@literal null} if the path does not exist or reading the path failed.
+	 * @since 1.1
+	 * @see #setBulkReadExecutor(TaskExecutor, int)
+	 */
+	public BulkReadResult<VaultResponse> readAll(Collection<String> paths) {
+
+		return getBulkReader().readAll(paths, new BulkReader.PathReader<VaultResponse>() {
+
+			@Override
+			public VaultResponse read(String path) {
+				return VaultTemplate.this.read(path);
+			}
+		});
+	}
+
+	/**
+	 * Read multiple paths from a secret backend with a bounded number of concurrent
+	 * requests. Reading a path that does not exist or that fails does not abort reading
+	 * the remaining paths.
+	 *
+	 * @param paths must not be {@literal null}.
+	 * @param responseType must not be {@literal null}.
+	 * @return the {@link BulkReadResult} containing a response for each path. Responses
+	 * are {@literal null} if the path does not exist or reading the path failed.
+	 * @since 1.1
+	 * @see #setBulkReadExecutor(TaskExecutor, int)
+	 */
+	public <T> BulkReadResult<VaultResponseSupport<T>> readAll(Collection<String> paths,
+			final Class<T> responseType) {
+
+		Assert.notNull(responseType, "Response type must not be null");
+
+		return getBulkReader().readAll(paths,
+				new BulkReader.PathReader<VaultResponseSupport<T>>() {
+
+					@Override
+					public VaultResponseSupport<T> read(String path) {
+						return VaultTemplate.this.read(path, responseType);
+					}
+				});
+	}
+
+	private BulkReader getBulkReader() {
+
+		BulkReader bulkReader = this.bulkReader;
+
+		if (bulkReader != null) {
+			return bulkReader;
+		}
+
+		synchronized (bulkReaderMonitor) {
+
+			if (this.bulkReader == null) {
+
+				this.defaultBulkReadExecutor = createDefaultBulkReadExecutor(8);
+				this.bulkReader = new BulkReader(new ConcurrentTaskExecutor(
+						defaultBulkReadExecutor), 8);
+			}
+
+			return this.bulkReader;
+		}
+	}
+
+	private <T> VaultResponseSupport<T> doReadTyped(final String path,
+			final Class<T> responseType) {
+
+		RequestHedger requestHedger = this.requestHedger;
+
+		if (requestHedger != null) {
+
+			return requestHedger.execute(new RequestHedger.Attempt<VaultResponseSupport<T>>() {
+
+				@Override
+				public VaultResponseSupport<T> execute(VaultEndpoint endpoint) {
+					return doReadTyped(path, expand(endpoint, path), responseType);
+				}
+			});
+		}
 
 		try {
-			ResponseEntity<VaultResponseSupport<T>> exchange = sessionTemplate.exchange(
-					path, HttpMethod.GET, null, ref);
+			return sessionTemplate.execute(path, HttpMethod.GET, ACCEPT_JSON,
+					new TypedResponseExtractor<T>(VaultResponses
+							.getObjectReader(responseType)));
+		}
+		catch (HttpStatusCodeException e) {
 
-			return exchange.getBody();
+			if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+				return null;
+			}
+
+			throw VaultResponses.buildException(e, path);
+		}
+	}
+
+	private <T> VaultResponseSupport<T> doReadTyped(String path, URI uri,
+			Class<T> responseType) {
+
+		try {
+			return sessionTemplate.execute(uri, HttpMethod.GET, ACCEPT_JSON,
+					new TypedResponseExtractor<T>(VaultResponses
+							.getObjectReader(responseType)));
 		}
 		catch (HttpStatusCodeException e) {
 
@@ -255,9 +708,7 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 
 		Assert.hasText(path, "Path must not be empty");
 
-		VaultListResponse read = doRead(
-				String.format("%s?list=true", path.endsWith("/") ? path : (path + "/")),
-				VaultListResponse.class);
+		VaultListResponse read = doRead(toListPath(path), VaultListResponse.class);
 		if (read == null) {
 			return Collections.emptyList();
 		}
@@ -265,6 +716,63 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 		return (List) read.getData().get("keys");
 	}
 
+	/**
+	 * Enumerate keys from a secret backend by streaming the response. Keys are parsed
+	 * lazily while iterating so that memory consumption does not depend on the number of
+	 * keys. The underlying connection is released when the iterator is exhausted or
+	 * {@link CloseableIterator#close() closed}. Callers that do not consume all keys must
+	 * close the iterator.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @return the keys. Empty if the path does not exist.
+	 * @since 1.1
+	 */
+	public CloseableIterator<String> listIterator(String path) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		String listPath = toListPath(path);
+		ClientHttpResponse response = null;
+		boolean handedOff = false;
+
+		try {
+
+			URI uri = sessionTemplate.getUriTemplateHandler().expand(listPath);
+			ClientHttpRequest request = sessionTemplate.getRequestFactory().createRequest(
+					uri, HttpMethod.GET);
+			request.getHeaders().setAccept(
+					Collections.singletonList(MediaType.APPLICATION_JSON));
+
+			response = request.execute();
+
+			if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
+				return new StreamingListIterator(null, path);
+			}
+
+			if (sessionTemplate.getErrorHandler().hasError(response)) {
+				sessionTemplate.getErrorHandler().handleError(response);
+			}
+
+			StreamingListIterator iterator = new StreamingListIterator(response, path);
+			handedOff = true;
+
+			return iterator;
+		}
+		catch (HttpStatusCodeException e) {
+			throw VaultResponses.buildException(e, path);
+		}
+		catch (IOException e) {
+			throw new VaultException(String.format("Cannot list %s: %s", path,
+					e.getMessage()), e);
+		}
+		finally {
+
+			if (!handedOff && response != null) {
+				response.close();
+			}
+		}
+	}
+
 	@Override
 	public VaultResponse write(final String path, final Object body) {
 
@@ -324,6 +832,36 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 
 	private <T> T doRead(final String path, final Class<T> responseType) {
 
+		RequestCoalescer requestCoalescer = this.requestCoalescer;
+
+		if (requestCoalescer == null) {
+			return doReadUncoalesced(path, responseType);
+		}
+
+		return requestCoalescer.execute(path, responseType, false, new Callable<T>() {
+
+			@Override
+			public T call() {
+				return doReadUncoalesced(path, responseType);
+			}
+		});
+	}
+
+	private <T> T doReadUncoalesced(final String path, final Class<T> responseType) {
+
+		RequestHedger requestHedger = this.requestHedger;
+
+		if (requestHedger != null) {
+
+			return requestHedger.execute(new RequestHedger.Attempt<T>() {
+
+				@Override
+				public T execute(VaultEndpoint endpoint) {
+					return doRead(path, expand(endpoint, path), responseType);
+				}
+			});
+		}
+
 		return doWithSession(new RestOperationsCallback<T>() {
 
 			@Override
@@ -344,6 +882,70 @@ public class VaultTemplate implements InitializingBean, VaultOperations, Disposa
 		});
 	}
 
+	private <T> T doRead(String path, URI uri, Class<T> responseType) {
+
+		try {
+			return sessionTemplate.getForObject(uri, responseType);
+		}
+		catch (HttpStatusCodeException e) {
+
+			if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+				return null;
+			}
+
+			throw VaultResponses.buildException(e, path);
+		}
+	}
+
+	private static URI expand(VaultEndpoint endpoint, String path) {
+		return new PrefixAwareUriTemplateHandler(SimpleVaultEndpointProvider.of(endpoint))
+				.expand(path);
+	}
+
+	private static String toListPath(String path) {
+		return String.format("%s?list=true", path.endsWith("/") ? path : (path + "/"));
+	}
+
+	private static ThreadPoolExecutor createDefaultBulkReadExecutor(int concurrency) {
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"vault-bulk-read-");
+		threadFactory.setDaemon(true);
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency - 1,
+				concurrency - 1, 60, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+
+		return executor;
+	}
+
+	/**
+	 * {@link ResponseExtractor} binding the response body directly to
+	 * {@link VaultResponseSupport} using a pre-built {@link ObjectReader}.
+	 */
+	private static class TypedResponseExtractor<T> implements
+			ResponseExtractor<VaultResponseSupport<T>> {
+
+		private final ObjectReader reader;
+
+		TypedResponseExtractor(ObjectReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public VaultResponseSupport<T> extractData(ClientHttpResponse response)
+				throws IOException {
+
+			if (response.getStatusCode() == HttpStatus.NO_CONTENT
+					|| response.getHeaders().getContentLength() == 0) {
+				return null;
+			}
+
+			return reader.readValue(response.getBody());
+		}
+	}
+
 	private static class VaultListResponse extends
 			VaultResponseSupport<Map<String, Object>> {
 	}
@@ -20,11 +20,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 import org.springframework.util.Assert;
 import org.springframework.util.Base64Utils;
+import org.springframework.vault.client.VaultResponses;
 import org.springframework.vault.support.TransitKeyType;
 import org.springframework.vault.support.VaultResponse;
 import org.springframework.vault.support.VaultResponseSupport;
@@ -33,6 +35,8 @@ import org.springframework.vault.support.VaultTransitKey;
 import org.springframework.vault.support.VaultTransitKeyConfiguration;
 import org.springframework.vault.support.VaultTransitKeyCreationRequest;
 import org.springframework.vault.support.RawTransitKey;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestOperations;
 
 /**
  * Default implementation of {@link VaultTransitOperations}.
@@ -148,9 +152,8 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 
 		request.put("plaintext", Base64Utils.encodeToString(plaintext.getBytes()));
 
-		return (String) vaultOperations
-				.write(String.format("%s/encrypt/%s", path, keyName), request).getData()
-				.get("ciphertext");
+		return execute(String.format("%s/encrypt/%s", path, keyName), request)
+				.getCiphertext();
 	}
 
 	@Override
@@ -168,9 +171,8 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 			applyTransitOptions(transitRequest, request);
 		}
 
-		return (String) vaultOperations
-				.write(String.format("%s/encrypt/%s", path, keyName), request).getData()
-				.get("ciphertext");
+		return execute(String.format("%s/encrypt/%s", path, keyName), request)
+				.getCiphertext();
 	}
 
 	@Override
@@ -183,9 +185,8 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 
 		request.put("ciphertext", ciphertext);
 
-		String plaintext = (String) vaultOperations
-				.write(String.format("%s/decrypt/%s", path, keyName), request).getData()
-				.get("plaintext");
+		String plaintext = execute(String.format("%s/decrypt/%s", path, keyName), request)
+				.getPlaintext();
 
 		return new String(Base64Utils.decodeFromString(plaintext));
 	}
@@ -205,9 +206,8 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 			applyTransitOptions(transitRequest, request);
 		}
 
-		String plaintext = (String) vaultOperations
-				.write(String.format("%s/decrypt/%s", path, keyName), request).getData()
-				.get("plaintext");
+		String plaintext = execute(String.format("%s/decrypt/%s", path, keyName), request)
+				.getPlaintext();
 
 		return Base64Utils.decodeFromString(plaintext);
 	}
@@ -221,9 +221,8 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 		Map<String, String> request = new LinkedHashMap<String, String>();
 		request.put("ciphertext", ciphertext);
 
-		return (String) vaultOperations
-				.write(String.format("%s/rewrap/%s", path, keyName), request).getData()
-				.get("ciphertext");
+		return execute(String.format("%s/rewrap/%s", path, keyName), request)
+				.getCiphertext();
 	}
 
 	@Override
@@ -241,9 +240,30 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 			applyTransitOptions(transitRequest, request);
 		}
 
-		return (String) vaultOperations
-				.write(String.format("%s/rewrap/%s", path, keyName), request).getData()
-				.get("ciphertext");
+		return execute(String.format("%s/rewrap/%s", path, keyName), request)
+				.getCiphertext();
+	}
+
+	private TransitData execute(final String requestPath, final Map<String, String> request) {
+
+		TransitResponse response = vaultOperations
+				.doWithSession(new RestOperationsCallback<TransitResponse>() {
+
+					@Override
+					public TransitResponse doWithRestOperations(
+							RestOperations restOperations) {
+
+						try {
+							return restOperations.postForObject(requestPath, request,
+									TransitResponse.class);
+						}
+						catch (HttpStatusCodeException e) {
+							throw VaultResponses.buildException(e, requestPath);
+						}
+					}
+				});
+
+		return response.getData();
 	}
 
 	private void applyTransitOptions(VaultTransitContext transitRequest,
@@ -259,6 +279,18 @@ public class VaultTransitTemplate implements VaultTransitOperations {
 		}
 	}
 
+	static class TransitResponse extends VaultResponseSupport<TransitData> {
+	}
+
+	@Data
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class TransitData {
+
+		private String ciphertext;
+
+		private String plaintext;
+	}
+
 	@Data
 	static class VaultTransitKeyImpl implements VaultTransitKey {
 
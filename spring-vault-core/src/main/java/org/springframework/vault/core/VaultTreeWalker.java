@@ -0,0 +1,379 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+
+/**
+ * Walks a tree of secrets by recursively expanding {@link VaultOperations#list(String)}
+ * results. Directories are listed in parallel with a bounded number of concurrent
+ * requests. Discovered leaf paths are handed to a callback as soon as they are found
+ * without materializing the tree in memory.
+ * <p>
+ * Pending directories and leaves are buffered in a bounded queue. Items that do not fit
+ * into the queue are processed by the thread that discovered them. The calling thread
+ * participates in walking so a walk completes even if the {@link TaskExecutor} rejects
+ * or never runs its workers.
+ * <p>
+ * Callbacks are invoked one at a time and do not need to be thread-safe. The walk stops
+ * on the first failed request and rethrows its exception once in-flight requests are
+ * done.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see VaultOperations#list(String)
+ */
+public class VaultTreeWalker {
+
+	private static final WalkItem COMPLETE = new WalkItem("", false);
+
+	private static final long WORKER_TIMEOUT_MILLIS = 1000;
+
+	private final VaultOperations vaultOperations;
+
+	private final TaskExecutor taskExecutor;
+
+	private final int concurrency;
+
+	private int queueCapacity = 1024;
+
+	/**
+	 * Create a new {@link VaultTreeWalker} using up to {@literal 8} concurrent requests.
+	 * Workers run on a dedicated pool of at most {@literal 7} daemon threads that are
+	 * released after being idle for {@literal 60} seconds.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 */
+	public VaultTreeWalker(VaultOperations vaultOperations) {
+		this(vaultOperations, createDefaultTaskExecutor(8), 8);
+	}
+
+	/**
+	 * Create a new {@link VaultTreeWalker}. The calling thread participates in walking
+	 * so at most {@code concurrency - 1} tasks are submitted to {@link TaskExecutor} per
+	 * walk.
+	 *
+	 * @param vaultOperations must not be {@literal null}.
+	 * @param taskExecutor must not be {@literal null}.
+	 * @param concurrency maximum number of concurrent requests, must be greater
+	 * {@literal 0}.
+	 */
+	public VaultTreeWalker(VaultOperations vaultOperations, TaskExecutor taskExecutor,
+			int concurrency) {
+
+		Assert.notNull(vaultOperations, "VaultOperations must not be null");
+		Assert.notNull(taskExecutor, "TaskExecutor must not be null");
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater 0");
+
+		this.vaultOperations = vaultOperations;
+		this.taskExecutor = taskExecutor;
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Set the maximum number of pending directories and leaves buffered per walk.
+	 * Defaults to {@literal 1024}. The effective capacity is at least the configured
+	 * concurrency.
+	 *
+	 * @param queueCapacity must be greater {@literal 0}.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+
+		Assert.isTrue(queueCapacity > 0, "Queue capacity must be greater 0");
+
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Walk all secrets below {@code path} and invoke {@link PathCallback} for each leaf
+	 * path.
+	 *
+	 * @param path the root path, must not be empty.
+	 * @param callback must not be {@literal null}.
+	 */
+	public void walk(String path, final PathCallback callback) {
+
+		Assert.notNull(callback, "PathCallback must not be null");
+
+		doWalk(path, false, new SecretCallback() {
+
+			@Override
+			public void doWithSecret(String path, VaultResponse response) {
+				callback.doWithPath(path);
+			}
+		});
+	}
+
+	/**
+	 * Walk all secrets below {@code path}, read each leaf and invoke
+	 * {@link SecretCallback} with the leaf path and its response. Leaves are read
+	 * concurrently with listing directories.
+	 *
+	 * @param path the root path, must not be empty.
+	 * @param callback must not be {@literal null}.
+	 */
+	public void walkAndRead(String path, SecretCallback callback) {
+
+		Assert.notNull(callback, "SecretCallback must not be null");
+
+		doWalk(path, true, callback);
+	}
+
+	private void doWalk(String path, boolean readLeaves, SecretCallback callback) {
+
+		Assert.hasText(path, "Path must not be empty");
+
+		Walk walk = new Walk(Math.max(queueCapacity, concurrency), readLeaves, callback);
+		walk.enqueue(new WalkItem(path.endsWith("/") ? path : path + "/", true));
+
+		int workers = concurrency - 1;
+		final CountDownLatch latch = new CountDownLatch(workers);
+
+		for (int i = 0; i < workers; i++) {
+			dispatch(walk, latch);
+		}
+
+		walk.run();
+
+		try {
+
+			// all items are processed once the calling thread returns, remaining workers
+			// only need to pick up their completion marker or were never started
+			latch.await(WORKER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+
+			walk.fail(new VaultException("Interrupted while walking " + path, e));
+			Thread.currentThread().interrupt();
+		}
+
+		RuntimeException failure = walk.failure.get();
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void dispatch(final Walk walk, final CountDownLatch latch) {
+
+		try {
+			taskExecutor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						walk.run();
+					}
+					finally {
+						latch.countDown();
+					}
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+
+			// includes TaskRejectedException, the calling thread picks up the remaining work
+			latch.countDown();
+		}
+	}
+
+	private static TaskExecutor createDefaultTaskExecutor(int concurrency) {
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+				"vault-tree-walker-");
+		threadFactory.setDaemon(true);
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency - 1,
+				concurrency - 1, 60, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+
+		return new ConcurrentTaskExecutor(executor);
+	}
+
+	/**
+	 * Callback interface for leaf paths discovered during a walk.
+	 */
+	public interface PathCallback {
+
+		/**
+		 * Callback for a leaf path.
+		 *
+		 * @param path the full path of the secret.
+		 */
+		void doWithPath(String path);
+	}
+
+	/**
+	 * Callback interface for leaf secrets discovered during a walk.
+	 */
+	public interface SecretCallback {
+
+		/**
+		 * Callback for a leaf secret.
+		 *
+		 * @param path the full path of the secret.
+		 * @param response the response, may be {@literal null} if the secret was deleted
+		 * after listing its parent.
+		 */
+		void doWithSecret(String path, VaultResponse response);
+	}
+
+	/**
+	 * State of a single walk. Each worker takes items from a shared queue until no
+	 * items are pending anymore. Items discovered while processing an item are enqueued
+	 * (or processed directly if the queue is full) before the item is completed so the
+	 * pending count drops to zero only after the whole tree was visited.
+	 */
+	private class Walk implements Runnable {
+
+		private final BlockingQueue<WalkItem> queue;
+
+		private final AtomicInteger pending = new AtomicInteger();
+
+		private final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+
+		private final boolean readLeaves;
+
+		private final SecretCallback callback;
+
+		Walk(int queueCapacity, boolean readLeaves, SecretCallback callback) {
+			this.queue = new ArrayBlockingQueue<WalkItem>(queueCapacity);
+			this.readLeaves = readLeaves;
+			this.callback = callback;
+		}
+
+		@Override
+		public void run() {
+
+			try {
+				for (WalkItem item = queue.take(); item != COMPLETE; item = queue.take()) {
+					processAndComplete(item);
+				}
+			}
+			catch (InterruptedException e) {
+
+				fail(new VaultException("Interrupted while walking", e));
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		void enqueue(WalkItem item) {
+
+			pending.incrementAndGet();
+
+			if (!queue.offer(item)) {
+				processAndComplete(item);
+			}
+		}
+
+		void fail(RuntimeException e) {
+			failure.compareAndSet(null, e);
+		}
+
+		private void processAndComplete(WalkItem item) {
+
+			try {
+				if (failure.get() == null) {
+					process(item);
+				}
+			}
+			catch (RuntimeException e) {
+				fail(e);
+			}
+			finally {
+				complete();
+			}
+		}
+
+		private void process(WalkItem item) {
+
+			if (!item.directory) {
+
+				VaultResponse response = vaultOperations.read(item.path);
+				invokeCallback(item.path, response);
+				return;
+			}
+
+			List<String> keys = vaultOperations.list(item.path);
+
+			if (keys == null) {
+				return;
+			}
+
+			for (String key : keys) {
+
+				String path = item.path + key;
+
+				if (key.endsWith("/")) {
+					enqueue(new WalkItem(path, true));
+				}
+				else if (readLeaves) {
+					enqueue(new WalkItem(path, false));
+				}
+				else {
+					invokeCallback(path, null);
+				}
+			}
+		}
+
+		private void invokeCallback(String path, VaultResponse response) {
+
+			synchronized (callback) {
+				callback.doWithSecret(path, response);
+			}
+		}
+
+		private void complete() {
+
+			if (pending.decrementAndGet() == 0) {
+
+				// the queue holds no items anymore and its capacity is at least concurrency
+				for (int i = 0; i < concurrency; i++) {
+					queue.add(COMPLETE);
+				}
+			}
+		}
+	}
+
+	static class WalkItem {
+
+		final String path;
+
+		final boolean directory;
+
+		WalkItem(String path, boolean directory) {
+			this.path = path;
+			this.directory = directory;
+		}
+	}
+}
@@ -0,0 +1,701 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.apachecommons.CommonsLog;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+import org.springframework.vault.core.lease.domain.Lease;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+import org.springframework.vault.core.lease.domain.RequestedSecret.Mode;
+
+/**
+ * {@link LeaseJournal} backed by an append-only file. Each change is appended as a
+ * length-prefixed record encrypted with {@literal AES/CBC} and authenticated with
+ * {@literal HmacSHA256} (encrypt-then-MAC) using keys derived from the configured key.
+ * Records are written immediately and flushed to disk in batches every
+ * {@link #setSyncInterval(long, TimeUnit) sync interval}, trading durability of the most
+ * recent changes for write throughput.
+ * <p>
+ * The journal starts with a random generation identifier. Each record carries its
+ * sequence number within the generation and a keyed digest of its lease key, both bound
+ * into the MAC together with the generation, so records replayed from older journals,
+ * duplicated or reordered fail authentication.
+ * <p>
+ * The journal is read and compacted on {@link #afterPropertiesSet() initialization} and
+ * compacted again into a new generation once the share of superseded records exceeds
+ * the {@link #setCompactionRatio(double) compaction ratio}. Records that cannot be
+ * authenticated, for example a partially written record after a crash or records
+ * written with a different key, end replay and are discarded by compaction.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+@CommonsLog
+public class FileLeaseJournal implements LeaseJournal, InitializingBean, DisposableBean {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final int MAGIC = 0x53564c4a;
+
+	private static final int GENERATION_LENGTH = 16;
+
+	private static final int SEQUENCE_LENGTH = 8;
+
+	private static final int KEY_ID_LENGTH = 16;
+
+	private static final int IV_LENGTH = 16;
+
+	private static final int MAC_LENGTH = 32;
+
+	private static final int HEADER_LENGTH = SEQUENCE_LENGTH + KEY_ID_LENGTH;
+
+	private static final int MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+	private static final int MIN_COMPACTION_RECORDS = 64;
+
+	private static final String PUT = "put";
+
+	private static final String REMOVE = "remove";
+
+	private final Map<String, JournaledLease> leases = new ConcurrentHashMap<String, JournaledLease>();
+
+	private final SecureRandom secureRandom = new SecureRandom();
+
+	private final ThreadLocal<Cipher> ciphers = new ThreadLocal<Cipher>() {
+
+		@Override
+		protected Cipher initialValue() {
+			try {
+				return Cipher.getInstance("AES/CBC/PKCS5Padding");
+			}
+			catch (GeneralSecurityException e) {
+				throw new IllegalStateException("Cannot create cipher", e);
+			}
+		}
+	};
+
+	private final File file;
+
+	private final SecretKeySpec encryptionKey;
+
+	private final ThreadLocal<Mac> macs;
+
+	private final ThreadLocal<Mac> keyIdMacs;
+
+	private long syncIntervalMillis = TimeUnit.SECONDS.toMillis(1);
+
+	private double compactionRatio = 0.5;
+
+	private FileChannel channel;
+
+	private byte[] generation;
+
+	private long sequence;
+
+	private ScheduledThreadPoolExecutor syncExecutor;
+
+	private boolean dirty;
+
+	/**
+	 * Create a new {@link FileLeaseJournal}.
+	 *
+	 * @param file the journal file, must not be {@literal null}.
+	 * @param key key material of at least {@literal 16} bytes, must not be
+	 * {@literal null}.
+	 */
+	public FileLeaseJournal(File file, byte[] key) {
+
+		Assert.notNull(file, "File must not be null");
+		Assert.notNull(key, "Key must not be null");
+		Assert.isTrue(key.length >= 16, "Key must be at least 16 bytes long");
+
+		this.file = file;
+		this.encryptionKey = new SecretKeySpec(Arrays.copyOf(
+				deriveKey(key, "lease-journal-encryption"), 16), "AES");
+		this.macs = createMacs(new SecretKeySpec(deriveKey(key,
+				"lease-journal-authentication"), "HmacSHA256"));
+		this.keyIdMacs = createMacs(new SecretKeySpec(deriveKey(key,
+				"lease-journal-key-id"), "HmacSHA256"));
+	}
+
+	/**
+	 * Set the interval to flush appended records to disk. Use {@literal 0} to flush
+	 * every record. Defaults to {@literal 1} {@link TimeUnit#SECONDS}.
+	 *
+	 * @param syncInterval must not be negative.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setSyncInterval(long syncInterval, TimeUnit unit) {
+
+		Assert.isTrue(syncInterval >= 0, "Sync interval must not be negative");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		this.syncIntervalMillis = unit.toMillis(syncInterval);
+	}
+
+	/**
+	 * Set the share of superseded records in the journal file that triggers compaction
+	 * on append. Compaction rewrites the live leases into a new generation. Journals with
+	 * fewer than {@literal 64} records are not compacted. Defaults to {@literal 0.5}.
+	 *
+	 * @param compactionRatio must be greater {@literal 0} and less than {@literal 1}.
+	 */
+	public void setCompactionRatio(double compactionRatio) {
+
+		Assert.isTrue(compactionRatio > 0 && compactionRatio < 1,
+				"Compaction ratio must be greater 0 and less than 1");
+
+		this.compactionRatio = compactionRatio;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws IOException {
+
+		Assert.state(channel == null, "FileLeaseJournal is already initialized");
+
+		if (file.exists()) {
+			replay();
+		}
+
+		compact();
+		openChannel();
+
+		if (syncIntervalMillis > 0) {
+
+			final CustomizableThreadCreator threadCreator = new CustomizableThreadCreator(
+					"FileLeaseJournal-");
+			threadCreator.setDaemon(true);
+
+			this.syncExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					return threadCreator.createThread(runnable);
+				}
+			});
+
+			this.syncExecutor.scheduleWithFixedDelay(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						sync();
+					}
+					catch (IOException e) {
+						log.warn("Cannot sync lease journal", e);
+					}
+				}
+			}, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	public void destroy() throws IOException {
+
+		if (syncExecutor != null) {
+			syncExecutor.shutdown();
+		}
+
+		if (channel != null) {
+			sync();
+			channel.close();
+		}
+	}
+
+	@Override
+	public JournaledLease get(RequestedSecret requestedSecret) {
+
+		Assert.notNull(requestedSecret, "RequestedSecret must not be null");
+
+		return leases.get(getKey(requestedSecret));
+	}
+
+	@Override
+	public void leaseObtained(RequestedSecret requestedSecret, Lease lease,
+			Map<String, Object> secrets) {
+
+		Assert.notNull(requestedSecret, "RequestedSecret must not be null");
+		Assert.notNull(lease, "Lease must not be null");
+		Assert.notNull(secrets, "Secrets must not be null");
+
+		append(getKey(requestedSecret), new JournaledLease(lease, secrets,
+				System.currentTimeMillis()));
+	}
+
+	@Override
+	public void leaseRenewed(RequestedSecret requestedSecret, Lease lease) {
+
+		Assert.notNull(requestedSecret, "RequestedSecret must not be null");
+		Assert.notNull(lease, "Lease must not be null");
+
+		String key = getKey(requestedSecret);
+		JournaledLease journaled = leases.get(key);
+
+		if (journaled != null) {
+			append(key, new JournaledLease(lease, journaled.getSecrets(),
+					System.currentTimeMillis()));
+		}
+	}
+
+	@Override
+	public void leaseRemoved(RequestedSecret requestedSecret) {
+
+		Assert.notNull(requestedSecret, "RequestedSecret must not be null");
+
+		String key = getKey(requestedSecret);
+
+		if (leases.containsKey(key)) {
+			append(key, null);
+		}
+	}
+
+	/**
+	 * Flush appended records to disk.
+	 *
+	 * @throws IOException if the journal cannot be flushed.
+	 */
+	public void sync() throws IOException {
+
+		FileChannel channel;
+
+		synchronized (this) {
+
+			if (!dirty) {
+				return;
+			}
+
+			dirty = false;
+			channel = this.channel;
+		}
+
+		try {
+			channel.force(false);
+		}
+		catch (ClosedChannelException e) {
+			// replaced by compaction, the compacted journal is already flushed
+		}
+	}
+
+	/**
+	 * Append a record and apply it to the in-memory state in append order. Records are
+	 * encrypted outside the lock, sequence numbers are assigned and authenticated in
+	 * append order.
+	 *
+	 * @param key the lease key.
+	 * @param journaled the lease to record or {@literal null} to remove the lease.
+	 */
+	private void append(String key, JournaledLease journaled) {
+
+		Assert.state(channel != null, "FileLeaseJournal is not initialized");
+
+		try {
+
+			byte[] keyId = getKeyId(key);
+			byte[] encrypted = encrypt(toRecord(journaled != null ? PUT : REMOVE, key,
+					journaled));
+
+			synchronized (this) {
+
+				if (journaled != null) {
+					leases.put(key, journaled);
+				}
+				else {
+					leases.remove(key);
+				}
+
+				ByteBuffer buffer = ByteBuffer.wrap(seal(generation, sequence, keyId,
+						encrypted));
+
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+
+				sequence++;
+				dirty = true;
+
+				if (sequence >= MIN_COMPACTION_RECORDS
+						&& sequence - leases.size() > sequence * compactionRatio) {
+					compactAndReopen();
+				}
+			}
+
+			if (syncIntervalMillis == 0) {
+				sync();
+			}
+		}
+		catch (IOException e) {
+			log.warn(String.format("Cannot append to lease journal %s", file), e);
+		}
+	}
+
+	private void replay() throws IOException {
+
+		DataInputStream input = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+
+		try {
+
+			try {
+				if (input.readInt() != MAGIC) {
+					log.warn(String.format(
+							"Unrecognized lease journal %s, discarding content", file));
+					return;
+				}
+			}
+			catch (EOFException e) {
+				return;
+			}
+
+			byte[] generation = new byte[GENERATION_LENGTH];
+
+			try {
+				input.readFully(generation);
+			}
+			catch (EOFException e) {
+				return;
+			}
+
+			for (long expectedSequence = 0;; expectedSequence++) {
+
+				int length;
+
+				try {
+					length = input.readInt();
+				}
+				catch (EOFException e) {
+					return;
+				}
+
+				if (length < HEADER_LENGTH + IV_LENGTH + MAC_LENGTH
+						|| length > MAX_RECORD_LENGTH) {
+					log.warn(String.format(
+							"Invalid record in lease journal %s, discarding remainder",
+							file));
+					return;
+				}
+
+				byte[] record = new byte[length];
+
+				try {
+					input.readFully(record);
+				}
+				catch (EOFException e) {
+					log.warn(String.format(
+							"Truncated record in lease journal %s, discarding remainder",
+							file));
+					return;
+				}
+
+				Map<String, Object> decoded = decode(generation, expectedSequence,
+						record);
+
+				if (decoded == null) {
+					log.warn(String.format(
+							"Cannot authenticate record in lease journal %s, discarding remainder",
+							file));
+					return;
+				}
+
+				apply(decoded);
+			}
+		}
+		finally {
+			input.close();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void apply(Map<String, Object> record) {
+
+		String key = (String) record.get("key");
+
+		if (REMOVE.equals(record.get("op"))) {
+			leases.remove(key);
+			return;
+		}
+
+		Lease lease = Lease.of((String) record.get("leaseId"),
+				((Number) record.get("leaseDuration")).longValue(),
+				Boolean.TRUE.equals(record.get("renewable")));
+
+		leases.put(key, new JournaledLease(lease, (Map<String, Object>) record
+				.get("secrets"), ((Number) record.get("recordedAt")).longValue()));
+	}
+
+	/**
+	 * Compact the journal during append. Must be called while holding the lock.
+	 */
+	private void compactAndReopen() throws IOException {
+
+		channel.close();
+
+		try {
+			compact();
+		}
+		finally {
+			openChannel();
+		}
+
+		dirty = false;
+	}
+
+	/**
+	 * Rewrite live leases into a new generation and replace the journal file.
+	 */
+	private void compact() throws IOException {
+
+		byte[] generation = new byte[GENERATION_LENGTH];
+		secureRandom.nextBytes(generation);
+
+		long sequence = 0;
+
+		File compacted = new File(file.getPath() + ".tmp");
+		RandomAccessFile output = new RandomAccessFile(compacted, "rw");
+
+		try {
+
+			output.setLength(0);
+			output.writeInt(MAGIC);
+			output.write(generation);
+
+			for (Entry<String, JournaledLease> entry : leases.entrySet()) {
+
+				output.write(seal(generation, sequence++, getKeyId(entry.getKey()),
+						encrypt(toRecord(PUT, entry.getKey(), entry.getValue()))));
+			}
+
+			output.getFD().sync();
+		}
+		finally {
+			output.close();
+		}
+
+		if (!compacted.renameTo(file)) {
+
+			if (!file.delete() || !compacted.renameTo(file)) {
+				throw new IOException(String.format("Cannot replace lease journal %s",
+						file));
+			}
+		}
+
+		this.generation = generation;
+		this.sequence = sequence;
+	}
+
+	private void openChannel() throws IOException {
+
+		this.channel = new RandomAccessFile(file, "rw").getChannel();
+		this.channel.position(this.channel.size());
+	}
+
+	private static Map<String, Object> toRecord(String op, String key,
+			JournaledLease journaled) {
+
+		Map<String, Object> record = new LinkedHashMap<String, Object>();
+
+		record.put("op", op);
+		record.put("key", key);
+
+		if (journaled != null) {
+
+			record.put("leaseId", journaled.getLease().getLeaseId());
+			record.put("leaseDuration", journaled.getLease().getLeaseDuration());
+			record.put("renewable", journaled.getLease().isRenewable());
+			record.put("recordedAt", journaled.getRecordedAt());
+			record.put("secrets", journaled.getSecrets() != null ? journaled
+					.getSecrets() : Collections.emptyMap());
+		}
+
+		return record;
+	}
+
+	/**
+	 * Encrypt a record.
+	 *
+	 * @return the IV followed by the ciphertext.
+	 */
+	private byte[] encrypt(Map<String, Object> record) throws IOException {
+
+		try {
+
+			byte[] iv = new byte[IV_LENGTH];
+			secureRandom.nextBytes(iv);
+
+			Cipher cipher = ciphers.get();
+			cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new IvParameterSpec(iv));
+			byte[] ciphertext = cipher.doFinal(OBJECT_MAPPER.writeValueAsBytes(record));
+
+			byte[] encrypted = new byte[IV_LENGTH + ciphertext.length];
+			System.arraycopy(iv, 0, encrypted, 0, IV_LENGTH);
+			System.arraycopy(ciphertext, 0, encrypted, IV_LENGTH, ciphertext.length);
+
+			return encrypted;
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Cannot encrypt lease journal record", e);
+		}
+	}
+
+	/**
+	 * Frame an encrypted record and authenticate it together with its generation,
+	 * sequence number and key digest.
+	 *
+	 * @return the length-prefixed record.
+	 */
+	private byte[] seal(byte[] generation, long sequence, byte[] keyId,
+			byte[] encrypted) {
+
+		ByteBuffer buffer = ByteBuffer.allocate(4 + HEADER_LENGTH + encrypted.length
+				+ MAC_LENGTH);
+		buffer.putInt(HEADER_LENGTH + encrypted.length + MAC_LENGTH);
+		buffer.putLong(sequence).put(keyId).put(encrypted);
+
+		Mac mac = macs.get();
+		mac.update(generation);
+		mac.update(buffer.array(), 4, HEADER_LENGTH + encrypted.length);
+		buffer.put(mac.doFinal());
+
+		return buffer.array();
+	}
+
+	/**
+	 * Authenticate and decrypt a record.
+	 *
+	 * @return the decoded record or {@literal null} if the record is not the expected
+	 * record of the generation or cannot be authenticated.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> decode(byte[] generation, long expectedSequence,
+			byte[] record) throws IOException {
+
+		int authenticatedLength = record.length - MAC_LENGTH;
+
+		if (ByteBuffer.wrap(record).getLong() != expectedSequence) {
+			return null;
+		}
+
+		Mac mac = macs.get();
+		mac.update(generation);
+		mac.update(record, 0, authenticatedLength);
+
+		if (!MessageDigest.isEqual(mac.doFinal(),
+				Arrays.copyOfRange(record, authenticatedLength, record.length))) {
+			return null;
+		}
+
+		try {
+
+			Cipher cipher = ciphers.get();
+			cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new IvParameterSpec(record,
+					HEADER_LENGTH, IV_LENGTH));
+
+			Map<String, Object> decoded = OBJECT_MAPPER.readValue(cipher.doFinal(record,
+					HEADER_LENGTH + IV_LENGTH, authenticatedLength - HEADER_LENGTH
+							- IV_LENGTH), Map.class);
+
+			byte[] keyId = Arrays.copyOfRange(record, SEQUENCE_LENGTH, HEADER_LENGTH);
+
+			if (!MessageDigest.isEqual(keyId, getKeyId((String) decoded.get("key")))) {
+				return null;
+			}
+
+			return decoded;
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Cannot decrypt lease journal record", e);
+		}
+	}
+
+	private byte[] getKeyId(String key) {
+		return Arrays.copyOf(keyIdMacs.get().doFinal(key.getBytes(UTF_8)),
+				KEY_ID_LENGTH);
+	}
+
+	private static ThreadLocal<Mac> createMacs(final SecretKeySpec key) {
+
+		return new ThreadLocal<Mac>() {
+
+			@Override
+			protected Mac initialValue() {
+				try {
+					Mac mac = Mac.getInstance("HmacSHA256");
+					mac.init(key);
+					return mac;
+				}
+				catch (GeneralSecurityException e) {
+					throw new IllegalStateException("Cannot create MAC", e);
+				}
+			}
+		};
+	}
+
+	private static byte[] deriveKey(byte[] key, String label) {
+
+		try {
+
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(key, "HmacSHA256"));
+
+			return mac.doFinal(label.getBytes(UTF_8));
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Cannot derive lease journal keys", e);
+		}
+	}
+
+	private static String getKey(RequestedSecret requestedSecret) {
+
+		Mode mode = requestedSecret.getMode();
+
+		return mode.name() + ":" + requestedSecret.getPath();
+	}
+}
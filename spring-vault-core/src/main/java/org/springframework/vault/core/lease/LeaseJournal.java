@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.Map;
+
+import org.springframework.vault.core.lease.domain.Lease;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+
+/**
+ * Journal of active leases and their secrets. A {@link SecretLeaseContainer} records
+ * obtained and renewed leases in the journal and attempts to resume journaled leases on
+ * {@link SecretLeaseContainer#start() start} before requesting new secrets. This allows
+ * warm restarts that reuse dynamic credentials instead of abandoning leases.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see FileLeaseJournal
+ * @see SecretLeaseContainer#setLeaseJournal(LeaseJournal)
+ */
+public interface LeaseJournal {
+
+	/**
+	 * Look up the journaled lease for a {@link RequestedSecret}.
+	 *
+	 * @param requestedSecret must not be {@literal null}.
+	 * @return the {@link JournaledLease} or {@literal null} if none is recorded.
+	 */
+	JournaledLease get(RequestedSecret requestedSecret);
+
+	/**
+	 * Record a newly obtained lease along with its secrets, replacing any previously
+	 * recorded lease for {@code requestedSecret}.
+	 *
+	 * @param requestedSecret must not be {@literal null}.
+	 * @param lease must not be {@literal null}.
+	 * @param secrets must not be {@literal null}.
+	 */
+	void leaseObtained(RequestedSecret requestedSecret, Lease lease,
+			Map<String, Object> secrets);
+
+	/**
+	 * Record a renewed lease. Keeps the previously recorded secrets.
+	 *
+	 * @param requestedSecret must not be {@literal null}.
+	 * @param lease must not be {@literal null}.
+	 */
+	void leaseRenewed(RequestedSecret requestedSecret, Lease lease);
+
+	/**
+	 * Remove the lease recorded for {@code requestedSecret}, for example after
+	 * revocation or expiry.
+	 *
+	 * @param requestedSecret must not be {@literal null}.
+	 */
+	void leaseRemoved(RequestedSecret requestedSecret);
+
+	/**
+	 * A journaled {@link Lease} with its secrets.
+	 */
+	class JournaledLease {
+
+		private final Lease lease;
+
+		private final Map<String, Object> secrets;
+
+		private final long recordedAt;
+
+		/**
+		 * Create a new {@link JournaledLease}.
+		 *
+		 * @param lease must not be {@literal null}.
+		 * @param secrets must not be {@literal null}.
+		 * @param recordedAt time in milliseconds since the epoch when the lease was
+		 * recorded.
+		 */
+		public JournaledLease(Lease lease, Map<String, Object> secrets, long recordedAt) {
+
+			this.lease = lease;
+			this.secrets = secrets;
+			this.recordedAt = recordedAt;
+		}
+
+		/**
+		 * @return the {@link Lease}.
+		 */
+		public Lease getLease() {
+			return lease;
+		}
+
+		/**
+		 * @return the secrets obtained with the {@link Lease}.
+		 */
+		public Map<String, Object> getSecrets() {
+			return secrets;
+		}
+
+		/**
+		 * @return time in milliseconds since the epoch when the lease was recorded.
+		 */
+		public long getRecordedAt() {
+			return recordedAt;
+		}
+
+		/**
+		 * @param now current time in milliseconds since the epoch.
+		 * @return {@literal true} if the lease duration has elapsed since recording.
+		 */
+		public boolean isExpired(long now) {
+			return recordedAt + lease.getLeaseDuration() * 1000 <= now;
+		}
+	}
+}
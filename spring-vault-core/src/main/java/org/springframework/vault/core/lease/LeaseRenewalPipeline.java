@@ -0,0 +1,265 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+import org.springframework.vault.metrics.NoOpVaultMetrics;
+import org.springframework.vault.metrics.VaultMetrics;
+
+/**
+ * Pipeline renewing leases for a {@link SecretLeaseContainer} with bounded concurrency.
+ * Renewal times are aligned to {@link #setBatchWindow(long, TimeUnit) batch windows} so
+ * leases due within the same window are renewed together. Due renewals are queued and
+ * executed by at most {@link #setConcurrency(int) concurrency} worker threads sharing the
+ * client connection pool instead of blocking {@link TaskScheduler} threads. If the
+ * {@link #setQueueCapacity(int) queue} is full or the pipeline is destroyed, due
+ * renewals run on the submitting scheduler thread.
+ *
+ * <pre class="code">
+ * LeaseRenewalPipeline pipeline = new LeaseRenewalPipeline();
+ * pipeline.setConcurrency(8);
+ * pipeline.afterPropertiesSet();
+ *
+ * container.setRenewalPipeline(pipeline);
+ * </pre>
+ *
+ * Renewal durations are recorded by the container, the time renewals spend queued is
+ * recorded through {@link VaultMetrics#recordLeaseRenewalQueueWait(long)}. A pipeline
+ * can be shared by multiple containers. Containers initialize a pipeline that is not
+ * initialized yet but never destroy it.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see SecretLeaseContainer#setRenewalPipeline(LeaseRenewalPipeline)
+ */
+public class LeaseRenewalPipeline implements InitializingBean, DisposableBean {
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final AtomicInteger active = new AtomicInteger();
+
+	private final CustomizableThreadCreator threadCreator = new CustomizableThreadCreator(
+			"LeaseRenewalPipeline-");
+
+	private int concurrency = 4;
+
+	private int queueCapacity = 1024;
+
+	private long batchWindowMillis = TimeUnit.SECONDS.toMillis(1);
+
+	private VaultMetrics vaultMetrics = NoOpVaultMetrics.INSTANCE;
+
+	private volatile ThreadPoolExecutor executor;
+
+	/**
+	 * Create a new {@link LeaseRenewalPipeline} using daemon threads.
+	 */
+	public LeaseRenewalPipeline() {
+		threadCreator.setDaemon(true);
+	}
+
+	/**
+	 * Set the maximum number of concurrent renewals. Defaults to {@literal 4}.
+	 *
+	 * @param concurrency must be greater {@literal 0}.
+	 */
+	public void setConcurrency(int concurrency) {
+
+		Assert.isTrue(concurrency > 0, "Concurrency must be greater 0");
+
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Set the capacity of the queue holding due renewals that wait for a worker.
+	 * Defaults to {@literal 1024}.
+	 *
+	 * @param queueCapacity must be greater {@literal 0}.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+
+		Assert.isTrue(queueCapacity > 0, "Queue capacity must be greater 0");
+
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Set the window to align renewal times to. Leases due within the same window are
+	 * renewed together at the window start. Defaults to {@literal 1}
+	 * {@link TimeUnit#SECONDS}.
+	 *
+	 * @param batchWindow must be greater {@literal 0}.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setBatchWindow(long batchWindow, TimeUnit unit) {
+
+		Assert.isTrue(batchWindow > 0, "Batch window must be greater 0");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		this.batchWindowMillis = unit.toMillis(batchWindow);
+	}
+
+	/**
+	 * Set the {@link VaultMetrics} to record the time renewals spend queued.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 */
+	public void setVaultMetrics(VaultMetrics vaultMetrics) {
+
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null");
+
+		this.vaultMetrics = vaultMetrics;
+	}
+
+	/**
+	 * Set the thread name prefix for worker threads.
+	 *
+	 * @param threadNamePrefix must not be {@literal null}.
+	 */
+	public void setThreadNamePrefix(String threadNamePrefix) {
+
+		Assert.notNull(threadNamePrefix, "Thread name prefix must not be null");
+
+		threadCreator.setThreadNamePrefix(threadNamePrefix);
+	}
+
+	@Override
+	public synchronized void afterPropertiesSet() {
+
+		Assert.state(executor == null, "LeaseRenewalPipeline is already initialized");
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency,
+				60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(queueCapacity),
+				new ThreadFactory() {
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						return threadCreator.createThread(runnable);
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+
+		this.executor = executor;
+	}
+
+	@Override
+	public void destroy() {
+
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return {@literal true} if {@link #afterPropertiesSet()} was called.
+	 */
+	boolean isInitialized() {
+		return executor != null;
+	}
+
+	/**
+	 * Initialize this pipeline unless it was initialized already.
+	 */
+	synchronized void initializeIfNecessary() {
+
+		if (executor == null) {
+			afterPropertiesSet();
+		}
+	}
+
+	/**
+	 * @return the number of due renewals waiting for a worker.
+	 */
+	public int getQueueDepth() {
+		return queued.get();
+	}
+
+	/**
+	 * @return the number of renewals in progress.
+	 */
+	public int getActiveRenewals() {
+		return active.get();
+	}
+
+	/**
+	 * Align a renewal to the start of its batch window without scheduling it earlier than
+	 * {@code minDelayMillis}.
+	 *
+	 * @param delayMillis renewal delay in milliseconds.
+	 * @param minDelayMillis minimum renewal delay in milliseconds.
+	 * @return the aligned renewal delay in milliseconds.
+	 */
+	long getRenewalDelay(long delayMillis, long minDelayMillis) {
+
+		long renewalTime = System.currentTimeMillis() + delayMillis;
+		long aligned = delayMillis - (renewalTime % batchWindowMillis);
+
+		return Math.max(aligned, minDelayMillis);
+	}
+
+	/**
+	 * Queue a due renewal.
+	 *
+	 * @param renewal must not be {@literal null}.
+	 */
+	void submit(final Runnable renewal) {
+
+		ThreadPoolExecutor executor = this.executor;
+
+		Assert.state(executor != null, "LeaseRenewalPipeline is not initialized");
+
+		final long queuedAt = System.nanoTime();
+		queued.incrementAndGet();
+
+		Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+
+				queued.decrementAndGet();
+				active.incrementAndGet();
+				vaultMetrics.recordLeaseRenewalQueueWait(System.nanoTime() - queuedAt);
+
+				try {
+					renewal.run();
+				}
+				finally {
+					active.decrementAndGet();
+				}
+			}
+		};
+
+		try {
+			executor.execute(task);
+		}
+		catch (RejectedExecutionException e) {
+
+			// queue full or pipeline destroyed, renew on the submitting thread
+			task.run();
+		}
+	}
+}
@@ -18,18 +18,29 @@ package org.springframework.vault.core.lease;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.extern.apachecommons.CommonsLog;
 
 import org.springframework.beans.factory.DisposableBean;
@@ -42,16 +53,20 @@ import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.TriggerContext;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
 import org.springframework.util.StringUtils;
 import org.springframework.vault.VaultException;
 import org.springframework.vault.client.VaultResponses;
 import org.springframework.vault.core.RestOperationsCallback;
 import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.core.lease.LeaseJournal.JournaledLease;
 import org.springframework.vault.core.lease.domain.Lease;
 import org.springframework.vault.core.lease.domain.RequestedSecret;
 import org.springframework.vault.core.lease.domain.RequestedSecret.Mode;
 import org.springframework.vault.core.lease.event.LeaseErrorListener;
 import org.springframework.vault.core.lease.event.LeaseListener;
+import org.springframework.vault.metrics.NoOpVaultMetrics;
+import org.springframework.vault.metrics.VaultMetrics;
 import org.springframework.vault.support.VaultResponseSupport;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestOperations;
@@ -105,7 +120,9 @@ import org.springframework.web.client.RestOperations;
  * <p>
  * The container dispatches lease events to {@link LeaseListener} and
  * {@link LeaseErrorListener}. Event notifications are dispatched either on the
- * {@link #start() starting} {@link Thread} or worker threads used for background renewal.
+ * {@link #start() starting} {@link Thread}, worker threads used for
+ * {@link #setStartupConcurrency(int) parallel start} or worker threads used for
+ * background renewal.
  * <p>
  * Instances are thread-safe once {@link #afterPropertiesSet() initialized}.
  *
@@ -124,6 +141,8 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 
 	private static final AtomicInteger poolId = new AtomicInteger();
 
+	private static final Random RANDOM = new Random();
+
 	private static final int STATUS_INITIAL = 0;
 	private static final int STATUS_STARTED = 1;
 	private static final int STATUS_DESTROYED = 2;
@@ -138,8 +157,20 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 
 	private int expiryThresholdSeconds = 60;
 
+	private int renewalJitterPercent;
+
 	private TaskScheduler taskScheduler;
 
+	private VaultMetrics vaultMetrics = NoOpVaultMetrics.INSTANCE;
+
+	private LeaseRenewalPipeline renewalPipeline;
+
+	private LeaseJournal leaseJournal;
+
+	private int startupConcurrency = 1;
+
+	private long startupTimeoutMillis;
+
 	private boolean manageTaskScheduler;
 
 	private volatile boolean initialized;
@@ -203,9 +234,35 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		return expiryThresholdSeconds;
 	}
 
+	/**
+	 * Set the maximum renewal jitter in percent of the renewal delay. Renewals are moved
+	 * earlier by a random amount of up to {@code renewalJitterPercent} to spread renewals
+	 * of leases obtained at the same time, for example by many instances starting
+	 * together. Jitter never delays renewal past the
+	 * {@link #setExpiryThresholdSeconds(int) expiry threshold} and never schedules
+	 * renewal before {@link #setMinRenewalSeconds(int) minRenewalSeconds}. Defaults to
+	 * {@literal 0} (no jitter).
+	 *
+	 * @param renewalJitterPercent maximum jitter between {@literal 0} and
+	 * {@literal 100}.
+	 * @since 1.1
+	 */
+	public void setRenewalJitterPercent(int renewalJitterPercent) {
+
+		Assert.isTrue(renewalJitterPercent >= 0 && renewalJitterPercent <= 100,
+				"Renewal jitter percent must be between 0 and 100");
+
+		this.renewalJitterPercent = renewalJitterPercent;
+	}
+
+	public int getRenewalJitterPercent() {
+		return renewalJitterPercent;
+	}
+
 	/**
 	 * Sets the {@link TaskScheduler} to use for scheduling and execution of lease
-	 * renewals.
+	 * renewals. Consider {@link TimingWheelTaskScheduler} when managing a large number
+	 * of leases.
 	 *
 	 * @param taskScheduler must not be {@literal null}.
 	 */
@@ -215,6 +272,95 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		this.taskScheduler = taskScheduler;
 	}
 
+	/**
+	 * Set the {@link VaultMetrics} to record lease renewal durations.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 * @since 1.1
+	 */
+	public void setVaultMetrics(VaultMetrics vaultMetrics) {
+
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null");
+
+		this.vaultMetrics = vaultMetrics;
+	}
+
+	/**
+	 * Set the {@link LeaseRenewalPipeline} to renew leases with bounded concurrency.
+	 * Renewal times are aligned to the pipeline's batch window and due renewals are
+	 * handed off to the pipeline instead of running on {@link TaskScheduler} threads. A
+	 * pipeline that was not initialized by the caller is initialized by
+	 * {@link #afterPropertiesSet()}. Pipelines can be shared across containers and are not
+	 * destroyed along with this container. Leases are renewed on scheduler threads if no
+	 * pipeline is set.
+	 *
+	 * @param renewalPipeline must not be {@literal null}.
+	 * @since 1.1
+	 */
+	public void setRenewalPipeline(LeaseRenewalPipeline renewalPipeline) {
+
+		Assert.notNull(renewalPipeline, "LeaseRenewalPipeline must not be null");
+
+		this.renewalPipeline = renewalPipeline;
+	}
+
+	/**
+	 * Set the {@link LeaseJournal} to record active leases. On {@link #start()} the
+	 * container attempts to renew journaled leases and reuse their secrets before
+	 * requesting new secrets. Journaled leases are not revoked on {@link #destroy()} so
+	 * they can be resumed after a restart. The journal must be initialized by the
+	 * caller.
+	 *
+	 * @param leaseJournal must not be {@literal null}.
+	 * @since 1.1
+	 * @see FileLeaseJournal
+	 */
+	public void setLeaseJournal(LeaseJournal leaseJournal) {
+
+		Assert.notNull(leaseJournal, "LeaseJournal must not be null");
+
+		this.leaseJournal = leaseJournal;
+	}
+
+	/**
+	 * Set the number of secrets to obtain concurrently on {@link #start()}. Defaults to
+	 * {@literal 1} to obtain secrets sequentially on the starting thread. Failures to
+	 * obtain a secret are reported to {@link LeaseErrorListener}s without affecting
+	 * other secrets.
+	 *
+	 * @param startupConcurrency must be greater {@literal 0}.
+	 * @since 1.1
+	 */
+	public void setStartupConcurrency(int startupConcurrency) {
+
+		Assert.isTrue(startupConcurrency > 0, "Startup concurrency must be greater 0");
+
+		this.startupConcurrency = startupConcurrency;
+	}
+
+	public int getStartupConcurrency() {
+		return startupConcurrency;
+	}
+
+	/**
+	 * Set the deadline for obtaining all secrets on {@link #start()}. Secrets not
+	 * obtained within the deadline are cancelled and reported to
+	 * {@link LeaseErrorListener}s; {@link #start()} returns once the deadline is
+	 * exceeded. Secrets that arrive after their deadline are discarded and their lease is
+	 * revoked. Use {@literal 0} to wait without a deadline (default).
+	 *
+	 * @param startupTimeout must not be negative.
+	 * @param unit must not be {@literal null}.
+	 * @since 1.1
+	 */
+	public void setStartupTimeout(long startupTimeout, TimeUnit unit) {
+
+		Assert.isTrue(startupTimeout >= 0, "Startup timeout must not be negative");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		this.startupTimeoutMillis = unit.toMillis(startupTimeout);
+	}
+
 	/**
 	 * Request a renewable secret at {@code path}.
 	 *
@@ -249,7 +395,7 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		if (initialized) {
 
 			LeaseRenewalScheduler leaseRenewalScheduler = new LeaseRenewalScheduler(
-					this.taskScheduler);
+					this.taskScheduler, this.renewalPipeline);
 			this.renewals.put(requestedSecret, leaseRenewalScheduler);
 
 			if (this.status == STATUS_STARTED) {
@@ -284,6 +430,11 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 
 		if (UPDATER.compareAndSet(this, STATUS_INITIAL, STATUS_STARTED)) {
 
+			if (startupConcurrency > 1 || startupTimeoutMillis > 0) {
+				startConcurrently(renewals);
+				return;
+			}
+
 			for (Entry<RequestedSecret, LeaseRenewalScheduler> entry : renewals
 					.entrySet()) {
 				start(entry.getKey(), entry.getValue());
@@ -291,8 +442,130 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		}
 	}
 
+	private void startConcurrently(Map<RequestedSecret, LeaseRenewalScheduler> renewals) {
+
+		final CustomizableThreadCreator threadCreator = new CustomizableThreadCreator(
+				String.format("%s-start-", getClass().getSimpleName()));
+		threadCreator.setDaemon(true);
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(startupConcurrency,
+				startupConcurrency, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						return threadCreator.createThread(runnable);
+					}
+				});
+
+		Map<RequestedSecret, Future<?>> futures = new LinkedHashMap<RequestedSecret, Future<?>>();
+		Map<RequestedSecret, AtomicBoolean> completions = new HashMap<RequestedSecret, AtomicBoolean>();
+
+		for (final Entry<RequestedSecret, LeaseRenewalScheduler> entry : renewals
+				.entrySet()) {
+
+			// either the task or the startup deadline completes a secret, a task that
+			// outlives its deadline must not schedule renewals or publish events
+			final AtomicBoolean completion = new AtomicBoolean();
+			completions.put(entry.getKey(), completion);
+
+			futures.put(entry.getKey(), executor.submit(new Runnable() {
+
+				@Override
+				public void run() {
+
+					try {
+						start(entry.getKey(), entry.getValue(), completion);
+					}
+					catch (RuntimeException e) {
+
+						if (completion.compareAndSet(false, true)) {
+							onError(entry.getKey(), Lease.none(), e);
+						}
+					}
+				}
+			}));
+		}
+
+		long deadline = System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(startupTimeoutMillis);
+
+		try {
+
+			for (Entry<RequestedSecret, Future<?>> entry : futures.entrySet()) {
+
+				RequestedSecret requestedSecret = entry.getKey();
+				Future<?> future = entry.getValue();
+
+				try {
+
+					if (startupTimeoutMillis > 0) {
+						future.get(Math.max(0, deadline - System.nanoTime()),
+								TimeUnit.NANOSECONDS);
+					}
+					else {
+						future.get();
+					}
+				}
+				catch (TimeoutException e) {
+
+					if (!completions.get(requestedSecret).compareAndSet(false, true)) {
+						continue;
+					}
+
+					future.cancel(true);
+					onError(requestedSecret, Lease.none(), new VaultException(
+							String.format(
+									"Cannot obtain secrets for %s within startup deadline",
+									requestedSecret.getPath())));
+				}
+				catch (ExecutionException e) {
+					onError(requestedSecret, Lease.none(), new VaultException(
+							String.format("Cannot obtain secrets for %s",
+									requestedSecret.getPath()), e.getCause()));
+				}
+			}
+		}
+		catch (InterruptedException e) {
+
+			Thread.currentThread().interrupt();
+
+			// shutdownNow() drops secrets that were not started, report them as failed
+			for (Entry<RequestedSecret, Future<?>> entry : futures.entrySet()) {
+
+				if (!completions.get(entry.getKey()).compareAndSet(false, true)) {
+					continue;
+				}
+
+				entry.getValue().cancel(true);
+				onError(entry.getKey(), Lease.none(), new VaultException(String.format(
+						"Interrupted while obtaining secrets for %s", entry.getKey()
+								.getPath())));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 	private void start(RequestedSecret requestedSecret,
 			LeaseRenewalScheduler renewalScheduler) {
+		start(requestedSecret, renewalScheduler, null);
+	}
+
+	/**
+	 * Obtain secrets and schedule lease renewal.
+	 *
+	 * @param completion completion flag of a concurrent start, may be {@literal null}.
+	 * Secrets obtained after the flag was set elsewhere are discarded and their lease is
+	 * revoked.
+	 */
+	private void start(RequestedSecret requestedSecret,
+			LeaseRenewalScheduler renewalScheduler, AtomicBoolean completion) {
+
+		if (leaseJournal != null && resume(requestedSecret, renewalScheduler, completion)) {
+			return;
+		}
 
 		VaultResponseSupport<Map<String, Object>> secrets = doGetSecrets(requestedSecret);
 
@@ -311,11 +584,75 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 				lease = Lease.none();
 			}
 
+			if (completion != null && !completion.compareAndSet(false, true)) {
+
+				if (lease.hasLeaseId()) {
+					doRevokeLease(requestedSecret, lease);
+				}
+
+				return;
+			}
+
+			if (leaseJournal != null && lease.hasLeaseId() && lease.isRenewable()) {
+				leaseJournal.leaseObtained(requestedSecret, lease, secrets.getData());
+			}
+
 			potentiallyScheduleLeaseRenewal(requestedSecret, lease, renewalScheduler);
 			onSecretsObtained(requestedSecret, lease, secrets.getData());
 		}
 	}
 
+	/**
+	 * Resume a journaled lease by renewing it.
+	 *
+	 * @param completion completion flag of a concurrent start, may be {@literal null}.
+	 * @return {@literal true} if the journaled lease was renewed.
+	 */
+	private boolean resume(RequestedSecret requestedSecret,
+			LeaseRenewalScheduler renewalScheduler, AtomicBoolean completion) {
+
+		JournaledLease journaled = leaseJournal.get(requestedSecret);
+
+		if (journaled == null) {
+			return false;
+		}
+
+		Lease lease = Lease.none();
+
+		if (!journaled.isExpired(System.currentTimeMillis())) {
+
+			try {
+				lease = renew(journaled.getLease());
+			}
+			catch (RuntimeException e) {
+
+				if (log.isDebugEnabled()) {
+					log.debug(String.format("Cannot resume journaled lease %s: %s",
+							journaled.getLease().getLeaseId(), e.getMessage()));
+				}
+			}
+		}
+
+		if (!lease.hasLeaseId() || lease.getLeaseDuration() < minRenewalSeconds) {
+
+			leaseJournal.leaseRemoved(requestedSecret);
+			return false;
+		}
+
+		leaseJournal.leaseRenewed(requestedSecret, lease);
+
+		if (completion != null && !completion.compareAndSet(false, true)) {
+
+			// keep the journaled lease for the next start
+			return true;
+		}
+
+		potentiallyScheduleLeaseRenewal(requestedSecret, lease, renewalScheduler);
+		onSecretsObtained(requestedSecret, lease, journaled.getSecrets());
+
+		return true;
+	}
+
 	private static boolean isRotatingGenericSecret(RequestedSecret requestedSecret,
 			VaultResponseSupport<Map<String, Object>> secrets) {
 
@@ -362,16 +699,21 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 				this.manageTaskScheduler = true;
 			}
 
+			if (this.renewalPipeline != null) {
+				this.renewalPipeline.initializeIfNecessary();
+			}
+
 			for (RequestedSecret requestedSecret : requestedSecrets) {
 				this.renewals.put(requestedSecret, new LeaseRenewalScheduler(
-						this.taskScheduler));
+						this.taskScheduler, this.renewalPipeline));
 			}
 		}
 	}
 
 	/**
 	 * Shutdown this {@link SecretLeaseContainer}, disable lease renewal and revoke
-	 * leases.
+	 * leases. Leases recorded in a {@link #setLeaseJournal(LeaseJournal) lease journal}
+	 * are retained.
 	 *
 	 * @see #afterPropertiesSet()
 	 * @see #start()
@@ -392,7 +734,8 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 					Lease lease = entry.getValue().getLease();
 					entry.getValue().disableScheduleRenewal();
 
-					if (lease != null && lease.hasLeaseId()) {
+					if (lease != null && lease.hasLeaseId()
+							&& !isJournaled(entry.getKey())) {
 						doRevokeLease(entry.getKey(), lease);
 					}
 				}
@@ -408,6 +751,10 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		}
 	}
 
+	private boolean isJournaled(RequestedSecret requestedSecret) {
+		return leaseJournal != null && leaseJournal.get(requestedSecret) != null;
+	}
+
 	void potentiallyScheduleLeaseRenewal(final RequestedSecret requestedSecret,
 			final Lease lease, final LeaseRenewalScheduler leaseRenewal) {
 
@@ -429,24 +776,33 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 
 		}
 
-		leaseRenewal.scheduleRenewal(requestedSecret, new RenewLease() {
+		long renewalMillis = leaseRenewal.scheduleRenewal(requestedSecret,
+				new RenewLease() {
+
+					@Override
+					public Lease renewLease(Lease lease) {
 
-			@Override
-			public Lease renewLease(Lease lease) {
+						Lease newLease = doRenewLease(requestedSecret, lease);
 
-				Lease newLease = doRenewLease(requestedSecret, lease);
+						if (!Lease.none().equals(newLease)) {
 
-				if (!Lease.none().equals(newLease)) {
+							if (leaseJournal != null) {
+								leaseJournal.leaseRenewed(requestedSecret, newLease);
+							}
 
-					potentiallyScheduleLeaseRenewal(requestedSecret, newLease,
-							leaseRenewal);
+							potentiallyScheduleLeaseRenewal(requestedSecret, newLease,
+									leaseRenewal);
 
-					onAfterLeaseRenewed(requestedSecret, newLease);
-				}
+							onAfterLeaseRenewed(requestedSecret, newLease);
+						}
 
-				return newLease;
-			}
-		}, lease, getMinRenewalSeconds(), getExpiryThresholdSeconds());
+						return newLease;
+					}
+				}, lease, getMinRenewalSeconds(), getExpiryThresholdSeconds(),
+				getRenewalJitterPercent());
+
+		vaultMetrics.recordLeaseRenewalScheduled(TimeUnit.MILLISECONDS
+				.toNanos(renewalMillis));
 	}
 
 	// -------------------------------------------------------------------------
@@ -515,26 +871,38 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 
 	private Lease renew(final Lease lease) {
 
-		ResponseEntity<Map<String, Object>> entity = operations
-				.doWithSession(new RestOperationsCallback<ResponseEntity<Map<String, Object>>>() {
+		long start = System.nanoTime();
+		boolean success = false;
+
+		try {
+
+			Lease renewed = doRenew(lease);
+			success = true;
+
+			return renewed;
+		}
+		finally {
+			vaultMetrics.recordLeaseRenewal(System.nanoTime() - start, success);
+		}
+	}
+
+	private Lease doRenew(final Lease lease) {
+
+		ResponseEntity<LeaseRenewalResponse> entity = operations
+				.doWithSession(new RestOperationsCallback<ResponseEntity<LeaseRenewalResponse>>() {
 
 					@Override
-					@SuppressWarnings("unchecked")
-					public ResponseEntity<Map<String, Object>> doWithRestOperations(
+					public ResponseEntity<LeaseRenewalResponse> doWithRestOperations(
 							RestOperations restOperations) {
-						return (ResponseEntity) restOperations.exchange(
-								"sys/renew/{leaseId}", HttpMethod.PUT, null, Map.class,
+						return restOperations.exchange("sys/renew/{leaseId}",
+								HttpMethod.PUT, null, LeaseRenewalResponse.class,
 								lease.getLeaseId());
 					}
 				});
 
-		Map<String, Object> body = entity.getBody();
-		String leaseId = (String) body.get("lease_id");
-		Number leaseDuration = (Number) body.get("lease_duration");
-		boolean renewable = (Boolean) body.get("renewable");
+		LeaseRenewalResponse body = entity.getBody();
 
-		return Lease.of(leaseId, leaseDuration != null ? leaseDuration.longValue() : 0,
-				renewable);
+		return Lease.of(body.leaseId, body.leaseDuration, body.renewable);
 	}
 
 	/**
@@ -547,6 +915,10 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 	 */
 	protected void onLeaseExpired(RequestedSecret requestedSecret, Lease lease) {
 
+		if (leaseJournal != null) {
+			leaseJournal.leaseRemoved(requestedSecret);
+		}
+
 		super.onLeaseExpired(requestedSecret, lease);
 
 		if (requestedSecret.getMode() == Mode.ROTATE) {
@@ -596,13 +968,16 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 	 * concurrently to schedule lease renewal. Each renewal run checks if the previously
 	 * attached {@link Lease} is still relevant to update. If any other process scheduled
 	 * a newer {@link Lease} for renewal, the previously registered renewal task will skip
-	 * renewal.
+	 * renewal. Due renewals are executed by a {@link LeaseRenewalPipeline} if
+	 * configured.
 	 */
 	@CommonsLog
 	static class LeaseRenewalScheduler {
 
 		private final TaskScheduler taskScheduler;
 
+		private final LeaseRenewalPipeline renewalPipeline;
+
 		final AtomicReference<Lease> currentLeaseRef = new AtomicReference<Lease>();
 
 		final Map<Lease, ScheduledFuture<?>> schedules = new ConcurrentHashMap<Lease, ScheduledFuture<?>>();
@@ -610,9 +985,13 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		/**
 		 *
 		 * @param taskScheduler must not be {@literal null}.
+		 * @param renewalPipeline may be {@literal null} to renew on scheduler threads.
 		 */
-		LeaseRenewalScheduler(TaskScheduler taskScheduler) {
+		LeaseRenewalScheduler(TaskScheduler taskScheduler,
+				LeaseRenewalPipeline renewalPipeline) {
+
 			this.taskScheduler = taskScheduler;
+			this.renewalPipeline = renewalPipeline;
 		}
 
 		/**
@@ -624,10 +1003,14 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		 * @param minRenewalSeconds minimum number of seconds before renewing a
 		 * {@link Lease}. This is to prevent too many renewals in a very short timeframe.
 		 * @param expiryThresholdSeconds number of seconds to renew before {@link Lease}.
+		 * @param jitterPercent maximum percentage to renew earlier than
+		 * {@code expiryThresholdSeconds}.
+		 * @return the renewal delay in milliseconds.
 		 */
-		void scheduleRenewal(final RequestedSecret requestedSecret,
+		long scheduleRenewal(final RequestedSecret requestedSecret,
 				final RenewLease renewLease, final Lease lease,
-				final int minRenewalSeconds, final int expiryThresholdSeconds) {
+				final int minRenewalSeconds, final int expiryThresholdSeconds,
+				int jitterPercent) {
 
 			if (log.isDebugEnabled()) {
 				if (lease.hasLeaseId()) {
@@ -650,13 +1033,11 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 				cancelSchedule(currentLease);
 			}
 
-			Runnable task = new Runnable() {
+			final Runnable renewal = new Runnable() {
 
 				@Override
 				public void run() {
 
-					schedules.remove(lease);
-
 					if (currentLeaseRef.get() != lease) {
 						log.debug("Current lease has changed. Skipping renewal");
 						return;
@@ -684,12 +1065,36 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 				}
 			};
 
-			ScheduledFuture<?> scheduledFuture = taskScheduler.schedule(
-					task,
-					new OneShotTrigger(getRenewalSeconds(lease, minRenewalSeconds,
-							expiryThresholdSeconds)));
+			Runnable task = new Runnable() {
+
+				@Override
+				public void run() {
+
+					schedules.remove(lease);
+
+					if (renewalPipeline != null) {
+						renewalPipeline.submit(renewal);
+					}
+					else {
+						renewal.run();
+					}
+				}
+			};
+
+			long renewalMillis = getRenewalMillis(lease, minRenewalSeconds,
+					expiryThresholdSeconds, jitterPercent);
+
+			if (renewalPipeline != null) {
+				renewalMillis = renewalPipeline.getRenewalDelay(renewalMillis,
+						TimeUnit.SECONDS.toMillis(minRenewalSeconds));
+			}
+
+			ScheduledFuture<?> scheduledFuture = taskScheduler.schedule(task,
+					new OneShotTrigger(renewalMillis));
 
 			schedules.put(lease, scheduledFuture);
+
+			return renewalMillis;
 		}
 
 		private void cancelSchedule(Lease lease) {
@@ -721,10 +1126,21 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 			}
 		}
 
-		private long getRenewalSeconds(Lease lease, int minRenewalSeconds,
-				int expiryThresholdSeconds) {
-			return Math.max(minRenewalSeconds, lease.getLeaseDuration()
-					- expiryThresholdSeconds);
+		static long getRenewalMillis(Lease lease, int minRenewalSeconds,
+				int expiryThresholdSeconds, int jitterPercent) {
+
+			long minRenewalMillis = TimeUnit.SECONDS.toMillis(minRenewalSeconds);
+			long renewalMillis = Math.max(minRenewalMillis, TimeUnit.SECONDS.toMillis(lease
+					.getLeaseDuration() - expiryThresholdSeconds));
+
+			if (jitterPercent == 0) {
+				return renewalMillis;
+			}
+
+			long jitter = (long) (renewalMillis * (jitterPercent / 100d) * RANDOM
+					.nextDouble());
+
+			return Math.max(minRenewalMillis, renewalMillis - jitter);
 		}
 
 		private boolean isLeaseRenewable(Lease lease, RequestedSecret requestedSecret) {
@@ -764,24 +1180,39 @@ public class SecretLeaseContainer extends SecretLeaseEventPublisher implements
 		// see AtomicIntegerFieldUpdater UPDATER
 		private volatile int status = 0;
 
-		private final long seconds;
+		private final long millis;
 
-		OneShotTrigger(long seconds) {
-			this.seconds = seconds;
+		OneShotTrigger(long millis) {
+			this.millis = millis;
 		}
 
 		@Override
 		public Date nextExecutionTime(TriggerContext triggerContext) {
 
 			if (UPDATER.compareAndSet(this, STATUS_ARMED, STATUS_FIRED)) {
-				return new Date(System.currentTimeMillis()
-						+ TimeUnit.SECONDS.toMillis(seconds));
+				return new Date(System.currentTimeMillis() + millis);
 			}
 
 			return null;
 		}
 	}
 
+	/**
+	 * Response body of a lease renewal. Binds only the lease details.
+	 */
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	static class LeaseRenewalResponse {
+
+		@JsonProperty("lease_id")
+		String leaseId;
+
+		@JsonProperty("lease_duration")
+		long leaseDuration;
+
+		@JsonProperty("renewable")
+		boolean renewable;
+	}
+
 	/**
 	 * Strategy interface to renew a {@link Lease}.
 	 */
@@ -0,0 +1,718 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+
+/**
+ * {@link TaskScheduler} backed by a hierarchical timing wheel. A single ticker thread
+ * advances the wheel and hands due tasks to a bounded worker pool. Scheduling and
+ * cancellation are {@literal O(1)} and cancelled tasks are unlinked from the wheel
+ * immediately, which keeps the footprint proportional to the number of active
+ * schedules. This makes the scheduler a good fit for {@link SecretLeaseContainer}s
+ * managing a large number of leases:
+ *
+ * <pre class="code">
+ * TimingWheelTaskScheduler scheduler = new TimingWheelTaskScheduler();
+ * scheduler.afterPropertiesSet();
+ *
+ * SecretLeaseContainer container = new SecretLeaseContainer(operations, scheduler);
+ * </pre>
+ *
+ * Tasks execute no earlier than their scheduled time and at most one
+ * {@link #setTickDuration(long, TimeUnit) tick} later. If all workers are busy and the
+ * work queue is full, the ticker thread runs due tasks itself which delays further ticks
+ * until workers catch up.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+@CommonsLog
+public class TimingWheelTaskScheduler implements TaskScheduler, InitializingBean,
+		DisposableBean {
+
+	static final int WHEEL_BITS = 8;
+
+	static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+	static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	static final int LEVELS = 64 / WHEEL_BITS;
+
+	private final Queue<TimeoutTask> pendingTasks = new ConcurrentLinkedQueue<TimeoutTask>();
+
+	private final Queue<TimeoutTask> cancelledTasks = new ConcurrentLinkedQueue<TimeoutTask>();
+
+	// wheel state is confined to the ticker thread
+	private final TimeoutTask[][] wheels = new TimeoutTask[LEVELS][WHEEL_SIZE];
+
+	private final CustomizableThreadCreator threadCreator = new CustomizableThreadCreator(
+			"TimingWheelTaskScheduler-");
+
+	private long tickNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private int workerThreads = 4;
+
+	private int queueCapacity = 1024;
+
+	private long currentTick;
+
+	private volatile int wheelTaskCount;
+
+	private volatile long startNanos;
+
+	private volatile boolean running;
+
+	private Thread ticker;
+
+	private ThreadPoolExecutor workers;
+
+	/**
+	 * Create a new {@link TimingWheelTaskScheduler} using daemon threads.
+	 */
+	public TimingWheelTaskScheduler() {
+		threadCreator.setDaemon(true);
+	}
+
+	/**
+	 * Set the wheel tick duration. Defines the scheduling precision. Defaults to
+	 * {@literal 100} {@link TimeUnit#MILLISECONDS}.
+	 *
+	 * @param tickDuration must be greater {@literal 0}.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setTickDuration(long tickDuration, TimeUnit unit) {
+
+		Assert.isTrue(tickDuration > 0, "Tick duration must be greater 0");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		this.tickNanos = unit.toNanos(tickDuration);
+	}
+
+	/**
+	 * Set the number of worker threads executing due tasks. Defaults to {@literal 4}.
+	 *
+	 * @param workerThreads must be greater {@literal 0}.
+	 */
+	public void setWorkerThreads(int workerThreads) {
+
+		Assert.isTrue(workerThreads > 0, "Worker threads must be greater 0");
+
+		this.workerThreads = workerThreads;
+	}
+
+	/**
+	 * Set the capacity of the queue holding due tasks until a worker becomes available.
+	 * Defaults to {@literal 1024}.
+	 *
+	 * @param queueCapacity must be greater {@literal 0}.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+
+		Assert.isTrue(queueCapacity > 0, "Queue capacity must be greater 0");
+
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Set the thread name prefix for ticker and worker threads.
+	 *
+	 * @param threadNamePrefix must not be {@literal null}.
+	 */
+	public void setThreadNamePrefix(String threadNamePrefix) {
+
+		Assert.notNull(threadNamePrefix, "Thread name prefix must not be null");
+
+		threadCreator.setThreadNamePrefix(threadNamePrefix);
+	}
+
+	/**
+	 * Set whether ticker and worker threads are daemon threads. Defaults to
+	 * {@literal true}.
+	 *
+	 * @param daemon {@literal true} to use daemon threads.
+	 */
+	public void setDaemon(boolean daemon) {
+		threadCreator.setDaemon(daemon);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+
+		Assert.state(ticker == null, "TimingWheelTaskScheduler is already initialized");
+
+		ThreadFactory threadFactory = new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				return threadCreator.createThread(runnable);
+			}
+		};
+
+		this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0,
+				TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), threadFactory,
+				new RejectedExecutionHandler() {
+
+					@Override
+					public void rejectedExecution(Runnable runnable,
+							ThreadPoolExecutor executor) {
+
+						if (!executor.isShutdown()) {
+							runnable.run();
+							return;
+						}
+
+						// destroyed while dispatching, do not leave get() blocked
+						((TimeoutTask) runnable).abort();
+					}
+				});
+
+		this.startNanos = System.nanoTime();
+		this.running = true;
+		this.ticker = threadFactory.newThread(new Runnable() {
+
+			@Override
+			public void run() {
+				runTicker();
+			}
+		});
+		this.ticker.start();
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+
+		if (ticker == null) {
+			return;
+		}
+
+		running = false;
+		LockSupport.unpark(ticker);
+		ticker.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+		workers.shutdown();
+	}
+
+	/**
+	 * @return the number of tasks scheduled and not yet due. Includes tasks not yet
+	 * transferred to the wheel.
+	 */
+	public int getScheduledTaskCount() {
+
+		int count = 0;
+
+		for (TimeoutTask task : pendingTasks) {
+			if (task.state == TimeoutTask.ST_INIT) {
+				count++;
+			}
+		}
+
+		return count + wheelTaskCount;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+
+		Assert.notNull(task, "Task must not be null");
+		Assert.notNull(trigger, "Trigger must not be null");
+
+		SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+		Date next = trigger.nextExecutionTime(triggerContext);
+
+		if (next == null) {
+			return null;
+		}
+
+		return enqueue(new TimeoutTask(this, task, trigger, triggerContext, next));
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+
+		Assert.notNull(task, "Task must not be null");
+		Assert.notNull(startTime, "Start time must not be null");
+
+		return enqueue(new TimeoutTask(this, task, null, null, startTime));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime,
+			long period) {
+		return schedule(task, periodic(period, true, startTime));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+		return schedule(task, periodic(period, true, null));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime,
+			long delay) {
+		return schedule(task, periodic(delay, false, startTime));
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+		return schedule(task, periodic(delay, false, null));
+	}
+
+	private static PeriodicTrigger periodic(long period, boolean fixedRate,
+			Date startTime) {
+
+		PeriodicTrigger trigger = new PeriodicTrigger(period, TimeUnit.MILLISECONDS);
+		trigger.setFixedRate(fixedRate);
+
+		if (startTime != null) {
+			trigger.setInitialDelay(Math.max(0,
+					startTime.getTime() - System.currentTimeMillis()));
+		}
+
+		return trigger;
+	}
+
+	private TimeoutTask enqueue(TimeoutTask task) {
+
+		Assert.state(running, "TimingWheelTaskScheduler is not running");
+
+		pendingTasks.add(task);
+		return task;
+	}
+
+	private void runTicker() {
+
+		while (running) {
+
+			long deadline = startNanos + (currentTick + 1) * tickNanos;
+			long sleepNanos = deadline - System.nanoTime();
+
+			if (sleepNanos > 0) {
+				LockSupport.parkNanos(this, sleepNanos);
+				continue;
+			}
+
+			currentTick++;
+
+			unlinkCancelledTasks();
+			transferPendingTasks();
+			cascade();
+			expire();
+		}
+	}
+
+	private void unlinkCancelledTasks() {
+
+		TimeoutTask task;
+
+		while ((task = cancelledTasks.poll()) != null) {
+			if (task.level >= 0) {
+				unlink(task);
+			}
+		}
+	}
+
+	private void transferPendingTasks() {
+
+		TimeoutTask task;
+
+		while ((task = pendingTasks.poll()) != null) {
+
+			if (task.state != TimeoutTask.ST_INIT) {
+				continue;
+			}
+
+			task.deadlineTick = Math.max(0,
+					divideRoundingUp(task.deadlineNanos - startNanos, tickNanos));
+			insert(task);
+		}
+	}
+
+	private static long divideRoundingUp(long dividend, long divisor) {
+		return (dividend + divisor - 1) / divisor;
+	}
+
+	private void cascade() {
+
+		for (int level = 1; level < LEVELS; level++) {
+
+			int shift = level * WHEEL_BITS;
+
+			if ((currentTick & ((1L << shift) - 1)) != 0) {
+				return;
+			}
+
+			TimeoutTask task = detach(level, (int) ((currentTick >>> shift) & WHEEL_MASK));
+
+			while (task != null) {
+
+				TimeoutTask next = task.next;
+				task.next = null;
+				insert(task);
+				task = next;
+			}
+		}
+	}
+
+	private void expire() {
+
+		TimeoutTask task = detach(0, (int) (currentTick & WHEEL_MASK));
+
+		while (task != null) {
+
+			TimeoutTask next = task.next;
+			task.next = null;
+
+			if (task.deadlineTick > currentTick) {
+				insert(task);
+			}
+			else {
+				dispatch(task);
+			}
+
+			task = next;
+		}
+	}
+
+	private void insert(TimeoutTask task) {
+
+		long delta = task.deadlineTick - currentTick;
+
+		if (delta <= 0) {
+			dispatch(task);
+			return;
+		}
+
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= (1L << ((level + 1) * WHEEL_BITS))) {
+			level++;
+		}
+
+		int index = (int) ((task.deadlineTick >>> (level * WHEEL_BITS)) & WHEEL_MASK);
+		TimeoutTask head = wheels[level][index];
+
+		task.level = level;
+		task.index = index;
+		task.prev = null;
+		task.next = head;
+
+		if (head != null) {
+			head.prev = task;
+		}
+
+		wheels[level][index] = task;
+		wheelTaskCount++;
+	}
+
+	private void unlink(TimeoutTask task) {
+
+		if (task.prev != null) {
+			task.prev.next = task.next;
+		}
+		else {
+			wheels[task.level][task.index] = task.next;
+		}
+
+		if (task.next != null) {
+			task.next.prev = task.prev;
+		}
+
+		task.level = -1;
+		task.prev = null;
+		task.next = null;
+		wheelTaskCount--;
+	}
+
+	/**
+	 * Detach all tasks of a bucket. Returns the head of the detached list linked through
+	 * {@link TimeoutTask#next}.
+	 */
+	private TimeoutTask detach(int level, int index) {
+
+		TimeoutTask head = wheels[level][index];
+		wheels[level][index] = null;
+
+		for (TimeoutTask task = head; task != null; task = task.next) {
+
+			task.level = -1;
+			task.prev = null;
+			wheelTaskCount--;
+		}
+
+		return head;
+	}
+
+	void dispatch(TimeoutTask task) {
+
+		if (!running) {
+
+			// cancel instead of leaving the task RUNNING with get() waiting forever
+			task.cancel(false);
+			return;
+		}
+
+		if (!TimeoutTask.STATE.compareAndSet(task, TimeoutTask.ST_INIT,
+				TimeoutTask.ST_RUNNING)) {
+			return;
+		}
+
+		workers.execute(task);
+	}
+
+	void reschedule(TimeoutTask task) {
+
+		if (running) {
+			pendingTasks.add(task);
+		}
+	}
+
+	void cancelled(TimeoutTask task) {
+		cancelledTasks.add(task);
+	}
+
+	/**
+	 * Scheduled task linked into a wheel bucket. Wheel links are confined to the ticker
+	 * thread. Tasks scheduled with a {@link Trigger} are re-inserted after each
+	 * execution using the same instance.
+	 */
+	static class TimeoutTask implements ScheduledFuture<Object>, Runnable {
+
+		static final AtomicIntegerFieldUpdater<TimeoutTask> STATE = AtomicIntegerFieldUpdater
+				.newUpdater(TimeoutTask.class, "state");
+
+		static final int ST_INIT = 0;
+		static final int ST_RUNNING = 1;
+		static final int ST_DONE = 2;
+		static final int ST_CANCELLED = 3;
+
+		private final TimingWheelTaskScheduler scheduler;
+
+		private final Runnable runnable;
+
+		private final Trigger trigger;
+
+		private final SimpleTriggerContext triggerContext;
+
+		// see AtomicIntegerFieldUpdater STATE
+		volatile int state;
+
+		volatile long deadlineNanos;
+
+		private volatile Date scheduledTime;
+
+		private volatile Throwable failure;
+
+		long deadlineTick;
+
+		int level = -1;
+
+		int index;
+
+		TimeoutTask prev;
+
+		TimeoutTask next;
+
+		TimeoutTask(TimingWheelTaskScheduler scheduler, Runnable runnable,
+				Trigger trigger, SimpleTriggerContext triggerContext, Date scheduledTime) {
+
+			this.scheduler = scheduler;
+			this.runnable = runnable;
+			this.trigger = trigger;
+			this.triggerContext = triggerContext;
+			setScheduledTime(scheduledTime);
+		}
+
+		private void setScheduledTime(Date scheduledTime) {
+
+			this.scheduledTime = scheduledTime;
+			this.deadlineNanos = System.nanoTime()
+					+ TimeUnit.MILLISECONDS.toNanos(scheduledTime.getTime()
+							- System.currentTimeMillis());
+		}
+
+		@Override
+		public void run() {
+
+			Date actualStart = trigger != null ? new Date() : null;
+
+			try {
+				runnable.run();
+			}
+			catch (Throwable e) {
+
+				failure = e;
+				log.error("Unexpected error occurred in scheduled task", e);
+			}
+
+			if (trigger != null && failure == null) {
+
+				triggerContext.update(scheduledTime, actualStart, new Date());
+				Date next = trigger.nextExecutionTime(triggerContext);
+
+				if (next != null) {
+
+					setScheduledTime(next);
+
+					if (STATE.compareAndSet(this, ST_RUNNING, ST_INIT)) {
+						scheduler.reschedule(this);
+					}
+
+					return;
+				}
+			}
+
+			if (STATE.compareAndSet(this, ST_RUNNING, ST_DONE)) {
+				signalCompletion();
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+
+			for (;;) {
+
+				int current = state;
+
+				if (current == ST_DONE || current == ST_CANCELLED) {
+					return false;
+				}
+
+				if (STATE.compareAndSet(this, current, ST_CANCELLED)) {
+
+					if (current == ST_INIT) {
+						scheduler.cancelled(this);
+					}
+
+					signalCompletion();
+					return true;
+				}
+			}
+		}
+
+		/**
+		 * Cancel a task that was dispatched but is not going to run.
+		 */
+		void abort() {
+
+			if (STATE.compareAndSet(this, ST_RUNNING, ST_CANCELLED)) {
+				signalCompletion();
+			}
+		}
+
+		private synchronized void signalCompletion() {
+			notifyAll();
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return state == ST_CANCELLED;
+		}
+
+		@Override
+		public boolean isDone() {
+			return state >= ST_DONE;
+		}
+
+		@Override
+		public Object get() throws InterruptedException, ExecutionException {
+
+			synchronized (this) {
+				while (!isDone()) {
+					wait();
+				}
+			}
+
+			return report();
+		}
+
+		@Override
+		public Object get(long timeout, TimeUnit unit) throws InterruptedException,
+				ExecutionException, TimeoutException {
+
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+			synchronized (this) {
+				while (!isDone()) {
+
+					long remaining = deadline - System.nanoTime();
+
+					if (remaining <= 0) {
+						throw new TimeoutException();
+					}
+
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+
+			return report();
+		}
+
+		private Object report() throws ExecutionException {
+
+			if (isCancelled()) {
+				throw new CancellationException();
+			}
+
+			if (failure != null) {
+				throw new ExecutionException(failure);
+			}
+
+			return null;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+
+			if (other == this) {
+				return 0;
+			}
+
+			long diff = getDelay(TimeUnit.NANOSECONDS)
+					- other.getDelay(TimeUnit.NANOSECONDS);
+
+			return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+		}
+	}
+}
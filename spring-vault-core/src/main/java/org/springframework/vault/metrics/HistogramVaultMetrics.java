@@ -0,0 +1,549 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+
+/**
+ * {@link VaultMetrics} implementation recording durations in {@link LatencyHistogram}s.
+ * Requests are tracked per path template, HTTP method and status code. Login, token
+ * renewal and lease renewal are tracked per outcome. Lease renewal queue wait times and
+ * the delays of scheduled token and lease renewals are tracked in a single histogram
+ * each. Histograms are created on first use; subsequent recordings to the
+ * same histogram do not allocate.
+ * <p>
+ * Registered {@link MetricListener}s are notified when a histogram is created, which
+ * allows exporters to publish new metrics as they appear.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see JmxVaultMetricsExporter
+ */
+public class HistogramVaultMetrics implements VaultMetrics {
+
+	/**
+	 * Name of request metrics.
+	 */
+	public static final String REQUEST = "vault.request";
+
+	/**
+	 * Name of login metrics.
+	 */
+	public static final String LOGIN = "vault.login";
+
+	/**
+	 * Name of token renewal metrics.
+	 */
+	public static final String TOKEN_RENEWAL = "vault.token.renewal";
+
+	/**
+	 * Name of metrics for the delay until scheduled token renewals.
+	 */
+	public static final String TOKEN_RENEWAL_SCHEDULE = "vault.token.renewal.schedule";
+
+	/**
+	 * Name of lease renewal metrics.
+	 */
+	public static final String LEASE_RENEWAL = "vault.lease.renewal";
+
+	/**
+	 * Name of lease renewal queue wait metrics.
+	 */
+	public static final String LEASE_RENEWAL_QUEUE_WAIT = "vault.lease.renewal.queue.wait";
+
+	/**
+	 * Name of metrics for the delay until scheduled lease renewals.
+	 */
+	public static final String LEASE_RENEWAL_SCHEDULE = "vault.lease.renewal.schedule";
+
+	/**
+	 * Name of TLS handshake metrics tagged with {@code handshake} ({@code full} or
+	 * {@code resumed}).
+	 */
+	public static final String TLS_HANDSHAKE = "vault.tls.handshake";
+
+	private static final HttpMethod[] METHODS = HttpMethod.values();
+
+	private final ConcurrentMap<String, AtomicReferenceArray<StatusHistograms>> requests = new ConcurrentHashMap<String, AtomicReferenceArray<StatusHistograms>>();
+
+	private final OutcomeHistograms logins = new OutcomeHistograms(LOGIN);
+
+	private final OutcomeHistograms tokenRenewals = new OutcomeHistograms(TOKEN_RENEWAL);
+
+	private final OutcomeHistograms leaseRenewals = new OutcomeHistograms(LEASE_RENEWAL);
+
+	private final SingleHistogram tokenRenewalSchedule = new SingleHistogram(
+			TOKEN_RENEWAL_SCHEDULE);
+
+	private final SingleHistogram leaseRenewalQueueWait = new SingleHistogram(
+			LEASE_RENEWAL_QUEUE_WAIT);
+
+	private final SingleHistogram leaseRenewalSchedule = new SingleHistogram(
+			LEASE_RENEWAL_SCHEDULE);
+
+	private final OutcomeHistograms tlsHandshakes = new OutcomeHistograms(TLS_HANDSHAKE,
+			"handshake", "resumed", "full");
+
+	private final List<Metric> metrics = new CopyOnWriteArrayList<Metric>();
+
+	private final List<MetricListener> listeners = new CopyOnWriteArrayList<MetricListener>();
+
+	@Override
+	public void recordRequest(String pathTemplate, HttpMethod method, int statusCode,
+			long durationNanos) {
+
+		AtomicReferenceArray<StatusHistograms> histograms = requests.get(pathTemplate);
+
+		if (histograms == null) {
+
+			histograms = new AtomicReferenceArray<StatusHistograms>(METHODS.length + 1);
+
+			AtomicReferenceArray<StatusHistograms> existing = requests.putIfAbsent(
+					pathTemplate, histograms);
+
+			if (existing != null) {
+				histograms = existing;
+			}
+		}
+
+		int index = getMethodIndex(method);
+		StatusHistograms statusHistograms = histograms.get(index);
+
+		if (statusHistograms == null) {
+
+			statusHistograms = new StatusHistograms(pathTemplate, method);
+
+			if (!histograms.compareAndSet(index, null, statusHistograms)) {
+				statusHistograms = histograms.get(index);
+			}
+		}
+
+		statusHistograms.record(statusCode > 0 ? statusCode : 0, durationNanos);
+	}
+
+	@Override
+	public void recordLogin(long durationNanos, boolean success) {
+		logins.record(durationNanos, success);
+	}
+
+	@Override
+	public void recordTokenRenewal(long durationNanos, boolean success) {
+		tokenRenewals.record(durationNanos, success);
+	}
+
+	@Override
+	public void recordLeaseRenewal(long durationNanos, boolean success) {
+		leaseRenewals.record(durationNanos, success);
+	}
+
+	@Override
+	public void recordTokenRenewalScheduled(long delayNanos) {
+		tokenRenewalSchedule.record(delayNanos);
+	}
+
+	@Override
+	public void recordLeaseRenewalQueueWait(long waitNanos) {
+		leaseRenewalQueueWait.record(waitNanos);
+	}
+
+	@Override
+	public void recordLeaseRenewalScheduled(long delayNanos) {
+		leaseRenewalSchedule.record(delayNanos);
+	}
+
+	@Override
+	public void recordTlsHandshake(long durationNanos, boolean resumed) {
+		tlsHandshakes.record(durationNanos, resumed);
+	}
+
+	/**
+	 * @return all metrics recorded so far.
+	 */
+	public List<Metric> getMetrics() {
+		return Collections.unmodifiableList(new ArrayList<Metric>(metrics));
+	}
+
+	/**
+	 * Look up a request histogram.
+	 *
+	 * @param pathTemplate the path template.
+	 * @param method the HTTP method.
+	 * @param statusCode the HTTP status code.
+	 * @return the {@link LatencyHistogram} or {@literal null} if no request was recorded.
+	 */
+	public LatencyHistogram getRequestHistogram(String pathTemplate, HttpMethod method,
+			int statusCode) {
+
+		AtomicReferenceArray<StatusHistograms> histograms = requests.get(pathTemplate);
+
+		if (histograms == null) {
+			return null;
+		}
+
+		StatusHistograms statusHistograms = histograms.get(getMethodIndex(method));
+
+		return statusHistograms != null ? statusHistograms.get(statusCode) : null;
+	}
+
+	/**
+	 * @param success the outcome.
+	 * @return the login {@link LatencyHistogram} for {@code success}.
+	 */
+	public LatencyHistogram getLoginHistogram(boolean success) {
+		return logins.get(success);
+	}
+
+	/**
+	 * @param success the outcome.
+	 * @return the token renewal {@link LatencyHistogram} for {@code success}.
+	 */
+	public LatencyHistogram getTokenRenewalHistogram(boolean success) {
+		return tokenRenewals.get(success);
+	}
+
+	/**
+	 * @param success the outcome.
+	 * @return the lease renewal {@link LatencyHistogram} for {@code success}.
+	 */
+	public LatencyHistogram getLeaseRenewalHistogram(boolean success) {
+		return leaseRenewals.get(success);
+	}
+
+	/**
+	 * @return the {@link LatencyHistogram} of delays until scheduled token renewals or
+	 * {@literal null} if no renewal was scheduled.
+	 */
+	public LatencyHistogram getTokenRenewalScheduleHistogram() {
+		return tokenRenewalSchedule.get();
+	}
+
+	/**
+	 * @return the {@link LatencyHistogram} of delays until scheduled lease renewals or
+	 * {@literal null} if no renewal was scheduled.
+	 */
+	public LatencyHistogram getLeaseRenewalScheduleHistogram() {
+		return leaseRenewalSchedule.get();
+	}
+
+	/**
+	 * @return the lease renewal queue wait {@link LatencyHistogram} or {@literal null} if
+	 * no renewal was queued.
+	 */
+	public LatencyHistogram getLeaseRenewalQueueWaitHistogram() {
+		return leaseRenewalQueueWait.get();
+	}
+
+	/**
+	 * @param resumed {@literal true} for resumed sessions, {@literal false} for full
+	 * handshakes.
+	 * @return the TLS handshake {@link LatencyHistogram}.
+	 */
+	public LatencyHistogram getTlsHandshakeHistogram(boolean resumed) {
+		return tlsHandshakes.get(resumed);
+	}
+
+	/**
+	 * Register a {@link MetricListener}. The listener is notified about all existing
+	 * metrics before this method returns.
+	 *
+	 * @param listener must not be {@literal null}.
+	 */
+	public void addListener(MetricListener listener) {
+
+		Assert.notNull(listener, "MetricListener must not be null");
+
+		synchronized (metrics) {
+
+			listeners.add(listener);
+
+			for (Metric metric : metrics) {
+				listener.onMetricCreated(metric);
+			}
+		}
+	}
+
+	/**
+	 * Remove a {@link MetricListener}.
+	 *
+	 * @param listener must not be {@literal null}.
+	 */
+	public void removeListener(MetricListener listener) {
+
+		Assert.notNull(listener, "MetricListener must not be null");
+
+		listeners.remove(listener);
+	}
+
+	private static int getMethodIndex(HttpMethod method) {
+		return method != null ? method.ordinal() : METHODS.length;
+	}
+
+	private void register(Metric metric) {
+
+		synchronized (metrics) {
+
+			metrics.add(metric);
+
+			for (MetricListener listener : listeners) {
+				listener.onMetricCreated(metric);
+			}
+		}
+	}
+
+	/**
+	 * Request histograms of a path template and HTTP method keyed by status code. A
+	 * template sees only a few distinct status codes so histograms are kept in a small
+	 * copy-on-write array that is scanned without locking.
+	 */
+	private class StatusHistograms {
+
+		private final String pathTemplate;
+
+		private final HttpMethod method;
+
+		private volatile StatusHistogram[] histograms = new StatusHistogram[0];
+
+		StatusHistograms(String pathTemplate, HttpMethod method) {
+
+			this.pathTemplate = pathTemplate;
+			this.method = method;
+		}
+
+		void record(int status, long durationNanos) {
+
+			LatencyHistogram histogram = get(status);
+
+			if (histogram == null) {
+				histogram = create(status);
+			}
+
+			histogram.record(durationNanos);
+		}
+
+		LatencyHistogram get(int status) {
+
+			for (StatusHistogram histogram : histograms) {
+				if (histogram.status == status) {
+					return histogram.histogram;
+				}
+			}
+
+			return null;
+		}
+
+		private synchronized LatencyHistogram create(int status) {
+
+			LatencyHistogram histogram = get(status);
+
+			if (histogram != null) {
+				return histogram;
+			}
+
+			histogram = new LatencyHistogram();
+
+			StatusHistogram[] current = histograms;
+			StatusHistogram[] updated = new StatusHistogram[current.length + 1];
+			System.arraycopy(current, 0, updated, 0, current.length);
+			updated[current.length] = new StatusHistogram(status, histogram);
+			histograms = updated;
+
+			Map<String, String> tags = new LinkedHashMap<String, String>();
+			tags.put("path", pathTemplate);
+			tags.put("method", method != null ? method.name() : "UNKNOWN");
+			tags.put("status", Integer.toString(status));
+
+			register(new Metric(REQUEST, tags, histogram));
+
+			return histogram;
+		}
+	}
+
+	private static class StatusHistogram {
+
+		final int status;
+
+		final LatencyHistogram histogram;
+
+		StatusHistogram(int status, LatencyHistogram histogram) {
+
+			this.status = status;
+			this.histogram = histogram;
+		}
+	}
+
+	/**
+	 * Single untagged histogram created on first use.
+	 */
+	private class SingleHistogram {
+
+		private final String name;
+
+		private final AtomicReference<LatencyHistogram> histogram = new AtomicReference<LatencyHistogram>();
+
+		SingleHistogram(String name) {
+			this.name = name;
+		}
+
+		void record(long nanos) {
+
+			LatencyHistogram histogram = this.histogram.get();
+
+			if (histogram == null) {
+
+				histogram = new LatencyHistogram();
+
+				if (this.histogram.compareAndSet(null, histogram)) {
+					register(new Metric(name, Collections.<String, String> emptyMap(),
+							histogram));
+				}
+				else {
+					histogram = this.histogram.get();
+				}
+			}
+
+			histogram.record(nanos);
+		}
+
+		LatencyHistogram get() {
+			return histogram.get();
+		}
+	}
+
+	/**
+	 * Histograms of an operation split by a boolean outcome, success and failure by
+	 * default.
+	 */
+	private class OutcomeHistograms {
+
+		private final String name;
+
+		private final String tag;
+
+		private final String positive;
+
+		private final String negative;
+
+		private final AtomicReferenceArray<LatencyHistogram> histograms = new AtomicReferenceArray<LatencyHistogram>(
+				2);
+
+		OutcomeHistograms(String name) {
+			this(name, "outcome", "success", "failure");
+		}
+
+		OutcomeHistograms(String name, String tag, String positive, String negative) {
+
+			this.name = name;
+			this.tag = tag;
+			this.positive = positive;
+			this.negative = negative;
+		}
+
+		void record(long durationNanos, boolean success) {
+
+			int index = success ? 0 : 1;
+			LatencyHistogram histogram = histograms.get(index);
+
+			if (histogram == null) {
+
+				histogram = new LatencyHistogram();
+
+				if (histograms.compareAndSet(index, null, histogram)) {
+					register(new Metric(name, Collections.singletonMap(tag,
+							success ? positive : negative), histogram));
+				}
+				else {
+					histogram = histograms.get(index);
+				}
+			}
+
+			histogram.record(durationNanos);
+		}
+
+		LatencyHistogram get(boolean success) {
+			return histograms.get(success ? 0 : 1);
+		}
+	}
+
+	/**
+	 * A named {@link LatencyHistogram} with tags.
+	 */
+	public static class Metric {
+
+		private final String name;
+
+		private final Map<String, String> tags;
+
+		private final LatencyHistogram histogram;
+
+		Metric(String name, Map<String, String> tags, LatencyHistogram histogram) {
+
+			this.name = name;
+			this.tags = Collections.unmodifiableMap(tags);
+			this.histogram = histogram;
+		}
+
+		/**
+		 * @return the metric name, for example {@link #REQUEST}.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the tags in a stable order.
+		 */
+		public Map<String, String> getTags() {
+			return tags;
+		}
+
+		/**
+		 * @return the {@link LatencyHistogram}.
+		 */
+		public LatencyHistogram getHistogram() {
+			return histogram;
+		}
+
+		@Override
+		public String toString() {
+			return name + tags;
+		}
+	}
+
+	/**
+	 * Listener notified about newly created metrics.
+	 */
+	public interface MetricListener {
+
+		/**
+		 * Callback for a newly created {@link Metric}.
+		 *
+		 * @param metric the created metric.
+		 */
+		void onMetricCreated(Metric metric);
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.vault.metrics.HistogramVaultMetrics.Metric;
+import org.springframework.vault.metrics.HistogramVaultMetrics.MetricListener;
+
+/**
+ * Exports {@link HistogramVaultMetrics} as JMX MBeans. Each {@link Metric} is
+ * registered as {@link HistogramMBean} using an {@link ObjectName} composed of the
+ * domain, the metric name as {@code type} and the metric tags, for example
+ * {@code org.springframework.vault:type=vault.request,path="transit/encrypt/{key}",method=POST,status=200}.
+ * Metrics created after {@link #afterPropertiesSet() initialization} are exported as
+ * they appear.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+@CommonsLog
+public class JmxVaultMetricsExporter implements InitializingBean, DisposableBean,
+		MetricListener {
+
+	/**
+	 * Default JMX domain.
+	 */
+	public static final String DEFAULT_DOMAIN = "org.springframework.vault";
+
+	private final HistogramVaultMetrics vaultMetrics;
+
+	private final MBeanServer mBeanServer;
+
+	private final List<ObjectName> registered = new ArrayList<ObjectName>();
+
+	private String domain = DEFAULT_DOMAIN;
+
+	/**
+	 * Create a new {@link JmxVaultMetricsExporter} using the platform
+	 * {@link MBeanServer}.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 */
+	public JmxVaultMetricsExporter(HistogramVaultMetrics vaultMetrics) {
+		this(vaultMetrics, ManagementFactory.getPlatformMBeanServer());
+	}
+
+	/**
+	 * Create a new {@link JmxVaultMetricsExporter}.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 * @param mBeanServer must not be {@literal null}.
+	 */
+	public JmxVaultMetricsExporter(HistogramVaultMetrics vaultMetrics,
+			MBeanServer mBeanServer) {
+
+		Assert.notNull(vaultMetrics, "HistogramVaultMetrics must not be null");
+		Assert.notNull(mBeanServer, "MBeanServer must not be null");
+
+		this.vaultMetrics = vaultMetrics;
+		this.mBeanServer = mBeanServer;
+	}
+
+	/**
+	 * Set the JMX domain. Defaults to {@link #DEFAULT_DOMAIN}.
+	 *
+	 * @param domain must not be empty.
+	 */
+	public void setDomain(String domain) {
+
+		Assert.hasText(domain, "Domain must not be empty");
+
+		this.domain = domain;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		vaultMetrics.addListener(this);
+	}
+
+	@Override
+	public void destroy() {
+
+		vaultMetrics.removeListener(this);
+
+		synchronized (registered) {
+
+			for (ObjectName objectName : registered) {
+				try {
+					mBeanServer.unregisterMBean(objectName);
+				}
+				catch (JMException e) {
+					log.warn(String.format("Cannot unregister MBean %s", objectName), e);
+				}
+			}
+
+			registered.clear();
+		}
+	}
+
+	@Override
+	public void onMetricCreated(Metric metric) {
+
+		try {
+
+			ObjectName objectName = getObjectName(metric);
+
+			synchronized (registered) {
+
+				mBeanServer.registerMBean(new StandardMBean(new HistogramAdapter(
+						metric.getHistogram()), HistogramMBean.class), objectName);
+				registered.add(objectName);
+			}
+		}
+		catch (JMException e) {
+			log.warn(String.format("Cannot register MBean for %s", metric), e);
+		}
+	}
+
+	/**
+	 * Create the {@link ObjectName} for {@link Metric}.
+	 *
+	 * @param metric the metric.
+	 * @return the {@link ObjectName}.
+	 * @throws JMException if the name is malformed.
+	 */
+	protected ObjectName getObjectName(Metric metric) throws JMException {
+
+		StringBuilder name = new StringBuilder(domain).append(":type=").append(
+				metric.getName());
+
+		for (Entry<String, String> tag : metric.getTags().entrySet()) {
+			name.append(',').append(tag.getKey()).append('=')
+					.append(ObjectName.quote(tag.getValue()));
+		}
+
+		return new ObjectName(name.toString());
+	}
+
+	/**
+	 * MBean interface exposing a {@link LatencyHistogram}. Durations are reported in
+	 * milliseconds.
+	 */
+	public interface HistogramMBean {
+
+		long getCount();
+
+		double getMean();
+
+		double getMax();
+
+		double getP50();
+
+		double getP90();
+
+		double getP99();
+
+		double getP999();
+	}
+
+	static class HistogramAdapter implements HistogramMBean {
+
+		private final LatencyHistogram histogram;
+
+		HistogramAdapter(LatencyHistogram histogram) {
+			this.histogram = histogram;
+		}
+
+		@Override
+		public long getCount() {
+			return histogram.getCount();
+		}
+
+		@Override
+		public double getMean() {
+			return histogram.getMean(TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public double getMax() {
+			return toMillis(histogram.getMax(TimeUnit.NANOSECONDS));
+		}
+
+		@Override
+		public double getP50() {
+			return percentile(0.5);
+		}
+
+		@Override
+		public double getP90() {
+			return percentile(0.9);
+		}
+
+		@Override
+		public double getP99() {
+			return percentile(0.99);
+		}
+
+		@Override
+		public double getP999() {
+			return percentile(0.999);
+		}
+
+		private double percentile(double percentile) {
+			return toMillis(histogram.getPercentile(percentile, TimeUnit.NANOSECONDS));
+		}
+
+		private static double toMillis(long nanos) {
+			return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * Lock-free latency histogram with log-linear buckets. Values are grouped by their
+ * power of two and each power of two is divided into {@literal 16} linear sub-buckets,
+ * bounding the relative error of reported percentiles to about 6%. Recording a value
+ * does not allocate.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLong total = new AtomicLong();
+
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Record a duration.
+	 *
+	 * @param nanos duration in nanoseconds. Negative values are recorded as
+	 * {@literal 0}.
+	 */
+	public void record(long nanos) {
+
+		long value = Math.max(nanos, 0);
+
+		counts.incrementAndGet(indexOf(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+
+		long current;
+		while (value > (current = max.get())) {
+			if (max.compareAndSet(current, value)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * @return the number of recorded values.
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * @param unit must not be {@literal null}.
+	 * @return the sum of all recorded values in {@code unit}.
+	 */
+	public long getTotalTime(TimeUnit unit) {
+
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		return unit.convert(total.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param unit must not be {@literal null}.
+	 * @return the largest recorded value in {@code unit}.
+	 */
+	public long getMax(TimeUnit unit) {
+
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param unit must not be {@literal null}.
+	 * @return the mean of recorded values in {@code unit} or {@literal 0} if no values
+	 * were recorded.
+	 */
+	public double getMean(TimeUnit unit) {
+
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		long count = this.count.get();
+
+		if (count == 0) {
+			return 0;
+		}
+
+		return (double) total.get() / count / TimeUnit.NANOSECONDS.convert(1, unit);
+	}
+
+	/**
+	 * Return the value at {@code percentile}. The reported value is the upper bound of
+	 * the bucket that contains the percentile, capped to the largest recorded value.
+	 *
+	 * @param percentile percentile between {@literal 0} and {@literal 1}.
+	 * @param unit must not be {@literal null}.
+	 * @return the value at {@code percentile} in {@code unit} or {@literal 0} if no
+	 * values were recorded.
+	 */
+	public long getPercentile(double percentile, TimeUnit unit) {
+
+		Assert.isTrue(percentile >= 0 && percentile <= 1,
+				"Percentile must be between 0 and 1");
+		Assert.notNull(unit, "TimeUnit must not be null");
+
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile * count));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+
+			seen += snapshot[i];
+
+			if (seen >= rank) {
+
+				long value = Math.min(upperBoundOf(i), max.get());
+				return unit.convert(value, TimeUnit.NANOSECONDS);
+			}
+		}
+
+		return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+	}
+
+	static int indexOf(long value) {
+
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long upperBoundOf(int index) {
+
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = index / SUB_BUCKETS - 1;
+		long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+
+		return lowerBound + (1L << shift) - 1;
+	}
+}
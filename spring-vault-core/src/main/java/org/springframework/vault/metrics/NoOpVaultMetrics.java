@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * {@link VaultMetrics} implementation that discards all measurements.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public enum NoOpVaultMetrics implements VaultMetrics {
+
+	INSTANCE;
+
+	@Override
+	public void recordRequest(String pathTemplate, HttpMethod method, int statusCode,
+			long durationNanos) {
+	}
+
+	@Override
+	public void recordLogin(long durationNanos, boolean success) {
+	}
+
+	@Override
+	public void recordTokenRenewal(long durationNanos, boolean success) {
+	}
+
+	@Override
+	public void recordTokenRenewalScheduled(long delayNanos) {
+	}
+
+	@Override
+	public void recordLeaseRenewal(long durationNanos, boolean success) {
+	}
+
+	@Override
+	public void recordLeaseRenewalQueueWait(long waitNanos) {
+	}
+
+	@Override
+	public void recordLeaseRenewalScheduled(long delayNanos) {
+	}
+
+	@Override
+	public void recordTlsHandshake(long durationNanos, boolean resumed) {
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Normalizes Vault request paths to path templates with bounded cardinality. Path
+ * segments that carry identifiers (lease Ids, key and role names, secret paths) are
+ * replaced with placeholders such as {@code sys/renew/{leaseId}}. Paths that do not
+ * match a known endpoint are normalized to their mount, for example
+ * {@code secret/{path}}.
+ * <p>
+ * Normalizing a path does not allocate once its mount was seen.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+class PathTemplates {
+
+	static final String UNKNOWN = "{path}";
+
+	private static final int MAX_MOUNTS = 256;
+
+	private static final String API_PREFIX = "/v1/";
+
+	private static final Rule[] RULES = { //
+			Rule.exact("sys/health"), //
+			Rule.exact("sys/init"), //
+			Rule.exact("sys/seal-status"), //
+			Rule.exact("sys/seal"), //
+			Rule.exact("sys/unseal"), //
+			Rule.exact("sys/leader"), //
+			Rule.exact("sys/mounts"), //
+			Rule.exact("sys/auth"), //
+			Rule.exact("sys/policy"), //
+			Rule.prefix("sys/renew/", "sys/renew/{leaseId}"), //
+			Rule.prefix("sys/revoke/", "sys/revoke/{leaseId}"), //
+			Rule.prefix("sys/mounts/", "sys/mounts/{path}"), //
+			Rule.prefix("sys/auth/", "sys/auth/{path}"), //
+			Rule.prefix("sys/policy/", "sys/policy/{name}"), //
+			Rule.exact("auth/token/create"), //
+			Rule.exact("auth/token/lookup-self"), //
+			Rule.exact("auth/token/renew-self"), //
+			Rule.exact("auth/token/revoke-self"), //
+			Rule.exact("auth/token/lookup"), //
+			Rule.exact("auth/token/renew"), //
+			Rule.exact("auth/token/revoke"), //
+			Rule.prefix("auth/token/", "auth/token/{path}"), //
+			Rule.prefix("transit/encrypt/", "transit/encrypt/{key}"), //
+			Rule.prefix("transit/decrypt/", "transit/decrypt/{key}"), //
+			Rule.prefix("transit/rewrap/", "transit/rewrap/{key}"), //
+			Rule.prefix("transit/keys/", "transit/keys/{key}"), //
+			Rule.prefix("pki/issue/", "pki/issue/{role}"), //
+			Rule.prefix("pki/sign/", "pki/sign/{role}") //
+	};
+
+	private static final List<String> mounts = new CopyOnWriteArrayList<String>();
+
+	private static final List<String> mountTemplates = new CopyOnWriteArrayList<String>();
+
+	private PathTemplates() {
+	}
+
+	/**
+	 * Normalize a request path.
+	 *
+	 * @param path the raw request path, optionally prefixed with {@code /v1/}.
+	 * @return the path template.
+	 */
+	static String normalize(String path) {
+
+		if (path == null) {
+			return UNKNOWN;
+		}
+
+		int offset = path.startsWith(API_PREFIX) ? API_PREFIX.length() : path
+				.startsWith("/") ? 1 : 0;
+
+		for (Rule rule : RULES) {
+			if (rule.matches(path, offset)) {
+				return rule.template;
+			}
+		}
+
+		if (isLogin(path, offset)) {
+			return "auth/{mount}/login";
+		}
+
+		return getMountTemplate(path, offset);
+	}
+
+	private static boolean isLogin(String path, int offset) {
+
+		return path.startsWith("auth/", offset)
+				&& (path.endsWith("/login") || path.indexOf("/login/", offset) != -1);
+	}
+
+	private static String getMountTemplate(String path, int offset) {
+
+		int end = path.indexOf('/', offset);
+
+		if (end == -1) {
+			end = path.length();
+		}
+
+		if (end == offset) {
+			return UNKNOWN;
+		}
+
+		int length = end - offset;
+
+		for (int i = 0; i < mounts.size(); i++) {
+
+			String mount = mounts.get(i);
+
+			if (mount.length() == length && path.startsWith(mount, offset)) {
+				return mountTemplates.get(i);
+			}
+		}
+
+		if (mounts.size() >= MAX_MOUNTS) {
+			return UNKNOWN;
+		}
+
+		synchronized (mounts) {
+
+			String mount = path.substring(offset, end);
+			int index = mounts.indexOf(mount);
+
+			if (index != -1) {
+				return mountTemplates.get(index);
+			}
+
+			String template = mount + "/" + UNKNOWN;
+
+			// append template first, readers access templates by the index of the mount
+			mountTemplates.add(template);
+			mounts.add(mount);
+
+			return template;
+		}
+	}
+
+	static class Rule {
+
+		private final String path;
+
+		private final String template;
+
+		private final boolean exact;
+
+		private Rule(String path, String template, boolean exact) {
+
+			this.path = path;
+			this.template = template;
+			this.exact = exact;
+		}
+
+		static Rule exact(String path) {
+			return new Rule(path, path, true);
+		}
+
+		static Rule prefix(String prefix, String template) {
+			return new Rule(prefix, template, false);
+		}
+
+		boolean matches(String candidate, int offset) {
+
+			int remaining = candidate.length() - offset;
+
+			if (exact ? remaining != path.length() : remaining <= path.length()) {
+				return false;
+			}
+
+			return candidate.startsWith(path, offset);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * SPI to record client-side metrics of Vault interaction. Implementations are called on
+ * the request path and should record measurements without blocking or allocating.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ * @see HistogramVaultMetrics
+ * @see VaultMetricsInterceptor
+ */
+public interface VaultMetrics {
+
+	/**
+	 * Record a completed HTTP request.
+	 *
+	 * @param pathTemplate normalized path template, for example
+	 * {@code transit/encrypt/{key}}.
+	 * @param method the HTTP method.
+	 * @param statusCode the HTTP status code or {@literal 0} if the request failed with
+	 * an I/O error.
+	 * @param durationNanos request duration in nanoseconds.
+	 */
+	void recordRequest(String pathTemplate, HttpMethod method, int statusCode,
+			long durationNanos);
+
+	/**
+	 * Record a login.
+	 *
+	 * @param durationNanos login duration in nanoseconds.
+	 * @param success {@literal true} if the login succeeded.
+	 */
+	void recordLogin(long durationNanos, boolean success);
+
+	/**
+	 * Record a token renewal.
+	 *
+	 * @param durationNanos renewal duration in nanoseconds.
+	 * @param success {@literal true} if the renewal succeeded.
+	 */
+	void recordTokenRenewal(long durationNanos, boolean success);
+
+	/**
+	 * Record the delay until a scheduled token renewal, including applied jitter.
+	 *
+	 * @param delayNanos delay until renewal in nanoseconds.
+	 */
+	void recordTokenRenewalScheduled(long delayNanos);
+
+	/**
+	 * Record a lease renewal.
+	 *
+	 * @param durationNanos renewal duration in nanoseconds.
+	 * @param success {@literal true} if the renewal succeeded.
+	 */
+	void recordLeaseRenewal(long durationNanos, boolean success);
+
+	/**
+	 * Record the time a due lease renewal waited for execution.
+	 *
+	 * @param waitNanos queue wait time in nanoseconds.
+	 */
+	void recordLeaseRenewalQueueWait(long waitNanos);
+
+	/**
+	 * Record the delay until a scheduled lease renewal, including applied jitter.
+	 *
+	 * @param delayNanos delay until renewal in nanoseconds.
+	 */
+	void recordLeaseRenewalScheduled(long delayNanos);
+
+	/**
+	 * Record a completed TLS handshake.
+	 *
+	 * @param durationNanos handshake duration in nanoseconds.
+	 * @param resumed {@literal true} if an existing TLS session was resumed,
+	 * {@literal false} for a full handshake.
+	 */
+	void recordTlsHandshake(long durationNanos, boolean resumed);
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClientHttpRequestInterceptor} recording the duration of each request with
+ * {@link VaultMetrics}. Request paths are normalized to path templates so that paths
+ * carrying identifiers such as lease Ids or key names are aggregated, for example
+ * {@code transit/encrypt/{key}}. Requests failing with an I/O error are recorded with
+ * status {@literal 0}.
+ *
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public class VaultMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+	private final VaultMetrics vaultMetrics;
+
+	/**
+	 * Create a new {@link VaultMetricsInterceptor}.
+	 *
+	 * @param vaultMetrics must not be {@literal null}.
+	 */
+	public VaultMetricsInterceptor(VaultMetrics vaultMetrics) {
+
+		Assert.notNull(vaultMetrics, "VaultMetrics must not be null");
+
+		this.vaultMetrics = vaultMetrics;
+	}
+
+	/**
+	 * @return the {@link VaultMetrics}.
+	 */
+	public VaultMetrics getVaultMetrics() {
+		return vaultMetrics;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+			ClientHttpRequestExecution execution) throws IOException {
+
+		long start = System.nanoTime();
+		int status = 0;
+
+		try {
+
+			ClientHttpResponse response = execution.execute(request, body);
+			status = response.getRawStatusCode();
+
+			return response;
+		}
+		finally {
+			vaultMetrics.recordRequest(
+					PathTemplates.normalize(request.getURI().getRawPath()),
+					request.getMethod(), status, System.nanoTime() - start);
+		}
+	}
+}
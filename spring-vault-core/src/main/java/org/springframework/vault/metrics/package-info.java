@@ -0,0 +1,4 @@
+/**
+ * Client-side metrics for Vault requests, authentication and lease renewal.
+ */
+package org.springframework.vault.metrics;
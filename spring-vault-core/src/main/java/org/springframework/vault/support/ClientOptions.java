@@ -17,8 +17,23 @@ package org.springframework.vault.support;
 
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.util.Assert;
+
 /**
- * Client options for Vault.
+ * Client options for Vault. Pool options apply to HTTP clients maintaining a connection
+ * pool and are ignored by clients that open a connection per request. Support by client:
+ * <ul>
+ * <li>Apache HTTP Components: all pool options.</li>
+ * <li>OkHttp 3: max connections, max connections per route (as dispatcher limits), idle
+ * timeout and connection time to live. OkHttp checks the health of every pooled
+ * connection before reuse, validate after inactivity is not applied.</li>
+ * <li>OkHttp: max connections, max connections per route (as dispatcher limits) and idle
+ * timeout.</li>
+ * <li>Netty and the JDK HTTP client: open a connection per request, pool options are
+ * not applied and the number of concurrent connections is not limited.</li>
+ * <li>Unix domain sockets (Netty epoll): max connections. Pooled connections are reused
+ * until the server closes them.</li>
+ * </ul>
  *
  * @author Mark Paluch
  */
@@ -34,6 +49,71 @@ public class ClientOptions {
 	 */
 	private final int readTimeout;
 
+	/**
+	 * Maximum number of pooled connections;
+	 */
+	private final int maxConnections;
+
+	/**
+	 * Maximum number of pooled connections per route;
+	 */
+	private final int maxConnectionsPerRoute;
+
+	/**
+	 * Idle timeout after which pooled connections are evicted;
+	 */
+	private final int idleTimeout;
+
+	/**
+	 * Time to live of pooled connections;
+	 */
+	private final int connectionTimeToLive;
+
+	/**
+	 * Inactivity period after which pooled connections are validated before reuse;
+	 */
+	private final int validateAfterInactivity;
+
+	/**
+	 * Number of connections to open ahead of the first request;
+	 */
+	private final int prewarmConnections;
+
+	/**
+	 * HTTP protocol version;
+	 */
+	private final HttpVersion httpVersion;
+
+	/**
+	 * Number of cached TLS client sessions;
+	 */
+	private final int tlsSessionCacheSize;
+
+	/**
+	 * Timeout of cached TLS client sessions;
+	 */
+	private final int tlsSessionTimeout;
+
+	/**
+	 * Path of the Unix domain socket to connect to instead of TCP;
+	 */
+	private final String unixSocketPath;
+
+	/**
+	 * Maximum number of attempts per retryable request;
+	 */
+	private final int maxAttempts;
+
+	/**
+	 * Number of consecutive failures to open a circuit breaker, {@literal 0} if disabled;
+	 */
+	private final int circuitBreakerFailureThreshold;
+
+	/**
+	 * Duration in {@link TimeUnit#MILLISECONDS} an open circuit breaker rejects requests;
+	 */
+	private final int circuitBreakerOpenDuration;
+
 	/**
 	 * Create new {@link ClientOptions} with default timeouts of {@literal 5}
 	 * {@link TimeUnit#SECONDS} connection timeout and {@literal 15}
@@ -52,8 +132,63 @@ public class ClientOptions {
 	 * {@literal 0}.
 	 */
 	public ClientOptions(int connectionTimeout, int readTimeout) {
+		this(connectionTimeout, readTimeout, builder());
+	}
+
+	private ClientOptions(int connectionTimeout, int readTimeout,
+			ClientOptionsBuilder builder) {
+
 		this.connectionTimeout = connectionTimeout;
 		this.readTimeout = readTimeout;
+		this.maxConnections = builder.maxConnections;
+		this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+		this.idleTimeout = builder.idleTimeout;
+		this.connectionTimeToLive = builder.connectionTimeToLive;
+		this.validateAfterInactivity = builder.validateAfterInactivity;
+		this.prewarmConnections = builder.prewarmConnections;
+		this.httpVersion = builder.httpVersion;
+		this.tlsSessionCacheSize = builder.tlsSessionCacheSize;
+		this.tlsSessionTimeout = builder.tlsSessionTimeout;
+		this.unixSocketPath = builder.unixSocketPath;
+		this.maxAttempts = builder.maxAttempts;
+		this.circuitBreakerFailureThreshold = builder.circuitBreakerFailureThreshold;
+		this.circuitBreakerOpenDuration = builder.circuitBreakerOpenDuration;
+	}
+
+	/**
+	 * @return a new {@link ClientOptionsBuilder} initialized with defaults.
+	 * @since 1.1
+	 */
+	public static ClientOptionsBuilder builder() {
+		return new ClientOptionsBuilder();
+	}
+
+	/**
+	 * @return a new {@link ClientOptionsBuilder} initialized with the settings of this
+	 * {@link ClientOptions}.
+	 * @since 1.1
+	 */
+	public ClientOptionsBuilder mutate() {
+
+		ClientOptionsBuilder builder = new ClientOptionsBuilder();
+
+		builder.connectionTimeout = connectionTimeout;
+		builder.readTimeout = readTimeout;
+		builder.maxConnections = maxConnections;
+		builder.maxConnectionsPerRoute = maxConnectionsPerRoute;
+		builder.idleTimeout = idleTimeout;
+		builder.connectionTimeToLive = connectionTimeToLive;
+		builder.validateAfterInactivity = validateAfterInactivity;
+		builder.prewarmConnections = prewarmConnections;
+		builder.httpVersion = httpVersion;
+		builder.tlsSessionCacheSize = tlsSessionCacheSize;
+		builder.tlsSessionTimeout = tlsSessionTimeout;
+		builder.unixSocketPath = unixSocketPath;
+		builder.maxAttempts = maxAttempts;
+		builder.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+		builder.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+
+		return builder;
 	}
 
 	/**
@@ -70,4 +205,424 @@ public class ClientOptions {
 		return readTimeout;
 	}
 
+	/**
+	 * @return the maximum number of pooled connections.
+	 * @since 1.1
+	 */
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	/**
+	 * @return the maximum number of pooled connections per route (host).
+	 * @since 1.1
+	 */
+	public int getMaxConnectionsPerRoute() {
+		return maxConnectionsPerRoute;
+	}
+
+	/**
+	 * @return the idle timeout in {@link TimeUnit#MILLISECONDS} after which idle
+	 * connections are evicted from the pool.
+	 * @since 1.1
+	 */
+	public int getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * @return the connection time to live in {@link TimeUnit#MILLISECONDS}.
+	 * {@literal 0} if connections are not expired.
+	 * @since 1.1
+	 */
+	public int getConnectionTimeToLive() {
+		return connectionTimeToLive;
+	}
+
+	/**
+	 * @return the inactivity period in {@link TimeUnit#MILLISECONDS} after which pooled
+	 * connections are validated before reuse.
+	 * @since 1.1
+	 */
+	public int getValidateAfterInactivity() {
+		return validateAfterInactivity;
+	}
+
+	/**
+	 * @return the number of connections to open before the first request.
+	 * {@literal 0} if pre-warming is disabled.
+	 * @since 1.1
+	 */
+	public int getPrewarmConnections() {
+		return prewarmConnections;
+	}
+
+	/**
+	 * @return the HTTP protocol version.
+	 * @since 1.1
+	 */
+	public HttpVersion getHttpVersion() {
+		return httpVersion;
+	}
+
+	/**
+	 * @return the number of TLS client sessions cached for resumption.
+	 * @since 1.1
+	 */
+	public int getTlsSessionCacheSize() {
+		return tlsSessionCacheSize;
+	}
+
+	/**
+	 * @return the timeout of cached TLS client sessions in {@link TimeUnit#SECONDS}.
+	 * @since 1.1
+	 */
+	public int getTlsSessionTimeout() {
+		return tlsSessionTimeout;
+	}
+
+	/**
+	 * @return the path of the Unix domain socket to connect to. {@literal null} if
+	 * connecting through TCP.
+	 * @since 1.1
+	 */
+	public String getUnixSocketPath() {
+		return unixSocketPath;
+	}
+
+	/**
+	 * @return the maximum number of attempts per retryable request including the initial
+	 * attempt. {@literal 1} disables retries.
+	 * @since 1.1
+	 * @see org.springframework.vault.client.ResilientClientHttpRequestFactory
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * @return the number of consecutive failures that open the circuit breaker of an
+	 * endpoint. {@literal 0} if circuit breakers are disabled.
+	 * @since 1.1
+	 * @see org.springframework.vault.client.CircuitBreaker
+	 */
+	public int getCircuitBreakerFailureThreshold() {
+		return circuitBreakerFailureThreshold;
+	}
+
+	/**
+	 * @return the duration in {@link TimeUnit#MILLISECONDS} an open circuit breaker
+	 * rejects requests before permitting a trial request.
+	 * @since 1.1
+	 */
+	public int getCircuitBreakerOpenDuration() {
+		return circuitBreakerOpenDuration;
+	}
+
+	/**
+	 * HTTP protocol versions used to communicate with Vault.
+	 *
+	 * @since 1.1
+	 */
+	public enum HttpVersion {
+
+		/**
+		 * HTTP/1.1 using a connection per concurrent request.
+		 */
+		HTTP_1_1,
+
+		/**
+		 * HTTP/2 negotiated through ALPN over TLS, falling back to HTTP/1.1 if the
+		 * server does not support HTTP/2. Concurrent requests are multiplexed over a
+		 * single connection per host. Requires OkHttp 3 and a JDK with ALPN support.
+		 */
+		HTTP_2,
+
+		/**
+		 * Cleartext HTTP/2 with prior knowledge (h2c) without an upgrade round-trip.
+		 * Requires OkHttp 3 and a server accepting HTTP/2 on a plaintext port, such as a
+		 * local Vault agent or stand-in.
+		 */
+		H2C
+	}
+
+	/**
+	 * Builder for {@link ClientOptions}.
+	 *
+	 * @since 1.1
+	 */
+	public static class ClientOptionsBuilder {
+
+		private int connectionTimeout = (int) TimeUnit.SECONDS.toMillis(5);
+		private int readTimeout = (int) TimeUnit.SECONDS.toMillis(15);
+		private int maxConnections = 100;
+		private int maxConnectionsPerRoute = 50;
+		private int idleTimeout = (int) TimeUnit.SECONDS.toMillis(30);
+		private int connectionTimeToLive = 0;
+		private int validateAfterInactivity = (int) TimeUnit.SECONDS.toMillis(2);
+		private int prewarmConnections = 0;
+		private HttpVersion httpVersion = HttpVersion.HTTP_1_1;
+		private int tlsSessionCacheSize = 512;
+		private int tlsSessionTimeout = (int) TimeUnit.HOURS.toSeconds(1);
+		private String unixSocketPath;
+		private int maxAttempts = 1;
+		private int circuitBreakerFailureThreshold = 0;
+		private int circuitBreakerOpenDuration = (int) TimeUnit.SECONDS.toMillis(30);
+
+		ClientOptionsBuilder() {
+		}
+
+		/**
+		 * Configure the connection timeout. Defaults to {@literal 5}
+		 * {@link TimeUnit#SECONDS}.
+		 *
+		 * @param timeout must be greater {@literal 0}.
+		 * @param unit must not be {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder connectionTimeout(long timeout, TimeUnit unit) {
+
+			Assert.isTrue(timeout > 0, "Connection timeout must be greater 0");
+
+			this.connectionTimeout = toMillis(timeout, unit);
+			return this;
+		}
+
+		/**
+		 * Configure the read timeout. Defaults to {@literal 15} {@link TimeUnit#SECONDS}.
+		 *
+		 * @param timeout must be greater {@literal 0}.
+		 * @param unit must not be {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder readTimeout(long timeout, TimeUnit unit) {
+
+			Assert.isTrue(timeout > 0, "Read timeout must be greater 0");
+
+			this.readTimeout = toMillis(timeout, unit);
+			return this;
+		}
+
+		/**
+		 * Configure the maximum number of pooled connections. Defaults to
+		 * {@literal 100}.
+		 *
+		 * @param maxConnections must be greater {@literal 0}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder maxConnections(int maxConnections) {
+
+			Assert.isTrue(maxConnections > 0, "Max connections must be greater 0");
+
+			this.maxConnections = maxConnections;
+			return this;
+		}
+
+		/**
+		 * Configure the maximum number of pooled connections per route (host). Defaults
+		 * to {@literal 50}.
+		 *
+		 * @param maxConnectionsPerRoute must be greater {@literal 0}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+
+			Assert.isTrue(maxConnectionsPerRoute > 0,
+					"Max connections per route must be greater 0");
+
+			this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+			return this;
+		}
+
+		/**
+		 * Configure the duration after which idle connections are evicted from the pool.
+		 * Defaults to {@literal 30} {@link TimeUnit#SECONDS}.
+		 *
+		 * @param idleTimeout must be greater {@literal 0}.
+		 * @param unit must not be {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder idleTimeout(long idleTimeout, TimeUnit unit) {
+
+			Assert.isTrue(idleTimeout > 0, "Idle timeout must be greater 0");
+
+			this.idleTimeout = toMillis(idleTimeout, unit);
+			return this;
+		}
+
+		/**
+		 * Configure the maximum lifetime of pooled connections. Defaults to
+		 * {@literal 0} to not expire connections.
+		 *
+		 * @param timeToLive must not be negative.
+		 * @param unit must not be {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder connectionTimeToLive(long timeToLive, TimeUnit unit) {
+
+			Assert.isTrue(timeToLive >= 0, "Connection time to live must not be negative");
+
+			this.connectionTimeToLive = toMillis(timeToLive, unit);
+			return this;
+		}
+
+		/**
+		 * Configure the inactivity period after which pooled connections are validated
+		 * before reuse. Defaults to {@literal 2} {@link TimeUnit#SECONDS}.
+		 *
+		 * @param inactivity must not be negative.
+		 * @param unit must not be {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder validateAfterInactivity(long inactivity, TimeUnit unit) {
+
+			Assert.isTrue(inactivity >= 0, "Inactivity must not be negative");
+
+			this.validateAfterInactivity = toMillis(inactivity, unit);
+			return this;
+		}
+
+		/**
+		 * Configure the number of connections to open on startup so the first requests
+		 * do not pay connection and TLS handshake latency. Defaults to {@literal 0}.
+		 *
+		 * @param prewarmConnections must not be negative.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder prewarmConnections(int prewarmConnections) {
+
+			Assert.isTrue(prewarmConnections >= 0,
+					"Pre-warm connections must not be negative");
+
+			this.prewarmConnections = prewarmConnections;
+			return this;
+		}
+
+		/**
+		 * Configure the HTTP protocol version. Defaults to {@link HttpVersion#HTTP_1_1}.
+		 * HTTP/2 versions require OkHttp 3.
+		 *
+		 * @param httpVersion must not be {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder httpVersion(HttpVersion httpVersion) {
+
+			Assert.notNull(httpVersion, "HttpVersion must not be null");
+
+			this.httpVersion = httpVersion;
+			return this;
+		}
+
+		/**
+		 * Configure the number of TLS client sessions cached for session resumption.
+		 * Applies to {@link SslConfiguration SSL configurations} with a key or trust
+		 * store. Defaults to {@literal 512}.
+		 *
+		 * @param tlsSessionCacheSize must be greater {@literal 0}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder tlsSessionCacheSize(int tlsSessionCacheSize) {
+
+			Assert.isTrue(tlsSessionCacheSize > 0,
+					"TLS session cache size must be greater 0");
+
+			this.tlsSessionCacheSize = tlsSessionCacheSize;
+			return this;
+		}
+
+		/**
+		 * Configure the timeout of cached TLS client sessions. Defaults to {@literal 1}
+		 * {@link TimeUnit#HOURS}.
+		 *
+		 * @param timeout must be greater {@literal 0}.
+		 * @param unit must not be {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder tlsSessionTimeout(long timeout, TimeUnit unit) {
+
+			Assert.isTrue(timeout > 0, "TLS session timeout must be greater 0");
+			Assert.notNull(unit, "TimeUnit must not be null");
+
+			this.tlsSessionTimeout = (int) Math.min(Math.max(unit.toSeconds(timeout), 1),
+					Integer.MAX_VALUE);
+			return this;
+		}
+
+		/**
+		 * Connect through the Unix domain socket at {@code socketPath} instead of TCP,
+		 * for example to talk to a Vault agent running on the same host. Requires Netty
+		 * with its native epoll transport on Linux.
+		 *
+		 * @param socketPath must not be empty or {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder unixSocket(String socketPath) {
+
+			Assert.hasText(socketPath, "Socket path must not be empty");
+
+			this.unixSocketPath = socketPath;
+			return this;
+		}
+
+		/**
+		 * Configure the maximum number of attempts per retryable request including the
+		 * initial attempt. Values greater {@literal 1} decorate the client with
+		 * {@link org.springframework.vault.client.ResilientClientHttpRequestFactory},
+		 * which retries idempotent requests and lease renewals. Defaults to {@literal 1}.
+		 *
+		 * @param maxAttempts must be greater {@literal 0}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 * @see #circuitBreaker(int, long, TimeUnit)
+		 */
+		public ClientOptionsBuilder maxAttempts(int maxAttempts) {
+
+			Assert.isTrue(maxAttempts > 0, "Max attempts must be greater 0");
+
+			this.maxAttempts = maxAttempts;
+			return this;
+		}
+
+		/**
+		 * Enable per-endpoint circuit breakers that reject requests to an endpoint for
+		 * {@code openDuration} after {@code failureThreshold} consecutive failures.
+		 * Circuit breakers decorate the client with
+		 * {@link org.springframework.vault.client.ResilientClientHttpRequestFactory}
+		 * independently of {@link #maxAttempts(int) retries}. Disabled by default.
+		 *
+		 * @param failureThreshold must be greater {@literal 0}.
+		 * @param openDuration must not be negative.
+		 * @param unit must not be {@literal null}.
+		 * @return {@code this} {@link ClientOptionsBuilder}.
+		 */
+		public ClientOptionsBuilder circuitBreaker(int failureThreshold,
+				long openDuration, TimeUnit unit) {
+
+			Assert.isTrue(failureThreshold > 0, "Failure threshold must be greater 0");
+			Assert.isTrue(openDuration >= 0, "Open duration must not be negative");
+
+			this.circuitBreakerFailureThreshold = failureThreshold;
+			this.circuitBreakerOpenDuration = toMillis(openDuration, unit);
+			return this;
+		}
+
+		/**
+		 * Build a new {@link ClientOptions} instance.
+		 *
+		 * @return a new {@link ClientOptions}.
+		 */
+		public ClientOptions build() {
+
+			Assert.isTrue(maxConnectionsPerRoute <= maxConnections,
+					"Max connections per route must not exceed max connections");
+
+			return new ClientOptions(connectionTimeout, readTimeout, this);
+		}
+
+		private static int toMillis(long duration, TimeUnit unit) {
+
+			Assert.notNull(unit, "TimeUnit must not be null");
+
+			return (int) Math.min(unit.toMillis(duration), Integer.MAX_VALUE);
+		}
+	}
 }
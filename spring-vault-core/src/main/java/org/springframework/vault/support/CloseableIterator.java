@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.support;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * {@link Iterator} that holds resources which are released on {@link #close()}.
+ * Implementations release resources once the last element was consumed. Callers that
+ * stop iterating early must call {@link #close()}.
+ *
+ * @param <T> element type.
+ * @author Mark Paluch
+ * @since 1.1
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+	/**
+	 * Release resources held by this iterator. Does not throw exceptions.
+	 */
+	@Override
+	void close();
+}
@@ -16,6 +16,8 @@
 package org.springframework.vault.authentication;
 
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
@@ -31,7 +33,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.Trigger;
 import org.springframework.vault.authentication.LifecycleAwareSessionManager.FixedTimeoutRefreshTrigger;
+import org.springframework.vault.authentication.LifecycleAwareSessionManager.JitteredRefreshTrigger;
 import org.springframework.vault.client.VaultHttpHeaders;
+import org.springframework.vault.metrics.HistogramVaultMetrics;
 import org.springframework.vault.support.VaultToken;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestOperations;
@@ -254,4 +258,38 @@ public class LifecycleAwareSessionManagerUnitTests {
 				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(0)),
 				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(2)));
 	}
+
+	@Test
+	public void jitteredTriggerShouldRenewNoLaterThanDelegate() {
+
+		JitteredRefreshTrigger trigger = new JitteredRefreshTrigger(
+				new FixedTimeoutRefreshTrigger(5, TimeUnit.SECONDS), 50);
+		Set<Long> executionTimes = new HashSet<Long>();
+
+		for (int i = 0; i < 100; i++) {
+
+			long now = System.currentTimeMillis();
+			Date nextExecutionTime = trigger.nextExecutionTime(LoginToken.of("foo", 65));
+
+			assertThat(nextExecutionTime).isBetween(
+					new Date(now + TimeUnit.SECONDS.toMillis(30) - 10),
+					new Date(now + TimeUnit.SECONDS.toMillis(60) + 10));
+			executionTimes.add(nextExecutionTime.getTime() - now);
+		}
+
+		assertThat(executionTimes.size()).isGreaterThan(1);
+	}
+
+	@Test
+	public void shouldRecordScheduledTokenRenewal() {
+
+		HistogramVaultMetrics metrics = new HistogramVaultMetrics();
+		sessionManager.setVaultMetrics(metrics);
+		when(clientAuthentication.login()).thenReturn(LoginToken.renewable("login", 65));
+
+		sessionManager.getSessionToken();
+
+		assertThat(metrics.getTokenRenewalScheduleHistogram().getMax(TimeUnit.SECONDS))
+				.isBetween(55L, 60L);
+	}
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.authentication;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SimpleAsyncSessionManager}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SimpleAsyncSessionManagerUnitTests {
+
+	@Mock
+	private ClientAuthentication clientAuthentication;
+
+	private SimpleAsyncSessionManager sessionManager;
+
+	@Before
+	public void before() throws Exception {
+		sessionManager = new SimpleAsyncSessionManager(clientAuthentication,
+				new SimpleAsyncTaskExecutor());
+	}
+
+	@Test
+	public void shouldShareLoginAcrossConcurrentCallers() throws Exception {
+
+		final CountDownLatch latch = new CountDownLatch(1);
+
+		when(clientAuthentication.login()).thenAnswer(new Answer<VaultToken>() {
+
+			@Override
+			public VaultToken answer(InvocationOnMock invocation) throws Throwable {
+
+				latch.await(5, TimeUnit.SECONDS);
+				return VaultToken.of("login");
+			}
+		});
+
+		ListenableFuture<VaultToken> first = sessionManager.getSessionToken();
+		ListenableFuture<VaultToken> second = sessionManager.getSessionToken();
+
+		assertThat(first.isDone()).isFalse();
+		assertThat(second).isSameAs(first);
+
+		latch.countDown();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(VaultToken.of("login"));
+		assertThat(sessionManager.getSessionToken().get()).isEqualTo(
+				VaultToken.of("login"));
+
+		verify(clientAuthentication).login();
+	}
+
+	@Test
+	public void shouldRetryLoginAfterFailure() throws Exception {
+
+		when(clientAuthentication.login()).thenThrow(new VaultException("foo"))
+				.thenReturn(VaultToken.of("login"));
+
+		try {
+			sessionManager.getSessionToken().get(5, TimeUnit.SECONDS);
+			fail("Missing ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(VaultException.class);
+		}
+
+		assertThat(sessionManager.getSessionToken().get(5, TimeUnit.SECONDS))
+				.isEqualTo(VaultToken.of("login"));
+
+		verify(clientAuthentication, times(2)).login();
+	}
+
+	@Test
+	public void shouldLoginAgainOnceTokenExpires() throws Exception {
+
+		when(clientAuthentication.login()).thenReturn(LoginToken.of("first", 1),
+				LoginToken.of("second", 60));
+
+		assertThat(sessionManager.getSessionToken().get(5, TimeUnit.SECONDS))
+				.isEqualTo(LoginToken.of("first"));
+
+		Thread.sleep(1000);
+
+		assertThat(sessionManager.getSessionToken().get(5, TimeUnit.SECONDS))
+				.isEqualTo(LoginToken.of("second"));
+		assertThat(sessionManager.getSessionToken().get(5, TimeUnit.SECONDS))
+				.isEqualTo(LoginToken.of("second"));
+
+		verify(clientAuthentication, times(2)).login();
+	}
+}
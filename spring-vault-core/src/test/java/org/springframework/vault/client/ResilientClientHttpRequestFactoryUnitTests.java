@@ -0,0 +1,361 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link ResilientClientHttpRequestFactory}.
+ *
+ * @author Mark Paluch
+ */
+public class ResilientClientHttpRequestFactoryUnitTests {
+
+	private final URI uri = URI.create("https://localhost:8200/v1/secret/foo");
+
+	private final Queue<Object> outcomes = new LinkedList<Object>();
+
+	private final List<MockClientHttpRequest> requests = new ArrayList<MockClientHttpRequest>();
+
+	private int failureThreshold = 3;
+
+	private long openDurationMillis = TimeUnit.HOURS.toMillis(1);
+
+	private ResilientClientHttpRequestFactory requestFactory;
+
+	private CircuitBreaker circuitBreaker;
+
+	@Before
+	public void before() {
+
+		requestFactory = new ResilientClientHttpRequestFactory(
+				new ClientHttpRequestFactory() {
+
+					@Override
+					public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod)
+							throws IOException {
+
+						final Object outcome = outcomes.poll();
+						MockClientHttpRequest request = new MockClientHttpRequest(
+								httpMethod, uri) {
+
+							@Override
+							protected ClientHttpResponse executeInternal()
+									throws IOException {
+
+								if (outcome instanceof IOException) {
+									throw (IOException) outcome;
+								}
+
+								return response((HttpStatus) outcome);
+							}
+						};
+
+						requests.add(request);
+						return request;
+					}
+				}, failureThreshold, openDurationMillis, TimeUnit.MILLISECONDS);
+
+		requestFactory.setBackoff(0, 0, 1, TimeUnit.MILLISECONDS);
+		circuitBreaker = requestFactory.getCircuitBreaker(uri);
+	}
+
+	@Test
+	public void shouldRetryIdempotentRequestOnTransientStatus() throws Exception {
+
+		outcomes.addAll(Arrays.<Object> asList(HttpStatus.SERVICE_UNAVAILABLE,
+				HttpStatus.OK));
+
+		ClientHttpResponse response = requestFactory.createRequest(uri, HttpMethod.GET)
+				.execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(requestFactory.getRetryCount()).isEqualTo(1);
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	public void shouldRetryOnIOExceptionAndReplayBody() throws Exception {
+
+		outcomes.addAll(Arrays.<Object> asList(new IOException("Connection reset"),
+				HttpStatus.OK));
+
+		requestFactory.setRetryableMethods(EnumSet.of(HttpMethod.PUT));
+
+		ClientHttpRequest request = requestFactory.createRequest(uri, HttpMethod.PUT);
+		request.getHeaders().add("X-Vault-Token", "token");
+		StreamUtils.copy("{\"key\":\"value\"}".getBytes(), request.getBody());
+
+		assertThat(request.execute().getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(requests).hasSize(2);
+
+		for (MockClientHttpRequest attempt : requests) {
+			assertThat(attempt.getBodyAsString()).isEqualTo("{\"key\":\"value\"}");
+			assertThat(attempt.getHeaders().getFirst("X-Vault-Token")).isEqualTo("token");
+		}
+	}
+
+	@Test
+	public void shouldNotRetryNonIdempotentRequest() throws Exception {
+
+		outcomes.addAll(Arrays.<Object> asList(HttpStatus.SERVICE_UNAVAILABLE,
+				HttpStatus.OK));
+
+		ClientHttpResponse response = requestFactory.createRequest(uri, HttpMethod.POST)
+				.execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(requestFactory.getRetryCount()).isZero();
+	}
+
+	@Test
+	public void shouldNotRetryPutRequestsByDefault() throws Exception {
+
+		outcomes.addAll(Arrays.<Object> asList(HttpStatus.SERVICE_UNAVAILABLE,
+				HttpStatus.OK));
+
+		ClientHttpResponse response = requestFactory.createRequest(uri, HttpMethod.PUT)
+				.execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(requests).hasSize(1);
+	}
+
+	@Test
+	@SuppressWarnings("rawtypes")
+	public void leaseRenewalShouldSurviveTransientStatus() throws Exception {
+
+		outcomes.addAll(Arrays.<Object> asList(HttpStatus.SERVICE_UNAVAILABLE,
+				HttpStatus.OK));
+
+		VaultEndpoint endpoint = VaultEndpoint.create("localhost", 8200);
+		RestTemplate restTemplate = VaultClients.createRestTemplate(
+				SimpleVaultEndpointProvider.of(endpoint), requestFactory);
+
+		ResponseEntity<Map> response = restTemplate.exchange("sys/renew/{leaseId}",
+				HttpMethod.PUT, null, Map.class, "database/creds/readonly/1234");
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(requests).hasSize(2);
+		assertThat(requests.get(1).getURI().getPath()).isEqualTo(
+				"/v1/sys/renew/database/creds/readonly/1234");
+	}
+
+	@Test
+	public void shouldRetryRenewalPathsRegardlessOfMethod() throws Exception {
+
+		for (String path : Arrays.asList("/v1/sys/leases/renew",
+				"/v1/auth/token/renew-self")) {
+
+			requests.clear();
+			outcomes.addAll(Arrays.<Object> asList(new IOException("Connection reset"),
+					HttpStatus.OK));
+
+			ClientHttpResponse response = requestFactory.createRequest(
+					URI.create("https://localhost:8200" + path), HttpMethod.POST)
+					.execute();
+
+			assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(requests).hasSize(2);
+		}
+	}
+
+	@Test
+	public void shouldNotRetryPathsNestingRenewalPath() throws Exception {
+
+		outcomes.addAll(Arrays.<Object> asList(HttpStatus.SERVICE_UNAVAILABLE,
+				HttpStatus.OK));
+
+		ClientHttpResponse response = requestFactory.createRequest(
+				URI.create("https://localhost:8200/v1/secret/sys/renew"), HttpMethod.PUT)
+				.execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(requests).hasSize(1);
+	}
+
+	@Test
+	public void shouldRetryWithoutCircuitBreakerIfDisabled() throws Exception {
+
+		requestFactory.setCircuitBreakerEnabled(false);
+
+		for (int i = 0; i < failureThreshold; i++) {
+			outcomes.add(HttpStatus.SERVICE_UNAVAILABLE);
+		}
+		outcomes.add(HttpStatus.OK);
+
+		requestFactory.setMaxAttempts(failureThreshold + 1);
+
+		ClientHttpResponse response = requestFactory.createRequest(uri, HttpMethod.GET)
+				.execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(requestFactory.getCircuitBreakers()).hasSize(1);
+	}
+
+	@Test
+	public void shouldReturnLastResponseWhenRetriesAreExhausted() throws Exception {
+
+		outcomes.addAll(Arrays.<Object> asList(HttpStatus.BAD_GATEWAY,
+				HttpStatus.BAD_GATEWAY, HttpStatus.BAD_GATEWAY));
+
+		ClientHttpResponse response = requestFactory.createRequest(uri, HttpMethod.GET)
+				.execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+		assertThat(requestFactory.getRetryCount()).isEqualTo(2);
+		assertThat(requestFactory.getRetriesExhaustedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotRetryClientErrors() throws Exception {
+
+		outcomes.add(HttpStatus.NOT_FOUND);
+
+		ClientHttpResponse response = requestFactory.createRequest(uri, HttpMethod.GET)
+				.execute();
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		assertThat(requests).hasSize(1);
+	}
+
+	@Test
+	public void shouldRejectRequestsWhileCircuitBreakerIsOpen() throws Exception {
+
+		outcomes.addAll(Arrays.<Object> asList(HttpStatus.SERVICE_UNAVAILABLE,
+				HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE));
+
+		requestFactory.createRequest(uri, HttpMethod.GET).execute();
+
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+		try {
+			requestFactory.createRequest(uri, HttpMethod.GET).execute();
+			fail("Missing CircuitBreakerOpenException");
+		}
+		catch (CircuitBreakerOpenException e) {
+			assertThat(circuitBreaker.getRejectedCount()).isEqualTo(1);
+		}
+
+		assertThat(requests).hasSize(3);
+	}
+
+	@Test
+	public void halfOpenBreakerShouldCloseAfterSuccessfulTrialRequest() throws Exception {
+
+		failureThreshold = 1;
+		openDurationMillis = 0;
+		before();
+
+		outcomes.addAll(Arrays.<Object> asList(new IOException("Connection refused"),
+				HttpStatus.OK));
+		requestFactory.setMaxAttempts(1);
+
+		try {
+			requestFactory.createRequest(uri, HttpMethod.GET).execute();
+			fail("Missing IOException");
+		}
+		catch (IOException e) {
+			assertThat(circuitBreaker.getOpenedCount()).isEqualTo(1);
+		}
+
+		assertThat(requestFactory.createRequest(uri, HttpMethod.GET).execute()
+				.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	public void shouldTrackCircuitBreakersPerEndpoint() throws Exception {
+
+		outcomes.addAll(Arrays.<Object> asList(HttpStatus.SERVICE_UNAVAILABLE,
+				HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE,
+				HttpStatus.OK));
+
+		requestFactory.createRequest(uri, HttpMethod.GET).execute();
+
+		URI other = URI.create("https://other:8200/v1/secret/foo");
+
+		assertThat(requestFactory.createRequest(other, HttpMethod.GET).execute()
+				.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(requestFactory.getCircuitBreaker(other).getState()).isEqualTo(
+				CircuitBreaker.State.CLOSED);
+		assertThat(requestFactory.getCircuitBreakers()).containsOnlyKeys(
+				"https://localhost:8200", "https://other:8200");
+	}
+
+	@Test
+	public void lateSuccessShouldNotCloseOpenBreaker() {
+
+		CircuitBreaker breaker = new CircuitBreaker(1, 1, TimeUnit.HOURS);
+
+		CircuitBreaker.Permit late = breaker.tryAcquirePermit();
+		breaker.onFailure(breaker.tryAcquirePermit());
+
+		breaker.onSuccess(late);
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquirePermit()).isNull();
+	}
+
+	@Test
+	public void lateSuccessShouldNotCloseHalfOpenBreaker() {
+
+		CircuitBreaker breaker = new CircuitBreaker(1, 0, TimeUnit.MILLISECONDS);
+
+		CircuitBreaker.Permit late = breaker.tryAcquirePermit();
+		breaker.onFailure(breaker.tryAcquirePermit());
+
+		CircuitBreaker.Permit trial = breaker.tryAcquirePermit();
+
+		breaker.onSuccess(late);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+		breaker.onSuccess(trial);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	private static MockClientHttpResponse response(HttpStatus status) {
+		return new MockClientHttpResponse(new byte[0], status);
+	}
+}
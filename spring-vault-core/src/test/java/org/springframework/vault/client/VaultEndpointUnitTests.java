@@ -57,4 +57,17 @@ public class VaultEndpointUnitTests {
 		assertThat(endpoint.getHost()).isEqualTo("127.0.0.1");
 		assertThat(endpoint.getPort()).isEqualTo(80);
 	}
+
+	@Test
+	public void shouldCreateUnixSocketEndpointFromURI() {
+
+		VaultEndpoint endpoint = VaultEndpoint.from(URI
+				.create("unix:///var/run/vault/agent.sock"));
+
+		assertThat(endpoint.getSocketPath()).isEqualTo("/var/run/vault/agent.sock");
+		assertThat(endpoint.getScheme()).isEqualTo("http");
+		assertThat(endpoint.createUriString("sys/health")).isEqualTo(
+				"http://localhost:8200/v1/sys/health");
+		assertThat(endpoint.toString()).isEqualTo("unix:///var/run/vault/agent.sock");
+	}
 }
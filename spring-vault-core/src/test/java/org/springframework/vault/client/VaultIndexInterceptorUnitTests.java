@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.Base64Utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link VaultIndexInterceptor}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultIndexInterceptorUnitTests {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final VaultIndexInterceptor interceptor = new VaultIndexInterceptor();
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldRetainNewerStateOfWritesCompletingOutOfOrder() throws Exception {
+
+		final CountDownLatch newerWriteCompleted = new CountDownLatch(1);
+
+		Future<?> olderWrite = executor.submit(new WriteTask(new Execution(state(
+				"cluster-a", 1)) {
+
+			@Override
+			public ClientHttpResponse execute(HttpRequest request, byte[] body)
+					throws IOException {
+
+				try {
+					newerWriteCompleted.await();
+				}
+				catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+
+				return super.execute(request, body);
+			}
+		}));
+
+		write("secret/newer", state("cluster-a", 2));
+		newerWriteCompleted.countDown();
+		olderWrite.get(5, TimeUnit.SECONDS);
+
+		assertThat(interceptor.getReplicationStates()).containsExactly(
+				state("cluster-a", 2));
+		assertThat(read()).containsExactly(state("cluster-a", 2));
+	}
+
+	@Test
+	public void shouldReplaceOlderState() throws Exception {
+
+		write("secret/foo", state("cluster-a", 1));
+		write("secret/foo", state("cluster-a", 2));
+
+		assertThat(interceptor.getReplicationStates()).containsExactly(
+				state("cluster-a", 2));
+	}
+
+	@Test
+	public void shouldRetainStatesOfDifferentClusters() throws Exception {
+
+		write("secret/foo", state("cluster-a", 2));
+		write("secret/foo", state("cluster-b", 1));
+
+		assertThat(read()).containsExactly(state("cluster-a", 2), state("cluster-b", 1));
+	}
+
+	@Test
+	public void shouldReplaceOpaqueState() throws Exception {
+
+		write("secret/foo", "opaque-1");
+		write("secret/foo", "opaque-2");
+
+		assertThat(interceptor.getReplicationStates()).containsExactly("opaque-2");
+	}
+
+	@Test
+	public void shouldNotCaptureStateOfLoginsAndRenewals() throws Exception {
+
+		write("auth/approle/login", state("cluster-a", 1));
+		write("auth/userpass/login/walter", state("cluster-a", 2));
+		write("auth/token/renew-self", state("cluster-a", 3));
+		write("sys/renew/database/creds/readonly/1234", state("cluster-a", 4));
+		write("sys/leases/renew", state("cluster-a", 5));
+
+		assertThat(interceptor.getReplicationStates()).isEmpty();
+		assertThat(read()).isNull();
+	}
+
+	private void write(String path, String state) throws IOException {
+		new WriteTask(path, new Execution(state)).call();
+	}
+
+	private List<String> read() throws IOException {
+
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+				URI.create("https://localhost:8200/v1/secret/foo"));
+
+		interceptor.intercept(request, new byte[0], new Execution(null));
+
+		return request.getHeaders().get(VaultHttpHeaders.VAULT_INDEX);
+	}
+
+	private static String state(String clusterId, int index) {
+
+		String state = String.format("v1:%s:%d:%d:hmac", clusterId, index, index);
+		return Base64Utils.encodeToString(state.getBytes(UTF_8));
+	}
+
+	class WriteTask implements Callable<Void> {
+
+		private final String path;
+
+		private final ClientHttpRequestExecution execution;
+
+		WriteTask(ClientHttpRequestExecution execution) {
+			this("secret/older", execution);
+		}
+
+		WriteTask(String path, ClientHttpRequestExecution execution) {
+
+			this.path = path;
+			this.execution = execution;
+		}
+
+		@Override
+		public Void call() throws IOException {
+
+			MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.PUT,
+					URI.create("https://localhost:8200/v1/" + path));
+
+			interceptor.intercept(request, new byte[0], execution);
+
+			return null;
+		}
+	}
+
+	static class Execution implements ClientHttpRequestExecution {
+
+		private final String state;
+
+		Execution(String state) {
+			this.state = state;
+		}
+
+		@Override
+		public ClientHttpResponse execute(HttpRequest request, byte[] body)
+				throws IOException {
+
+			MockClientHttpResponse response = new MockClientHttpResponse(new byte[0],
+					HttpStatus.NO_CONTENT);
+
+			if (state != null) {
+				response.getHeaders().set(VaultHttpHeaders.VAULT_INDEX, state);
+			}
+
+			return response;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.vault.support.VaultResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link VaultJackson2HttpMessageConverter}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultJackson2HttpMessageConverterUnitTests {
+
+	private final VaultJackson2HttpMessageConverter converter = new VaultJackson2HttpMessageConverter();
+
+	@Test
+	public void shouldSupportJsonOnly() {
+
+		assertThat(converter.getSupportedMediaTypes()).containsOnly(
+				MediaType.APPLICATION_JSON);
+		assertThat(converter.canRead(VaultResponse.class, MediaType.APPLICATION_JSON))
+				.isTrue();
+		assertThat(converter.canRead(VaultResponse.class, MediaType.TEXT_PLAIN))
+				.isFalse();
+		assertThat(converter.canWrite(Map.class, null)).isTrue();
+	}
+
+	@Test
+	public void shouldReadResponse() throws IOException {
+
+		MockHttpInputMessage inputMessage = new MockHttpInputMessage(
+				"{\"lease_id\":\"foo\",\"data\":{\"key\":\"value\"},\"unknown\":1}"
+						.getBytes());
+
+		VaultResponse response = (VaultResponse) converter.read(VaultResponse.class,
+				inputMessage);
+
+		assertThat(response.getLeaseId()).isEqualTo("foo");
+		assertThat(response.getData()).containsEntry("key", "value");
+	}
+
+	@Test
+	public void shouldReportMalformedJson() throws IOException {
+
+		try {
+			converter.read(VaultResponse.class, new MockHttpInputMessage("{".getBytes()));
+			fail("Missing HttpMessageNotReadableException");
+		}
+		catch (HttpMessageNotReadableException e) {
+			assertThat(e).hasMessageContaining("JSON parse error");
+		}
+	}
+
+	@Test
+	public void shouldWriteWithoutClosingBody() throws IOException {
+
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		final boolean[] closed = new boolean[1];
+
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage() {
+
+			@Override
+			public OutputStream getBody() {
+				return new OutputStream() {
+
+					@Override
+					public void write(int b) {
+						body.write(b);
+					}
+
+					@Override
+					public void close() {
+						closed[0] = true;
+					}
+				};
+			}
+		};
+
+		converter.write(Collections.singletonMap("key", "value"),
+				MediaType.APPLICATION_JSON, outputMessage);
+
+		assertThat(body.toString()).isEqualTo("{\"key\":\"value\"}");
+		assertThat(closed[0]).isFalse();
+		assertThat(outputMessage.getHeaders().getContentType().includes(
+				MediaType.APPLICATION_JSON)).isTrue();
+	}
+
+	@Test
+	public void shouldShareConvertersAcrossTemplates() {
+
+		List<HttpMessageConverter<?>> first = VaultClients.createMessageConverters();
+		List<HttpMessageConverter<?>> second = VaultClients.createRestTemplate()
+				.getMessageConverters();
+
+		assertThat(first).hasSize(3);
+		assertThat(second).containsExactlyElementsOf(first);
+		assertThat(first.get(2)).isInstanceOf(VaultJackson2HttpMessageConverter.class);
+	}
+}
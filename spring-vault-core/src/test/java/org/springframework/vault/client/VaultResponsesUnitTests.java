@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.client;
+
+import lombok.Data;
+import org.junit.Test;
+
+import org.springframework.vault.support.VaultResponseSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link VaultResponses}.
+ *
+ * @author Mark Paluch
+ */
+public class VaultResponsesUnitTests {
+
+	@Test
+	public void shouldCacheTypeReferences() {
+
+		assertThat(VaultResponses.getTypeReference(Person.class)).isSameAs(
+				VaultResponses.getTypeReference(Person.class));
+		assertThat(VaultResponses.getTypeReference(Person.class).getType()).isEqualTo(
+				VaultResponses.getTypeReference(Person.class).getType());
+	}
+
+	@Test
+	public void shouldResolveJavaType() {
+
+		assertThat(VaultResponses.getJavaType(Person.class).getRawClass()).isEqualTo(
+				VaultResponseSupport.class);
+		assertThat(VaultResponses.getJavaType(Person.class).containedType(0).getRawClass())
+				.isEqualTo(Person.class);
+	}
+
+	@Test
+	public void objectReaderShouldBindResponse() throws Exception {
+
+		VaultResponseSupport<Person> response = VaultResponses.getObjectReader(
+				Person.class).readValue(
+				"{\"lease_duration\":10,\"warnings\":null,"
+						+ "\"data\":{\"firstname\":\"Walter\",\"unknown\":true}}");
+
+		assertThat(response.getLeaseDuration()).isEqualTo(10);
+		assertThat(response.getData().getFirstname()).isEqualTo("Walter");
+		assertThat(VaultResponses.getObjectReader(Person.class)).isSameAs(
+				VaultResponses.getObjectReader(Person.class));
+	}
+
+	@Data
+	static class Person {
+		String firstname;
+	}
+}
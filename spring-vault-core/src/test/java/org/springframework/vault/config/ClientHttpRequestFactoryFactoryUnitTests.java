@@ -0,0 +1,440 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import com.squareup.okhttp.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Test;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.vault.client.ConnectionPrewarmer;
+import org.springframework.vault.client.ResilientClientHttpRequestFactory;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.config.ClientHttpRequestFactoryFactory.HttpComponents;
+import org.springframework.vault.config.ClientHttpRequestFactoryFactory.OkHttp;
+import org.springframework.vault.config.ClientHttpRequestFactoryFactory.OkHttp3;
+import org.springframework.vault.metrics.HistogramVaultMetrics;
+import org.springframework.vault.support.ClientOptions;
+import org.springframework.vault.support.ClientOptions.HttpVersion;
+import org.springframework.vault.support.SslConfiguration;
+import org.springframework.vault.util.EmbeddedVaultServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link ClientHttpRequestFactoryFactory}.
+ *
+ * @author Mark Paluch
+ */
+public class ClientHttpRequestFactoryFactoryUnitTests {
+
+	private final ClientOptions options = ClientOptions.builder().maxConnections(40)
+			.maxConnectionsPerRoute(10).idleTimeout(20, TimeUnit.SECONDS)
+			.validateAfterInactivity(500, TimeUnit.MILLISECONDS).build();
+
+	@Test
+	public void shouldConfigureHttpComponentsConnectionPool() throws Exception {
+
+		HttpComponentsClientHttpRequestFactory factory = (HttpComponentsClientHttpRequestFactory) HttpComponents
+				.usingHttpComponents(options, SslConfiguration.NONE);
+
+		PoolingHttpClientConnectionManager connectionManager = getConnectionManager(factory);
+
+		assertThat(connectionManager.getMaxTotal()).isEqualTo(40);
+		assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(10);
+		assertThat(connectionManager.getValidateAfterInactivity()).isEqualTo(500);
+
+		factory.destroy();
+	}
+
+	@Test
+	public void shouldConfigureOkHttpConnectionPool() throws Exception {
+
+		ClientHttpRequestFactory factory = OkHttp.usingOkHttp(options,
+				SslConfiguration.NONE);
+
+		OkHttpClient client = (OkHttpClient) new DirectFieldAccessor(factory)
+				.getPropertyValue("client");
+
+		assertThat(client.getDispatcher().getMaxRequests()).isEqualTo(40);
+		assertThat(client.getDispatcher().getMaxRequestsPerHost()).isEqualTo(10);
+		assertThat(client.getConnectionPool()).isNotSameAs(
+				com.squareup.okhttp.ConnectionPool.getDefault());
+	}
+
+	@Test
+	public void shouldConfigureOkHttp3ConnectionPool() throws Exception {
+
+		OkHttp3ClientHttpRequestFactory factory = OkHttp3.usingOkHttp3(options,
+				SslConfiguration.NONE);
+
+		okhttp3.OkHttpClient client = (okhttp3.OkHttpClient) new DirectFieldAccessor(
+				factory).getPropertyValue("client");
+
+		assertThat(client.dispatcher().getMaxRequests()).isEqualTo(40);
+		assertThat(client.dispatcher().getMaxRequestsPerHost()).isEqualTo(10);
+
+		factory.destroy();
+	}
+
+	@Test
+	public void shouldRetireOkHttp3ConnectionsAfterTimeToLive() throws Exception {
+
+		MockWebServer server = new MockWebServer();
+
+		for (int i = 0; i < 3; i++) {
+			server.enqueue(new MockResponse().setBody("{}"));
+		}
+
+		server.start();
+
+		OkHttp3ClientHttpRequestFactory factory = OkHttp3.usingOkHttp3(ClientOptions
+				.builder().connectionTimeToLive(50, TimeUnit.MILLISECONDS).build(),
+				SslConfiguration.NONE);
+		VaultEndpoint endpoint = VaultEndpoint.create(server.getHostName(),
+				server.getPort());
+		endpoint.setScheme("http");
+
+		try {
+
+			for (int i = 0; i < 3; i++) {
+
+				factory.createRequest(endpoint.createUri("sys/health"), HttpMethod.GET)
+						.execute().close();
+				Thread.sleep(100);
+			}
+
+			assertThat(server.takeRequest().getHeader("Connection")).isNotEqualTo(
+					"close");
+
+			RecordedRequest expired = server.takeRequest();
+			assertThat(expired.getSequenceNumber()).isEqualTo(1);
+			assertThat(expired.getHeader("Connection")).isEqualTo("close");
+
+			assertThat(server.takeRequest().getSequenceNumber()).isZero();
+		}
+		finally {
+			factory.destroy();
+			server.shutdown();
+		}
+	}
+
+	@Test
+	public void shouldDecorateClientWithRetriesIfConfigured() throws Exception {
+
+		ClientHttpRequestFactory factory = ClientHttpRequestFactoryFactory.create(
+				ClientOptions.builder().maxAttempts(3).build(), SslConfiguration.NONE);
+
+		assertThat(factory).isInstanceOf(ResilientClientHttpRequestFactory.class);
+		assertThat(ClientHttpRequestFactoryFactory.create(new ClientOptions(),
+				SslConfiguration.NONE)).isNotInstanceOf(
+				ResilientClientHttpRequestFactory.class);
+
+		((ResilientClientHttpRequestFactory) factory).destroy();
+	}
+
+	@Test
+	public void shouldDecorateClientWithCircuitBreakerWithoutRetries() throws Exception {
+
+		ClientHttpRequestFactory factory = ClientHttpRequestFactoryFactory.create(
+				ClientOptions.builder().circuitBreaker(5, 10, TimeUnit.SECONDS).build(),
+				SslConfiguration.NONE);
+
+		assertThat(factory).isInstanceOf(ResilientClientHttpRequestFactory.class);
+
+		((ResilientClientHttpRequestFactory) factory).destroy();
+	}
+
+	@Test
+	public void shouldMultiplexH2cRequestsOverSingleConnection() throws Exception {
+
+		MockWebServer server = new MockWebServer();
+		server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+
+		for (int i = 0; i < 11; i++) {
+			server.enqueue(new MockResponse().setBody("{}").setBodyDelay(50,
+					TimeUnit.MILLISECONDS));
+		}
+
+		server.start();
+
+		final ClientHttpRequestFactory factory = ClientHttpRequestFactoryFactory.create(
+				ClientOptions.builder().httpVersion(HttpVersion.H2C).build(),
+				SslConfiguration.NONE);
+		final VaultEndpoint endpoint = VaultEndpoint.create(server.getHostName(),
+				server.getPort());
+		endpoint.setScheme("http");
+
+		ExecutorService executor = Executors.newFixedThreadPool(10);
+
+		try {
+
+			assertThat(factory).isInstanceOf(OkHttp3ClientHttpRequestFactory.class);
+			assertThat(ConnectionPrewarmer.prewarm(factory, endpoint, 1)).isEqualTo(1);
+
+			List<Future<HttpStatus>> futures = new ArrayList<Future<HttpStatus>>();
+
+			for (int i = 0; i < 10; i++) {
+				futures.add(executor.submit(new Callable<HttpStatus>() {
+
+					@Override
+					public HttpStatus call() throws Exception {
+
+						ClientHttpResponse response = factory.createRequest(
+								endpoint.createUri("secret/foo"), HttpMethod.GET)
+								.execute();
+						try {
+							return response.getStatusCode();
+						}
+						finally {
+							response.close();
+						}
+					}
+				}));
+			}
+
+			for (Future<HttpStatus> future : futures) {
+				assertThat(future.get()).isEqualTo(HttpStatus.OK);
+			}
+
+			okhttp3.OkHttpClient client = (okhttp3.OkHttpClient) new DirectFieldAccessor(
+					factory).getPropertyValue("client");
+
+			assertThat(client.connectionPool().connectionCount()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdown();
+			((OkHttp3ClientHttpRequestFactory) factory).destroy();
+			server.shutdown();
+		}
+	}
+
+	@Test
+	public void shouldPrewarmPooledConnections() throws Exception {
+
+		EmbeddedVaultServer server = new EmbeddedVaultServer().start();
+		HttpComponentsClientHttpRequestFactory factory = (HttpComponentsClientHttpRequestFactory) HttpComponents
+				.usingHttpComponents(options, SslConfiguration.NONE);
+
+		try {
+			assertThat(ConnectionPrewarmer.prewarm(factory, server.getEndpoint(), 4))
+					.isEqualTo(4);
+			assertThat(getConnectionManager(factory).getTotalStats().getAvailable())
+					.isEqualTo(4);
+		}
+		finally {
+			factory.destroy();
+			server.stop();
+		}
+	}
+
+	@Test
+	public void prewarmShouldReturnAfterTimeout() throws Exception {
+
+		EmbeddedVaultServer server = new EmbeddedVaultServer().start();
+		server.setLatency(2, 0, TimeUnit.SECONDS);
+
+		HttpComponentsClientHttpRequestFactory factory = (HttpComponentsClientHttpRequestFactory) HttpComponents
+				.usingHttpComponents(options, SslConfiguration.NONE);
+
+		try {
+
+			long start = System.nanoTime();
+
+			assertThat(
+					ConnectionPrewarmer.prewarm(factory, server.getEndpoint(), 2, 100,
+							TimeUnit.MILLISECONDS)).isZero();
+			assertThat(System.nanoTime() - start).isLessThan(
+					TimeUnit.SECONDS.toNanos(1));
+		}
+		finally {
+			factory.destroy();
+			server.stop();
+		}
+	}
+
+	@Test
+	public void prewarmShouldTolerateUnavailableServer() throws Exception {
+
+		EmbeddedVaultServer server = new EmbeddedVaultServer().start();
+		VaultEndpoint endpoint = server.getEndpoint();
+		server.stop();
+
+		HttpComponentsClientHttpRequestFactory factory = (HttpComponentsClientHttpRequestFactory) HttpComponents
+				.usingHttpComponents(options, SslConfiguration.NONE);
+
+		assertThat(ConnectionPrewarmer.prewarm(factory, endpoint, 2)).isZero();
+
+		factory.destroy();
+	}
+
+	@Test
+	public void shouldCacheSslContextPerConfiguration() throws Exception {
+
+		SslConfiguration first = SslConfiguration.forTrustStore(new ClassPathResource(
+				"tls/localhost.jks"), "changeit");
+		SslConfiguration second = SslConfiguration.forTrustStore(new ClassPathResource(
+				"tls/localhost.jks"), "changeit");
+		SslConfiguration other = SslConfiguration.forKeyStore(new ClassPathResource(
+				"tls/localhost.jks"), "changeit");
+
+		SSLContext sslContext = ClientHttpRequestFactoryFactory.getSSLContext(first);
+
+		assertThat(ClientHttpRequestFactoryFactory.getSSLContext(second)).isSameAs(
+				sslContext);
+		assertThat(
+				ClientHttpRequestFactoryFactory.getSslMaterial(other).getSslContext())
+				.isNotSameAs(sslContext);
+	}
+
+	@Test
+	public void shouldNotShareSslContextAcrossTlsSessionSettings() throws Exception {
+
+		SslConfiguration sslConfiguration = SslConfiguration.forTrustStore(
+				new ClassPathResource("tls/localhost.jks"), "changeit");
+
+		SSLContext small = ClientHttpRequestFactoryFactory.getSslMaterial(
+				sslConfiguration, 10, 60).getSslContext();
+		SSLContext large = ClientHttpRequestFactoryFactory.getSslMaterial(
+				sslConfiguration, 1000, 60).getSslContext();
+
+		assertThat(large).isNotSameAs(small);
+		assertThat(small.getClientSessionContext().getSessionCacheSize()).isEqualTo(10);
+		assertThat(large.getClientSessionContext().getSessionCacheSize()).isEqualTo(1000);
+		assertThat(
+				ClientHttpRequestFactoryFactory.getSslMaterial(sslConfiguration, 10, 60)
+						.getSslContext()).isSameAs(small);
+	}
+
+	@Test
+	public void shouldNotServeCachedSslContextForOtherStorePassword() throws Exception {
+
+		ClientHttpRequestFactoryFactory.getSSLContext(SslConfiguration.forTrustStore(
+				new ClassPathResource("tls/localhost.jks"), "changeit"));
+
+		try {
+			ClientHttpRequestFactoryFactory.getSSLContext(SslConfiguration.forTrustStore(
+					new ClassPathResource("tls/localhost.jks"), "other"));
+			fail("Missing IOException");
+		}
+		catch (IOException e) {
+			assertThat(e).hasMessageContaining("password was incorrect");
+		}
+	}
+
+	@Test
+	public void shouldRecordFullAndResumedTlsHandshakes() throws Exception {
+
+		MockWebServer server = new MockWebServer();
+		server.useHttps(createServerSslContext().getSocketFactory(), false);
+
+		for (int i = 0; i < 3; i++) {
+			server.enqueue(new MockResponse().setBody("{}").setHeader("Connection",
+					"close"));
+		}
+
+		server.start();
+
+		HistogramVaultMetrics metrics = new HistogramVaultMetrics();
+		HttpComponentsClientHttpRequestFactory factory = (HttpComponentsClientHttpRequestFactory) ClientHttpRequestFactoryFactory
+				.create(options, SslConfiguration.forTrustStore(new ClassPathResource(
+						"tls/localhost.jks"), "changeit"), metrics);
+		VaultEndpoint endpoint = VaultEndpoint.create("localhost", server.getPort());
+
+		try {
+
+			for (int i = 0; i < 3; i++) {
+
+				ClientHttpResponse response = factory.createRequest(
+						endpoint.createUri("sys/health"), HttpMethod.GET).execute();
+				try {
+					assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+				}
+				finally {
+					response.close();
+				}
+			}
+
+			assertThat(server.getRequestCount()).isEqualTo(3);
+			assertThat(metrics.getTlsHandshakeHistogram(false).getCount()).isEqualTo(1);
+			assertThat(metrics.getTlsHandshakeHistogram(true).getCount()).isEqualTo(2);
+		}
+		finally {
+			factory.destroy();
+			server.shutdown();
+		}
+	}
+
+	private static SSLContext createServerSslContext() throws Exception {
+
+		KeyStore keyStore = KeyStore.getInstance("JKS");
+		InputStream inputStream = new ClassPathResource("tls/localhost.jks")
+				.getInputStream();
+
+		try {
+			keyStore.load(inputStream, "changeit".toCharArray());
+		}
+		finally {
+			inputStream.close();
+		}
+
+		KeyManagerFactory keyManagerFactory = KeyManagerFactory
+				.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		keyManagerFactory.init(keyStore, "changeit".toCharArray());
+
+		SSLContext sslContext = SSLContext.getInstance("TLS");
+		sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+		return sslContext;
+	}
+
+	private static PoolingHttpClientConnectionManager getConnectionManager(
+			HttpComponentsClientHttpRequestFactory factory) {
+
+		HttpClient httpClient = factory.getHttpClient();
+
+		return (PoolingHttpClientConnectionManager) new DirectFieldAccessor(httpClient)
+				.getPropertyValue("connManager");
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.vault.authentication.ClientAuthentication;
+import org.springframework.vault.authentication.SimpleSessionManager;
+import org.springframework.vault.authentication.TokenAuthentication;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.config.AbstractVaultConfiguration.ClientFactoryWrapper;
+import org.springframework.vault.core.VaultTemplate;
+import org.springframework.vault.support.ClientOptions;
+import org.springframework.vault.support.SslConfiguration;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.util.EmbeddedVaultServer;
+import org.springframework.vault.util.UnixDomainSocketRelay;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Unit tests for {@link UnixDomainSocketClientHttpRequestFactory}.
+ *
+ * @author Mark Paluch
+ */
+public class UnixDomainSocketClientHttpRequestFactoryUnitTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private EmbeddedVaultServer server;
+
+	private UnixDomainSocketRelay relay;
+
+	private ClientHttpRequestFactory requestFactory;
+
+	private VaultTemplate vaultTemplate;
+
+	@Before
+	public void before() throws Exception {
+
+		assumeTrue(UnixDomainSocketRelay.isAvailable());
+
+		server = new EmbeddedVaultServer().start();
+		relay = new UnixDomainSocketRelay(new File(temporaryFolder.newFolder(),
+				"vault.sock"), server.getEndpoint()).start();
+
+		requestFactory = ClientHttpRequestFactoryFactory.create(ClientOptions.builder()
+				.unixSocket(relay.getSocketPath()).maxConnections(4)
+				.maxConnectionsPerRoute(4).build(), SslConfiguration.NONE);
+
+		vaultTemplate = new VaultTemplate(relay.getEndpoint(), requestFactory,
+				new SimpleSessionManager(new TokenAuthentication(server.getRootToken())));
+	}
+
+	@After
+	public void after() throws Exception {
+
+		if (requestFactory != null) {
+			((UnixDomainSocketClientHttpRequestFactory) requestFactory).destroy();
+		}
+
+		if (relay != null) {
+			relay.stop();
+		}
+
+		if (server != null) {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void shouldWriteAndReadThroughSocket() {
+
+		assertThat(requestFactory).isInstanceOf(
+				UnixDomainSocketClientHttpRequestFactory.class);
+
+		vaultTemplate.write("secret/uds", Collections.singletonMap("key", "value"));
+
+		VaultResponse response = vaultTemplate.read("secret/uds");
+
+		assertThat(response.getData()).containsEntry("key", "value");
+		assertThat(vaultTemplate.read("secret/absent")).isNull();
+	}
+
+	@Test
+	public void shouldShareLimitedConnectionsAcrossConcurrentRequests()
+			throws Exception {
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+
+			List<Future<VaultResponse>> futures = new ArrayList<Future<VaultResponse>>();
+
+			for (int i = 0; i < 50; i++) {
+				futures.add(executor.submit(new Callable<VaultResponse>() {
+
+					@Override
+					public VaultResponse call() {
+						return vaultTemplate.read("sys/health");
+					}
+				}));
+			}
+
+			for (Future<VaultResponse> future : futures) {
+				assertThat(future.get()).isNotNull();
+			}
+
+			assertThat(server.getRequestCount()).isEqualTo(50);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void shouldFailWithResourceAccessExceptionIfSocketIsUnavailable() {
+
+		relay.stop();
+		relay = null;
+
+		try {
+			vaultTemplate.read("secret/uds");
+			fail("Missing ResourceAccessException");
+		}
+		catch (ResourceAccessException e) {
+			assertThat(e).hasMessageContaining("secret/uds");
+		}
+	}
+
+	@Test
+	public void configurationShouldConnectThroughSocketOfVaultEndpoint()
+			throws Exception {
+
+		SocketConfiguration configuration = new SocketConfiguration(
+				VaultEndpoint.unixSocket(relay.getSocketPath()), new ClientOptions());
+
+		ClientFactoryWrapper wrapper = configuration.clientHttpRequestFactoryWrapper();
+
+		try {
+
+			assertThat(wrapper.getClientHttpRequestFactory()).isInstanceOf(
+					UnixDomainSocketClientHttpRequestFactory.class);
+
+			VaultTemplate template = new VaultTemplate(configuration.vaultEndpoint(),
+					wrapper.getClientHttpRequestFactory(), new SimpleSessionManager(
+							new TokenAuthentication(server.getRootToken())));
+
+			template.write("secret/uds", Collections.singletonMap("key", "value"));
+			assertThat(template.read("secret/uds").getData()).containsEntry("key",
+					"value");
+		}
+		finally {
+			wrapper.destroy();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void configurationShouldRejectConflictingSocketPaths() {
+
+		new SocketConfiguration(VaultEndpoint.unixSocket(relay.getSocketPath()),
+				ClientOptions.builder().unixSocket("/var/run/other.sock").build())
+				.clientHttpRequestFactoryWrapper();
+	}
+
+	static class SocketConfiguration extends AbstractVaultConfiguration {
+
+		private final VaultEndpoint vaultEndpoint;
+
+		private final ClientOptions clientOptions;
+
+		SocketConfiguration(VaultEndpoint vaultEndpoint, ClientOptions clientOptions) {
+
+			this.vaultEndpoint = vaultEndpoint;
+			this.clientOptions = clientOptions;
+		}
+
+		@Override
+		public VaultEndpoint vaultEndpoint() {
+			return vaultEndpoint;
+		}
+
+		@Override
+		public ClientAuthentication clientAuthentication() {
+			return new TokenAuthentication("root");
+		}
+
+		@Override
+		public ClientOptions clientOptions() {
+			return clientOptions;
+		}
+	}
+}
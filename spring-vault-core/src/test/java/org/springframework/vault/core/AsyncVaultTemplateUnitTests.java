@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockAsyncClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.authentication.SessionManager;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultHttpHeaders;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultToken;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link AsyncVaultTemplate}.
+ *
+ * @author Mark Paluch
+ */
+public class AsyncVaultTemplateUnitTests {
+
+	private final List<MockAsyncClientHttpRequest> requests = new ArrayList<MockAsyncClientHttpRequest>();
+
+	private MockClientHttpResponse response;
+
+	private AsyncVaultTemplate template;
+
+	@Before
+	public void before() throws Exception {
+
+		AsyncClientHttpRequestFactory requestFactory = new AsyncClientHttpRequestFactory() {
+
+			@Override
+			public AsyncClientHttpRequest createAsyncRequest(URI uri,
+					HttpMethod httpMethod) {
+
+				MockAsyncClientHttpRequest request = new MockAsyncClientHttpRequest(
+						httpMethod, uri);
+				request.setResponse(response);
+				requests.add(request);
+
+				return request;
+			}
+		};
+
+		SessionManager sessionManager = new SessionManager() {
+
+			@Override
+			public VaultToken getSessionToken() {
+				return VaultToken.of("my-token");
+			}
+		};
+
+		template = new AsyncVaultTemplate(VaultEndpoint.create("localhost", 8200),
+				requestFactory, sessionManager);
+	}
+
+	@Test
+	public void readShouldApplySessionToken() throws Exception {
+
+		respondWith(HttpStatus.OK, "{\"data\": {\"key\": \"value\"}}");
+
+		VaultResponse result = template.read("secret/mykey").get();
+
+		assertThat(result.getData()).containsEntry("key", "value");
+		assertThat(requests).hasSize(1);
+
+		MockAsyncClientHttpRequest request = requests.get(0);
+		assertThat(request.getMethod()).isEqualTo(HttpMethod.GET);
+		assertThat(request.getURI().toString()).isEqualTo(
+				"https://localhost:8200/v1/secret/mykey");
+		assertThat(request.getHeaders().getFirst(VaultHttpHeaders.VAULT_TOKEN))
+				.isEqualTo("my-token");
+	}
+
+	@Test
+	public void readShouldCompleteWithNullIfNotFound() throws Exception {
+
+		respondWith(HttpStatus.NOT_FOUND, "{\"errors\": []}");
+
+		assertThat(template.read("secret/absent").get()).isNull();
+	}
+
+	@Test
+	public void readShouldFailWithVaultException() throws Exception {
+
+		respondWith(HttpStatus.INTERNAL_SERVER_ERROR, "{\"errors\": [\"boom\"]}");
+
+		try {
+			template.read("secret/mykey").get();
+			fail("Missing ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(VaultException.class)
+					.hasMessageContaining("boom");
+		}
+	}
+
+	@Test
+	public void listShouldReturnKeys() throws Exception {
+
+		respondWith(HttpStatus.OK, "{\"data\": {\"keys\": [\"foo\", \"bar/\"]}}");
+
+		List<String> keys = template.list("secret").get();
+
+		assertThat(keys).containsExactly("foo", "bar/");
+		assertThat(requests.get(0).getURI().toString()).isEqualTo(
+				"https://localhost:8200/v1/secret/?list=true");
+	}
+
+	@Test
+	public void deleteShouldIgnoreNotFound() throws Exception {
+
+		respondWith(HttpStatus.NOT_FOUND, "");
+
+		assertThat(template.delete("secret/absent").get()).isNull();
+		assertThat(requests.get(0).getMethod()).isEqualTo(HttpMethod.DELETE);
+	}
+
+	private void respondWith(HttpStatus status, String body) {
+
+		response = new MockClientHttpResponse(body.getBytes(), status);
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link BulkReader}.
+ *
+ * @author Mark Paluch
+ */
+public class BulkReaderUnitTests {
+
+	@Test
+	public void shouldReadAllPathsInRequestOrder() {
+
+		BulkReader reader = new BulkReader(new SimpleAsyncTaskExecutor(), 4);
+
+		List<String> paths = new ArrayList<String>();
+		for (int i = 0; i < 20; i++) {
+			paths.add("secret/" + i);
+		}
+
+		BulkReadResult<VaultResponse> result = reader.readAll(paths,
+				new BulkReader.PathReader<VaultResponse>() {
+
+					@Override
+					public VaultResponse read(String path) {
+
+						VaultResponse response = new VaultResponse();
+						response.setRequestId(path);
+						return response;
+					}
+				});
+
+		assertThat(result.getResponses().keySet()).containsExactlyElementsOf(paths);
+		assertThat(result.get("secret/7").getRequestId()).isEqualTo("secret/7");
+		assertThat(result.hasErrors()).isFalse();
+	}
+
+	@Test
+	public void shouldCollectFailuresWithoutAbortingBatch() {
+
+		final VaultException exception = new VaultException("Status 500");
+		BulkReader reader = new BulkReader(new SyncTaskExecutor(), 2);
+
+		BulkReadResult<VaultResponse> result = reader.readAll(
+				Arrays.asList("secret/ok", "secret/absent", "secret/broken"),
+				new BulkReader.PathReader<VaultResponse>() {
+
+					@Override
+					public VaultResponse read(String path) {
+
+						if (path.equals("secret/broken")) {
+							throw exception;
+						}
+
+						return path.equals("secret/ok") ? new VaultResponse() : null;
+					}
+				});
+
+		assertThat(result.getResponses()).hasSize(3).containsKeys("secret/ok",
+				"secret/absent", "secret/broken");
+		assertThat(result.get("secret/ok")).isNotNull();
+		assertThat(result.get("secret/absent")).isNull();
+		assertThat(result.get("secret/broken")).isNull();
+		assertThat(result.getErrors()).containsOnlyKeys("secret/broken");
+		assertThat(result.getErrors().get("secret/broken")).isSameAs(exception);
+	}
+
+	@Test
+	public void shouldReadDuplicatePathsOnce() {
+
+		final AtomicInteger invocations = new AtomicInteger();
+		BulkReader reader = new BulkReader(new SyncTaskExecutor(), 4);
+
+		BulkReadResult<VaultResponse> result = reader.readAll(
+				Arrays.asList("secret/foo", "secret/foo"),
+				new BulkReader.PathReader<VaultResponse>() {
+
+					@Override
+					public VaultResponse read(String path) {
+
+						invocations.incrementAndGet();
+						return new VaultResponse();
+					}
+				});
+
+		assertThat(result.getResponses()).hasSize(1);
+		assertThat(invocations.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldReadOnCallingThreadIfExecutorRejects() {
+
+		final Thread caller = Thread.currentThread();
+		final AtomicInteger foreignThreadReads = new AtomicInteger();
+
+		BulkReader reader = new BulkReader(new TaskExecutor() {
+
+			@Override
+			public void execute(Runnable task) {
+				throw new TaskRejectedException("Rejected");
+			}
+		}, 4);
+
+		BulkReadResult<VaultResponse> result = reader.readAll(
+				Arrays.asList("secret/1", "secret/2", "secret/3"),
+				new BulkReader.PathReader<VaultResponse>() {
+
+					@Override
+					public VaultResponse read(String path) {
+
+						if (Thread.currentThread() != caller) {
+							foreignThreadReads.incrementAndGet();
+						}
+
+						return new VaultResponse();
+					}
+				});
+
+		assertThat(result.getResponses()).hasSize(3);
+		assertThat(foreignThreadReads.get()).isZero();
+	}
+
+	@Test
+	public void shouldReadOnCallingThreadIfRawExecutorRejects() {
+
+		BulkReader reader = new BulkReader(new TaskExecutor() {
+
+			@Override
+			public void execute(Runnable task) {
+				throw new RejectedExecutionException("Rejected");
+			}
+		}, 4);
+
+		BulkReadResult<VaultResponse> result = reader.readAll(
+				Arrays.asList("secret/1", "secret/2"),
+				new BulkReader.PathReader<VaultResponse>() {
+
+					@Override
+					public VaultResponse read(String path) {
+						return new VaultResponse();
+					}
+				});
+
+		assertThat(result.getResponses()).hasSize(2);
+	}
+
+	@Test(timeout = 5000)
+	public void shouldNotWaitForWorkersThatNeverStart() {
+
+		final List<Runnable> queued = new ArrayList<Runnable>();
+
+		BulkReader reader = new BulkReader(new TaskExecutor() {
+
+			@Override
+			public void execute(Runnable task) {
+				queued.add(task);
+			}
+		}, 4);
+
+		BulkReadResult<VaultResponse> result = reader.readAll(
+				Arrays.asList("secret/1", "secret/2", "secret/3"),
+				new BulkReader.PathReader<VaultResponse>() {
+
+					@Override
+					public VaultResponse read(String path) {
+						return new VaultResponse();
+					}
+				});
+
+		assertThat(result.getResponses()).hasSize(3);
+		assertThat(queued).hasSize(2);
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import org.springframework.vault.support.VaultResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link CachingVaultOperations}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CachingVaultOperationsUnitTests {
+
+	@Mock
+	private VaultOperations vaultOperations;
+
+	private CachingVaultOperations cachingOperations;
+
+	@Before
+	public void before() throws Exception {
+		cachingOperations = new CachingVaultOperations(vaultOperations);
+	}
+
+	@Test
+	public void shouldCacheStaticSecrets() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(createResponse(60));
+
+		VaultResponse first = cachingOperations.read("secret/foo");
+		VaultResponse second = cachingOperations.read("secret/foo");
+
+		assertThat(second).isSameAs(first);
+		assertThat(cachingOperations.getHitCount()).isEqualTo(1);
+		assertThat(cachingOperations.getMissCount()).isEqualTo(1);
+
+		verify(vaultOperations).read("secret/foo");
+	}
+
+	@Test
+	public void shouldNotCacheDynamicSecrets() {
+
+		VaultResponse response = createResponse(60);
+		response.setLeaseId("mysql/creds/readonly/1234");
+
+		when(vaultOperations.read("mysql/creds/readonly")).thenReturn(response);
+
+		cachingOperations.read("mysql/creds/readonly");
+		cachingOperations.read("mysql/creds/readonly");
+
+		verify(vaultOperations, times(2)).read("mysql/creds/readonly");
+		assertThat(cachingOperations.size()).isZero();
+	}
+
+	@Test
+	public void shouldNotCacheAbsentSecrets() {
+
+		cachingOperations.read("secret/absent");
+		cachingOperations.read("secret/absent");
+
+		verify(vaultOperations, times(2)).read("secret/absent");
+	}
+
+	@Test
+	public void shouldExpireAfterMaximumTimeToLive() throws Exception {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(createResponse(3600));
+
+		cachingOperations.setMaximumTimeToLive(1, TimeUnit.MILLISECONDS);
+
+		cachingOperations.read("secret/foo");
+		Thread.sleep(5);
+		cachingOperations.read("secret/foo");
+
+		verify(vaultOperations, times(2)).read("secret/foo");
+	}
+
+	@Test
+	public void writeShouldInvalidateCachedEntry() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(createResponse(60));
+
+		cachingOperations.read("secret/foo");
+		cachingOperations.write("secret/foo", Collections.singletonMap("key", "value"));
+		cachingOperations.read("secret/foo");
+
+		verify(vaultOperations, times(2)).read("secret/foo");
+	}
+
+	@Test
+	public void deleteShouldInvalidateCachedEntry() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(createResponse(60));
+
+		cachingOperations.read("secret/foo");
+		cachingOperations.delete("secret/foo");
+
+		assertThat(cachingOperations.size()).isZero();
+	}
+
+	@Test
+	public void shouldNotCacheReadThatRacedWithWrite() {
+
+		when(vaultOperations.read("secret/foo")).thenAnswer(new Answer<VaultResponse>() {
+
+			@Override
+			public VaultResponse answer(InvocationOnMock invocation) {
+
+				cachingOperations.write("secret/foo",
+						Collections.singletonMap("key", "updated"));
+
+				return createResponse(60);
+			}
+		});
+
+		cachingOperations.read("secret/foo");
+
+		assertThat(cachingOperations.size()).isZero();
+	}
+
+	@Test
+	public void shouldIgnoreTrailingSlashes() {
+
+		when(vaultOperations.read("secret/foo")).thenReturn(createResponse(60));
+
+		VaultResponse first = cachingOperations.read("secret/foo");
+
+		assertThat(cachingOperations.read("secret/foo/")).isSameAs(first);
+
+		cachingOperations.write("secret/foo/", Collections.singletonMap("key", "value"));
+
+		assertThat(cachingOperations.size()).isZero();
+	}
+
+	@Test
+	public void shouldEvictLeastRecentlyUsedEntries() {
+
+		when(vaultOperations.read("secret/1")).thenReturn(createResponse(60));
+		when(vaultOperations.read("secret/2")).thenReturn(createResponse(60));
+		when(vaultOperations.read("secret/3")).thenReturn(createResponse(60));
+
+		cachingOperations.setMaximumSize(2);
+
+		cachingOperations.read("secret/1");
+		cachingOperations.read("secret/2");
+		cachingOperations.read("secret/1");
+		cachingOperations.read("secret/3");
+
+		assertThat(cachingOperations.size()).isEqualTo(2);
+		assertThat(cachingOperations.getEvictionCount()).isEqualTo(1);
+
+		cachingOperations.read("secret/1");
+		cachingOperations.read("secret/2");
+
+		verify(vaultOperations).read("secret/1");
+		verify(vaultOperations, times(2)).read("secret/2");
+	}
+
+	@Test
+	public void shouldEvictByWeight() {
+
+		when(vaultOperations.read("secret/1")).thenReturn(createResponse(60));
+		when(vaultOperations.read("secret/2")).thenReturn(createResponse(60));
+
+		cachingOperations.setMaximumWeight(300);
+
+		cachingOperations.read("secret/1");
+		cachingOperations.read("secret/2");
+
+		assertThat(cachingOperations.size()).isEqualTo(1);
+		assertThat(cachingOperations.getEvictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void readAllShouldReadOnlyMissingPaths() {
+
+		when(vaultOperations.read("secret/1")).thenReturn(createResponse(60));
+		when(vaultOperations.read("secret/2")).thenReturn(createResponse(60));
+
+		VaultResponse cached = cachingOperations.read("secret/1");
+		BulkReadResult<VaultResponse> result = cachingOperations.readAll(Arrays.asList(
+				"secret/1", "secret/2"));
+
+		assertThat(result.getResponses().keySet()).containsExactly("secret/1",
+				"secret/2");
+		assertThat(result.get("secret/1")).isSameAs(cached);
+		assertThat(cachingOperations.read("secret/2")).isSameAs(result.get("secret/2"));
+
+		verify(vaultOperations).read("secret/1");
+		verify(vaultOperations).read("secret/2");
+	}
+
+	private static VaultResponse createResponse(long leaseDuration) {
+
+		VaultResponse response = new VaultResponse();
+		response.setLeaseDuration(leaseDuration);
+		response.setData(Collections.singletonMap("key", (Object) "value"));
+
+		return response;
+	}
+}
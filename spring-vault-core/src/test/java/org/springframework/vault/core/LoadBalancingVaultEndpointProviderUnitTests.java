@@ -0,0 +1,243 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.core.LoadBalancingVaultEndpointProvider.NodeState;
+import org.springframework.vault.support.VaultHealth;
+import org.springframework.vault.util.EmbeddedVaultServer;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link LoadBalancingVaultEndpointProvider}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class LoadBalancingVaultEndpointProviderUnitTests {
+
+	@Mock
+	private TaskScheduler taskScheduler;
+
+	private final VaultEndpoint active = VaultEndpoint.create("vault-1", 8200);
+
+	private final VaultEndpoint standby = VaultEndpoint.create("vault-2", 8200);
+
+	private final VaultEndpoint sealed = VaultEndpoint.create("vault-3", 8200);
+
+	private final Map<VaultEndpoint, VaultHealth> health = new HashMap<VaultEndpoint, VaultHealth>();
+
+	private LoadBalancingVaultEndpointProvider provider;
+
+	@Before
+	public void before() {
+
+		provider = new LoadBalancingVaultEndpointProvider(Arrays.asList(active, standby,
+				sealed), new SimpleClientHttpRequestFactory(), taskScheduler) {
+
+			@Override
+			protected VaultHealth probeHealth(VaultEndpoint endpoint) {
+
+				if (!health.containsKey(endpoint)) {
+					throw new IllegalStateException("Connection refused");
+				}
+
+				return health.get(endpoint);
+			}
+		};
+
+		health.put(active, createHealth(false, false));
+		health.put(standby, createHealth(false, true));
+		health.put(sealed, createHealth(true, false));
+	}
+
+	@Test
+	public void shouldTrackNodeStates() {
+
+		health.remove(sealed);
+
+		provider.probe();
+
+		assertThat(provider.getNodeState(active)).isEqualTo(NodeState.ACTIVE);
+		assertThat(provider.getNodeState(standby)).isEqualTo(NodeState.STANDBY);
+		assertThat(provider.getNodeState(sealed)).isEqualTo(NodeState.UNREACHABLE);
+	}
+
+	@Test
+	@SuppressWarnings("serial")
+	public void shouldSelectOnlyHealthyNodes() {
+
+		// alternate between the lowest and highest selection regardless of latencies
+		provider.setRandom(new Random() {
+
+			boolean high;
+
+			@Override
+			public double nextDouble() {
+
+				high = !high;
+				return high ? Math.nextAfter(1d, 0d) : 0d;
+			}
+		});
+
+		provider.probe();
+
+		Set<VaultEndpoint> selected = new HashSet<VaultEndpoint>();
+
+		for (int i = 0; i < 100; i++) {
+			selected.add(provider.getVaultEndpoint());
+		}
+
+		assertThat(selected).containsOnly(active, standby);
+	}
+
+	@Test
+	public void shouldSelectActiveNode() {
+
+		provider.probe();
+
+		assertThat(provider.getActiveEndpoint()).isEqualTo(active);
+		assertThat(provider.activeEndpointProvider().getVaultEndpoint()).isEqualTo(
+				active);
+	}
+
+	@Test
+	public void shouldPreferStandbyNodes() {
+
+		provider.probe();
+
+		assertThat(provider.getStandbyEndpoint()).isEqualTo(standby);
+
+		health.remove(standby);
+		provider.probe();
+
+		assertThat(provider.standbyEndpointProvider().getVaultEndpoint()).isEqualTo(
+				active);
+	}
+
+	@Test
+	public void shouldTreatPerformanceStandbyAsStandby() throws Exception {
+
+		EmbeddedVaultServer activeServer = new EmbeddedVaultServer().start();
+		EmbeddedVaultServer standbyServer = new EmbeddedVaultServer().start();
+
+		try {
+
+			standbyServer.setHealthStatus(473);
+
+			LoadBalancingVaultEndpointProvider provider = new LoadBalancingVaultEndpointProvider(
+					Arrays.asList(activeServer.getEndpoint(), standbyServer.getEndpoint()),
+					new SimpleClientHttpRequestFactory(), taskScheduler);
+
+			provider.probe();
+
+			assertThat(provider.getNodeState(activeServer.getEndpoint())).isEqualTo(
+					NodeState.ACTIVE);
+			assertThat(provider.getNodeState(standbyServer.getEndpoint())).isEqualTo(
+					NodeState.STANDBY);
+			assertThat(provider.getStandbyEndpoint()).isEqualTo(
+					standbyServer.getEndpoint());
+		}
+		finally {
+			activeServer.stop();
+			standbyServer.stop();
+		}
+	}
+
+	@Test
+	public void shouldDeriveNodeStateFromStatusCode() {
+
+		provider = new LoadBalancingVaultEndpointProvider(Arrays.asList(active, standby,
+				sealed), new SimpleClientHttpRequestFactory(), taskScheduler) {
+
+			@Override
+			protected VaultHealth probeHealth(VaultEndpoint endpoint) {
+
+				int status = endpoint.equals(active) ? 429 : endpoint.equals(standby) ? 473
+						: 503;
+
+				throw new UnknownHttpStatusCodeException(status, "", null, new byte[0],
+						null);
+			}
+		};
+
+		provider.probe();
+
+		assertThat(provider.getNodeState(active)).isEqualTo(NodeState.STANDBY);
+		assertThat(provider.getNodeState(standby)).isEqualTo(NodeState.STANDBY);
+		assertThat(provider.getNodeState(sealed)).isEqualTo(NodeState.SEALED);
+	}
+
+	@Test
+	public void shouldFallBackToConfiguredEndpointsWithoutHealthyNodes() {
+
+		Set<VaultEndpoint> selected = new HashSet<VaultEndpoint>();
+
+		for (int i = 0; i < 3; i++) {
+			selected.add(provider.getVaultEndpoint());
+		}
+
+		assertThat(selected).containsOnly(active, standby, sealed);
+	}
+
+	private static VaultHealth createHealth(final boolean sealed, final boolean standby) {
+
+		return new VaultHealth() {
+
+			@Override
+			public boolean isInitialized() {
+				return true;
+			}
+
+			@Override
+			public boolean isSealed() {
+				return sealed;
+			}
+
+			@Override
+			public boolean isStandby() {
+				return standby;
+			}
+
+			@Override
+			public int getServerTimeUtc() {
+				return 0;
+			}
+
+			@Override
+			public String getVersion() {
+				return "0.8.0";
+			}
+		};
+	}
+}
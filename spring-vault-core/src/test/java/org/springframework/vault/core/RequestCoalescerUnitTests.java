@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link RequestCoalescer}.
+ *
+ * @author Mark Paluch
+ */
+public class RequestCoalescerUnitTests {
+
+	private final RequestCoalescer coalescer = new RequestCoalescer();
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void shouldShareResultAcrossConcurrentCallers() throws Exception {
+
+		final VaultResponse response = new VaultResponse();
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger invocations = new AtomicInteger();
+
+		final Callable<VaultResponse> request = new Callable<VaultResponse>() {
+
+			@Override
+			public VaultResponse call() throws Exception {
+
+				invocations.incrementAndGet();
+				started.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return response;
+			}
+		};
+
+		Future<VaultResponse> leader = submit("secret/foo", request);
+		started.await(5, TimeUnit.SECONDS);
+
+		Future<VaultResponse> follower = submit("secret/foo", request);
+		awaitCoalesced(1);
+
+		release.countDown();
+
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(response);
+		assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(response);
+		assertThat(invocations.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldShareNullResults() throws Exception {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		Callable<VaultResponse> request = new Callable<VaultResponse>() {
+
+			@Override
+			public VaultResponse call() throws Exception {
+
+				started.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				return null;
+			}
+		};
+
+		Future<VaultResponse> leader = submit("secret/absent", request);
+		started.await(5, TimeUnit.SECONDS);
+
+		Future<VaultResponse> follower = submit("secret/absent", request);
+		awaitCoalesced(1);
+
+		release.countDown();
+
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isNull();
+		assertThat(follower.get(5, TimeUnit.SECONDS)).isNull();
+	}
+
+	@Test
+	public void shouldPropagateExceptionToAllCallers() throws Exception {
+
+		final VaultException exception = new VaultException("Status 500");
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		Callable<VaultResponse> request = new Callable<VaultResponse>() {
+
+			@Override
+			public VaultResponse call() throws Exception {
+
+				started.countDown();
+				release.await(5, TimeUnit.SECONDS);
+				throw exception;
+			}
+		};
+
+		Future<VaultResponse> leader = submit("secret/foo", request);
+		started.await(5, TimeUnit.SECONDS);
+
+		Future<VaultResponse> follower = submit("secret/foo", request);
+		awaitCoalesced(1);
+
+		release.countDown();
+
+		assertFailedWith(leader, exception);
+		assertFailedWith(follower, exception);
+	}
+
+	@Test
+	public void shouldNotCoalesceSequentialRequests() throws Exception {
+
+		final AtomicInteger invocations = new AtomicInteger();
+
+		Callable<VaultResponse> request = new Callable<VaultResponse>() {
+
+			@Override
+			public VaultResponse call() throws Exception {
+
+				invocations.incrementAndGet();
+				return new VaultResponse();
+			}
+		};
+
+		coalescer.execute("secret/foo", VaultResponse.class, false, request);
+		coalescer.execute("secret/foo", VaultResponse.class, false, request);
+
+		assertThat(invocations.get()).isEqualTo(2);
+		assertThat(coalescer.getCoalescedCount()).isZero();
+	}
+
+	private Future<VaultResponse> submit(final String path,
+			final Callable<VaultResponse> request) {
+
+		return executor.submit(new Callable<VaultResponse>() {
+
+			@Override
+			public VaultResponse call() throws Exception {
+				return coalescer.execute(path, VaultResponse.class, false, request);
+			}
+		});
+	}
+
+	private void awaitCoalesced(long count) throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + 5000;
+
+		while (coalescer.getCoalescedCount() < count
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+
+		assertThat(coalescer.getCoalescedCount()).isEqualTo(count);
+	}
+
+	private static void assertFailedWith(Future<?> future, Exception expected)
+			throws Exception {
+
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("Missing ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause()).isSameAs(expected);
+		}
+	}
+}
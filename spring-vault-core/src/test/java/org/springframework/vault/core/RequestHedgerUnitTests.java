@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultEndpointProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link RequestHedger}.
+ *
+ * @author Mark Paluch
+ */
+public class RequestHedgerUnitTests {
+
+	private final VaultEndpoint slow = VaultEndpoint.create("slow", 8200);
+
+	private final VaultEndpoint fast = VaultEndpoint.create("fast", 8200);
+
+	private RequestHedger hedger;
+
+	@Before
+	public void before() {
+
+		final AtomicInteger counter = new AtomicInteger();
+
+		VaultEndpointProvider endpointProvider = new VaultEndpointProvider() {
+
+			@Override
+			public VaultEndpoint getVaultEndpoint() {
+				return counter.getAndIncrement() % 2 == 0 ? slow : fast;
+			}
+		};
+
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+		executor.setDaemon(true);
+
+		hedger = new RequestHedger(executor, endpointProvider, 0.95);
+	}
+
+	@Test
+	public void shouldNotHedgeFastRequests() {
+
+		String result = hedger.execute(new RequestHedger.Attempt<String>() {
+
+			@Override
+			public String execute(VaultEndpoint endpoint) {
+				return endpoint.getHost();
+			}
+		});
+
+		assertThat(result).isEqualTo("slow");
+		assertThat(hedger.getRequestCount()).isEqualTo(1);
+		assertThat(hedger.getHedgeCount()).isZero();
+	}
+
+	@Test
+	public void shouldHedgeSlowRequestAndCancelLoser() throws Exception {
+
+		final CountDownLatch cancelled = new CountDownLatch(1);
+
+		String result = hedger.execute(new RequestHedger.Attempt<String>() {
+
+			@Override
+			public String execute(VaultEndpoint endpoint) {
+
+				if (endpoint.equals(slow)) {
+					try {
+						Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+					}
+					catch (InterruptedException e) {
+						cancelled.countDown();
+					}
+				}
+
+				return endpoint.getHost();
+			}
+		});
+
+		assertThat(result).isEqualTo("fast");
+		assertThat(hedger.getHedgeCount()).isEqualTo(1);
+		assertThat(hedger.getHedgeWinCount()).isEqualTo(1);
+		assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void shouldFallBackToOtherAttemptOnFailure() {
+
+		String result = hedger.execute(new RequestHedger.Attempt<String>() {
+
+			@Override
+			public String execute(VaultEndpoint endpoint) {
+
+				if (endpoint.equals(fast)) {
+					throw new VaultException("Status 500");
+				}
+
+				sleep(200);
+				return endpoint.getHost();
+			}
+		});
+
+		assertThat(result).isEqualTo("slow");
+		assertThat(hedger.getHedgeCount()).isEqualTo(1);
+		assertThat(hedger.getHedgeWinCount()).isZero();
+	}
+
+	@Test
+	public void shouldPropagateFailureOfBothAttempts() {
+
+		try {
+			hedger.execute(new RequestHedger.Attempt<String>() {
+
+				@Override
+				public String execute(VaultEndpoint endpoint) {
+
+					sleep(100);
+					throw new VaultException("Status 500");
+				}
+			});
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).hasMessage("Status 500");
+		}
+	}
+
+	@Test
+	public void shouldNotHedgeWithoutAlternateEndpoint() {
+
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+		executor.setDaemon(true);
+
+		hedger = new RequestHedger(executor, new VaultEndpointProvider() {
+
+			@Override
+			public VaultEndpoint getVaultEndpoint() {
+				return slow;
+			}
+		}, 0.95);
+
+		String result = hedger.execute(new RequestHedger.Attempt<String>() {
+
+			@Override
+			public String execute(VaultEndpoint endpoint) {
+
+				sleep(100);
+				return endpoint.getHost();
+			}
+		});
+
+		assertThat(result).isEqualTo("slow");
+		assertThat(hedger.getHedgeCount()).isZero();
+	}
+
+	@Test
+	public void shouldLimitHedgesToHedgeRatio() {
+
+		RequestHedger.Attempt<String> attempt = new RequestHedger.Attempt<String>() {
+
+			@Override
+			public String execute(VaultEndpoint endpoint) {
+
+				if (endpoint.equals(slow)) {
+					sleep(100);
+				}
+
+				return endpoint.getHost();
+			}
+		};
+
+		for (int i = 0; i < RequestHedger.MAX_BURST + 2; i++) {
+			hedger.execute(attempt);
+		}
+
+		// burst plus a single hedge earned by ten requests at the default ratio of 10%
+		assertThat(hedger.getRequestCount()).isEqualTo(RequestHedger.MAX_BURST + 2);
+		assertThat(hedger.getHedgeCount()).isEqualTo(RequestHedger.MAX_BURST + 1);
+	}
+
+	@Test
+	public void shouldDeriveDelayFromLatencyPercentile() {
+
+		for (int i = 0; i < RequestHedger.WINDOW_SIZE; i++) {
+			hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(i + 1));
+		}
+
+		assertThat(hedger.getDelayNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(973));
+
+		for (int i = 0; i < RequestHedger.WINDOW_SIZE; i++) {
+			hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(2));
+		}
+
+		assertThat(hedger.getDelayNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(2));
+	}
+
+	private static void sleep(long millis) {
+
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.authentication.SimpleSessionManager;
+import org.springframework.vault.authentication.TokenAuthentication;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
+import org.springframework.vault.client.VaultEndpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link StreamingListIterator}.
+ *
+ * @author Mark Paluch
+ */
+public class StreamingListIteratorUnitTests {
+
+	@Test
+	public void shouldIterateKeys() {
+
+		MockClientHttpResponse response = spy(createResponse("{\"request_id\":\"1\","
+				+ "\"data\":{\"other\":{\"keys\":[\"x\"]},\"keys\":[\"foo\",\"bar/\"]},"
+				+ "\"lease_duration\":0}"));
+
+		StreamingListIterator iterator = new StreamingListIterator(response, "secret/");
+
+		assertThat(toList(iterator)).containsExactly("foo", "bar/");
+		verify(response).close();
+	}
+
+	@Test
+	public void shouldReturnEmptyIteratorWithoutKeys() {
+
+		StreamingListIterator iterator = new StreamingListIterator(
+				createResponse("{\"data\":null}"), "secret/");
+
+		assertThat(iterator.hasNext()).isFalse();
+	}
+
+	@Test
+	public void emptyIteratorShouldNotHaveElements() {
+		assertThat(new StreamingListIterator(null, "secret/").hasNext()).isFalse();
+	}
+
+	@Test
+	public void closeShouldReleaseResponse() {
+
+		MockClientHttpResponse response = spy(createResponse("{\"data\":{\"keys\":[\"foo\",\"bar\"]}}"));
+		StreamingListIterator iterator = new StreamingListIterator(response, "secret/");
+
+		assertThat(iterator.next()).isEqualTo("foo");
+		iterator.close();
+
+		assertThat(iterator.hasNext()).isFalse();
+		verify(response).close();
+	}
+
+	@Test
+	public void shouldFailOnMalformedResponse() {
+
+		MockClientHttpResponse response = spy(createResponse("{\"data\":{\"keys\":[\"foo\","));
+		StreamingListIterator iterator = new StreamingListIterator(response, "secret/");
+
+		assertThat(iterator.next()).isEqualTo("foo");
+
+		try {
+			iterator.hasNext();
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).hasMessageContaining("secret/");
+		}
+
+		verify(response).close();
+	}
+
+	@Test
+	public void listIteratorShouldReleaseResponseOnUnknownStatus() throws Exception {
+
+		ClientHttpResponse response = mock(ClientHttpResponse.class);
+		when(response.getHeaders()).thenReturn(new HttpHeaders());
+		when(response.getRawStatusCode()).thenReturn(473);
+		when(response.getStatusCode()).thenThrow(
+				new IllegalArgumentException("No matching constant for [473]"));
+
+		MockClientHttpRequest request = new MockClientHttpRequest();
+		request.setResponse(response);
+
+		ClientHttpRequestFactory requestFactory = mock(ClientHttpRequestFactory.class);
+		when(requestFactory.createRequest(any(URI.class), any(HttpMethod.class)))
+				.thenReturn(request);
+
+		VaultTemplate template = new VaultTemplate(
+				SimpleVaultEndpointProvider.of(new VaultEndpoint()), requestFactory,
+				new SimpleSessionManager(new TokenAuthentication("root")));
+
+		try {
+			template.listIterator("secret/");
+			fail("Missing IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			verify(response).close();
+		}
+	}
+
+	private static MockClientHttpResponse createResponse(String body) {
+		return new MockClientHttpResponse(body.getBytes(Charset.forName("UTF-8")),
+				HttpStatus.OK);
+	}
+
+	private static List<String> toList(StreamingListIterator iterator) {
+
+		List<String> keys = new ArrayList<String>();
+
+		while (iterator.hasNext()) {
+			keys.add(iterator.next());
+		}
+
+		return keys;
+	}
+}
@@ -15,6 +15,7 @@
  */
 package org.springframework.vault.core;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,6 +29,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.vault.support.CloseableIterator;
 import org.springframework.vault.support.VaultResponse;
 import org.springframework.vault.support.VaultResponseSupport;
 import org.springframework.vault.util.IntegrationTestSupport;
@@ -46,6 +48,9 @@ public class VaultTemplateGenericIntegrationTests extends IntegrationTestSupport
 	@Autowired
 	private VaultOperations vaultOperations;
 
+	@Autowired
+	private VaultTemplate vaultTemplate;
+
 	@Test
 	public void readShouldReturnAbsentKey() throws Exception {
 
@@ -122,6 +127,32 @@ public class VaultTemplateGenericIntegrationTests extends IntegrationTestSupport
 		assertThat(keys).contains("mykey");
 	}
 
+	@Test
+	public void listIteratorShouldReturnExistingKey() throws Exception {
+
+		vaultOperations.write("secret/mykey", Collections.singletonMap("hello", "world"));
+
+		List<String> keys = new ArrayList<String>();
+		CloseableIterator<String> iterator = vaultTemplate.listIterator("secret");
+
+		try {
+			while (iterator.hasNext()) {
+				keys.add(iterator.next());
+			}
+		}
+		finally {
+			iterator.close();
+		}
+
+		assertThat(keys).contains("mykey");
+	}
+
+	@Test
+	public void listIteratorShouldReturnEmptyIteratorForAbsentPath() throws Exception {
+		assertThat(vaultTemplate.listIterator("secret/absent-directory").hasNext())
+				.isFalse();
+	}
+
 	@Test
 	public void deleteShouldRemoveKey() throws Exception {
 
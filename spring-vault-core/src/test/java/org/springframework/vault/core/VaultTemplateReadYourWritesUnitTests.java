@@ -0,0 +1,368 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+import org.springframework.util.Base64Utils;
+import org.springframework.util.StreamUtils;
+import org.springframework.vault.authentication.SimpleSessionManager;
+import org.springframework.vault.authentication.TokenAuthentication;
+import org.springframework.vault.client.SimpleVaultEndpointProvider;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultHttpHeaders;
+import org.springframework.vault.client.VaultIndexInterceptor;
+import org.springframework.vault.support.VaultResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for read-your-writes consistency of {@link VaultTemplate} using an
+ * in-process stand-in for a Vault cluster with an active and a lagging performance
+ * standby node.
+ *
+ * @author Mark Paluch
+ */
+public class VaultTemplateReadYourWritesUnitTests {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final Cluster cluster = new Cluster();
+
+	private HttpServer active;
+
+	private HttpServer standby;
+
+	private VaultTemplate template;
+
+	@Before
+	public void before() throws Exception {
+
+		active = start(new ActiveNode(cluster));
+		standby = start(new StandbyNode(cluster));
+
+		template = new VaultTemplate(SimpleVaultEndpointProvider.of(endpoint(standby)),
+				new SimpleClientHttpRequestFactory(), new SimpleSessionManager(
+						new TokenAuthentication("root")));
+		template.setWriteEndpointProvider(SimpleVaultEndpointProvider
+				.of(endpoint(active)));
+	}
+
+	@After
+	public void after() {
+
+		active.stop(0);
+		standby.stop(0);
+	}
+
+	@Test
+	public void shouldRouteWritesToActiveNode() {
+
+		template.write("secret/foo", Collections.singletonMap("key", "value"));
+		template.delete("secret/foo");
+
+		assertThat(cluster.activeWrites.get()).isEqualTo(2);
+		assertThat(cluster.standbyWrites.get()).isZero();
+	}
+
+	@Test
+	public void shouldRouteReadsToPerformanceStandby() {
+
+		LoadBalancingVaultEndpointProvider provider = new LoadBalancingVaultEndpointProvider(
+				Arrays.asList(endpoint(active), endpoint(standby)),
+				new SimpleClientHttpRequestFactory(), new ConcurrentTaskScheduler());
+		provider.probe();
+
+		VaultTemplate routingTemplate = new VaultTemplate(provider.standbyEndpointProvider(),
+				new SimpleClientHttpRequestFactory(), new SimpleSessionManager(
+						new TokenAuthentication("root")));
+		routingTemplate.setWriteEndpointProvider(provider.activeEndpointProvider());
+		routingTemplate.setReadYourWrites(true);
+
+		routingTemplate.write("secret/foo", Collections.singletonMap("key", "value"));
+		VaultResponse response = routingTemplate.read("secret/foo");
+
+		assertThat(response.getData()).containsEntry("key", "value");
+		assertThat(cluster.activeWrites.get()).isEqualTo(1);
+		assertThat(cluster.activeReads.get()).isZero();
+		assertThat(cluster.standbyReads.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldReadStaleDataWithoutConsistencyToken() {
+
+		template.write("secret/foo", Collections.singletonMap("key", "value"));
+
+		assertThat(template.read("secret/foo")).isNull();
+	}
+
+	@Test
+	public void shouldReadOwnWrites() {
+
+		template.setReadYourWrites(true);
+
+		template.write("secret/foo", Collections.singletonMap("key", "value"));
+		VaultResponse response = template.read("secret/foo");
+
+		assertThat(response).isNotNull();
+		assertThat(response.getData()).containsEntry("key", "value");
+
+		VaultIndexInterceptor interceptor = template.getVaultIndexInterceptor();
+		assertThat(interceptor.getReplicationStates()).containsExactly(state(1));
+		assertThat(interceptor.getReplayCount()).isEqualTo(1);
+		assertThat(interceptor.getRetryCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldNotRetryReadsOfReplicatedState() {
+
+		template.setReadYourWrites(true);
+
+		template.write("secret/foo", Collections.singletonMap("key", "value"));
+		template.read("secret/foo");
+		template.read("secret/foo");
+
+		VaultIndexInterceptor interceptor = template.getVaultIndexInterceptor();
+		assertThat(interceptor.getReplayCount()).isEqualTo(2);
+		assertThat(interceptor.getRetryCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldDisableReadYourWrites() {
+
+		template.setReadYourWrites(true);
+		template.setReadYourWrites(false);
+
+		assertThat(template.getVaultIndexInterceptor()).isNull();
+	}
+
+	private static HttpServer start(HttpHandler handler) throws IOException {
+
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/v1/", handler);
+		server.start();
+
+		return server;
+	}
+
+	private static VaultEndpoint endpoint(HttpServer server) {
+
+		VaultEndpoint endpoint = VaultEndpoint.create("localhost", server.getAddress()
+				.getPort());
+		endpoint.setScheme("http");
+
+		return endpoint;
+	}
+
+	private static String state(int index) {
+
+		String state = String.format("v1:cluster-a:%d:%d:hmac", index, index);
+		return Base64Utils.encodeToString(state.getBytes(UTF_8));
+	}
+
+	private static int index(String state) {
+
+		String decoded = new String(Base64Utils.decodeFromString(state), UTF_8);
+		return Integer.parseInt(decoded.split(":")[2]);
+	}
+
+	private static String getPath(HttpExchange exchange) {
+		return exchange.getRequestURI().getPath().substring("/v1/".length());
+	}
+
+	private static String health(boolean performanceStandby) {
+
+		return String.format("{\"initialized\":true,\"sealed\":false,\"standby\":%s,"
+				+ "\"performance_standby\":%s,\"server_time_utc\":0,\"version\":\"0.9.0\"}",
+				performanceStandby, performanceStandby);
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body)
+			throws IOException {
+
+		if (body == null) {
+			exchange.sendResponseHeaders(status, -1);
+			exchange.close();
+			return;
+		}
+
+		byte[] bytes = body.getBytes("UTF-8");
+
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+
+		OutputStream os = exchange.getResponseBody();
+		os.write(bytes);
+		os.close();
+	}
+
+	/**
+	 * Replicated data of a Vault cluster. The standby replicates lazily once a read
+	 * requests a state it has not caught up with.
+	 */
+	static class Cluster {
+
+		final Map<String, String> primary = new HashMap<String, String>();
+
+		final Map<String, String> replica = new HashMap<String, String>();
+
+		final AtomicInteger activeWrites = new AtomicInteger();
+
+		final AtomicInteger standbyWrites = new AtomicInteger();
+
+		final AtomicInteger activeReads = new AtomicInteger();
+
+		final AtomicInteger standbyReads = new AtomicInteger();
+
+		int index;
+
+		int replicatedIndex;
+
+		synchronized int write(String path, String body) {
+
+			if (body == null) {
+				primary.remove(path);
+			}
+			else {
+				primary.put(path, body);
+			}
+
+			return ++index;
+		}
+
+		synchronized void replicate() {
+
+			replica.clear();
+			replica.putAll(primary);
+			replicatedIndex = index;
+		}
+	}
+
+	static class ActiveNode implements HttpHandler {
+
+		private final Cluster cluster;
+
+		ActiveNode(Cluster cluster) {
+			this.cluster = cluster;
+		}
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+
+			String method = exchange.getRequestMethod();
+
+			if (getPath(exchange).equals("sys/health")) {
+				respond(exchange, 200, health(false));
+				return;
+			}
+
+			if ("GET".equals(method)) {
+
+				String data;
+
+				cluster.activeReads.incrementAndGet();
+
+				synchronized (cluster) {
+					data = cluster.primary.get(getPath(exchange));
+				}
+
+				respond(exchange, data == null ? 404 : 200,
+						data == null ? "{\"errors\":[]}" : "{\"data\":" + data + "}");
+				return;
+			}
+
+			String body = "DELETE".equals(method) ? null : StreamUtils.copyToString(
+					exchange.getRequestBody(), UTF_8);
+
+			cluster.activeWrites.incrementAndGet();
+			int index = cluster.write(getPath(exchange), body);
+
+			exchange.getResponseHeaders().set(VaultHttpHeaders.VAULT_INDEX, state(index));
+			respond(exchange, 204, null);
+		}
+	}
+
+	static class StandbyNode implements HttpHandler {
+
+		private final Cluster cluster;
+
+		StandbyNode(Cluster cluster) {
+			this.cluster = cluster;
+		}
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+
+			if (getPath(exchange).equals("sys/health")) {
+				respond(exchange, 473, health(true));
+				return;
+			}
+
+			if (!"GET".equals(exchange.getRequestMethod())) {
+
+				cluster.standbyWrites.incrementAndGet();
+				respond(exchange, 405, "{\"errors\":[\"standby\"]}");
+				return;
+			}
+
+			List<String> states = exchange.getRequestHeaders().get(
+					VaultHttpHeaders.VAULT_INDEX);
+			int requiredIndex = 0;
+			String data;
+
+			if (states != null) {
+				for (String state : states) {
+					requiredIndex = Math.max(requiredIndex, index(state));
+				}
+			}
+
+			cluster.standbyReads.incrementAndGet();
+
+			synchronized (cluster) {
+
+				if (requiredIndex > cluster.replicatedIndex) {
+
+					cluster.replicate();
+					respond(exchange, 412, "{\"errors\":[\"required index state not present\"]}");
+					return;
+				}
+
+				data = cluster.replica.get(getPath(exchange));
+			}
+
+			respond(exchange, data == null ? 404 : 200,
+					data == null ? "{\"errors\":[]}" : "{\"data\":" + data + "}");
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.vault.VaultException;
+import org.springframework.vault.support.VaultResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link VaultTreeWalker}.
+ *
+ * @author Mark Paluch
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class VaultTreeWalkerUnitTests {
+
+	@Mock
+	private VaultOperations vaultOperations;
+
+	private VaultTreeWalker walker;
+
+	@Before
+	public void before() throws Exception {
+
+		walker = new VaultTreeWalker(vaultOperations, new SimpleAsyncTaskExecutor(), 4);
+
+		when(vaultOperations.list("secret/")).thenReturn(
+				Arrays.asList("a", "dir/", "empty/"));
+	}
+
+	@Test
+	public void shouldWalkTreeRecursively() {
+
+		mockNestedDirectories();
+
+		final List<String> paths = new ArrayList<String>();
+
+		walker.walk("secret", new VaultTreeWalker.PathCallback() {
+
+			@Override
+			public void doWithPath(String path) {
+				paths.add(path);
+			}
+		});
+
+		assertThat(paths).containsOnly("secret/a", "secret/dir/b",
+				"secret/dir/nested/c");
+	}
+
+	@Test
+	public void shouldWalkTreeWithDefaultExecutor() {
+
+		mockNestedDirectories();
+
+		final List<String> paths = new ArrayList<String>();
+
+		new VaultTreeWalker(vaultOperations).walk("secret",
+				new VaultTreeWalker.PathCallback() {
+
+					@Override
+					public void doWithPath(String path) {
+						paths.add(path);
+					}
+				});
+
+		assertThat(paths).containsOnly("secret/a", "secret/dir/b",
+				"secret/dir/nested/c");
+	}
+
+	@Test
+	public void shouldReadLeaves() {
+
+		mockNestedDirectories();
+
+		VaultResponse response = new VaultResponse();
+		when(vaultOperations.read("secret/dir/nested/c")).thenReturn(response);
+
+		final Map<String, VaultResponse> secrets = new LinkedHashMap<String, VaultResponse>();
+
+		walker.walkAndRead("secret/", new VaultTreeWalker.SecretCallback() {
+
+			@Override
+			public void doWithSecret(String path, VaultResponse response) {
+				secrets.put(path, response);
+			}
+		});
+
+		assertThat(secrets).containsOnlyKeys("secret/a", "secret/dir/b",
+				"secret/dir/nested/c");
+		assertThat(secrets.get("secret/dir/nested/c")).isSameAs(response);
+	}
+
+	@Test
+	public void shouldReadLeavesWithFullQueue() {
+
+		mockNestedDirectories();
+
+		walker = new VaultTreeWalker(vaultOperations, new SimpleAsyncTaskExecutor(), 1);
+		walker.setQueueCapacity(1);
+
+		final List<String> paths = new ArrayList<String>();
+
+		walker.walkAndRead("secret/", new VaultTreeWalker.SecretCallback() {
+
+			@Override
+			public void doWithSecret(String path, VaultResponse response) {
+				paths.add(path);
+			}
+		});
+
+		assertThat(paths).containsOnly("secret/a", "secret/dir/b",
+				"secret/dir/nested/c");
+	}
+
+	@Test
+	public void shouldCompleteIfExecutorDoesNotRunWorkers() {
+
+		mockNestedDirectories();
+
+		walker = new VaultTreeWalker(vaultOperations, new TaskExecutor() {
+
+			@Override
+			public void execute(Runnable task) {
+			}
+		}, 4);
+
+		final List<String> paths = new ArrayList<String>();
+
+		walker.walk("secret", new VaultTreeWalker.PathCallback() {
+
+			@Override
+			public void doWithPath(String path) {
+				paths.add(path);
+			}
+		});
+
+		assertThat(paths).containsOnly("secret/a", "secret/dir/b",
+				"secret/dir/nested/c");
+	}
+
+	@Test
+	public void shouldPropagateFailure() {
+
+		VaultException exception = new VaultException("Status 403");
+		when(vaultOperations.list("secret/dir/")).thenThrow(exception);
+
+		try {
+			walker.walk("secret/", new VaultTreeWalker.PathCallback() {
+
+				@Override
+				public void doWithPath(String path) {
+				}
+			});
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).isSameAs(exception);
+		}
+	}
+
+	private void mockNestedDirectories() {
+
+		when(vaultOperations.list("secret/dir/")).thenReturn(
+				Arrays.asList("b", "nested/"));
+		when(vaultOperations.list("secret/dir/nested/")).thenReturn(
+				Arrays.asList("c"));
+	}
+}
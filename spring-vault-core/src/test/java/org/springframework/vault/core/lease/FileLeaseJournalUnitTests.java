@@ -0,0 +1,233 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.vault.core.lease.LeaseJournal.JournaledLease;
+import org.springframework.vault.core.lease.domain.Lease;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link FileLeaseJournal}.
+ *
+ * @author Mark Paluch
+ */
+public class FileLeaseJournalUnitTests {
+
+	private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes();
+
+	private static final int HEADER_LENGTH = 4 + 16;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private RequestedSecret requestedSecret = RequestedSecret
+			.rotating("database/creds/readonly");
+
+	private Map<String, Object> secrets = Collections.<String, Object> singletonMap(
+			"password", "s3cr3t-p4ssw0rd");
+
+	private File file;
+
+	private FileLeaseJournal journal;
+
+	@Before
+	public void before() throws Exception {
+
+		file = new File(temporaryFolder.getRoot(), "leases.journal");
+		journal = open(KEY);
+	}
+
+	@After
+	public void after() throws Exception {
+		journal.destroy();
+	}
+
+	@Test
+	public void shouldRestoreLeasesAfterReopen() throws Exception {
+
+		journal.leaseObtained(requestedSecret, Lease.of("lease-1", 60, true), secrets);
+		journal.leaseRenewed(requestedSecret, Lease.of("lease-1", 120, true));
+		journal.leaseObtained(RequestedSecret.renewable("other"), Lease.of("lease-2",
+				60, true), secrets);
+		journal.leaseRemoved(RequestedSecret.renewable("other"));
+		journal.destroy();
+
+		journal = open(KEY);
+
+		JournaledLease journaled = journal.get(requestedSecret);
+
+		assertThat(journaled.getLease()).isEqualTo(Lease.of("lease-1", 120, true));
+		assertThat(journaled.getSecrets()).isEqualTo(secrets);
+		assertThat(journaled.isExpired(System.currentTimeMillis())).isFalse();
+		assertThat(journal.get(RequestedSecret.renewable("other"))).isNull();
+		assertThat(journal.get(RequestedSecret.renewable(requestedSecret.getPath())))
+				.isNull();
+	}
+
+	@Test
+	public void shouldEncryptJournalAtRest() throws Exception {
+
+		journal.leaseObtained(requestedSecret, Lease.of("lease-1", 60, true), secrets);
+		journal.sync();
+
+		String content = new String(FileCopyUtils.copyToByteArray(file),
+				Charset.forName("ISO-8859-1"));
+
+		assertThat(content).doesNotContain("s3cr3t-p4ssw0rd").doesNotContain("lease-1")
+				.doesNotContain("database/creds");
+	}
+
+	@Test
+	public void shouldIgnoreRecordsWrittenWithDifferentKey() throws Exception {
+
+		journal.leaseObtained(requestedSecret, Lease.of("lease-1", 60, true), secrets);
+		journal.destroy();
+
+		journal = open("fedcba9876543210fedcba9876543210".getBytes());
+
+		assertThat(journal.get(requestedSecret)).isNull();
+	}
+
+	@Test
+	public void shouldDiscardTruncatedRecords() throws Exception {
+
+		journal.leaseObtained(requestedSecret, Lease.of("lease-1", 60, true), secrets);
+		journal.leaseRenewed(requestedSecret, Lease.of("lease-1", 120, true));
+		journal.destroy();
+
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() - 10);
+		raf.close();
+
+		journal = open(KEY);
+
+		assertThat(journal.get(requestedSecret).getLease()).isEqualTo(
+				Lease.of("lease-1", 60, true));
+
+		journal.leaseRenewed(requestedSecret, Lease.of("lease-1", 180, true));
+		journal.destroy();
+
+		journal = open(KEY);
+
+		assertThat(journal.get(requestedSecret).getLease()).isEqualTo(
+				Lease.of("lease-1", 180, true));
+	}
+
+	@Test
+	public void shouldCompactOnAppend() throws Exception {
+
+		journal.leaseObtained(requestedSecret, Lease.of("lease-1", 60, true), secrets);
+		journal.sync();
+
+		long singleRecord = file.length();
+
+		for (int i = 0; i < 1000; i++) {
+			journal.leaseRenewed(requestedSecret, Lease.of("lease-1", 1000 + i, true));
+		}
+
+		journal.sync();
+
+		assertThat(file.length()).isLessThan(singleRecord * 200);
+
+		journal.destroy();
+		journal = open(KEY);
+
+		assertThat(journal.get(requestedSecret).getLease()).isEqualTo(
+				Lease.of("lease-1", 1999, true));
+	}
+
+	@Test
+	public void shouldDiscardReplayedRecords() throws Exception {
+
+		journal.leaseObtained(requestedSecret, Lease.of("lease-1", 60, true), secrets);
+		journal.leaseRenewed(requestedSecret, Lease.of("lease-1", 120, true));
+		journal.destroy();
+
+		byte[] content = FileCopyUtils.copyToByteArray(file);
+		byte[] first = getRecord(content, 0);
+
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.seek(raf.length());
+		raf.write(first);
+		raf.close();
+
+		journal = open(KEY);
+
+		assertThat(journal.get(requestedSecret).getLease()).isEqualTo(
+				Lease.of("lease-1", 120, true));
+	}
+
+	@Test
+	public void shouldDiscardReorderedRecords() throws Exception {
+
+		journal.leaseObtained(requestedSecret, Lease.of("lease-1", 60, true), secrets);
+		journal.leaseRenewed(requestedSecret, Lease.of("lease-1", 120, true));
+		journal.destroy();
+
+		byte[] content = FileCopyUtils.copyToByteArray(file);
+		byte[] first = getRecord(content, 0);
+		byte[] second = getRecord(content, 1);
+
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.seek(HEADER_LENGTH);
+		raf.write(second);
+		raf.write(first);
+		raf.close();
+
+		journal = open(KEY);
+
+		assertThat(journal.get(requestedSecret)).isNull();
+	}
+
+	private static byte[] getRecord(byte[] content, int index) {
+
+		ByteBuffer buffer = ByteBuffer.wrap(content);
+		buffer.position(HEADER_LENGTH);
+
+		for (int i = 0; i < index; i++) {
+			buffer.position(buffer.position() + 4 + buffer.getInt(buffer.position()));
+		}
+
+		byte[] record = new byte[4 + buffer.getInt(buffer.position())];
+		buffer.get(record);
+
+		return record;
+	}
+
+	private FileLeaseJournal open(byte[] key) throws Exception {
+
+		FileLeaseJournal journal = new FileLeaseJournal(file, key);
+		journal.afterPropertiesSet();
+
+		return journal;
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.vault.metrics.HistogramVaultMetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link LeaseRenewalPipeline}.
+ *
+ * @author Mark Paluch
+ */
+public class LeaseRenewalPipelineUnitTests {
+
+	private HistogramVaultMetrics metrics = new HistogramVaultMetrics();
+
+	private LeaseRenewalPipeline pipeline;
+
+	@Before
+	public void before() {
+
+		pipeline = new LeaseRenewalPipeline();
+		pipeline.setConcurrency(2);
+		pipeline.setBatchWindow(10, TimeUnit.SECONDS);
+		pipeline.setVaultMetrics(metrics);
+		pipeline.afterPropertiesSet();
+	}
+
+	@After
+	public void after() {
+		pipeline.destroy();
+	}
+
+	@Test
+	public void shouldAlignRenewalsToBatchWindow() {
+
+		long delay = pipeline.getRenewalDelay(TimeUnit.MINUTES.toMillis(5), 0);
+		long renewalTime = System.currentTimeMillis() + delay;
+
+		assertThat(delay).isBetween(TimeUnit.MINUTES.toMillis(5)
+				- TimeUnit.SECONDS.toMillis(10), TimeUnit.MINUTES.toMillis(5));
+		assertThat(renewalTime % TimeUnit.SECONDS.toMillis(10)).isLessThan(100);
+	}
+
+	@Test
+	public void shouldNotAlignRenewalsBeforeMinimumDelay() {
+		assertThat(pipeline.getRenewalDelay(15000, 14000)).isGreaterThanOrEqualTo(14000);
+	}
+
+	@Test
+	public void shouldRenewWithBoundedConcurrency() throws Exception {
+
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch completed = new CountDownLatch(5);
+		final AtomicInteger concurrent = new AtomicInteger();
+		final AtomicInteger maxConcurrent = new AtomicInteger();
+
+		for (int i = 0; i < 5; i++) {
+
+			pipeline.submit(new Runnable() {
+
+				@Override
+				public void run() {
+
+					int current = concurrent.incrementAndGet();
+
+					synchronized (maxConcurrent) {
+						maxConcurrent.set(Math.max(maxConcurrent.get(), current));
+					}
+
+					try {
+						release.await(2, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+
+					concurrent.decrementAndGet();
+					completed.countDown();
+				}
+			});
+		}
+
+		Thread.sleep(100);
+
+		assertThat(pipeline.getActiveRenewals()).isEqualTo(2);
+		assertThat(pipeline.getQueueDepth()).isEqualTo(3);
+
+		release.countDown();
+
+		assertThat(completed.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(maxConcurrent.get()).isEqualTo(2);
+		assertThat(pipeline.getQueueDepth()).isZero();
+		assertThat(metrics.getLeaseRenewalQueueWaitHistogram().getCount()).isEqualTo(5);
+	}
+
+	@Test
+	public void shouldRenewOnSubmittingThreadIfQueueIsFull() throws Exception {
+
+		pipeline.destroy();
+
+		pipeline = new LeaseRenewalPipeline();
+		pipeline.setConcurrency(1);
+		pipeline.setQueueCapacity(1);
+		pipeline.afterPropertiesSet();
+
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch started = new CountDownLatch(1);
+
+		Runnable blocking = new Runnable() {
+
+			@Override
+			public void run() {
+
+				started.countDown();
+
+				try {
+					release.await(2, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+
+		pipeline.submit(blocking);
+		assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+		pipeline.submit(blocking);
+
+		final AtomicReference<Thread> renewalThread = new AtomicReference<Thread>();
+
+		pipeline.submit(new Runnable() {
+
+			@Override
+			public void run() {
+				renewalThread.set(Thread.currentThread());
+			}
+		});
+
+		release.countDown();
+
+		assertThat(renewalThread.get()).isSameAs(Thread.currentThread());
+	}
+
+	@Test
+	public void shouldRenewOnSubmittingThreadAfterDestroy() {
+
+		pipeline.destroy();
+
+		final AtomicReference<Thread> renewalThread = new AtomicReference<Thread>();
+
+		pipeline.submit(new Runnable() {
+
+			@Override
+			public void run() {
+				renewalThread.set(Thread.currentThread());
+			}
+		});
+
+		assertThat(renewalThread.get()).isSameAs(Thread.currentThread());
+		assertThat(pipeline.getQueueDepth()).isZero();
+	}
+}
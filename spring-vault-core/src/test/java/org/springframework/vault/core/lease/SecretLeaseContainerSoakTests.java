@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.vault.authentication.TokenAuthentication;
+import org.springframework.vault.core.VaultTemplate;
+import org.springframework.vault.core.lease.event.LeaseErrorListener;
+import org.springframework.vault.core.lease.event.SecretLeaseEvent;
+import org.springframework.vault.util.EmbeddedVaultServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Soak tests for {@link SecretLeaseContainer} renewing a large number of leases against
+ * {@link EmbeddedVaultServer}. Disabled by default, enable with {@code -Dsoak=true}.
+ * The number of leases, the lease duration and the test duration are configurable
+ * through {@code soak.leases} (defaults to {@literal 100000}),
+ * {@code soak.leaseSeconds} (defaults to {@literal 120}) and {@code soak.seconds}
+ * (defaults to {@literal 180}). Leases are renewed halfway through their lease
+ * duration so the required renewal rate is {@code 2 * leases / leaseSeconds}.
+ *
+ * @author Mark Paluch
+ */
+public class SecretLeaseContainerSoakTests {
+
+	private static final Log logger = LogFactory
+			.getLog(SecretLeaseContainerSoakTests.class);
+
+	private final int leases = Integer.getInteger("soak.leases", 100000);
+
+	private final int leaseSeconds = Integer.getInteger("soak.leaseSeconds", 120);
+
+	private final int seconds = Integer.getInteger("soak.seconds", 180);
+
+	private EmbeddedVaultServer server;
+
+	private ThreadPoolTaskScheduler taskScheduler;
+
+	private SecretLeaseContainer container;
+
+	@Before
+	public void before() throws Exception {
+
+		assumeTrue(Boolean.getBoolean("soak"));
+
+		server = new EmbeddedVaultServer();
+		server.setThreads(64);
+		server.setLeaseDuration(leaseSeconds, TimeUnit.SECONDS);
+		server.start();
+
+		taskScheduler = new ThreadPoolTaskScheduler();
+		taskScheduler.setPoolSize(32);
+		taskScheduler.afterPropertiesSet();
+
+		VaultTemplate vaultTemplate = new VaultTemplate(server.getEndpoint(),
+				new TokenAuthentication(server.getRootToken()));
+
+		container = new SecretLeaseContainer(vaultTemplate, taskScheduler);
+		container.setExpiryThresholdSeconds(leaseSeconds / 2);
+		container.setMinRenewalSeconds(1);
+		container.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception {
+
+		if (container != null) {
+			container.destroy();
+			taskScheduler.destroy();
+			server.stop();
+		}
+	}
+
+	@Test
+	public void shouldRenewLeasesUnderSustainedLoad() throws Exception {
+
+		final AtomicLong errors = new AtomicLong();
+
+		container.addErrorListener(new LeaseErrorListener() {
+
+			@Override
+			public void onLeaseError(SecretLeaseEvent leaseEvent, Exception exception) {
+				errors.incrementAndGet();
+			}
+		});
+
+		for (int i = 0; i < leases; i++) {
+			container.requestRenewableSecret("database/creds/role-" + i);
+		}
+
+		long start = System.nanoTime();
+		container.start();
+		long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+
+		logger.info(String.format(
+				"Leases: %d, startup: %d ms, renewals: %d, requests: %d, errors: %d",
+				leases, startupMillis, server.getRenewalCount(),
+				server.getRequestCount(), errors.get()));
+
+		assertThat(server.getLeaseCount()).isEqualTo(leases);
+		assertThat(errors.get()).isZero();
+
+		if (seconds > startupMillis / 1000 + leaseSeconds) {
+			assertThat(server.getRenewalCount()).isGreaterThanOrEqualTo(leases);
+		}
+	}
+}
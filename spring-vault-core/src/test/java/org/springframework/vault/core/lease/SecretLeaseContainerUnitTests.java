@@ -17,11 +17,14 @@ package org.springframework.vault.core.lease;
 
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -29,7 +32,9 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -46,6 +51,8 @@ import org.springframework.vault.core.lease.event.LeaseListenerAdapter;
 import org.springframework.vault.core.lease.event.SecretLeaseCreatedEvent;
 import org.springframework.vault.core.lease.event.SecretLeaseEvent;
 import org.springframework.vault.core.lease.event.SecretLeaseExpiredEvent;
+import org.springframework.vault.metrics.HistogramVaultMetrics;
+import org.springframework.vault.metrics.LatencyHistogram;
 import org.springframework.vault.support.VaultResponse;
 import org.springframework.web.client.HttpClientErrorException;
 
@@ -54,6 +61,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -81,6 +89,9 @@ public class SecretLeaseContainerUnitTests {
 	@Mock
 	private LeaseListenerAdapter leaseListenerAdapter;
 
+	@Mock
+	private LeaseJournal leaseJournal;
+
 	@Captor
 	private ArgumentCaptor<SecretLeaseEvent> captor;
 
@@ -215,6 +226,80 @@ public class SecretLeaseContainerUnitTests {
 		verify(taskScheduler, times(2)).schedule(captor.capture(), any(Trigger.class));
 	}
 
+	@Test
+	public void shouldRenewLeaseThroughPipeline() throws Exception {
+
+		LeaseRenewalPipeline pipeline = new LeaseRenewalPipeline();
+		pipeline.afterPropertiesSet();
+
+		SecretLeaseContainer container = new SecretLeaseContainer(vaultOperations,
+				taskScheduler);
+		container.setRenewalPipeline(pipeline);
+		container.afterPropertiesSet();
+
+		when(taskScheduler.schedule(any(Runnable.class), any(Trigger.class))).thenReturn(
+				scheduledFuture);
+		when(vaultOperations.read(requestedSecret.getPath())).thenReturn(createSecrets());
+		when(vaultOperations.doWithSession(any(RestOperationsCallback.class)))
+				.thenReturn(getResponseEntity("new_lease", true, 70, HttpStatus.OK));
+
+		container.addRequestedSecret(requestedSecret);
+		container.start();
+
+		ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+		ArgumentCaptor<Trigger> triggerCaptor = ArgumentCaptor.forClass(Trigger.class);
+		verify(taskScheduler).schedule(runnableCaptor.capture(), triggerCaptor.capture());
+
+		Date nextExecutionTime = triggerCaptor.getValue().nextExecutionTime(null);
+		assertThat(nextExecutionTime.getTime() % 1000).isLessThan(100);
+
+		runnableCaptor.getValue().run();
+
+		verify(taskScheduler, timeout(1000).times(2)).schedule(any(Runnable.class),
+				any(Trigger.class));
+
+		pipeline.destroy();
+	}
+
+	@Test
+	public void shouldInitializeButNotDestroySharedPipeline() throws Exception {
+
+		LeaseRenewalPipeline pipeline = new LeaseRenewalPipeline();
+
+		SecretLeaseContainer first = new SecretLeaseContainer(vaultOperations,
+				taskScheduler);
+		first.setRenewalPipeline(pipeline);
+		first.afterPropertiesSet();
+
+		SecretLeaseContainer second = new SecretLeaseContainer(vaultOperations,
+				taskScheduler);
+		second.setRenewalPipeline(pipeline);
+		second.afterPropertiesSet();
+
+		assertThat(pipeline.isInitialized()).isTrue();
+
+		first.destroy();
+
+		final CountDownLatch renewed = new CountDownLatch(1);
+		final AtomicReference<Thread> renewalThread = new AtomicReference<Thread>();
+
+		pipeline.submit(new Runnable() {
+
+			@Override
+			public void run() {
+
+				renewalThread.set(Thread.currentThread());
+				renewed.countDown();
+			}
+		});
+
+		assertThat(renewed.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(renewalThread.get()).isNotSameAs(Thread.currentThread());
+
+		second.destroy();
+		pipeline.destroy();
+	}
+
 	@Test
 	public void shouldRotateGenericSecret() {
 
@@ -327,6 +412,43 @@ public class SecretLeaseContainerUnitTests {
 				new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(41)));
 	}
 
+	@Test
+	public void renewalJitterShouldStayWithinExpiryThresholdAndMinRenewal() {
+
+		Lease lease = Lease.of("lease", 100, true);
+		Set<Long> renewalTimes = new HashSet<Long>();
+
+		for (int i = 0; i < 100; i++) {
+
+			long renewalMillis = SecretLeaseContainer.LeaseRenewalScheduler
+					.getRenewalMillis(lease, 30, 60, 50);
+
+			assertThat(renewalMillis).isBetween(TimeUnit.SECONDS.toMillis(30),
+					TimeUnit.SECONDS.toMillis(40));
+			renewalTimes.add(renewalMillis);
+		}
+
+		assertThat(renewalTimes.size()).isGreaterThan(1);
+		assertThat(
+				SecretLeaseContainer.LeaseRenewalScheduler.getRenewalMillis(lease, 10,
+						60, 0)).isEqualTo(TimeUnit.SECONDS.toMillis(40));
+	}
+
+	@Test
+	public void shouldRecordScheduledRenewalDelay() {
+
+		HistogramVaultMetrics metrics = new HistogramVaultMetrics();
+		secretLeaseContainer.setVaultMetrics(metrics);
+		secretLeaseContainer.setRenewalJitterPercent(25);
+
+		prepareRenewal();
+		secretLeaseContainer.start();
+
+		LatencyHistogram histogram = metrics.getLeaseRenewalScheduleHistogram();
+		assertThat(histogram.getCount()).isEqualTo(1);
+		assertThat(histogram.getMax(TimeUnit.SECONDS)).isBetween(29L, 40L);
+	}
+
 	@Test
 	public void shouldPublishRenewalErrors() {
 
@@ -449,6 +571,241 @@ public class SecretLeaseContainerUnitTests {
 				any(AfterSecretLeaseRevocationEvent.class));
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldResumeJournaledLease() throws Exception {
+
+		Lease journaledLease = Lease.of("lease", 100, true);
+		when(leaseJournal.get(requestedSecret)).thenReturn(
+				new LeaseJournal.JournaledLease(journaledLease, Collections
+						.<String, Object> singletonMap("key", "journaled"), System
+						.currentTimeMillis()));
+		when(vaultOperations.doWithSession(any(RestOperationsCallback.class)))
+				.thenReturn(getResponseEntity("lease", true, 100, HttpStatus.OK));
+		when(taskScheduler.schedule(any(Runnable.class), any(Trigger.class))).thenReturn(
+				scheduledFuture);
+
+		secretLeaseContainer.setLeaseJournal(leaseJournal);
+		secretLeaseContainer.addRequestedSecret(requestedSecret);
+		secretLeaseContainer.start();
+
+		verify(vaultOperations, never()).read(anyString());
+		verify(leaseJournal).leaseRenewed(requestedSecret, journaledLease);
+		verify(leaseListenerAdapter).onLeaseEvent(captor.capture());
+
+		SecretLeaseCreatedEvent leaseCreatedEvent = (SecretLeaseCreatedEvent) captor
+				.getValue();
+		assertThat(leaseCreatedEvent.getLease()).isEqualTo(journaledLease);
+		assertThat(leaseCreatedEvent.getSecrets()).containsEntry("key", "journaled");
+
+		secretLeaseContainer.destroy();
+
+		verify(leaseListenerAdapter, never()).onLeaseEvent(
+				any(BeforeSecretLeaseRevocationEvent.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void shouldRequestSecretsIfJournaledLeaseCannotBeResumed() {
+
+		when(leaseJournal.get(requestedSecret)).thenReturn(
+				new LeaseJournal.JournaledLease(Lease.of("lease", 100, true),
+						Collections.<String, Object> emptyMap(), System
+								.currentTimeMillis()));
+		when(vaultOperations.doWithSession(any(RestOperationsCallback.class)))
+				.thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+		prepareRenewal();
+
+		secretLeaseContainer.setLeaseJournal(leaseJournal);
+		secretLeaseContainer.start();
+
+		verify(leaseJournal).leaseRemoved(requestedSecret);
+		verify(vaultOperations).read(requestedSecret.getPath());
+		verify(leaseJournal).leaseObtained(requestedSecret,
+				Lease.of("lease", 100, true),
+				Collections.<String, Object> singletonMap("key", "value"));
+	}
+
+	@Test
+	public void shouldNotRenewExpiredJournaledLease() {
+
+		when(leaseJournal.get(requestedSecret)).thenReturn(
+				new LeaseJournal.JournaledLease(Lease.of("lease", 100, true),
+						Collections.<String, Object> emptyMap(), System
+								.currentTimeMillis()
+								- TimeUnit.SECONDS.toMillis(101)));
+		prepareRenewal();
+
+		secretLeaseContainer.setLeaseJournal(leaseJournal);
+		secretLeaseContainer.start();
+
+		verify(leaseJournal).leaseRemoved(requestedSecret);
+		verify(vaultOperations).read(requestedSecret.getPath());
+		verifyNoMoreInteractions(vaultOperations);
+	}
+
+	@Test
+	public void shouldObtainSecretsConcurrently() {
+
+		when(taskScheduler.schedule(any(Runnable.class), any(Trigger.class))).thenReturn(
+				scheduledFuture);
+		when(vaultOperations.read(anyString())).thenAnswer(delayedSecrets(200));
+
+		for (int i = 0; i < 4; i++) {
+			secretLeaseContainer.requestRenewableSecret("secret-" + i);
+		}
+
+		secretLeaseContainer.setStartupConcurrency(4);
+
+		long start = System.nanoTime();
+		secretLeaseContainer.start();
+		long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertThat(duration).isLessThan(600);
+		verify(leaseListenerAdapter, times(4)).onLeaseEvent(
+				any(SecretLeaseCreatedEvent.class));
+	}
+
+	@Test
+	public void shouldReportSecretsExceedingStartupDeadline() {
+
+		when(taskScheduler.schedule(any(Runnable.class), any(Trigger.class))).thenReturn(
+				scheduledFuture);
+		when(vaultOperations.read("fast")).thenReturn(createSecrets());
+		when(vaultOperations.read("slow")).thenAnswer(delayedSecrets(5000));
+
+		RequestedSecret slow = secretLeaseContainer.requestRenewableSecret("slow");
+		secretLeaseContainer.requestRenewableSecret("fast");
+
+		secretLeaseContainer.setStartupConcurrency(2);
+		secretLeaseContainer.setStartupTimeout(300, TimeUnit.MILLISECONDS);
+
+		long start = System.nanoTime();
+		secretLeaseContainer.start();
+		long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertThat(duration).isLessThan(2000);
+		verify(leaseListenerAdapter).onLeaseEvent(any(SecretLeaseCreatedEvent.class));
+		verify(leaseListenerAdapter).onLeaseError(captor.capture(),
+				any(VaultException.class));
+		assertThat(captor.getValue().getSource()).isEqualTo(slow);
+	}
+
+	@Test
+	public void shouldReportSecretsNotObtainedWhenStartIsInterrupted() throws Exception {
+
+		final CountDownLatch reading = new CountDownLatch(2);
+		Answer<VaultResponse> answer = new Answer<VaultResponse>() {
+
+			@Override
+			public VaultResponse answer(InvocationOnMock invocation) throws Throwable {
+
+				reading.countDown();
+				Thread.sleep(5000);
+				return createSecrets();
+			}
+		};
+
+		when(vaultOperations.read("first")).thenAnswer(answer);
+		when(vaultOperations.read("second")).thenAnswer(answer);
+
+		RequestedSecret first = secretLeaseContainer.requestRenewableSecret("first");
+		RequestedSecret second = secretLeaseContainer.requestRenewableSecret("second");
+
+		secretLeaseContainer.setStartupConcurrency(2);
+
+		Thread starter = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				secretLeaseContainer.start();
+			}
+		});
+		starter.start();
+
+		assertThat(reading.await(1, TimeUnit.SECONDS)).isTrue();
+		starter.interrupt();
+		starter.join(TimeUnit.SECONDS.toMillis(1));
+
+		assertThat(starter.isAlive()).isFalse();
+		verify(leaseListenerAdapter, times(2)).onLeaseError(captor.capture(),
+				any(VaultException.class));
+		verify(leaseListenerAdapter, never()).onLeaseEvent(
+				any(SecretLeaseCreatedEvent.class));
+		assertThat(captor.getAllValues()).extracting("source").containsOnly(first,
+				second);
+	}
+
+	@Test
+	public void shouldDiscardSecretsObtainedAfterStartupDeadline() throws Exception {
+
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch returned = new CountDownLatch(1);
+
+		when(vaultOperations.read("slow")).thenAnswer(new Answer<VaultResponse>() {
+
+			@Override
+			public VaultResponse answer(InvocationOnMock invocation) throws Throwable {
+
+				// ignore cancellation to complete after the deadline
+				while (release.getCount() > 0) {
+					try {
+						release.await();
+					}
+					catch (InterruptedException e) {
+						// continue waiting
+					}
+				}
+
+				returned.countDown();
+				return createSecrets();
+			}
+		});
+
+		RequestedSecret slow = secretLeaseContainer.requestRenewableSecret("slow");
+
+		secretLeaseContainer.setStartupConcurrency(2);
+		secretLeaseContainer.setStartupTimeout(100, TimeUnit.MILLISECONDS);
+		secretLeaseContainer.start();
+
+		verify(leaseListenerAdapter).onLeaseError(captor.capture(),
+				any(VaultException.class));
+		assertThat(captor.getValue().getSource()).isEqualTo(slow);
+
+		release.countDown();
+		returned.await(1, TimeUnit.SECONDS);
+
+		verify(leaseListenerAdapter, timeout(1000)).onLeaseEvent(
+				any(AfterSecretLeaseRevocationEvent.class));
+		verify(leaseListenerAdapter, never()).onLeaseEvent(
+				any(SecretLeaseCreatedEvent.class));
+		verify(leaseListenerAdapter).onLeaseError(any(SecretLeaseEvent.class),
+				any(Exception.class));
+		verifyZeroInteractions(taskScheduler);
+	}
+
+	@Test
+	public void concurrentStartShouldIsolateFailures() {
+
+		VaultException e = new VaultException("error");
+
+		when(taskScheduler.schedule(any(Runnable.class), any(Trigger.class))).thenReturn(
+				scheduledFuture);
+		when(vaultOperations.read("failing")).thenThrow(e);
+		when(vaultOperations.read("working")).thenReturn(createSecrets());
+
+		RequestedSecret failing = secretLeaseContainer
+				.requestRenewableSecret("failing");
+		secretLeaseContainer.requestRenewableSecret("working");
+
+		secretLeaseContainer.setStartupConcurrency(2);
+		secretLeaseContainer.start();
+
+		verify(leaseListenerAdapter).onLeaseError(captor.capture(), eq(e));
+		assertThat(captor.getValue().getSource()).isEqualTo(failing);
+		verify(leaseListenerAdapter).onLeaseEvent(any(SecretLeaseCreatedEvent.class));
+	}
+
 	@Test
 	public void shouldNotRevokeSecretsWithoutLease() throws Exception {
 
@@ -503,21 +860,29 @@ public class SecretLeaseContainerUnitTests {
 		secretLeaseContainer.addRequestedSecret(requestedSecret);
 	}
 
-	private ResponseEntity<Map<String, Object>> getResponseEntity(String leaseId,
-			Boolean renewable, Integer leaseDuration, HttpStatus httpStatus) {
+	private Answer<VaultResponse> delayedSecrets(final long delayMillis) {
 
-		Map<String, Object> body = new HashMap<String, Object>();
-		body.put("lease_id", leaseId);
-		body.put("renewable", renewable);
-		body.put("lease_duration", leaseDuration);
+		return new Answer<VaultResponse>() {
 
-		return getEntity(body, httpStatus);
+			@Override
+			public VaultResponse answer(InvocationOnMock invocation) throws Throwable {
+
+				Thread.sleep(delayMillis);
+				return createSecrets();
+			}
+		};
 	}
 
-	private ResponseEntity<Map<String, Object>> getEntity(Map<String, Object> body,
-			HttpStatus status) {
+	private ResponseEntity<SecretLeaseContainer.LeaseRenewalResponse> getResponseEntity(
+			String leaseId, boolean renewable, long leaseDuration, HttpStatus httpStatus) {
+
+		SecretLeaseContainer.LeaseRenewalResponse body = new SecretLeaseContainer.LeaseRenewalResponse();
+		body.leaseId = leaseId;
+		body.renewable = renewable;
+		body.leaseDuration = leaseDuration;
 
-		return new ResponseEntity<Map<String, Object>>(body, status);
+		return new ResponseEntity<SecretLeaseContainer.LeaseRenewalResponse>(body,
+				httpStatus);
 	}
 
 	private VaultResponse createSecrets() {
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.core.lease;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link TimingWheelTaskScheduler}.
+ *
+ * @author Mark Paluch
+ */
+public class TimingWheelTaskSchedulerUnitTests {
+
+	private TimingWheelTaskScheduler scheduler;
+
+	@Before
+	public void before() {
+
+		scheduler = new TimingWheelTaskScheduler();
+		scheduler.setTickDuration(1, TimeUnit.MILLISECONDS);
+		scheduler.setWorkerThreads(2);
+		scheduler.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception {
+		scheduler.destroy();
+	}
+
+	@Test
+	public void shouldRunTasksInDeadlineOrder() throws Exception {
+
+		final List<Integer> executions = Collections
+				.synchronizedList(new ArrayList<Integer>());
+		final CountDownLatch latch = new CountDownLatch(3);
+		long now = System.currentTimeMillis();
+
+		for (final int delay : new int[] { 150, 50, 100 }) {
+
+			scheduler.schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					executions.add(delay);
+					latch.countDown();
+				}
+			}, new Date(now + delay));
+		}
+
+		assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(executions).containsExactly(50, 100, 150);
+	}
+
+	@Test
+	public void shouldNotRunBeforeDeadlineAcrossWheelLevels() throws Exception {
+
+		final AtomicInteger executions = new AtomicInteger();
+		long start = System.nanoTime();
+
+		// 600 ticks exceed the first wheel level and require cascading
+		ScheduledFuture<?> future = scheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				executions.incrementAndGet();
+			}
+		}, new Date(System.currentTimeMillis() + 600));
+
+		future.get(2, TimeUnit.SECONDS);
+
+		assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(
+				TimeUnit.MILLISECONDS.toNanos(590));
+		assertThat(executions.get()).isEqualTo(1);
+		assertThat(future.isDone()).isTrue();
+		assertThat(scheduler.getScheduledTaskCount()).isZero();
+	}
+
+	@Test
+	public void cancelShouldRemoveScheduledTask() throws Exception {
+
+		final AtomicInteger executions = new AtomicInteger();
+
+		ScheduledFuture<?> future = scheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				executions.incrementAndGet();
+			}
+		}, new Date(System.currentTimeMillis() + 100));
+
+		assertThat(future.cancel(false)).isTrue();
+		assertThat(future.isCancelled()).isTrue();
+		assertThat(future.cancel(false)).isFalse();
+
+		Thread.sleep(200);
+
+		assertThat(executions.get()).isZero();
+		assertThat(scheduler.getScheduledTaskCount()).isZero();
+	}
+
+	@Test
+	public void shouldRescheduleTriggerTasks() throws Exception {
+
+		final CountDownLatch latch = new CountDownLatch(3);
+
+		ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay(new Runnable() {
+
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+		}, 10);
+
+		assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+		assertThat(future.isDone()).isFalse();
+
+		future.cancel(false);
+
+		assertThat(future.isDone()).isTrue();
+	}
+
+	@Test
+	public void shouldCompleteTriggerTaskWithoutNextExecution() throws Exception {
+
+		final AtomicInteger executions = new AtomicInteger();
+
+		ScheduledFuture<?> future = scheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				executions.incrementAndGet();
+			}
+		}, new Trigger() {
+
+			@Override
+			public Date nextExecutionTime(TriggerContext triggerContext) {
+				return triggerContext.lastCompletionTime() == null ? new Date() : null;
+			}
+		});
+
+		future.get(2, TimeUnit.SECONDS);
+
+		assertThat(executions.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldReportTaskFailure() throws Exception {
+
+		ScheduledFuture<?> future = scheduler.schedule(new Runnable() {
+
+			@Override
+			public void run() {
+				throw new IllegalStateException("boom");
+			}
+		}, new Date());
+
+		try {
+			future.get(2, TimeUnit.SECONDS);
+			fail("Missing ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+		}
+	}
+
+	@Test
+	public void shouldCancelTasksDispatchedAfterDestroy() throws Exception {
+
+		TimingWheelTaskScheduler.TimeoutTask task = (TimingWheelTaskScheduler.TimeoutTask) scheduler
+				.schedule(new Runnable() {
+
+					@Override
+					public void run() {
+					}
+				}, new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+
+		scheduler.destroy();
+
+		// ticker dispatching a due task while destroy() is in progress
+		scheduler.dispatch(task);
+
+		assertThat(task.isCancelled()).isTrue();
+
+		try {
+			task.get(1, TimeUnit.SECONDS);
+			fail("Missing CancellationException");
+		}
+		catch (CancellationException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.vault.metrics.HistogramVaultMetrics.Metric;
+import org.springframework.vault.metrics.HistogramVaultMetrics.MetricListener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link HistogramVaultMetrics}, {@link VaultMetricsInterceptor} and
+ * {@link JmxVaultMetricsExporter}.
+ *
+ * @author Mark Paluch
+ */
+public class HistogramVaultMetricsUnitTests {
+
+	private final HistogramVaultMetrics metrics = new HistogramVaultMetrics();
+
+	@Test
+	public void shouldRecordRequestsByPathMethodAndStatus() {
+
+		metrics.recordRequest("transit/encrypt/{key}", HttpMethod.POST, 200, 1000);
+		metrics.recordRequest("transit/encrypt/{key}", HttpMethod.POST, 200, 2000);
+		metrics.recordRequest("transit/encrypt/{key}", HttpMethod.POST, 500, 3000);
+
+		assertThat(
+				metrics.getRequestHistogram("transit/encrypt/{key}", HttpMethod.POST, 200)
+						.getCount()).isEqualTo(2);
+		assertThat(
+				metrics.getRequestHistogram("transit/encrypt/{key}", HttpMethod.POST, 500)
+						.getCount()).isEqualTo(1);
+		assertThat(
+				metrics.getRequestHistogram("transit/encrypt/{key}", HttpMethod.GET, 200))
+				.isNull();
+		assertThat(metrics.getMetrics()).hasSize(2);
+	}
+
+	@Test
+	public void shouldRecordRequestsWithoutMethodSeparately() {
+
+		metrics.recordRequest("sys/health", null, 473, 1000);
+		metrics.recordRequest("sys/health", HttpMethod.GET, 473, 1000);
+		metrics.recordRequest("sys/health", HttpMethod.GET, 473, 1000);
+
+		assertThat(metrics.getRequestHistogram("sys/health", null, 473).getCount())
+				.isEqualTo(1);
+		assertThat(metrics.getRequestHistogram("sys/health", HttpMethod.GET, 473)
+				.getCount()).isEqualTo(2);
+		assertThat(metrics.getMetrics()).extracting("tags").extracting("method")
+				.containsExactly("UNKNOWN", "GET");
+	}
+
+	@Test
+	public void shouldRecordTimersByOutcome() {
+
+		metrics.recordLogin(1000, true);
+		metrics.recordTokenRenewal(1000, false);
+		metrics.recordLeaseRenewal(1000, true);
+		metrics.recordLeaseRenewal(1000, true);
+
+		assertThat(metrics.getLoginHistogram(true).getCount()).isEqualTo(1);
+		assertThat(metrics.getLoginHistogram(false)).isNull();
+		assertThat(metrics.getTokenRenewalHistogram(false).getCount()).isEqualTo(1);
+		assertThat(metrics.getLeaseRenewalHistogram(true).getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldRecordTlsHandshakesByResumption() {
+
+		metrics.recordTlsHandshake(5000, false);
+		metrics.recordTlsHandshake(1000, true);
+		metrics.recordTlsHandshake(1000, true);
+
+		assertThat(metrics.getTlsHandshakeHistogram(false).getCount()).isEqualTo(1);
+		assertThat(metrics.getTlsHandshakeHistogram(true).getCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldRecordLeaseRenewalQueueWait() {
+
+		assertThat(metrics.getLeaseRenewalQueueWaitHistogram()).isNull();
+
+		metrics.recordLeaseRenewalQueueWait(1000);
+		metrics.recordLeaseRenewalQueueWait(2000);
+
+		assertThat(metrics.getLeaseRenewalQueueWaitHistogram().getCount()).isEqualTo(2);
+		assertThat(metrics.getMetrics()).extracting("name").containsOnly(
+				HistogramVaultMetrics.LEASE_RENEWAL_QUEUE_WAIT);
+	}
+
+	@Test
+	public void shouldNotifyListenersAboutExistingAndNewMetrics() {
+
+		final List<Metric> created = new ArrayList<Metric>();
+
+		metrics.recordLogin(1000, true);
+		metrics.addListener(new MetricListener() {
+
+			@Override
+			public void onMetricCreated(Metric metric) {
+				created.add(metric);
+			}
+		});
+		metrics.recordLogin(1000, true);
+		metrics.recordRequest("sys/health", HttpMethod.GET, 200, 1000);
+
+		assertThat(created).hasSize(2);
+		assertThat(created.get(0).getName()).isEqualTo(HistogramVaultMetrics.LOGIN);
+		assertThat(created.get(1).getTags()).containsEntry("path", "sys/health")
+				.containsEntry("method", "GET").containsEntry("status", "200");
+	}
+
+	@Test
+	public void interceptorShouldRecordNormalizedRequest() throws Exception {
+
+		VaultMetricsInterceptor interceptor = new VaultMetricsInterceptor(metrics);
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.PUT,
+				URI.create("https://localhost:8200/v1/sys/renew/aws/creds/foo/1234"));
+
+		interceptor.intercept(request, new byte[0], new ClientHttpRequestExecution() {
+
+			@Override
+			public ClientHttpResponse execute(HttpRequest request,
+					byte[] body) {
+				return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+			}
+		});
+
+		LatencyHistogram histogram = metrics.getRequestHistogram("sys/renew/{leaseId}",
+				HttpMethod.PUT, 200);
+
+		assertThat(histogram.getCount()).isEqualTo(1);
+		assertThat(histogram.getMax(TimeUnit.NANOSECONDS)).isGreaterThan(0);
+	}
+
+	@Test
+	public void interceptorShouldRecordIoErrorsWithStatusZero() {
+
+		VaultMetricsInterceptor interceptor = new VaultMetricsInterceptor(metrics);
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+				URI.create("https://localhost:8200/v1/secret/foo"));
+
+		try {
+			interceptor.intercept(request, new byte[0], new ClientHttpRequestExecution() {
+
+				@Override
+				public ClientHttpResponse execute(HttpRequest request, byte[] body)
+						throws IOException {
+					throw new IOException("Connection refused");
+				}
+			});
+			fail("Missing IOException");
+		}
+		catch (IOException e) {
+			assertThat(metrics.getRequestHistogram("secret/{path}", HttpMethod.GET, 0)
+					.getCount()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void exporterShouldRegisterMBeans() throws Exception {
+
+		MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+		JmxVaultMetricsExporter exporter = new JmxVaultMetricsExporter(metrics,
+				mBeanServer);
+
+		metrics.recordRequest("transit/encrypt/{key}", HttpMethod.POST, 200,
+				TimeUnit.MILLISECONDS.toNanos(2));
+		exporter.afterPropertiesSet();
+		metrics.recordLeaseRenewal(TimeUnit.MILLISECONDS.toNanos(4), false);
+
+		ObjectName request = new ObjectName(
+				"org.springframework.vault:type=vault.request,path=\"transit/encrypt/{key}\",method=\"POST\",status=\"200\"");
+		ObjectName leaseRenewal = new ObjectName(
+				"org.springframework.vault:type=vault.lease.renewal,outcome=\"failure\"");
+
+		assertThat(mBeanServer.getAttribute(request, "Count")).isEqualTo(1L);
+		assertThat((Double) mBeanServer.getAttribute(leaseRenewal, "Max")).isEqualTo(4d);
+
+		exporter.destroy();
+
+		assertThat(mBeanServer.isRegistered(request)).isFalse();
+		assertThat(mBeanServer.isRegistered(leaseRenewal)).isFalse();
+	}
+}
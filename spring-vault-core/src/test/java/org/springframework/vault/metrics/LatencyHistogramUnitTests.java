@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ *
+ * @author Mark Paluch
+ */
+public class LatencyHistogramUnitTests {
+
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	@Test
+	public void bucketsShouldCoverValueRange() {
+
+		long[] values = { 0, 1, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE };
+
+		for (long value : values) {
+
+			int index = LatencyHistogram.indexOf(value);
+
+			assertThat(index).isBetween(0, LatencyHistogram.BUCKETS - 1);
+			assertThat(LatencyHistogram.upperBoundOf(index)).isGreaterThanOrEqualTo(
+					value);
+
+			if (index > 0) {
+				assertThat(LatencyHistogram.upperBoundOf(index - 1)).isLessThan(value);
+			}
+		}
+	}
+
+	@Test
+	public void shouldReportEmptyHistogram() {
+
+		assertThat(histogram.getCount()).isZero();
+		assertThat(histogram.getMean(TimeUnit.MILLISECONDS)).isZero();
+		assertThat(histogram.getPercentile(0.99, TimeUnit.MILLISECONDS)).isZero();
+	}
+
+	@Test
+	public void shouldReportPercentilesWithinPrecision() {
+
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+		}
+
+		assertThat(histogram.getCount()).isEqualTo(1000);
+		assertThat(histogram.getMax(TimeUnit.MICROSECONDS)).isEqualTo(1000);
+		assertThat(histogram.getMean(TimeUnit.MICROSECONDS)).isCloseTo(500.5,
+				offset(0.01));
+		assertThat(histogram.getTotalTime(TimeUnit.MICROSECONDS)).isEqualTo(500500);
+
+		assertThat((double) histogram.getPercentile(0.5, TimeUnit.MICROSECONDS))
+				.isCloseTo(500, offset(500 * 0.07));
+		assertThat((double) histogram.getPercentile(0.99, TimeUnit.MICROSECONDS))
+				.isCloseTo(990, offset(990 * 0.07));
+		assertThat(histogram.getPercentile(1, TimeUnit.MICROSECONDS)).isEqualTo(1000);
+	}
+
+	@Test
+	public void shouldRecordNegativeValuesAsZero() {
+
+		histogram.record(-5);
+
+		assertThat(histogram.getCount()).isEqualTo(1);
+		assertThat(histogram.getMax(TimeUnit.NANOSECONDS)).isZero();
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link PathTemplates}.
+ *
+ * @author Mark Paluch
+ */
+public class PathTemplatesUnitTests {
+
+	@Test
+	public void shouldNormalizeKnownEndpoints() {
+
+		assertThat(PathTemplates.normalize("/v1/sys/health")).isEqualTo("sys/health");
+		assertThat(PathTemplates.normalize("/v1/sys/renew/mysql/creds/readonly/1234"))
+				.isEqualTo("sys/renew/{leaseId}");
+		assertThat(PathTemplates.normalize("/v1/transit/encrypt/my-key")).isEqualTo(
+				"transit/encrypt/{key}");
+		assertThat(PathTemplates.normalize("/v1/pki/issue/web")).isEqualTo(
+				"pki/issue/{role}");
+		assertThat(PathTemplates.normalize("/v1/auth/token/renew-self")).isEqualTo(
+				"auth/token/renew-self");
+	}
+
+	@Test
+	public void shouldNormalizeLogins() {
+
+		assertThat(PathTemplates.normalize("/v1/auth/approle/login")).isEqualTo(
+				"auth/{mount}/login");
+		assertThat(PathTemplates.normalize("/v1/auth/userpass/login/walter"))
+				.isEqualTo("auth/{mount}/login");
+	}
+
+	@Test
+	public void shouldNormalizeUnknownPathsToMount() {
+
+		String template = PathTemplates.normalize("/v1/secret/my/application");
+
+		assertThat(template).isEqualTo("secret/{path}");
+		assertThat(PathTemplates.normalize("secret/other")).isSameAs(template);
+		assertThat(PathTemplates.normalize("/v1/secrets/other")).isEqualTo(
+				"secrets/{path}");
+	}
+
+	@Test
+	public void shouldNormalizeEmptyPath() {
+
+		assertThat(PathTemplates.normalize("/v1/")).isEqualTo(PathTemplates.UNKNOWN);
+		assertThat(PathTemplates.normalize(null)).isEqualTo(PathTemplates.UNKNOWN);
+	}
+}
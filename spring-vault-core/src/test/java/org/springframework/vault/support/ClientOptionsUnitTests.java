@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link ClientOptions}.
+ *
+ * @author Mark Paluch
+ */
+public class ClientOptionsUnitTests {
+
+	@Test
+	public void shouldApplyPoolDefaults() {
+
+		ClientOptions options = new ClientOptions(1000, 2000);
+
+		assertThat(options.getConnectionTimeout()).isEqualTo(1000);
+		assertThat(options.getReadTimeout()).isEqualTo(2000);
+		assertThat(options.getMaxConnections()).isEqualTo(100);
+		assertThat(options.getMaxConnectionsPerRoute()).isEqualTo(50);
+		assertThat(options.getIdleTimeout()).isEqualTo(30000);
+		assertThat(options.getConnectionTimeToLive()).isZero();
+		assertThat(options.getValidateAfterInactivity()).isEqualTo(2000);
+		assertThat(options.getPrewarmConnections()).isZero();
+	}
+
+	@Test
+	public void shouldBuildClientOptions() {
+
+		ClientOptions options = ClientOptions.builder()
+				.connectionTimeout(1, TimeUnit.SECONDS)
+				.readTimeout(3, TimeUnit.SECONDS).maxConnections(10)
+				.maxConnectionsPerRoute(5).idleTimeout(1, TimeUnit.MINUTES)
+				.connectionTimeToLive(5, TimeUnit.MINUTES)
+				.validateAfterInactivity(0, TimeUnit.SECONDS).prewarmConnections(4)
+				.build();
+
+		assertThat(options.getConnectionTimeout()).isEqualTo(1000);
+		assertThat(options.getReadTimeout()).isEqualTo(3000);
+		assertThat(options.getMaxConnections()).isEqualTo(10);
+		assertThat(options.getMaxConnectionsPerRoute()).isEqualTo(5);
+		assertThat(options.getIdleTimeout()).isEqualTo(60000);
+		assertThat(options.getConnectionTimeToLive()).isEqualTo(300000);
+		assertThat(options.getValidateAfterInactivity()).isZero();
+		assertThat(options.getPrewarmConnections()).isEqualTo(4);
+	}
+
+	@Test
+	public void mutateShouldRetainSettings() {
+
+		ClientOptions options = ClientOptions.builder()
+				.connectionTimeout(1, TimeUnit.SECONDS).maxConnections(10)
+				.maxConnectionsPerRoute(5).maxAttempts(3)
+				.circuitBreaker(4, 10, TimeUnit.SECONDS).build();
+
+		ClientOptions mutated = options.mutate().unixSocket("/var/run/vault.sock")
+				.build();
+
+		assertThat(mutated.getConnectionTimeout()).isEqualTo(1000);
+		assertThat(mutated.getReadTimeout()).isEqualTo(options.getReadTimeout());
+		assertThat(mutated.getMaxConnections()).isEqualTo(10);
+		assertThat(mutated.getMaxConnectionsPerRoute()).isEqualTo(5);
+		assertThat(mutated.getMaxAttempts()).isEqualTo(3);
+		assertThat(mutated.getCircuitBreakerFailureThreshold()).isEqualTo(4);
+		assertThat(mutated.getCircuitBreakerOpenDuration()).isEqualTo(10000);
+		assertThat(mutated.getUnixSocketPath()).isEqualTo("/var/run/vault.sock");
+		assertThat(options.getUnixSocketPath()).isNull();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectPerRouteLimitExceedingTotal() {
+		ClientOptions.builder().maxConnections(5).maxConnectionsPerRoute(10).build();
+	}
+}
@@ -0,0 +1,697 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+import org.springframework.vault.client.VaultEndpoint;
+import org.springframework.vault.client.VaultHttpHeaders;
+
+/**
+ * Lightweight in-process HTTP server emulating the Vault endpoints used by Spring Vault.
+ * Intended for load, soak and integration tests that cannot rely on a Vault server.
+ * <p>
+ * Emulated endpoints:
+ * <ul>
+ * <li>Generic secret backend: read, write, list and delete on any path not listed
+ * below.</li>
+ * <li>Dynamic secrets: reads of paths containing {@code /creds/} issue a new lease.</li>
+ * <li>{@code sys/health}, {@code sys/renew/{leaseId}}, {@code sys/revoke/{leaseId}}.
+ * </li>
+ * <li>{@code auth/token/create}, {@code lookup-self}, {@code renew-self},
+ * {@code revoke-self}.</li>
+ * <li>{@code transit/encrypt/{key}}, {@code decrypt/{key}}, {@code rewrap/{key}}.
+ * Ciphertext is not encrypted but carries the Base64 encoded plaintext.</li>
+ * <li>{@code pki/issue/{role}} returning a static certificate bundle.</li>
+ * </ul>
+ * Requests except {@code sys/health} require a valid {@code X-Vault-Token}. Latency,
+ * error injection and lease durations are configurable and can be changed while the
+ * server is running.
+ *
+ * @author Mark Paluch
+ */
+public class EmbeddedVaultServer {
+
+	private static final String API_PREFIX = "/v1/";
+
+	private static final String CIPHERTEXT_PREFIX = "vault:v1:";
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	static {
+		// avoid Nagle/delayed ACK stalls between response headers and body
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	private final Map<String, byte[]> secrets = new ConcurrentHashMap<String, byte[]>();
+
+	private final ConcurrentMap<String, Long> leases = new ConcurrentHashMap<String, Long>();
+
+	private final ConcurrentMap<String, Boolean> tokens = new ConcurrentHashMap<String, Boolean>();
+
+	private final Map<String, Integer> injectedErrors = new ConcurrentHashMap<String, Integer>();
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong renewals = new AtomicLong();
+
+	private final AtomicLong revocations = new AtomicLong();
+
+	private final Random random = new Random();
+
+	private final String rootToken;
+
+	private volatile long latencyMillis;
+
+	private volatile long latencyJitterMillis;
+
+	private volatile double errorRate;
+
+	private volatile int leaseDurationSeconds = 3600;
+
+	private volatile boolean renewable = true;
+
+	private volatile int healthStatus = 200;
+
+	private int threads = 32;
+
+	private HttpServer server;
+
+	private ExecutorService executor;
+
+	/**
+	 * Create a new {@link EmbeddedVaultServer} accepting the {@code root} token.
+	 */
+	public EmbeddedVaultServer() {
+		this("root");
+	}
+
+	/**
+	 * Create a new {@link EmbeddedVaultServer}.
+	 *
+	 * @param rootToken the initial token accepted by the server.
+	 */
+	public EmbeddedVaultServer(String rootToken) {
+
+		Assert.hasText(rootToken, "Root token must not be empty");
+
+		this.rootToken = rootToken;
+		this.tokens.put(rootToken, Boolean.TRUE);
+	}
+
+	/**
+	 * Start the server on an ephemeral port.
+	 *
+	 * @return {@literal this} server.
+	 */
+	public EmbeddedVaultServer start() throws IOException {
+
+		Assert.state(server == null, "Server is already started");
+
+		executor = Executors.newFixedThreadPool(threads);
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+		server.setExecutor(executor);
+		server.createContext(API_PREFIX, new HttpHandler() {
+
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+
+				try {
+					EmbeddedVaultServer.this.handle(exchange);
+				}
+				catch (RuntimeException e) {
+					respond(exchange, 500, error(e.toString()));
+				}
+				finally {
+					exchange.close();
+				}
+			}
+		});
+		server.start();
+
+		return this;
+	}
+
+	/**
+	 * Stop the server.
+	 */
+	public void stop() {
+
+		if (server != null) {
+
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+		}
+	}
+
+	/**
+	 * @return the {@link VaultEndpoint} of the running server.
+	 */
+	public VaultEndpoint getEndpoint() {
+
+		Assert.state(server != null, "Server is not started");
+
+		VaultEndpoint endpoint = VaultEndpoint.create("localhost", server.getAddress()
+				.getPort());
+		endpoint.setScheme("http");
+
+		return endpoint;
+	}
+
+	/**
+	 * @return the initial token accepted by the server.
+	 */
+	public String getRootToken() {
+		return rootToken;
+	}
+
+	/**
+	 * Set the number of request processing threads. Must be called before
+	 * {@link #start()}. Defaults to {@literal 32}.
+	 *
+	 * @param threads must be greater {@literal 0}.
+	 */
+	public void setThreads(int threads) {
+
+		Assert.isTrue(threads > 0, "Threads must be greater 0");
+
+		this.threads = threads;
+	}
+
+	/**
+	 * Delay each response by {@code latency} plus a random jitter up to
+	 * {@code jitter}.
+	 *
+	 * @param latency fixed latency.
+	 * @param jitter maximum additional random latency.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setLatency(long latency, long jitter, TimeUnit unit) {
+
+		Assert.isTrue(latency >= 0 && jitter >= 0, "Latency must not be negative");
+
+		this.latencyMillis = unit.toMillis(latency);
+		this.latencyJitterMillis = unit.toMillis(jitter);
+	}
+
+	/**
+	 * Answer a random fraction of requests with {@code 500 Internal Server Error}.
+	 *
+	 * @param errorRate fraction between {@literal 0} and {@literal 1}.
+	 */
+	public void setErrorRate(double errorRate) {
+
+		Assert.isTrue(errorRate >= 0 && errorRate <= 1,
+				"Error rate must be between 0 and 1");
+
+		this.errorRate = errorRate;
+	}
+
+	/**
+	 * Set the status of {@code sys/health} responses. Vault uses {@literal 200} for the
+	 * active node, {@literal 429} for standby, {@literal 473} for performance standby,
+	 * {@literal 501} for uninitialized and {@literal 503} for sealed nodes. The response
+	 * body reflects the status. Defaults to {@literal 200}.
+	 *
+	 * @param healthStatus the HTTP status.
+	 */
+	public void setHealthStatus(int healthStatus) {
+		this.healthStatus = healthStatus;
+	}
+
+	/**
+	 * Answer all requests to paths starting with {@code pathPrefix} with {@code status}.
+	 *
+	 * @param pathPrefix path prefix without {@code /v1/}.
+	 * @param status the HTTP status, {@literal 0} removes the injected error.
+	 */
+	public void injectError(String pathPrefix, int status) {
+
+		if (status == 0) {
+			injectedErrors.remove(pathPrefix);
+		}
+		else {
+			injectedErrors.put(pathPrefix, status);
+		}
+	}
+
+	/**
+	 * Set the duration of issued and renewed leases. Defaults to {@literal 3600}
+	 * seconds.
+	 *
+	 * @param leaseDuration the lease duration.
+	 * @param unit must not be {@literal null}.
+	 */
+	public void setLeaseDuration(long leaseDuration, TimeUnit unit) {
+		this.leaseDurationSeconds = (int) unit.toSeconds(leaseDuration);
+	}
+
+	/**
+	 * Set whether issued leases are renewable. Defaults to {@literal true}.
+	 *
+	 * @param renewable
+	 */
+	public void setRenewable(boolean renewable) {
+		this.renewable = renewable;
+	}
+
+	/**
+	 * @return the total number of requests received.
+	 */
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	/**
+	 * @return the number of successful lease renewals.
+	 */
+	public long getRenewalCount() {
+		return renewals.get();
+	}
+
+	/**
+	 * @return the number of revoked leases.
+	 */
+	public long getRevocationCount() {
+		return revocations.get();
+	}
+
+	/**
+	 * @return the number of leases that were issued and not revoked.
+	 */
+	public int getLeaseCount() {
+		return leases.size();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+
+		requests.incrementAndGet();
+
+		String path = exchange.getRequestURI().getPath()
+				.substring(API_PREFIX.length());
+		String method = exchange.getRequestMethod();
+		byte[] body = read(exchange.getRequestBody());
+
+		delay();
+
+		Integer injected = getInjectedError(path);
+
+		if (injected != null) {
+			respond(exchange, injected, error("injected error"));
+			return;
+		}
+
+		if (errorRate > 0 && nextDouble() < errorRate) {
+			respond(exchange, 500, error("injected error"));
+			return;
+		}
+
+		if (path.equals("sys/health")) {
+			respond(exchange, healthStatus, health(healthStatus));
+			return;
+		}
+
+		String token = exchange.getRequestHeaders().getFirst(
+				VaultHttpHeaders.VAULT_TOKEN);
+
+		if (token == null || !tokens.containsKey(token)) {
+			respond(exchange, 403, error("permission denied"));
+			return;
+		}
+
+		if (path.startsWith("sys/renew/")) {
+			renew(exchange, path.substring("sys/renew/".length()));
+			return;
+		}
+
+		if (path.startsWith("sys/revoke/")) {
+
+			if (leases.remove(path.substring("sys/revoke/".length())) != null) {
+				revocations.incrementAndGet();
+			}
+
+			respond(exchange, 204, null);
+			return;
+		}
+
+		if (path.startsWith("auth/token/")) {
+			token(exchange, path.substring("auth/token/".length()), token);
+			return;
+		}
+
+		if (path.startsWith("transit/")) {
+			transit(exchange, path.substring("transit/".length()), body);
+			return;
+		}
+
+		if (path.startsWith("pki/issue/")) {
+			respond(exchange, 200, certificate());
+			return;
+		}
+
+		if ("GET".equals(method) && path.contains("/creds/")) {
+			respond(exchange, 200, issueCredentials(path));
+			return;
+		}
+
+		generic(exchange, path, method, body);
+	}
+
+	private void renew(HttpExchange exchange, String leaseId) throws IOException {
+
+		Long expiry = leases.get(leaseId);
+
+		if (expiry == null || expiry < System.currentTimeMillis() || !renewable) {
+			respond(exchange, 400, error("lease not found or lease is not renewable"));
+			return;
+		}
+
+		int leaseDuration = leaseDurationSeconds;
+		leases.put(leaseId, expiryOf(leaseDuration));
+		renewals.incrementAndGet();
+
+		Map<String, Object> response = new LinkedHashMap<String, Object>();
+		response.put("lease_id", leaseId);
+		response.put("renewable", true);
+		response.put("lease_duration", leaseDuration);
+
+		respond(exchange, 200, response);
+	}
+
+	private void token(HttpExchange exchange, String operation, String token)
+			throws IOException {
+
+		if (operation.equals("create")) {
+
+			String newToken = UUID.randomUUID().toString();
+			tokens.put(newToken, Boolean.TRUE);
+
+			respond(exchange, 200, auth(newToken));
+			return;
+		}
+
+		if (operation.equals("renew-self")) {
+			respond(exchange, 200, auth(token));
+			return;
+		}
+
+		if (operation.equals("revoke-self")) {
+
+			if (!token.equals(rootToken)) {
+				tokens.remove(token);
+			}
+
+			respond(exchange, 204, null);
+			return;
+		}
+
+		if (operation.equals("lookup-self")) {
+
+			Map<String, Object> data = new LinkedHashMap<String, Object>();
+			data.put("id", token);
+			data.put("policies", Collections.singletonList("root"));
+			data.put("renewable", !token.equals(rootToken));
+			data.put("ttl", token.equals(rootToken) ? 0 : leaseDurationSeconds);
+
+			respond(exchange, 200, Collections.singletonMap("data", data));
+			return;
+		}
+
+		respond(exchange, 404, error("unsupported path"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void transit(HttpExchange exchange, String operation, byte[] body)
+			throws IOException {
+
+		Map<String, Object> request = body.length == 0 ? Collections
+				.<String, Object> emptyMap() : OBJECT_MAPPER.readValue(body, Map.class);
+		Map<String, Object> data = new LinkedHashMap<String, Object>();
+
+		if (operation.startsWith("encrypt/")) {
+			data.put("ciphertext", CIPHERTEXT_PREFIX + request.get("plaintext"));
+		}
+		else if (operation.startsWith("decrypt/") || operation.startsWith("rewrap/")) {
+
+			String ciphertext = (String) request.get("ciphertext");
+
+			if (ciphertext == null || !ciphertext.startsWith(CIPHERTEXT_PREFIX)) {
+				respond(exchange, 400, error("invalid ciphertext"));
+				return;
+			}
+
+			if (operation.startsWith("decrypt/")) {
+				data.put("plaintext", ciphertext.substring(CIPHERTEXT_PREFIX.length()));
+			}
+			else {
+				data.put("ciphertext", ciphertext);
+			}
+		}
+		else {
+			respond(exchange, 204, null);
+			return;
+		}
+
+		respond(exchange, 200, Collections.singletonMap("data", data));
+	}
+
+	private void generic(HttpExchange exchange, String path, String method, byte[] body)
+			throws IOException {
+
+		if ("GET".equals(method)) {
+
+			String query = exchange.getRequestURI().getQuery();
+
+			if (query != null && query.contains("list=true")) {
+				list(exchange, path);
+				return;
+			}
+
+			byte[] secret = secrets.get(path);
+
+			if (secret == null) {
+				respond(exchange, 404, error());
+				return;
+			}
+
+			Map<String, Object> response = new LinkedHashMap<String, Object>();
+			response.put("lease_id", "");
+			response.put("renewable", false);
+			response.put("lease_duration", 2764800);
+			response.put("data", OBJECT_MAPPER.readValue(secret, Map.class));
+
+			respond(exchange, 200, response);
+			return;
+		}
+
+		if ("DELETE".equals(method)) {
+			secrets.remove(path);
+		}
+		else {
+			secrets.put(path, body.length == 0 ? "{}".getBytes("UTF-8") : body);
+		}
+
+		respond(exchange, 204, null);
+	}
+
+	private void list(HttpExchange exchange, String path) throws IOException {
+
+		String prefix = path.endsWith("/") ? path : path + "/";
+		List<String> keys = new ArrayList<String>();
+
+		for (String key : secrets.keySet()) {
+
+			if (!key.startsWith(prefix)) {
+				continue;
+			}
+
+			String child = key.substring(prefix.length());
+			int slash = child.indexOf('/');
+			String entry = slash == -1 ? child : child.substring(0, slash + 1);
+
+			if (!keys.contains(entry)) {
+				keys.add(entry);
+			}
+		}
+
+		if (keys.isEmpty()) {
+			respond(exchange, 404, error());
+			return;
+		}
+
+		Collections.sort(keys);
+		respond(exchange, 200, Collections.singletonMap("data",
+				Collections.singletonMap("keys", keys)));
+	}
+
+	private Map<String, Object> issueCredentials(String path) {
+
+		String leaseId = path + "/" + UUID.randomUUID();
+		int leaseDuration = leaseDurationSeconds;
+
+		leases.put(leaseId, expiryOf(leaseDuration));
+
+		Map<String, Object> data = new LinkedHashMap<String, Object>();
+		data.put("username", "v-" + Long.toHexString(nextLong()));
+		data.put("password", UUID.randomUUID().toString());
+
+		Map<String, Object> response = new LinkedHashMap<String, Object>();
+		response.put("lease_id", leaseId);
+		response.put("renewable", renewable);
+		response.put("lease_duration", leaseDuration);
+		response.put("data", data);
+
+		return response;
+	}
+
+	private Map<String, Object> auth(String token) {
+
+		Map<String, Object> auth = new LinkedHashMap<String, Object>();
+		auth.put("client_token", token);
+		auth.put("accessor", UUID.randomUUID().toString());
+		auth.put("policies", Collections.singletonList("root"));
+		auth.put("lease_duration", leaseDurationSeconds);
+		auth.put("renewable", true);
+
+		return Collections.<String, Object> singletonMap("auth", auth);
+	}
+
+	private static Map<String, Object> health(int status) {
+
+		Map<String, Object> health = new LinkedHashMap<String, Object>();
+		health.put("initialized", status != 501);
+		health.put("sealed", status == 503);
+		health.put("standby", status == 429 || status == 473);
+		health.put("performance_standby", status == 473);
+		health.put("server_time_utc", System.currentTimeMillis() / 1000);
+		health.put("version", "0.8.0");
+
+		return health;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> certificate() throws IOException {
+
+		InputStream inputStream = EmbeddedVaultServer.class
+				.getResourceAsStream("/certificate.json");
+
+		try {
+			return Collections.<String, Object> singletonMap("data",
+					OBJECT_MAPPER.readValue(inputStream, Map.class));
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+
+	private Integer getInjectedError(String path) {
+
+		for (Entry<String, Integer> entry : injectedErrors.entrySet()) {
+			if (path.startsWith(entry.getKey())) {
+				return entry.getValue();
+			}
+		}
+
+		return null;
+	}
+
+	private void delay() {
+
+		long delay = latencyMillis;
+
+		if (latencyJitterMillis > 0) {
+			delay += (long) (nextDouble() * latencyJitterMillis);
+		}
+
+		if (delay > 0) {
+			try {
+				Thread.sleep(delay);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private double nextDouble() {
+
+		synchronized (random) {
+			return random.nextDouble();
+		}
+	}
+
+	private long nextLong() {
+
+		synchronized (random) {
+			return random.nextLong();
+		}
+	}
+
+	private static long expiryOf(int leaseDurationSeconds) {
+		return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseDurationSeconds);
+	}
+
+	private static Map<String, Object> error(String... errors) {
+		return Collections.<String, Object> singletonMap("errors", errors);
+	}
+
+	private static byte[] read(InputStream inputStream) throws IOException {
+		return StreamUtils.copyToByteArray(inputStream);
+	}
+
+	private static void respond(HttpExchange exchange, int status, Object body)
+			throws IOException {
+
+		if (body == null) {
+			exchange.sendResponseHeaders(status, -1);
+			return;
+		}
+
+		byte[] bytes = OBJECT_MAPPER.writeValueAsBytes(body);
+
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+
+		OutputStream os = exchange.getResponseBody();
+		os.write(bytes);
+		os.close();
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.vault.VaultException;
+import org.springframework.vault.authentication.TokenAuthentication;
+import org.springframework.vault.core.VaultTemplate;
+import org.springframework.vault.core.lease.SecretLeaseContainer;
+import org.springframework.vault.core.lease.domain.RequestedSecret;
+import org.springframework.vault.core.lease.event.LeaseListenerAdapter;
+import org.springframework.vault.core.lease.event.SecretLeaseCreatedEvent;
+import org.springframework.vault.core.lease.event.SecretLeaseEvent;
+import org.springframework.vault.support.VaultCertificateRequest;
+import org.springframework.vault.support.VaultResponse;
+import org.springframework.vault.support.VaultTokenResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Unit tests for {@link EmbeddedVaultServer}.
+ *
+ * @author Mark Paluch
+ */
+public class EmbeddedVaultServerUnitTests {
+
+	private EmbeddedVaultServer server;
+
+	private VaultTemplate vaultTemplate;
+
+	@Before
+	public void before() throws Exception {
+
+		server = new EmbeddedVaultServer().start();
+		vaultTemplate = new VaultTemplate(server.getEndpoint(), new TokenAuthentication(
+				server.getRootToken()));
+	}
+
+	@After
+	public void after() throws Exception {
+
+		vaultTemplate.destroy();
+		server.stop();
+	}
+
+	@Test
+	public void shouldReadWriteListAndDeleteSecrets() {
+
+		vaultTemplate.write("secret/app/db", Collections.singletonMap("password", "foo"));
+		vaultTemplate.write("secret/app/nested/key", Collections.singletonMap("key", "bar"));
+
+		VaultResponse response = vaultTemplate.read("secret/app/db");
+
+		assertThat(response.getData()).containsEntry("password", "foo");
+		assertThat(vaultTemplate.list("secret/app")).containsExactly("db", "nested/");
+
+		vaultTemplate.delete("secret/app/db");
+
+		assertThat(vaultTemplate.read("secret/app/db")).isNull();
+	}
+
+	@Test
+	public void shouldRoundTripTransitOperations() {
+
+		String ciphertext = vaultTemplate.opsForTransit().encrypt("my-key", "hello");
+		String rewrapped = vaultTemplate.opsForTransit().rewrap("my-key", ciphertext);
+
+		assertThat(ciphertext).startsWith("vault:v1:");
+		assertThat(vaultTemplate.opsForTransit().decrypt("my-key", rewrapped))
+				.isEqualTo("hello");
+	}
+
+	@Test
+	public void shouldIssueTokensAndCertificates() {
+
+		VaultTokenResponse tokenResponse = vaultTemplate.opsForToken().create();
+
+		VaultTemplate template = new VaultTemplate(server.getEndpoint(),
+				new TokenAuthentication(tokenResponse.getToken()));
+
+		assertThat(template.opsForPki().issueCertificate("my-role",
+				VaultCertificateRequest.create("hello.example.com")).getData())
+				.isNotNull();
+		assertThat(vaultTemplate.opsForSys().health().isSealed()).isFalse();
+	}
+
+	@Test
+	public void shouldRejectUnknownToken() {
+
+		VaultTemplate template = new VaultTemplate(server.getEndpoint(),
+				new TokenAuthentication("unknown"));
+
+		try {
+			template.read("secret/foo");
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).hasMessageContaining("permission denied");
+		}
+	}
+
+	@Test
+	public void shouldInjectErrors() {
+
+		server.injectError("secret/broken", 503);
+
+		try {
+			vaultTemplate.read("secret/broken");
+			fail("Missing VaultException");
+		}
+		catch (VaultException e) {
+			assertThat(e).hasMessageContaining("503");
+		}
+
+		server.injectError("secret/broken", 0);
+
+		assertThat(vaultTemplate.read("secret/broken")).isNull();
+	}
+
+	@Test
+	public void shouldApplyLatency() {
+
+		server.setLatency(50, 0, TimeUnit.MILLISECONDS);
+
+		long start = System.nanoTime();
+		vaultTemplate.read("secret/foo");
+
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+				.isGreaterThanOrEqualTo(50);
+	}
+
+	@Test
+	public void shouldRenewAndRevokeLeases() throws Exception {
+
+		server.setLeaseDuration(2, TimeUnit.SECONDS);
+
+		final Map<String, Object> credentials = new ConcurrentHashMap<String, Object>();
+
+		SecretLeaseContainer container = new SecretLeaseContainer(vaultTemplate);
+		container.setExpiryThresholdSeconds(1);
+		container.setMinRenewalSeconds(1);
+		container.addLeaseListener(new LeaseListenerAdapter() {
+
+			@Override
+			public void onLeaseEvent(SecretLeaseEvent leaseEvent) {
+
+				if (leaseEvent instanceof SecretLeaseCreatedEvent) {
+					credentials.putAll(((SecretLeaseCreatedEvent) leaseEvent)
+							.getSecrets());
+				}
+			}
+		});
+		container.addRequestedSecret(RequestedSecret
+				.renewable("database/creds/readonly"));
+		container.afterPropertiesSet();
+		container.start();
+
+		assertThat(credentials).containsKeys("username", "password");
+		assertThat(server.getLeaseCount()).isEqualTo(1);
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (server.getRenewalCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+
+		assertThat(server.getRenewalCount()).isGreaterThan(0);
+
+		container.destroy();
+
+		assertThat(server.getRevocationCount()).isEqualTo(1);
+		assertThat(server.getLeaseCount()).isZero();
+	}
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.vault.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.vault.client.VaultEndpoint;
+
+/**
+ * Relays connections accepted on a Unix domain socket to a TCP {@link VaultEndpoint},
+ * typically an {@link EmbeddedVaultServer}. Stands in for a Vault agent listening on a
+ * socket. Requires Netty's native epoll transport.
+ *
+ * @author Mark Paluch
+ */
+public class UnixDomainSocketRelay {
+
+	private final File socketFile;
+
+	private final VaultEndpoint target;
+
+	private EpollEventLoopGroup eventLoopGroup;
+
+	private Channel serverChannel;
+
+	/**
+	 * Create a new {@link UnixDomainSocketRelay}.
+	 *
+	 * @param socketFile the socket file to create, must not be {@literal null}.
+	 * @param target the TCP endpoint to relay to, must not be {@literal null}.
+	 */
+	public UnixDomainSocketRelay(File socketFile, VaultEndpoint target) {
+
+		Assert.notNull(socketFile, "Socket file must not be null");
+		Assert.notNull(target, "Target VaultEndpoint must not be null");
+
+		this.socketFile = socketFile;
+		this.target = target;
+	}
+
+	/**
+	 * @return {@literal true} if Unix domain sockets are supported on this platform.
+	 */
+	public static boolean isAvailable() {
+		return Epoll.isAvailable();
+	}
+
+	/**
+	 * Start listening on the socket file.
+	 *
+	 * @return {@code this} {@link UnixDomainSocketRelay}.
+	 */
+	public UnixDomainSocketRelay start() throws IOException {
+
+		Assert.state(serverChannel == null, "Relay already started");
+
+		if (socketFile.exists() && !socketFile.delete()) {
+			throw new IOException(String.format("Cannot delete %s", socketFile));
+		}
+
+		eventLoopGroup = new EpollEventLoopGroup(2, new DefaultThreadFactory(
+				"uds-relay", true));
+
+		serverChannel = new ServerBootstrap().group(eventLoopGroup)
+				.channel(EpollServerDomainSocketChannel.class)
+				.childOption(ChannelOption.AUTO_READ, false)
+				.childHandler(new ChannelInitializer<Channel>() {
+
+					@Override
+					protected void initChannel(Channel channel) {
+						channel.pipeline().addLast(new FrontendHandler());
+					}
+				}).bind(new DomainSocketAddress(socketFile)).syncUninterruptibly()
+				.channel();
+
+		return this;
+	}
+
+	/**
+	 * Stop the relay and delete the socket file.
+	 */
+	public void stop() {
+
+		if (serverChannel != null) {
+			serverChannel.close().syncUninterruptibly();
+			eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+			serverChannel = null;
+		}
+
+		socketFile.delete();
+	}
+
+	/**
+	 * @return a {@link VaultEndpoint} describing the socket.
+	 */
+	public VaultEndpoint getEndpoint() {
+		return VaultEndpoint.unixSocket(socketFile.getAbsolutePath());
+	}
+
+	/**
+	 * @return the socket file path.
+	 */
+	public String getSocketPath() {
+		return socketFile.getAbsolutePath();
+	}
+
+	private static void closeOnFlush(Channel channel) {
+		if (channel.isActive()) {
+			channel.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(
+					ChannelFutureListener.CLOSE);
+		}
+	}
+
+	class FrontendHandler extends ChannelInboundHandlerAdapter {
+
+		private Channel backend;
+
+		@Override
+		public void channelActive(ChannelHandlerContext ctx) {
+
+			final Channel frontend = ctx.channel();
+
+			ChannelFuture connect = new Bootstrap().group(frontend.eventLoop())
+					.channel(EpollSocketChannel.class)
+					.option(ChannelOption.TCP_NODELAY, true)
+					.handler(new BackendHandler(frontend))
+					.connect(new InetSocketAddress(target.getHost(), target.getPort()));
+
+			backend = connect.channel();
+			connect.addListener(new ChannelFutureListener() {
+
+				@Override
+				public void operationComplete(ChannelFuture future) {
+
+					if (future.isSuccess()) {
+						frontend.read();
+					}
+					else {
+						frontend.close();
+					}
+				}
+			});
+		}
+
+		@Override
+		public void channelRead(final ChannelHandlerContext ctx, Object msg) {
+
+			backend.writeAndFlush(msg).addListener(new ChannelFutureListener() {
+
+				@Override
+				public void operationComplete(ChannelFuture future) {
+
+					if (future.isSuccess()) {
+						ctx.channel().read();
+					}
+					else {
+						future.channel().close();
+					}
+				}
+			});
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) {
+			if (backend != null) {
+				closeOnFlush(backend);
+			}
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+			closeOnFlush(ctx.channel());
+		}
+	}
+
+	static class BackendHandler extends ChannelInboundHandlerAdapter {
+
+		private final Channel frontend;
+
+		BackendHandler(Channel frontend) {
+			this.frontend = frontend;
+		}
+
+		@Override
+		public void channelRead(ChannelHandlerContext ctx, Object msg) {
+			frontend.writeAndFlush(msg);
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) {
+			closeOnFlush(frontend);
+		}
+
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+			closeOnFlush(ctx.channel());
+		}
+	}
+}